@@ -704,7 +704,7 @@ void protobuf_AddDesc_UserBitShared_2eproto() {
     "\005*\207\001\n\rFragmentState\022\013\n\007SENDING\020\000\022\027\n\023AWAI"
     "TING_ALLOCATION\020\001\022\013\n\007RUNNING\020\002\022\014\n\010FINISH"
     "ED\020\003\022\r\n\tCANCELLED\020\004\022\n\n\006FAILED\020\005\022\032\n\026CANCE"
-    "LLATION_REQUESTED\020\006*\335\005\n\020CoreOperatorType"
+    "LLATION_REQUESTED\020\006*\352\005\n\020CoreOperatorType"
     "\022\021\n\rSINGLE_SENDER\020\000\022\024\n\020BROADCAST_SENDER\020"
     "\001\022\n\n\006FILTER\020\002\022\022\n\016HASH_AGGREGATE\020\003\022\r\n\tHAS"
     "H_JOIN\020\004\022\016\n\nMERGE_JOIN\020\005\022\031\n\025HASH_PARTITI"
@@ -722,9 +722,10 @@ void protobuf_AddDesc_UserBitShared_2eproto() {
     "N_SUB_SCAN\020\035\022\030\n\024INFO_SCHEMA_SUB_SCAN\020\036\022\023"
     "\n\017COMPLEX_TO_JSON\020\037\022\025\n\021PRODUCER_CONSUMER"
     "\020 \022\022\n\016HBASE_SUB_SCAN\020!\022\n\n\006WINDOW\020\"\022\024\n\020NE"
-    "STED_LOOP_JOIN\020#\022\021\n\rAVRO_SUB_SCAN\020$B.\n\033o"
+    "STED_LOOP_JOIN\020#\022\021\n\rAVRO_SUB_SCAN\020$\022\013\n\007FLA"
+    "TTEN\020%B.\n\033o"
     "rg.apache.drill.exec.protoB\rUserBitShare"
-    "dH\001", 4563);
+    "dH\001", 4576);
   ::google::protobuf::MessageFactory::InternalRegisterGeneratedFile(
     "UserBitShared.proto", &protobuf_RegisterTypes);
   UserCredentials::default_instance_ = new UserCredentials();
@@ -876,6 +877,7 @@ bool CoreOperatorType_IsValid(int value) {
     case 34:
     case 35:
     case 36:
+    case 37:
       return true;
     default:
       return false;
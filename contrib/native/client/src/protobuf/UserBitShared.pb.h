@@ -234,11 +234,12 @@ enum CoreOperatorType {
   HBASE_SUB_SCAN = 33,
   WINDOW = 34,
   NESTED_LOOP_JOIN = 35,
-  AVRO_SUB_SCAN = 36
+  AVRO_SUB_SCAN = 36,
+  FLATTEN = 37
 };
 bool CoreOperatorType_IsValid(int value);
 const CoreOperatorType CoreOperatorType_MIN = SINGLE_SENDER;
-const CoreOperatorType CoreOperatorType_MAX = AVRO_SUB_SCAN;
+const CoreOperatorType CoreOperatorType_MAX = FLATTEN;
 const int CoreOperatorType_ARRAYSIZE = CoreOperatorType_MAX + 1;
 
 const ::google::protobuf::EnumDescriptor* CoreOperatorType_descriptor();
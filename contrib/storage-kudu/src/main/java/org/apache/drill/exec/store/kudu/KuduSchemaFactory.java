@@ -114,6 +114,11 @@ public class KuduSchemaFactory implements SchemaFactory {
           return Collections.emptyList();
         }
 
+        @Override
+        public boolean supportsBufferedPartitioning() {
+          return false;
+        }
+
       };
     }
 
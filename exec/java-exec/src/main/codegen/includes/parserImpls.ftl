@@ -261,6 +261,49 @@ SqlNode SqlDropTable() :
     }
 }
 
+/**
+ * Parses a create materialized view statement.
+ * CREATE MATERIALIZED VIEW view_name [ (field1, field2, ...) ] AS select_statement
+ */
+SqlNode SqlCreateMaterializedView() :
+{
+    SqlParserPos pos;
+    SqlIdentifier viewName;
+    SqlNodeList fieldList;
+    SqlNode query;
+}
+{
+    <CREATE> { pos = getPos(); }
+    <MATERIALIZED>
+    <VIEW>
+    viewName = CompoundIdentifier()
+    fieldList = ParseOptionalFieldList("Materialized view")
+    <AS>
+    query = OrderedQueryOrExpr(ExprContext.ACCEPT_QUERY)
+    {
+        return new SqlCreateMaterializedView(pos, viewName, fieldList, query);
+    }
+}
+
+/**
+ * Parses a drop materialized view or drop materialized view if exists statement.
+ * DROP MATERIALIZED VIEW [IF EXISTS] view_name;
+ */
+SqlNode SqlDropMaterializedView() :
+{
+    SqlParserPos pos;
+    boolean viewExistenceCheck = false;
+}
+{
+    <DROP> { pos = getPos(); }
+    <MATERIALIZED>
+    <VIEW>
+    [ <IF> <EXISTS> { viewExistenceCheck = true; } ]
+    {
+        return new SqlDropMaterializedView(pos, CompoundIdentifier(), viewExistenceCheck);
+    }
+}
+
 /**
  * Parse refresh table metadata statement.
  * REFRESH TABLE METADATA tblname
@@ -282,6 +325,28 @@ SqlNode SqlRefreshMetadata() :
     }
 }
 
+/**
+ * Parse analyze table statement.
+ * ANALYZE TABLE tblname COMPUTE STATISTICS [ (column1, column2, ...) ]
+ */
+SqlNode SqlAnalyzeTable() :
+{
+    SqlParserPos pos;
+    SqlIdentifier tblName;
+    SqlNodeList fieldList;
+}
+{
+    <ANALYZE> { pos = getPos(); }
+    <TABLE>
+    tblName = CompoundIdentifier()
+    <COMPUTE>
+    <STATISTICS>
+    fieldList = ParseOptionalFieldList("Statistics")
+    {
+        return new SqlAnalyzeTable(pos, tblName, fieldList);
+    }
+}
+
 /**
 * Parses statement
 *   DESCRIBE { SCHEMA | DATABASE } name
@@ -64,9 +64,11 @@ public class ${aggrtype.className}Functions {
 <#list aggrtype.types as type>
 
 <#if aggrtype.aliasName == "">
-@FunctionTemplate(name = "${aggrtype.funcName}", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+@FunctionTemplate(name = "${aggrtype.funcName}", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE,
+    merge = "${aggrtype.funcName}")
 <#else>
-@FunctionTemplate(names = {"${aggrtype.funcName}", "${aggrtype.aliasName}"}, scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+@FunctionTemplate(names = {"${aggrtype.funcName}", "${aggrtype.aliasName}"}, scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE,
+    merge = "${aggrtype.funcName}")
 </#if>
 public static class ${type.inputType}${aggrtype.className} implements DrillAggFunc{
 
@@ -0,0 +1,317 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.Override;
+
+<@pp.dropOutputFile />
+
+<#-- Generates the approximate aggregate functions approx_count_distinct and approx_percentile, together with the
+     partial and merge functions used when they are computed in two phases -->
+
+<@pp.changeOutputFile name="/org/apache/drill/exec/expr/fn/impl/gaggr/ApproxAggrFunctions.java" />
+
+<#include "/@includes/license.ftl" />
+
+
+package org.apache.drill.exec.expr.fn.impl.gaggr;
+
+import io.netty.buffer.DrillBuf;
+
+import javax.inject.Inject;
+
+import org.apache.drill.exec.expr.DrillAggFunc;
+import org.apache.drill.exec.expr.annotations.FunctionTemplate;
+import org.apache.drill.exec.expr.annotations.Output;
+import org.apache.drill.exec.expr.annotations.Param;
+import org.apache.drill.exec.expr.annotations.Workspace;
+import org.apache.drill.exec.expr.holders.*;
+
+/*
+ * This class is generated using freemarker and the ${.template_name} template.
+ *
+ * approx_count_distinct keeps a HyperLogLog sketch and approx_percentile a t-digest per group. Both sketches have a
+ * bounded size and are created on the first non-null value of a group, so that the hash aggregate only pays for the
+ * groups it actually fills. In two phase plans the first phase returns the serialized sketch and the second phase
+ * merges the sketches of all fragments.
+ */
+
+@SuppressWarnings("unused")
+
+public class ApproxAggrFunctions {
+
+<#list approxAggrTypes.countDistinctTypes as type>
+<#list ["", "Partial"] as phase>
+  <#if phase == "">
+  @FunctionTemplate(name = "approx_count_distinct", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE,
+      partial = "approx_count_distinct_partial", merge = "approx_count_distinct_merge")
+  <#else>
+  @FunctionTemplate(name = "approx_count_distinct_partial", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  </#if>
+  public static class ${type.inputType}ApproxCountDistinct${phase} implements DrillAggFunc {
+
+    @Param ${type.inputType}Holder in;
+    @Workspace ObjectHolder sketch;
+    <#if phase == "Partial">
+    @Inject DrillBuf buf;
+    @Output VarBinaryHolder out;
+    <#else>
+    @Output BigIntHolder out;
+    </#if>
+
+    @Override
+    public void setup() {
+      sketch = new ObjectHolder();
+    }
+
+    @Override
+    public void add() {
+      <#if type.inputType?starts_with("Nullable")>
+      sout: {
+        if (in.isSet == 0) {
+          // processing nullable input and the value is null, so don't do anything...
+          break sout;
+        }
+      </#if>
+      if (sketch.obj == null) {
+        sketch.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+      }
+      <#if type.major == "VarBytes">
+      long hash = org.apache.drill.exec.expr.fn.impl.HashHelper.hash64(in.start, in.end, in.buffer, 0);
+      ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).offer(hash);
+      <#else>
+      long hash = org.apache.drill.exec.expr.fn.impl.HashHelper.hash64(in.value, 0);
+      ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).offer(hash);
+      </#if>
+      <#if type.inputType?starts_with("Nullable")>
+      } // end of sout block
+      </#if>
+    }
+
+    @Override
+    public void output() {
+      <#if phase == "Partial">
+      if (sketch.obj == null) {
+        sketch.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+      }
+      org.apache.drill.exec.expr.fn.impl.HyperLogLog state =
+          (org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj;
+      buf = buf.reallocIfNeeded(state.getSerializedSize());
+      state.writeTo(buf, 0);
+      out.start = 0;
+      out.end = state.getSerializedSize();
+      out.buffer = buf;
+      <#else>
+      out.value = sketch.obj == null ? 0 : ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).estimate();
+      </#if>
+    }
+
+    @Override
+    public void reset() {
+      if (sketch.obj != null) {
+        ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).reset();
+      }
+    }
+  }
+
+</#list>
+</#list>
+<#list ["VarBinary", "NullableVarBinary"] as inputType>
+  @FunctionTemplate(name = "approx_count_distinct_merge", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class ${inputType}ApproxCountDistinctMerge implements DrillAggFunc {
+
+    @Param ${inputType}Holder in;
+    @Workspace ObjectHolder sketch;
+    @Output BigIntHolder out;
+
+    @Override
+    public void setup() {
+      sketch = new ObjectHolder();
+    }
+
+    @Override
+    public void add() {
+      <#if inputType?starts_with("Nullable")>
+      sout: {
+        if (in.isSet == 0) {
+          // processing nullable input and the value is null, so don't do anything...
+          break sout;
+        }
+      </#if>
+      if (sketch.obj == null) {
+        sketch.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+      }
+      ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).merge(in.buffer, in.start, in.end);
+      <#if inputType?starts_with("Nullable")>
+      } // end of sout block
+      </#if>
+    }
+
+    @Override
+    public void output() {
+      out.value = sketch.obj == null ? 0 : ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).estimate();
+    }
+
+    @Override
+    public void reset() {
+      if (sketch.obj != null) {
+        ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).reset();
+      }
+    }
+  }
+
+</#list>
+<#list approxAggrTypes.percentileTypes as inputType>
+<#list ["", "Partial"] as phase>
+  <#if phase == "">
+  @FunctionTemplate(name = "approx_percentile", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE,
+      partial = "approx_percentile_partial", merge = "approx_percentile_merge")
+  <#else>
+  @FunctionTemplate(name = "approx_percentile_partial", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  </#if>
+  public static class ${inputType}ApproxPercentile${phase} implements DrillAggFunc {
+
+    @Param ${inputType}Holder in;
+    @Param Float8Holder fraction;
+    @Workspace ObjectHolder digest;
+    @Workspace Float8Holder quantile;
+    @Inject DrillBuf buf;
+    <#if phase == "Partial">
+    @Output VarBinaryHolder out;
+    <#else>
+    @Output NullableFloat8Holder out;
+    </#if>
+
+    @Override
+    public void setup() {
+      digest = new ObjectHolder();
+      quantile = new Float8Holder();
+    }
+
+    @Override
+    public void add() {
+      if (fraction.value < 0 || fraction.value > 1) {
+        throw org.apache.drill.common.exceptions.UserException.functionError()
+          .message("The fraction of approx_percentile must be between 0 and 1, got %f.", fraction.value)
+          .build();
+      }
+      quantile.value = fraction.value;
+      <#if inputType?starts_with("Nullable")>
+      sout: {
+        if (in.isSet == 0) {
+          // processing nullable input and the value is null, so don't do anything...
+          break sout;
+        }
+      </#if>
+      if (digest.obj == null) {
+        digest.obj = new org.apache.drill.exec.expr.fn.impl.TDigest();
+      }
+      ((org.apache.drill.exec.expr.fn.impl.TDigest) digest.obj).offer(in.value);
+      <#if inputType?starts_with("Nullable")>
+      } // end of sout block
+      </#if>
+    }
+
+    @Override
+    public void output() {
+      <#if phase == "Partial">
+      if (digest.obj == null) {
+        digest.obj = new org.apache.drill.exec.expr.fn.impl.TDigest();
+      }
+      org.apache.drill.exec.expr.fn.impl.TDigest state =
+          (org.apache.drill.exec.expr.fn.impl.TDigest) digest.obj;
+      // the fraction travels with the digest so that the merge function knows which quantile to return
+      buf = buf.reallocIfNeeded(8 + state.getSerializedSize());
+      buf.setDouble(0, quantile.value);
+      state.writeTo(buf, 8);
+      out.start = 0;
+      out.end = 8 + state.getSerializedSize();
+      out.buffer = buf;
+      <#else>
+      if (digest.obj == null || ((org.apache.drill.exec.expr.fn.impl.TDigest) digest.obj).isEmpty()) {
+        out.isSet = 0;
+      } else {
+        out.isSet = 1;
+        out.value = ((org.apache.drill.exec.expr.fn.impl.TDigest) digest.obj).quantile(quantile.value);
+      }
+      </#if>
+    }
+
+    @Override
+    public void reset() {
+      if (digest.obj != null) {
+        ((org.apache.drill.exec.expr.fn.impl.TDigest) digest.obj).reset();
+      }
+    }
+  }
+
+</#list>
+</#list>
+<#list ["VarBinary", "NullableVarBinary"] as inputType>
+  @FunctionTemplate(name = "approx_percentile_merge", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class ${inputType}ApproxPercentileMerge implements DrillAggFunc {
+
+    @Param ${inputType}Holder in;
+    @Workspace ObjectHolder digest;
+    @Workspace Float8Holder quantile;
+    @Output NullableFloat8Holder out;
+
+    @Override
+    public void setup() {
+      digest = new ObjectHolder();
+      quantile = new Float8Holder();
+    }
+
+    @Override
+    public void add() {
+      <#if inputType?starts_with("Nullable")>
+      sout: {
+        if (in.isSet == 0) {
+          // processing nullable input and the value is null, so don't do anything...
+          break sout;
+        }
+      </#if>
+      if (digest.obj == null) {
+        digest.obj = new org.apache.drill.exec.expr.fn.impl.TDigest();
+      }
+      quantile.value = in.buffer.getDouble(in.start);
+      ((org.apache.drill.exec.expr.fn.impl.TDigest) digest.obj).merge(in.buffer, in.start + 8, in.end);
+      <#if inputType?starts_with("Nullable")>
+      } // end of sout block
+      </#if>
+    }
+
+    @Override
+    public void output() {
+      if (digest.obj == null || ((org.apache.drill.exec.expr.fn.impl.TDigest) digest.obj).isEmpty()) {
+        out.isSet = 0;
+      } else {
+        out.isSet = 1;
+        out.value = ((org.apache.drill.exec.expr.fn.impl.TDigest) digest.obj).quantile(quantile.value);
+      }
+    }
+
+    @Override
+    public void reset() {
+      if (digest.obj != null) {
+        ((org.apache.drill.exec.expr.fn.impl.TDigest) digest.obj).reset();
+      }
+    }
+  }
+
+</#list>
+}
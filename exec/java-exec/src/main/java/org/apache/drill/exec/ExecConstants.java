@@ -68,6 +68,8 @@ public interface ExecConstants {
   String EXTERNAL_SORT_SPILL_THRESHOLD = "drill.exec.sort.external.spill.threshold";
   String EXTERNAL_SORT_SPILL_DIRS = "drill.exec.sort.external.spill.directories";
   String EXTERNAL_SORT_SPILL_FILESYSTEM = "drill.exec.sort.external.spill.fs";
+  /** Local directory the query result cache keeps cached results in. Its content is dropped on Drillbit start. */
+  String RESULT_CACHE_DIRECTORY = "drill.exec.result_cache.directory";
   String EXTERNAL_SORT_MSORT_MAX_BATCHSIZE = "drill.exec.sort.external.msort.batch.maxsize";
   String TEXT_LINE_READER_BATCH_SIZE = "drill.exec.storage.file.text.batch.size";
   String TEXT_LINE_READER_BUFFER_SIZE = "drill.exec.storage.file.text.buffer.size";
@@ -100,6 +102,8 @@ public interface ExecConstants {
   String SCAN_THREADPOOL_SIZE = "drill.exec.scan.threadpool_size";
   // The size of the thread pool used by a scan to decode the data. Used by Parquet
   String SCAN_DECODE_THREADPOOL_SIZE = "drill.exec.scan.decode_threadpool_size";
+  // The size of the thread pool shared by all writers to encode and compress pages. Used by Parquet
+  String WRITER_COMPRESS_THREADPOOL_SIZE = "drill.exec.writer.compress_threadpool_size";
 
   /**
    * Currently if a query is cancelled, but one of the fragments reports the status as FAILED instead of CANCELLED or
@@ -141,6 +145,13 @@ public interface ExecConstants {
   String PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING = "store.parquet.enable_dictionary_encoding";
   OptionValidator PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING_VALIDATOR = new BooleanValidator(
       PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING, false);
+  // Encode whole value vectors per column chunk instead of pushing each value through the record consumer
+  String PARQUET_WRITER_USE_COLUMNAR = "store.parquet.writer.use_columnar";
+  OptionValidator PARQUET_WRITER_USE_COLUMNAR_VALIDATOR = new BooleanValidator(PARQUET_WRITER_USE_COLUMNAR, true);
+  // Bytes of incoming batches a parquet writer may hold while their pages are encoded in the background
+  String PARQUET_WRITER_PIPELINE_MEMORY = "store.parquet.writer.pipeline_memory";
+  OptionValidator PARQUET_WRITER_PIPELINE_MEMORY_VALIDATOR = new PositiveLongValidator(PARQUET_WRITER_PIPELINE_MEMORY,
+      Integer.MAX_VALUE, 64 * 1024 * 1024);
 
   String PARQUET_VECTOR_FILL_THRESHOLD = "store.parquet.vector_fill_threshold";
   OptionValidator PARQUET_VECTOR_FILL_THRESHOLD_VALIDATOR = new PositiveLongValidator(PARQUET_VECTOR_FILL_THRESHOLD, 99l, 85l);
@@ -259,6 +270,21 @@ public interface ExecConstants {
   String AFFINITY_FACTOR_KEY = "planner.affinity_factor";
   OptionValidator AFFINITY_FACTOR = new DoubleValidator(AFFINITY_FACTOR_KEY, 1.2d);
 
+  /**
+   * Whether major fragments are parallelized using the row counts and processing times observed in previous runs
+   * of the same plan on this Drillbit, rather than cost estimates, when such runs were recorded
+   */
+  String PARALLELIZATION_FEEDBACK_KEY = "planner.width.enable_feedback";
+  BooleanValidator PARALLELIZATION_FEEDBACK = new BooleanValidator(PARALLELIZATION_FEEDBACK_KEY, false);
+
+  /**
+   * The least processing time observed for a major fragment per unit of parallelization when widths are chosen from
+   * previous runs, to avoid many tiny fragments
+   */
+  String PARALLELIZATION_FEEDBACK_MIN_FRAGMENT_MILLIS_KEY = "planner.width.feedback.min_fragment_millis";
+  LongValidator PARALLELIZATION_FEEDBACK_MIN_FRAGMENT_MILLIS =
+      new PositiveLongValidator(PARALLELIZATION_FEEDBACK_MIN_FRAGMENT_MILLIS_KEY, Long.MAX_VALUE, 100);
+
   String EARLY_LIMIT0_OPT_KEY = "planner.enable_limit0_optimization";
   BooleanValidator EARLY_LIMIT0_OPT = new BooleanValidator(EARLY_LIMIT0_OPT_KEY, false);
 
@@ -291,9 +317,43 @@ public interface ExecConstants {
   String HASH_AGG_TABLE_FACTOR_KEY = "planner.memory.hash_agg_table_factor";
   OptionValidator HASH_AGG_TABLE_FACTOR = new DoubleValidator(HASH_AGG_TABLE_FACTOR_KEY, 1.1d);
 
+  /**
+   * Lets the first phase of a two phase hash aggregate give up on full aggregation when the sample of its first
+   * {@link #HASHAGG_ADAPTIVE_SAMPLE_ROWS} input rows shows less than {@link #HASHAGG_ADAPTIVE_MIN_REDUCTION} input
+   * rows per group. It then stops looking up groups and passes each further input row through as a group of its
+   * own, emitted every time a batch of them is collected, so that memory stays bounded and the second phase does the
+   * remaining work.
+   */
+  String HASHAGG_ADAPTIVE_PARTIAL_KEY = "exec.hashagg.adaptive_partial";
+  OptionValidator HASHAGG_ADAPTIVE_PARTIAL = new BooleanValidator(HASHAGG_ADAPTIVE_PARTIAL_KEY, false);
+  String HASHAGG_ADAPTIVE_MIN_REDUCTION_KEY = "exec.hashagg.adaptive_min_reduction";
+  OptionValidator HASHAGG_ADAPTIVE_MIN_REDUCTION =
+      new RangeDoubleValidator(HASHAGG_ADAPTIVE_MIN_REDUCTION_KEY, 1.0, Double.MAX_VALUE, 2.0);
+  String HASHAGG_ADAPTIVE_SAMPLE_ROWS_KEY = "exec.hashagg.adaptive_sample_rows";
+  OptionValidator HASHAGG_ADAPTIVE_SAMPLE_ROWS =
+      new PositiveLongValidator(HASHAGG_ADAPTIVE_SAMPLE_ROWS_KEY, Integer.MAX_VALUE, 100000);
+
   String AVERAGE_FIELD_WIDTH_KEY = "planner.memory.average_field_width";
   OptionValidator AVERAGE_FIELD_WIDTH = new PositiveLongValidator(AVERAGE_FIELD_WIDTH_KEY, Long.MAX_VALUE, 8);
 
+  /**
+   * Target size, in bytes, of the batches produced by operators that size their output by memory footprint rather
+   * than by a fixed record count (currently Project and Flatten).
+   * <p/>
+   * DEFAULT: 16 MB
+   */
+  String OUTPUT_BATCH_SIZE_KEY = "exec.memory.operator.output_batch_size";
+  LongValidator OUTPUT_BATCH_SIZE = new RangeLongValidator(OUTPUT_BATCH_SIZE_KEY, 128, 512 * 1024 * 1024, 16 * 1024 * 1024);
+
+  /**
+   * Fraction of incoming rows at or below which Filter compacts its output into dense vectors instead of handing
+   * an SV2 downstream. A value of 0 always passes the SV2 through.
+   * <p/>
+   * DEFAULT: 0.1
+   */
+  String FILTER_COMPACTION_THRESHOLD_KEY = "exec.filter.compaction_threshold";
+  DoubleValidator FILTER_COMPACTION_THRESHOLD = new RangeDoubleValidator(FILTER_COMPACTION_THRESHOLD_KEY, 0, 1, 0.1);
+
   BooleanValidator ENABLE_QUEUE = new BooleanValidator("exec.queue.enable", false);
   LongValidator LARGE_QUEUE_SIZE = new PositiveLongValidator("exec.queue.large", 1000, 10);
   LongValidator SMALL_QUEUE_SIZE = new PositiveLongValidator("exec.queue.small", 100000, 100);
@@ -302,6 +362,47 @@ public interface ExecConstants {
   LongValidator QUEUE_TIMEOUT = new PositiveLongValidator("exec.queue.timeout_millis",
       Long.MAX_VALUE, 60 * 1000 * 5);
 
+  /**
+   * When queueing is enabled, admit queries by their estimated memory per node rather than by the small/large cost
+   * queues. Waiting queries are ordered by {@link #QUEUE_PRIORITY}, then by how many queries their user already runs.
+   */
+  BooleanValidator ENABLE_MEMORY_QUEUE = new BooleanValidator("exec.queue.memory.enable", false);
+  /**
+   * Memory per node (in MB) shared by all queries admitted through the memory queue. The distributed semaphore is
+   * sized from the system value so that every Drillbit agrees on it; the default matches the default direct memory
+   * of a Drillbit.
+   */
+  LongValidator MEMORY_QUEUE_POOL_SIZE = new RangeLongValidator("exec.queue.memory.pool_size", 1, Long.MAX_VALUE, 8192);
+  LongValidator QUEUE_PRIORITY = new RangeLongValidator("exec.queue.priority", 0, 10, 5);
+
+  /**
+   * Serve the results of SQL queries reading only file system tables from a per-Drillbit cache, as long as the
+   * query user, the plan and the modification times of the files read are the same as when the result was cached.
+   */
+  BooleanValidator RESULT_CACHE_ENABLE = new BooleanValidator("exec.result_cache.enable", false);
+  /** Seconds after which a cached result is no longer served. */
+  LongValidator RESULT_CACHE_TTL = new PositiveLongValidator("exec.result_cache.ttl_secs", Long.MAX_VALUE, 3600);
+  /** Results larger than this many bytes are not cached. */
+  LongValidator RESULT_CACHE_MAX_ENTRY_SIZE = new PositiveLongValidator("exec.result_cache.max_entry_size",
+      Long.MAX_VALUE, 64 * 1024 * 1024);
+  /** Bytes of disk space per Drillbit for cached results. The least recently used results are evicted beyond. */
+  LongValidator RESULT_CACHE_SIZE = new PositiveLongValidator("exec.result_cache.size", Long.MAX_VALUE,
+      1024 * 1024 * 1024);
+
+  /**
+   * Sort rows and merge sorted streams on normalized prefixes of the first sort key and only call the generated
+   * comparator when the prefixes are equal.
+   */
+  String SORT_KEY_PREFIX_KEY = "exec.sort.key_prefix";
+  BooleanValidator SORT_KEY_PREFIX = new BooleanValidator(SORT_KEY_PREFIX_KEY, true);
+
+  /**
+   * Let a TopN publish the sort key value of its current last row to the scan below it in the same fragment, so
+   * that Parquet row groups whose statistics show they cannot make the top N are not read.
+   */
+  String TOPN_SCAN_PRUNING_KEY = "exec.topn.scan_pruning";
+  BooleanValidator TOPN_SCAN_PRUNING = new BooleanValidator(TOPN_SCAN_PRUNING_KEY, true);
+
   String ENABLE_VERBOSE_ERRORS_KEY = "exec.errors.verbose";
   OptionValidator ENABLE_VERBOSE_ERRORS = new BooleanValidator(ENABLE_VERBOSE_ERRORS_KEY, false);
 
@@ -315,6 +416,20 @@ public interface ExecConstants {
 
   String ENABLE_WINDOW_FUNCTIONS = "window.enable";
   OptionValidator ENABLE_WINDOW_FUNCTIONS_VALIDATOR = new BooleanValidator(ENABLE_WINDOW_FUNCTIONS, true);
+  // Bytes of batches the window operator holds in memory before it spills batches of the current partition to disk
+  String WINDOW_SPILL_THRESHOLD_KEY = "window.spill_threshold";
+  PositiveLongValidator WINDOW_SPILL_THRESHOLD = new PositiveLongValidator(WINDOW_SPILL_THRESHOLD_KEY, Long.MAX_VALUE,
+      512 * 1024 * 1024);
+
+  // Bytes of right batches the nested loop join holds in memory before it spills them and joins in several passes
+  String NLJOIN_SPILL_THRESHOLD_KEY = "exec.nljoin.spill_threshold";
+  PositiveLongValidator NLJOIN_SPILL_THRESHOLD = new PositiveLongValidator(NLJOIN_SPILL_THRESHOLD_KEY, Long.MAX_VALUE,
+      512 * 1024 * 1024);
+
+  // Bytes of right batches the merge join holds in memory for a run of equal keys before it spills them
+  String MJOIN_SPILL_THRESHOLD_KEY = "exec.mergejoin.spill_threshold";
+  PositiveLongValidator MJOIN_SPILL_THRESHOLD = new PositiveLongValidator(MJOIN_SPILL_THRESHOLD_KEY, Long.MAX_VALUE,
+      256 * 1024 * 1024);
 
   String DRILLBIT_CONTROL_INJECTIONS = "drill.exec.testing.controls";
   OptionValidator DRILLBIT_CONTROLS_VALIDATOR =
@@ -326,6 +441,13 @@ public interface ExecConstants {
 
   String CTAS_PARTITIONING_HASH_DISTRIBUTE = "store.partition.hash_distribute";
   BooleanValidator CTAS_PARTITIONING_HASH_DISTRIBUTE_VALIDATOR = new BooleanValidator(CTAS_PARTITIONING_HASH_DISTRIBUTE, false);
+  // Group rows by partition inside the writer instead of sorting the input on the partition columns
+  String CTAS_PARTITIONING_BUFFERED_WRITE = "store.partition.buffered_write";
+  BooleanValidator CTAS_PARTITIONING_BUFFERED_WRITE_VALIDATOR = new BooleanValidator(CTAS_PARTITIONING_BUFFERED_WRITE, false);
+  // Bytes of encoded pages a writer may buffer across all open partitions before flushing the largest ones
+  String CTAS_PARTITIONING_BUFFERED_WRITE_MEMORY = "store.partition.buffered_write.memory";
+  OptionValidator CTAS_PARTITIONING_BUFFERED_WRITE_MEMORY_VALIDATOR = new PositiveLongValidator(
+      CTAS_PARTITIONING_BUFFERED_WRITE_MEMORY, Long.MAX_VALUE, 256 * 1024 * 1024);
 
   String ENABLE_BULK_LOAD_TABLE_LIST_KEY = "exec.enable_bulk_load_table_list";
   BooleanValidator ENABLE_BULK_LOAD_TABLE_LIST = new BooleanValidator(ENABLE_BULK_LOAD_TABLE_LIST_KEY, false);
@@ -22,5 +22,15 @@ import java.util.concurrent.TimeUnit;
 public interface DistributedSemaphore {
   public DistributedLease acquire(long time, TimeUnit unit) throws Exception;
 
+  /**
+   * Acquire several leases at once. Either all of the requested leases are acquired, or none.
+   *
+   * @param permits number of leases to acquire
+   * @param time time to wait
+   * @param unit unit of time
+   * @return a lease covering all acquired leases, or null if they could not be acquired within the given time
+   */
+  public DistributedLease acquire(int permits, long time, TimeUnit unit) throws Exception;
+
   public interface DistributedLease extends AutoCloseable{}
 }
@@ -162,11 +162,33 @@ public class LocalClusterCoordinator extends ClusterCoordinator {
       }
     }
 
+    @Override
+    public DistributedLease acquire(final int permits, final long timeout, final TimeUnit timeUnit) throws Exception {
+      if (!semaphore.tryAcquire(permits, timeout, timeUnit)) {
+        return null;
+      } else {
+        return new LocalMultiLease(permits);
+      }
+    }
+
     private class LocalLease implements DistributedLease {
       @Override
       public void close() throws Exception {
         semaphore.release();
       }
     }
+
+    private class LocalMultiLease implements DistributedLease {
+      private final int permits;
+
+      public LocalMultiLease(final int permits) {
+        this.permits = permits;
+      }
+
+      @Override
+      public void close() throws Exception {
+        semaphore.release(permits);
+      }
+    }
   }
 }
@@ -17,6 +17,7 @@
  */
 package org.apache.drill.exec.coord.zk;
 
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.curator.framework.CuratorFramework;
@@ -43,6 +44,29 @@ public class ZkDistributedSemaphore implements DistributedSemaphore{
     }
   }
 
+  @Override
+  public DistributedLease acquire(int permits, long time, TimeUnit unit) throws Exception {
+    final Collection<Lease> leases = semaphore.acquire(permits, time, unit);
+    if (leases != null) {
+      return new MultiLeaseHolder(leases);
+    } else {
+      return null;
+    }
+  }
+
+  private class MultiLeaseHolder implements DistributedLease {
+    final Collection<Lease> leases;
+
+    public MultiLeaseHolder(Collection<Lease> leases) {
+      this.leases = leases;
+    }
+
+    @Override
+    public void close() throws Exception {
+      semaphore.returnAll(leases);
+    }
+  }
+
   private class LeaseHolder implements DistributedLease{
     Lease lease;
 
@@ -60,6 +60,20 @@ public @interface FunctionTemplate {
   String desc() default "";
   FunctionCostCategory costCategory() default FunctionCostCategory.SIMPLE;
 
+  /**
+   * Aggregate functions only: name of the aggregate function computing the intermediate state of this function over
+   * part of its input, see {@link #merge()}. Defaults to the function itself, which suits functions whose result
+   * can be merged directly, such as {@code bool_or}.
+   */
+  String partial() default "";
+
+  /**
+   * Aggregate functions only: name of the aggregate function combining the intermediate states computed over parts
+   * of the input into the result of this function. Aggregates declaring it may be computed in two phases, the
+   * partial one before and the merge one after an exchange; all others are computed in a single phase.
+   */
+  String merge() default "";
+
   public static enum NullHandling {
     /**
      * Method handles nulls.
@@ -132,6 +132,21 @@ public abstract class DrillFuncHolder extends AbstractFuncHolder {
     return attributes.isDeterministic();
   }
 
+  /**
+   * @return name of the aggregate function computing the intermediate state of this one, see
+   *         {@link org.apache.drill.exec.expr.annotations.FunctionTemplate#partial()}
+   */
+  public String getPartialName() {
+    return attributes.getPartialName().isEmpty() ? registeredNames[0] : attributes.getPartialName();
+  }
+
+  /**
+   * @return name of the aggregate function merging intermediate states of this one, empty if there is none
+   */
+  public String getMergeName() {
+    return attributes.getMergeName();
+  }
+
   /**
    * Generates string representation of function input parameters:
    * PARAMETER_TYPE_1-PARAMETER_MODE_1,PARAMETER_TYPE_2-PARAMETER_MODE_2
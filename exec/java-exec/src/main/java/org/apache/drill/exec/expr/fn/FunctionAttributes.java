@@ -37,10 +37,19 @@ public class FunctionAttributes {
   private final ValueReference returnValue;
   private final WorkspaceReference[] workspaceVars;
   private final FunctionCostCategory costCategory;
+  private final String partialName;
+  private final String mergeName;
 
   public FunctionAttributes(FunctionScope scope, NullHandling nullHandling, boolean isBinaryCommutative,
       boolean isDeteministic, String[] registeredNames, ValueReference[] parameters, ValueReference returnValue,
       WorkspaceReference[] workspaceVars, FunctionCostCategory costCategory) {
+    this(scope, nullHandling, isBinaryCommutative, isDeteministic, registeredNames, parameters, returnValue,
+        workspaceVars, costCategory, "", "");
+  }
+
+  public FunctionAttributes(FunctionScope scope, NullHandling nullHandling, boolean isBinaryCommutative,
+      boolean isDeteministic, String[] registeredNames, ValueReference[] parameters, ValueReference returnValue,
+      WorkspaceReference[] workspaceVars, FunctionCostCategory costCategory, String partialName, String mergeName) {
     super();
     this.scope = scope;
     this.nullHandling = nullHandling;
@@ -51,6 +60,8 @@ public class FunctionAttributes {
     this.returnValue = returnValue;
     this.workspaceVars = workspaceVars;
     this.costCategory = costCategory;
+    this.partialName = partialName;
+    this.mergeName = mergeName;
   }
 
   public FunctionScope getScope() {
@@ -94,5 +105,20 @@ public class FunctionAttributes {
     return costCategory;
   }
 
+  /**
+   * @return name of the aggregate computing the intermediate state of this aggregate, empty if it is the aggregate
+   *         itself
+   */
+  public String getPartialName() {
+    return partialName;
+  }
+
+  /**
+   * @return name of the aggregate merging intermediate states of this aggregate, empty if there is none
+   */
+  public String getMergeName() {
+    return mergeName;
+  }
+
 
 }
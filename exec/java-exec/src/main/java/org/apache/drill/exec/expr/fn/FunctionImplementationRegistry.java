@@ -228,6 +228,13 @@ public class FunctionImplementationRegistry implements FunctionLookupContext, Au
     return null;
   }
 
+  /**
+   * @return the Drill implementations of the function with the given name
+   */
+  public List<DrillFuncHolder> getMethods(String name) {
+    return localFunctionRegistry.getMethods(name);
+  }
+
   // Method to find if the output type of a drill function if of complex type
   public boolean isFunctionComplexOutput(String name) {
     List<DrillFuncHolder> methods = localFunctionRegistry.getMethods(name);
@@ -37,7 +37,7 @@ public class BooleanAggrFunctions {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(BooleanAggrFunctions.class);
 
 
-@FunctionTemplate(name = "bool_or", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+@FunctionTemplate(name = "bool_or", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE, merge = "bool_or")
 public static class BitBooleanOr implements DrillAggFunc{
 
   @Param BitHolder in;
@@ -69,7 +69,7 @@ public static class BitBooleanOr implements DrillAggFunc{
 
 
 
-@FunctionTemplate(name = "bool_or", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+@FunctionTemplate(name = "bool_or", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE, merge = "bool_or")
 public static class NullableBitBooleanOr implements DrillAggFunc{
 
   @Param NullableBitHolder in;
@@ -108,7 +108,7 @@ public static class NullableBitBooleanOr implements DrillAggFunc{
 }
 
 
-@FunctionTemplate(name = "bool_and", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+@FunctionTemplate(name = "bool_and", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE, merge = "bool_and")
 public static class BitBooleanAnd implements DrillAggFunc{
 
   @Param BitHolder in;
@@ -141,7 +141,7 @@ public static class BitBooleanAnd implements DrillAggFunc{
 }
 
 
-@FunctionTemplate(name = "bool_and", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+@FunctionTemplate(name = "bool_and", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE, merge = "bool_and")
 public static class NullableBitBooleanAnd implements DrillAggFunc{
 
   @Param NullableBitHolder in;
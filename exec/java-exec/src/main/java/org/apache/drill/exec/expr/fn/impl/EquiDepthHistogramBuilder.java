@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.expr.fn.impl;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Builds an equi-depth histogram from a fixed size reservoir sample of the values it is offered. Used by the
+ * {@code statistics_histogram} aggregate function; the histogram is rendered as a JSON array of bucket boundaries
+ * so that it can be stored as a single VARCHAR column.
+ */
+public class EquiDepthHistogramBuilder {
+  public static final int DEFAULT_BUCKET_COUNT = 32;
+  public static final int DEFAULT_SAMPLE_SIZE = 8192;
+
+  private final int bucketCount;
+  private final double[] sample;
+  // fixed seed so that ANALYZE on unchanged data produces the same histogram
+  private static final long SEED = 0;
+  private final Random random = new Random(SEED);
+  private long seen;
+
+  public EquiDepthHistogramBuilder() {
+    this(DEFAULT_BUCKET_COUNT, DEFAULT_SAMPLE_SIZE);
+  }
+
+  public EquiDepthHistogramBuilder(int bucketCount, int sampleSize) {
+    this.bucketCount = bucketCount;
+    this.sample = new double[sampleSize];
+  }
+
+  public void offer(double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      return;
+    }
+    if (seen < sample.length) {
+      sample[(int) seen] = value;
+    } else {
+      final long slot = (long) (random.nextDouble() * (seen + 1));
+      if (slot < sample.length) {
+        sample[(int) slot] = value;
+      }
+    }
+    seen++;
+  }
+
+  /**
+   * @return the number of bytes written by {@link #writeTo(ByteBuf, int)}
+   */
+  public int getSerializedSize() {
+    return 12 + 8 * (int) Math.min(seen, sample.length);
+  }
+
+  /**
+   * Writes the number of values seen and the sample so that another builder can merge them.
+   */
+  public void writeTo(ByteBuf buf, int index) {
+    final int size = (int) Math.min(seen, sample.length);
+    buf.setLong(index, seen);
+    buf.setInt(index + 8, size);
+    for (int i = 0; i < size; i++) {
+      buf.setDouble(index + 12 + 8 * i, sample[i]);
+    }
+  }
+
+  /**
+   * Merges a sample written by {@link #writeTo(ByteBuf, int)} into this one. The merged sample draws from both
+   * samples without replacement, in proportion to the number of values each of them stands for.
+   */
+  public void merge(ByteBuf buf, int start, int end) {
+    final long otherSeen = buf.getLong(start);
+    final int otherSize = buf.getInt(start + 8);
+    if (end - start != 12 + 8 * otherSize) {
+      throw new IllegalArgumentException(String.format(
+          "Serialized sample takes %d bytes, expected %d.", end - start, 12 + 8 * otherSize));
+    }
+    final double[] other = new double[otherSize];
+    for (int i = 0; i < otherSize; i++) {
+      other[i] = buf.getDouble(start + 12 + 8 * i);
+    }
+    final double[] own = Arrays.copyOf(sample, (int) Math.min(seen, sample.length));
+    final long total = seen + otherSeen;
+    final int mergedSize = Math.min(own.length + other.length, sample.length);
+    int ownLeft = own.length;
+    int otherLeft = other.length;
+    for (int i = 0; i < mergedSize; i++) {
+      final boolean fromOwn = ownLeft > 0 && (otherLeft == 0 || random.nextDouble() * total < seen);
+      final double[] source = fromOwn ? own : other;
+      final int left = fromOwn ? ownLeft-- : otherLeft--;
+      final int pick = random.nextInt(left);
+      sample[i] = source[pick];
+      source[pick] = source[left - 1];
+    }
+    seen = total;
+  }
+
+  public boolean isEmpty() {
+    return seen == 0;
+  }
+
+  /**
+   * @return bucket boundaries: {@code boundaries[i]} is the lower bound of bucket {@code i}, the last entry is the
+   *         maximum sampled value
+   */
+  public double[] getBoundaries() {
+    final int size = (int) Math.min(seen, sample.length);
+    if (size == 0) {
+      return new double[0];
+    }
+    final double[] sorted = Arrays.copyOf(sample, size);
+    Arrays.sort(sorted);
+    final int buckets = Math.min(bucketCount, size);
+    final double[] boundaries = new double[buckets + 1];
+    for (int i = 0; i < buckets; i++) {
+      boundaries[i] = sorted[(int) ((long) i * size / buckets)];
+    }
+    boundaries[buckets] = sorted[size - 1];
+    return boundaries;
+  }
+
+  public String toJson() {
+    final StringBuilder sb = new StringBuilder("[");
+    final double[] boundaries = getBoundaries();
+    for (int i = 0; i < boundaries.length; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(boundaries[i]);
+    }
+    return sb.append(']').toString();
+  }
+
+  public void reset() {
+    seen = 0;
+    // every group starts from the same random sequence, as a new builder would
+    random.setSeed(SEED);
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.expr.fn.impl;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * HyperLogLog sketch over pre-computed 64 bit hashes. Used by aggregate functions which estimate the number of
+ * distinct values of a column; the caller is responsible for hashing the values (e.g. with {@code hash64}).
+ * <p/>
+ * The top {@code precision} bits of a hash select a register, and each register keeps the longest run of leading
+ * zeros seen in the remaining bits. With the default precision of 12 the sketch takes 4 KB and has a standard
+ * error of about 1.6%.
+ */
+public class HyperLogLog {
+  public static final int DEFAULT_PRECISION = 12;
+
+  private final int precision;
+  private final byte[] registers;
+
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  public HyperLogLog(int precision) {
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  public void offer(long hash) {
+    final int index = (int) (hash >>> (Long.SIZE - precision));
+    // Force a stop bit so that a zero remainder still yields a bounded rank.
+    final long remainder = (hash << precision) | (1L << (precision - 1));
+    final byte rank = (byte) (Long.numberOfLeadingZeros(remainder) + 1);
+    if (rank > registers[index]) {
+      registers[index] = rank;
+    }
+  }
+
+  /**
+   * Folds another sketch of the same precision into this one.
+   */
+  public void merge(HyperLogLog other) {
+    for (int i = 0; i < registers.length; i++) {
+      if (other.registers[i] > registers[i]) {
+        registers[i] = other.registers[i];
+      }
+    }
+  }
+
+  /**
+   * @return the number of bytes written by {@link #writeTo(ByteBuf, int)}
+   */
+  public int getSerializedSize() {
+    return registers.length;
+  }
+
+  /**
+   * Writes the registers of the sketch so that another sketch of the same precision can merge them.
+   */
+  public void writeTo(ByteBuf buf, int index) {
+    buf.setBytes(index, registers);
+  }
+
+  /**
+   * Folds a sketch written by {@link #writeTo(ByteBuf, int)} into this one.
+   */
+  public void merge(ByteBuf buf, int start, int end) {
+    if (end - start != registers.length) {
+      throw new IllegalArgumentException(String.format(
+          "Serialized sketch has %d registers, expected %d.", end - start, registers.length));
+    }
+    for (int i = 0; i < registers.length; i++) {
+      final byte register = buf.getByte(start + i);
+      if (register > registers[i]) {
+        registers[i] = register;
+      }
+    }
+  }
+
+  public long estimate() {
+    final int m = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    final double alpha = 0.7213 / (1 + 1.079 / m);
+    final double estimate = alpha * m * m / sum;
+    if (estimate <= 2.5 * m && zeros > 0) {
+      // small range correction: linear counting
+      return Math.round(m * Math.log((double) m / zeros));
+    }
+    return Math.round(estimate);
+  }
+
+  public void reset() {
+    java.util.Arrays.fill(registers, (byte) 0);
+  }
+}
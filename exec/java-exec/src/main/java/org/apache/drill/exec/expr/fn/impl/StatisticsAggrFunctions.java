@@ -0,0 +1,511 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.expr.fn.impl;
+
+import io.netty.buffer.DrillBuf;
+
+import javax.inject.Inject;
+
+import org.apache.drill.exec.expr.DrillAggFunc;
+import org.apache.drill.exec.expr.annotations.FunctionTemplate;
+import org.apache.drill.exec.expr.annotations.Output;
+import org.apache.drill.exec.expr.annotations.Param;
+import org.apache.drill.exec.expr.annotations.Workspace;
+import org.apache.drill.exec.expr.holders.BigIntHolder;
+import org.apache.drill.exec.expr.holders.Float8Holder;
+import org.apache.drill.exec.expr.holders.NullableBigIntHolder;
+import org.apache.drill.exec.expr.holders.NullableFloat8Holder;
+import org.apache.drill.exec.expr.holders.NullableVarBinaryHolder;
+import org.apache.drill.exec.expr.holders.NullableVarCharHolder;
+import org.apache.drill.exec.expr.holders.ObjectHolder;
+import org.apache.drill.exec.expr.holders.VarBinaryHolder;
+
+/**
+ * Aggregate functions used by ANALYZE TABLE to collect column statistics.
+ * <ul>
+ *   <li>{@code statistics_ndv(hash)} estimates the number of distinct values from 64 bit hashes of a column
+ *   (see {@link HyperLogLog}); null hashes are ignored.</li>
+ *   <li>{@code statistics_histogram(value)} returns an equi-depth histogram of a numeric column as a JSON array of
+ *   bucket boundaries (see {@link EquiDepthHistogramBuilder}), or null if the column has no non-null values.</li>
+ * </ul>
+ * Both keep their state in an {@link ObjectHolder}, so they are only usable by the streaming aggregate. In two
+ * phase plans the first phase runs {@code statistics_ndv_partial} / {@code statistics_histogram_partial}, which
+ * return the serialized sketch or sample, and the second phase folds those together with
+ * {@code statistics_ndv_merge} / {@code statistics_histogram_merge}.
+ */
+@SuppressWarnings("unused")
+public class StatisticsAggrFunctions {
+  static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(StatisticsAggrFunctions.class);
+
+  @FunctionTemplate(name = "statistics_ndv", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE,
+      partial = "statistics_ndv_partial", merge = "statistics_ndv_merge")
+  public static class BigIntNdv implements DrillAggFunc {
+
+    @Param BigIntHolder in;
+    @Workspace ObjectHolder sketch;
+    @Output BigIntHolder out;
+
+    public void setup() {
+      sketch = new ObjectHolder();
+      sketch.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).offer(in.value);
+    }
+
+    @Override
+    public void output() {
+      out.value = ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).estimate();
+    }
+
+    @Override
+    public void reset() {
+      ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).reset();
+    }
+  }
+
+  @FunctionTemplate(name = "statistics_ndv", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE,
+      partial = "statistics_ndv_partial", merge = "statistics_ndv_merge")
+  public static class NullableBigIntNdv implements DrillAggFunc {
+
+    @Param NullableBigIntHolder in;
+    @Workspace ObjectHolder sketch;
+    @Output BigIntHolder out;
+
+    public void setup() {
+      sketch = new ObjectHolder();
+      sketch.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      sout: {
+        if (in.isSet == 0) {
+          // processing nullable input and the value is null, so don't do anything...
+          break sout;
+        }
+        ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).offer(in.value);
+      } // end of sout block
+    }
+
+    @Override
+    public void output() {
+      out.value = ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).estimate();
+    }
+
+    @Override
+    public void reset() {
+      ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).reset();
+    }
+  }
+
+  @FunctionTemplate(name = "statistics_histogram", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE,
+      partial = "statistics_histogram_partial", merge = "statistics_histogram_merge")
+  public static class Float8Histogram implements DrillAggFunc {
+
+    @Param Float8Holder in;
+    @Workspace ObjectHolder histogram;
+    @Inject DrillBuf buf;
+    @Output NullableVarCharHolder out;
+
+    public void setup() {
+      histogram = new ObjectHolder();
+      histogram.obj = new org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder();
+    }
+
+    @Override
+    public void add() {
+      ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj).offer(in.value);
+    }
+
+    @Override
+    public void output() {
+      org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder builder =
+          (org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj;
+      if (builder.isEmpty()) {
+        out.isSet = 0;
+      } else {
+        byte[] json = builder.toJson().getBytes(com.google.common.base.Charsets.UTF_8);
+        buf = buf.reallocIfNeeded(json.length);
+        buf.setBytes(0, json);
+        out.isSet = 1;
+        out.start = 0;
+        out.end = json.length;
+        out.buffer = buf;
+      }
+    }
+
+    @Override
+    public void reset() {
+      ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj).reset();
+    }
+  }
+
+  @FunctionTemplate(name = "statistics_histogram", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE,
+      partial = "statistics_histogram_partial", merge = "statistics_histogram_merge")
+  public static class NullableFloat8Histogram implements DrillAggFunc {
+
+    @Param NullableFloat8Holder in;
+    @Workspace ObjectHolder histogram;
+    @Inject DrillBuf buf;
+    @Output NullableVarCharHolder out;
+
+    public void setup() {
+      histogram = new ObjectHolder();
+      histogram.obj = new org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder();
+    }
+
+    @Override
+    public void add() {
+      sout: {
+        if (in.isSet == 0) {
+          // processing nullable input and the value is null, so don't do anything...
+          break sout;
+        }
+        ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj).offer(in.value);
+      } // end of sout block
+    }
+
+    @Override
+    public void output() {
+      org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder builder =
+          (org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj;
+      if (builder.isEmpty()) {
+        out.isSet = 0;
+      } else {
+        byte[] json = builder.toJson().getBytes(com.google.common.base.Charsets.UTF_8);
+        buf = buf.reallocIfNeeded(json.length);
+        buf.setBytes(0, json);
+        out.isSet = 1;
+        out.start = 0;
+        out.end = json.length;
+        out.buffer = buf;
+      }
+    }
+
+    @Override
+    public void reset() {
+      ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj).reset();
+    }
+  }
+
+  @FunctionTemplate(name = "statistics_ndv_partial", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class BigIntNdvPartial implements DrillAggFunc {
+
+    @Param BigIntHolder in;
+    @Workspace ObjectHolder sketch;
+    @Inject DrillBuf buf;
+    @Output VarBinaryHolder out;
+
+    public void setup() {
+      sketch = new ObjectHolder();
+      sketch.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).offer(in.value);
+    }
+
+    @Override
+    public void output() {
+      org.apache.drill.exec.expr.fn.impl.HyperLogLog state =
+          (org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj;
+      buf = buf.reallocIfNeeded(state.getSerializedSize());
+      state.writeTo(buf, 0);
+      out.start = 0;
+      out.end = state.getSerializedSize();
+      out.buffer = buf;
+    }
+
+    @Override
+    public void reset() {
+      ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).reset();
+    }
+  }
+
+  @FunctionTemplate(name = "statistics_ndv_partial", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class NullableBigIntNdvPartial implements DrillAggFunc {
+
+    @Param NullableBigIntHolder in;
+    @Workspace ObjectHolder sketch;
+    @Inject DrillBuf buf;
+    @Output VarBinaryHolder out;
+
+    public void setup() {
+      sketch = new ObjectHolder();
+      sketch.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      sout: {
+        if (in.isSet == 0) {
+          // processing nullable input and the value is null, so don't do anything...
+          break sout;
+        }
+        ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).offer(in.value);
+      } // end of sout block
+    }
+
+    @Override
+    public void output() {
+      org.apache.drill.exec.expr.fn.impl.HyperLogLog state =
+          (org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj;
+      buf = buf.reallocIfNeeded(state.getSerializedSize());
+      state.writeTo(buf, 0);
+      out.start = 0;
+      out.end = state.getSerializedSize();
+      out.buffer = buf;
+    }
+
+    @Override
+    public void reset() {
+      ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).reset();
+    }
+  }
+
+  @FunctionTemplate(name = "statistics_ndv_merge", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class VarBinaryNdvMerge implements DrillAggFunc {
+
+    @Param VarBinaryHolder in;
+    @Workspace ObjectHolder sketch;
+    @Output BigIntHolder out;
+
+    public void setup() {
+      sketch = new ObjectHolder();
+      sketch.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).merge(in.buffer, in.start, in.end);
+    }
+
+    @Override
+    public void output() {
+      out.value = ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).estimate();
+    }
+
+    @Override
+    public void reset() {
+      ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).reset();
+    }
+  }
+
+  @FunctionTemplate(name = "statistics_ndv_merge", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class NullableVarBinaryNdvMerge implements DrillAggFunc {
+
+    @Param NullableVarBinaryHolder in;
+    @Workspace ObjectHolder sketch;
+    @Output BigIntHolder out;
+
+    public void setup() {
+      sketch = new ObjectHolder();
+      sketch.obj = new org.apache.drill.exec.expr.fn.impl.HyperLogLog();
+    }
+
+    @Override
+    public void add() {
+      sout: {
+        if (in.isSet == 0) {
+          // processing nullable input and the value is null, so don't do anything...
+          break sout;
+        }
+        ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).merge(in.buffer, in.start, in.end);
+      } // end of sout block
+    }
+
+    @Override
+    public void output() {
+      out.value = ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).estimate();
+    }
+
+    @Override
+    public void reset() {
+      ((org.apache.drill.exec.expr.fn.impl.HyperLogLog) sketch.obj).reset();
+    }
+  }
+
+  @FunctionTemplate(name = "statistics_histogram_partial", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class Float8HistogramPartial implements DrillAggFunc {
+
+    @Param Float8Holder in;
+    @Workspace ObjectHolder histogram;
+    @Inject DrillBuf buf;
+    @Output VarBinaryHolder out;
+
+    public void setup() {
+      histogram = new ObjectHolder();
+      histogram.obj = new org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder();
+    }
+
+    @Override
+    public void add() {
+      ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj).offer(in.value);
+    }
+
+    @Override
+    public void output() {
+      org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder state =
+          (org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj;
+      buf = buf.reallocIfNeeded(state.getSerializedSize());
+      state.writeTo(buf, 0);
+      out.start = 0;
+      out.end = state.getSerializedSize();
+      out.buffer = buf;
+    }
+
+    @Override
+    public void reset() {
+      ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj).reset();
+    }
+  }
+
+  @FunctionTemplate(name = "statistics_histogram_partial", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class NullableFloat8HistogramPartial implements DrillAggFunc {
+
+    @Param NullableFloat8Holder in;
+    @Workspace ObjectHolder histogram;
+    @Inject DrillBuf buf;
+    @Output VarBinaryHolder out;
+
+    public void setup() {
+      histogram = new ObjectHolder();
+      histogram.obj = new org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder();
+    }
+
+    @Override
+    public void add() {
+      sout: {
+        if (in.isSet == 0) {
+          // processing nullable input and the value is null, so don't do anything...
+          break sout;
+        }
+        ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj).offer(in.value);
+      } // end of sout block
+    }
+
+    @Override
+    public void output() {
+      org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder state =
+          (org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj;
+      buf = buf.reallocIfNeeded(state.getSerializedSize());
+      state.writeTo(buf, 0);
+      out.start = 0;
+      out.end = state.getSerializedSize();
+      out.buffer = buf;
+    }
+
+    @Override
+    public void reset() {
+      ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj).reset();
+    }
+  }
+
+  @FunctionTemplate(name = "statistics_histogram_merge", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class VarBinaryHistogramMerge implements DrillAggFunc {
+
+    @Param VarBinaryHolder in;
+    @Workspace ObjectHolder histogram;
+    @Inject DrillBuf buf;
+    @Output NullableVarCharHolder out;
+
+    public void setup() {
+      histogram = new ObjectHolder();
+      histogram.obj = new org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder();
+    }
+
+    @Override
+    public void add() {
+      ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj).merge(in.buffer, in.start, in.end);
+    }
+
+    @Override
+    public void output() {
+      org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder builder =
+          (org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj;
+      if (builder.isEmpty()) {
+        out.isSet = 0;
+      } else {
+        byte[] json = builder.toJson().getBytes(com.google.common.base.Charsets.UTF_8);
+        buf = buf.reallocIfNeeded(json.length);
+        buf.setBytes(0, json);
+        out.isSet = 1;
+        out.start = 0;
+        out.end = json.length;
+        out.buffer = buf;
+      }
+    }
+
+    @Override
+    public void reset() {
+      ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj).reset();
+    }
+  }
+
+  @FunctionTemplate(name = "statistics_histogram_merge", scope = FunctionTemplate.FunctionScope.POINT_AGGREGATE)
+  public static class NullableVarBinaryHistogramMerge implements DrillAggFunc {
+
+    @Param NullableVarBinaryHolder in;
+    @Workspace ObjectHolder histogram;
+    @Inject DrillBuf buf;
+    @Output NullableVarCharHolder out;
+
+    public void setup() {
+      histogram = new ObjectHolder();
+      histogram.obj = new org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder();
+    }
+
+    @Override
+    public void add() {
+      sout: {
+        if (in.isSet == 0) {
+          // processing nullable input and the value is null, so don't do anything...
+          break sout;
+        }
+        ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj)
+            .merge(in.buffer, in.start, in.end);
+      } // end of sout block
+    }
+
+    @Override
+    public void output() {
+      org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder builder =
+          (org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj;
+      if (builder.isEmpty()) {
+        out.isSet = 0;
+      } else {
+        byte[] json = builder.toJson().getBytes(com.google.common.base.Charsets.UTF_8);
+        buf = buf.reallocIfNeeded(json.length);
+        buf.setBytes(0, json);
+        out.isSet = 1;
+        out.start = 0;
+        out.end = json.length;
+        out.buffer = buf;
+      }
+    }
+
+    @Override
+    public void reset() {
+      ((org.apache.drill.exec.expr.fn.impl.EquiDepthHistogramBuilder) histogram.obj).reset();
+    }
+  }
+}
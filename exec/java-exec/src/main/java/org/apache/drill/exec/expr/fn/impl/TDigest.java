@@ -0,0 +1,216 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.expr.fn.impl;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest: a sketch of the distribution of a numeric column that answers quantile queries with an error
+ * that shrinks towards the tails. Used by aggregate functions which estimate percentiles.
+ * <p/>
+ * Values are buffered and periodically merged into a sorted list of centroids (mean, weight). A centroid may only
+ * grow while the quantile range it covers stays within one unit of the arcsine scale function, so there are at most
+ * about {@code compression} centroids whatever the number of values. Two digests are merged by sweeping their
+ * centroid lists together the same way, which makes the sketch usable in both phases of an aggregation.
+ */
+public class TDigest {
+  public static final double DEFAULT_COMPRESSION = 100;
+
+  private final double compression;
+  private final double[] buffer;
+  private int buffered;
+
+  private double[] means = new double[0];
+  private double[] weights = new double[0];
+  private double totalWeight;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+
+  public TDigest() {
+    this(DEFAULT_COMPRESSION);
+  }
+
+  public TDigest(double compression) {
+    this.compression = compression;
+    this.buffer = new double[5 * (int) Math.ceil(compression)];
+  }
+
+  public void offer(double value) {
+    if (Double.isNaN(value)) {
+      return;
+    }
+    if (buffered == buffer.length) {
+      flush();
+    }
+    buffer[buffered++] = value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  public boolean isEmpty() {
+    return buffered == 0 && totalWeight == 0;
+  }
+
+  /**
+   * @return the value below which the given fraction of the values offered to the digest fall, or NaN if the digest
+   *         is empty
+   */
+  public double quantile(double fraction) {
+    flush();
+    final int count = means.length;
+    if (count == 0) {
+      return Double.NaN;
+    }
+    if (count == 1) {
+      return means[0];
+    }
+    final double index = fraction * totalWeight;
+    if (index <= weights[0] / 2) {
+      return min + (means[0] - min) * index / (weights[0] / 2);
+    }
+    double weightSoFar = weights[0] / 2;
+    for (int i = 0; i < count - 1; i++) {
+      final double gap = (weights[i] + weights[i + 1]) / 2;
+      if (index <= weightSoFar + gap) {
+        return means[i] + (means[i + 1] - means[i]) * (index - weightSoFar) / gap;
+      }
+      weightSoFar += gap;
+    }
+    final double last = weights[count - 1] / 2;
+    return means[count - 1] + (max - means[count - 1]) * Math.min(1, (index - weightSoFar) / last);
+  }
+
+  /**
+   * @return the number of bytes written by {@link #writeTo(ByteBuf, int)}
+   */
+  public int getSerializedSize() {
+    flush();
+    return 28 + 16 * means.length;
+  }
+
+  /**
+   * Writes the centroids of the digest so that another digest can merge them.
+   */
+  public void writeTo(ByteBuf buf, int index) {
+    flush();
+    buf.setDouble(index, min);
+    buf.setDouble(index + 8, max);
+    buf.setDouble(index + 16, totalWeight);
+    buf.setInt(index + 24, means.length);
+    for (int i = 0; i < means.length; i++) {
+      buf.setDouble(index + 28 + 16 * i, means[i]);
+      buf.setDouble(index + 36 + 16 * i, weights[i]);
+    }
+  }
+
+  /**
+   * Folds a digest written by {@link #writeTo(ByteBuf, int)} into this one.
+   */
+  public void merge(ByteBuf buf, int start, int end) {
+    final int count = buf.getInt(start + 24);
+    if (end - start != 28 + 16 * count) {
+      throw new IllegalArgumentException(String.format(
+          "Serialized digest takes %d bytes, expected %d.", end - start, 28 + 16 * count));
+    }
+    if (count == 0) {
+      return;
+    }
+    flush();
+    final double[] otherMeans = new double[count];
+    final double[] otherWeights = new double[count];
+    for (int i = 0; i < count; i++) {
+      otherMeans[i] = buf.getDouble(start + 28 + 16 * i);
+      otherWeights[i] = buf.getDouble(start + 36 + 16 * i);
+    }
+    min = Math.min(min, buf.getDouble(start));
+    max = Math.max(max, buf.getDouble(start + 8));
+    merge(otherMeans, otherWeights, count, buf.getDouble(start + 16));
+  }
+
+  public void reset() {
+    buffered = 0;
+    means = new double[0];
+    weights = new double[0];
+    totalWeight = 0;
+    min = Double.POSITIVE_INFINITY;
+    max = Double.NEGATIVE_INFINITY;
+  }
+
+  private void flush() {
+    if (buffered == 0) {
+      return;
+    }
+    Arrays.sort(buffer, 0, buffered);
+    final double[] unit = new double[buffered];
+    Arrays.fill(unit, 1);
+    final int count = buffered;
+    buffered = 0;
+    merge(buffer, unit, count, count);
+  }
+
+  // Sweeps the centroids of this digest and the given sorted centroids together, merging neighbours while the
+  // quantile range of the merged centroid stays within one unit of the scale function.
+  private void merge(double[] otherMeans, double[] otherWeights, int otherCount, double otherWeight) {
+    final double total = totalWeight + otherWeight;
+    final double[] mergedMeans = new double[means.length + otherCount];
+    final double[] mergedWeights = new double[means.length + otherCount];
+    int merged = -1;
+    double weightSoFar = 0;
+    double weightLimit = total * integratedQ(1);
+    int i = 0;
+    int j = 0;
+    while (i < means.length || j < otherCount) {
+      final double mean;
+      final double weight;
+      if (j == otherCount || (i < means.length && means[i] <= otherMeans[j])) {
+        mean = means[i];
+        weight = weights[i++];
+      } else {
+        mean = otherMeans[j];
+        weight = otherWeights[j++];
+      }
+      if (merged >= 0 && weightSoFar + mergedWeights[merged] + weight <= weightLimit) {
+        mergedWeights[merged] += weight;
+        mergedMeans[merged] += (mean - mergedMeans[merged]) * weight / mergedWeights[merged];
+      } else {
+        if (merged >= 0) {
+          weightSoFar += mergedWeights[merged];
+          weightLimit = total * integratedQ(integratedLocation(weightSoFar / total) + 1);
+        }
+        merged++;
+        mergedMeans[merged] = mean;
+        mergedWeights[merged] = weight;
+      }
+    }
+    means = Arrays.copyOf(mergedMeans, merged + 1);
+    weights = Arrays.copyOf(mergedWeights, merged + 1);
+    totalWeight = total;
+  }
+
+  // k scale function: position of quantile q on a scale of 0 to compression, compressed at the tails
+  private double integratedLocation(double q) {
+    return compression * (Math.asin(2 * Math.min(1, q) - 1) + Math.PI / 2) / Math.PI;
+  }
+
+  // inverse of integratedLocation
+  private double integratedQ(double k) {
+    return (Math.sin(Math.min(k, compression) * Math.PI / compression - Math.PI / 2) + 1) / 2;
+  }
+}
@@ -39,6 +39,7 @@ import org.apache.drill.exec.expr.fn.FunctionImplementationRegistry;
 import org.apache.drill.exec.expr.holders.ValueHolder;
 import org.apache.drill.exec.memory.BufferAllocator;
 import org.apache.drill.exec.physical.base.PhysicalOperator;
+import org.apache.drill.exec.physical.impl.TopN.TopNThreshold;
 import org.apache.drill.exec.planner.physical.PlannerSettings;
 import org.apache.drill.exec.proto.BitControl.PlanFragment;
 import org.apache.drill.exec.proto.CoordinationProtos.DrillbitEndpoint;
@@ -108,6 +109,8 @@ public class FragmentContext implements AutoCloseable, UdfUtilities {
   private final AccountingUserConnection accountingUserConnection;
   /** Stores constants and their holders by type */
   private final Map<String, Map<MinorType, ValueHolder>> constantValueHolderCache;
+  /** TopN thresholds by the operator id of the scan they prune */
+  private final Map<Integer, TopNThreshold> topNThresholds = Maps.newHashMap();
 
   /**
    * Create a FragmentContext instance for non-root fragment.
@@ -461,6 +464,20 @@ public class FragmentContext implements AutoCloseable, UdfUtilities {
     return valueHolder;
   }
 
+  /**
+   * Makes the threshold of a TopN visible to the scan with the given operator id in this fragment.
+   */
+  public void registerTopNThreshold(int scanOperatorId, TopNThreshold threshold) {
+    topNThresholds.put(scanOperatorId, threshold);
+  }
+
+  /**
+   * @return the threshold a TopN registered for the scan with the given operator id, or null
+   */
+  public TopNThreshold getTopNThreshold(int scanOperatorId) {
+    return topNThresholds.get(scanOperatorId);
+  }
+
   public Executor getExecutor(){
     return context.getExecutor();
   }
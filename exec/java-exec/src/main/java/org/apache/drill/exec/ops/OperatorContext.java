@@ -51,6 +51,8 @@ public abstract class OperatorContext {
 
   public abstract ExecutorService getScanDecodeExecutor();
 
+  public abstract ExecutorService getCompressExecutor();
+
   public abstract ExecutionControls getExecutionControls();
 
   public abstract DrillFileSystem newFileSystem(Configuration conf) throws IOException;
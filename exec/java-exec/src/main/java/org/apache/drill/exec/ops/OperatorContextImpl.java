@@ -52,6 +52,7 @@ class OperatorContextImpl extends OperatorContext implements AutoCloseable {
   private final ExecutorService executor;
   private final ExecutorService scanExecutor;
   private final ExecutorService scanDecodeExecutor;
+  private final ExecutorService compressExecutor;
 
   /**
    * This lazily initialized executor service is used to submit a {@link Callable task} that needs a proxy user. There
@@ -74,6 +75,7 @@ class OperatorContextImpl extends OperatorContext implements AutoCloseable {
     executor = context.getDrillbitContext().getExecutor();
     scanExecutor = context.getDrillbitContext().getScanExecutor();
     scanDecodeExecutor = context.getDrillbitContext().getScanDecodeExecutor();
+    compressExecutor = context.getDrillbitContext().getCompressExecutor();
   }
 
   public OperatorContextImpl(PhysicalOperator popConfig, FragmentContext context, OperatorStats stats)
@@ -87,6 +89,7 @@ class OperatorContextImpl extends OperatorContext implements AutoCloseable {
     executor = context.getDrillbitContext().getExecutor();
     scanExecutor = context.getDrillbitContext().getScanExecutor();
     scanDecodeExecutor = context.getDrillbitContext().getScanDecodeExecutor();
+    compressExecutor = context.getDrillbitContext().getCompressExecutor();
   }
 
   public DrillBuf replace(DrillBuf old, int newSize) {
@@ -111,6 +114,9 @@ class OperatorContextImpl extends OperatorContext implements AutoCloseable {
   public ExecutorService getScanDecodeExecutor() {
     return scanDecodeExecutor;
   }
+  public ExecutorService getCompressExecutor() {
+    return compressExecutor;
+  }
 
   public ExecutionControls getExecutionControls() {
     return executionControls;
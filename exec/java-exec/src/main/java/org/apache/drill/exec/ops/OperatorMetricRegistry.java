@@ -21,11 +21,18 @@ import org.apache.drill.exec.physical.impl.ScreenCreator;
 import org.apache.drill.exec.physical.impl.SingleSenderCreator;
 import org.apache.drill.exec.physical.impl.aggregate.HashAggTemplate;
 import org.apache.drill.exec.physical.impl.broadcastsender.BroadcastSenderRootExec;
+import org.apache.drill.exec.physical.impl.filter.FilterRecordBatch;
+import org.apache.drill.exec.physical.impl.flatten.FlattenRecordBatch;
 import org.apache.drill.exec.physical.impl.join.HashJoinBatch;
+import org.apache.drill.exec.physical.impl.join.MergeJoinBatch;
+import org.apache.drill.exec.physical.impl.join.NestedLoopJoinBatch;
 import org.apache.drill.exec.physical.impl.mergereceiver.MergingRecordBatch;
 import org.apache.drill.exec.physical.impl.partitionsender.PartitionSenderRootExec;
+import org.apache.drill.exec.physical.impl.project.ProjectRecordBatch;
 import org.apache.drill.exec.physical.impl.unorderedreceiver.UnorderedReceiverBatch;
+import org.apache.drill.exec.physical.impl.window.WindowFrameRecordBatch;
 import org.apache.drill.exec.physical.impl.xsort.ExternalSortBatch;
+import org.apache.drill.exec.store.parquet.ParquetRecordWriter;
 import org.apache.drill.exec.store.parquet.columnreaders.ParquetRecordReader;
 import org.apache.drill.exec.proto.UserBitShared.CoreOperatorType;
 
@@ -49,6 +56,13 @@ public class OperatorMetricRegistry {
     register(CoreOperatorType.HASH_JOIN_VALUE, HashJoinBatch.Metric.class);
     register(CoreOperatorType.EXTERNAL_SORT_VALUE, ExternalSortBatch.Metric.class);
     register(CoreOperatorType.PARQUET_ROW_GROUP_SCAN_VALUE, ParquetRecordReader.Metric.class);
+    register(CoreOperatorType.PARQUET_WRITER_VALUE, ParquetRecordWriter.Metric.class);
+    register(CoreOperatorType.PROJECT_VALUE, ProjectRecordBatch.Metric.class);
+    register(CoreOperatorType.FILTER_VALUE, FilterRecordBatch.Metric.class);
+    register(CoreOperatorType.WINDOW_VALUE, WindowFrameRecordBatch.Metric.class);
+    register(CoreOperatorType.NESTED_LOOP_JOIN_VALUE, NestedLoopJoinBatch.Metric.class);
+    register(CoreOperatorType.MERGE_JOIN_VALUE, MergeJoinBatch.Metric.class);
+    register(CoreOperatorType.FLATTEN_VALUE, FlattenRecordBatch.Metric.class);
   }
 
   private static void register(final int operatorType, final Class<? extends MetricDef> metricDef) {
@@ -0,0 +1,36 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.ops;
+
+/**
+ * Work a query defers until it has ended, such as publishing files it has written. Listeners are added to the
+ * {@link QueryContext} while the query is planned and called by the Foreman once the query has completed, failed or
+ * been cancelled.
+ */
+public interface QueryCompletionListener {
+
+  /**
+   * Called once the query has completed successfully. An exception thrown here fails the query.
+   */
+  void completed() throws Exception;
+
+  /**
+   * Called instead of {@link #completed()} if the query failed or was cancelled.
+   */
+  void failed();
+}
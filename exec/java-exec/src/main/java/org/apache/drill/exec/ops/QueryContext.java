@@ -37,6 +37,8 @@ import org.apache.drill.exec.expr.holders.ValueHolder;
 import org.apache.drill.exec.memory.BufferAllocator;
 import org.apache.drill.exec.planner.physical.PlannerSettings;
 import org.apache.drill.exec.planner.sql.DrillOperatorTable;
+import org.apache.drill.exec.planner.sql.MaterializedViewRegistry;
+import org.apache.drill.exec.planner.sql.PlanCache;
 import org.apache.drill.exec.proto.BitControl.QueryContextInformation;
 import org.apache.drill.exec.proto.CoordinationProtos.DrillbitEndpoint;
 import org.apache.drill.exec.proto.UserBitShared.QueryId;
@@ -78,6 +80,11 @@ public class QueryContext implements AutoCloseable, OptimizerRulesContext, Schem
   /** Stores constants and their holders by type */
   private final Map<String, Map<MinorType, ValueHolder>> constantValueHolderCache;
 
+  private final QueryId queryId;
+
+  /** Work deferred until the query has ended, in the order it was added */
+  private final List<QueryCompletionListener> completionListeners = Lists.newArrayList();
+
   /*
    * Flag to indicate if close has been called, after calling close the first
    * time this is set to true and the close method becomes a no-op.
@@ -87,6 +94,7 @@ public class QueryContext implements AutoCloseable, OptimizerRulesContext, Schem
   public QueryContext(final UserSession session, final DrillbitContext drillbitContext, QueryId queryId) {
     this.drillbitContext = drillbitContext;
     this.session = session;
+    this.queryId = queryId;
     queryOptions = new QueryOptionManager(session.getOptions());
     executionControls = new ExecutionControls(queryOptions, drillbitContext.getEndpoint());
     plannerSettings = new PlannerSettings(queryOptions, getFunctionRegistry());
@@ -188,6 +196,29 @@ public class QueryContext implements AutoCloseable, OptimizerRulesContext, Schem
     return drillbitContext.getStorage();
   }
 
+  public PlanCache getPlanCache() {
+    return drillbitContext.getPlanCache();
+  }
+
+  public MaterializedViewRegistry getMaterializedViewRegistry() {
+    return drillbitContext.getMaterializedViewRegistry();
+  }
+
+  public QueryId getQueryId() {
+    return queryId;
+  }
+
+  /**
+   * Adds work to be done by the Foreman once the query has ended, see {@link QueryCompletionListener}.
+   */
+  public void addCompletionListener(QueryCompletionListener listener) {
+    completionListeners.add(listener);
+  }
+
+  public List<QueryCompletionListener> getCompletionListeners() {
+    return completionListeners;
+  }
+
   public LogicalPlanPersistence getLpPersistence() {
     return drillbitContext.getLpPersistence();
   }
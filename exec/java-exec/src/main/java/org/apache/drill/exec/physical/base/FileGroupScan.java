@@ -27,4 +27,9 @@ public interface FileGroupScan extends GroupScan {
 
   public FileGroupScan clone(FileSelection selection) throws IOException;
 
+  /**
+   * @return the directory or file the selection of this scan was made from
+   */
+  public String getSelectionRoot();
+
 }
\ No newline at end of file
@@ -35,18 +35,33 @@ public class Filter extends AbstractSingle {
 
   private final LogicalExpression expr;
   private final float selectivity;
+  private final boolean compact;
+
+  public Filter(PhysicalOperator child, LogicalExpression expr, float selectivity) {
+    this(child, expr, selectivity, true);
+  }
 
   @JsonCreator
-  public Filter(@JsonProperty("child") PhysicalOperator child, @JsonProperty("expr") LogicalExpression expr, @JsonProperty("selectivity") float selectivity) {
+  public Filter(@JsonProperty("child") PhysicalOperator child, @JsonProperty("expr") LogicalExpression expr,
+      @JsonProperty("selectivity") float selectivity, @JsonProperty("compact") Boolean compact) {
     super(child);
     this.expr = expr;
     this.selectivity = selectivity;
+    this.compact = compact == null || compact;
   }
 
   public LogicalExpression getExpr() {
     return expr;
   }
 
+  /**
+   * @return whether batches with few selected records may be compacted into dense vectors; false when the output
+   * goes straight to a selection vector remover
+   */
+  public boolean isCompact() {
+    return compact;
+  }
+
   @Override
   public <T, X, E extends Throwable> T accept(PhysicalVisitor<T, X, E> physicalVisitor, X value) throws E{
     return physicalVisitor.visitFilter(this, value);
@@ -54,7 +69,7 @@ public class Filter extends AbstractSingle {
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new Filter(child, expr, selectivity);
+    return new Filter(child, expr, selectivity, compact);
   }
 
   @Override
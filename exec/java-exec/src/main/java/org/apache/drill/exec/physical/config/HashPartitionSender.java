@@ -27,6 +27,8 @@ import org.apache.drill.exec.physical.base.PhysicalVisitor;
 import org.apache.drill.exec.proto.UserBitShared.CoreOperatorType;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 
@@ -35,25 +37,51 @@ public class HashPartitionSender extends AbstractSender {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(HashPartitionSender.class);
 
   private final LogicalExpression expr;
+  private final LogicalExpression skewExpr;
+  private final boolean broadcastSkewed;
+
+  public HashPartitionSender(int oppositeMajorFragmentId, PhysicalOperator child, LogicalExpression expr,
+                             List<MinorFragmentEndpoint> endpoints) {
+    this(oppositeMajorFragmentId, child, expr, endpoints, null, false);
+  }
 
   @JsonCreator
   public HashPartitionSender(@JsonProperty("receiver-major-fragment") int oppositeMajorFragmentId,
                              @JsonProperty("child") PhysicalOperator child,
                              @JsonProperty("expr") LogicalExpression expr,
-                             @JsonProperty("destinations") List<MinorFragmentEndpoint> endpoints) {
+                             @JsonProperty("destinations") List<MinorFragmentEndpoint> endpoints,
+                             @JsonProperty("skewExpr") LogicalExpression skewExpr,
+                             @JsonProperty("broadcastSkewed") boolean broadcastSkewed) {
     super(oppositeMajorFragmentId, child, endpoints);
     this.expr = expr;
+    this.skewExpr = skewExpr;
+    this.broadcastSkewed = broadcastSkewed;
   }
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new HashPartitionSender(oppositeMajorFragmentId, child, expr, destinations);
+    return new HashPartitionSender(oppositeMajorFragmentId, child, expr, destinations, skewExpr, broadcastSkewed);
   }
 
   public LogicalExpression getExpr() {
     return expr;
   }
 
+  /**
+   * @return the condition matching the rows of hot keys, which are not hash partitioned; null if there are none
+   */
+  @JsonInclude(Include.NON_NULL)
+  public LogicalExpression getSkewExpr() {
+    return skewExpr;
+  }
+
+  /**
+   * @return true if the rows of hot keys go to every receiver, false if they are spread round-robin
+   */
+  public boolean isBroadcastSkewed() {
+    return broadcastSkewed;
+  }
+
   @Override
   public <T, X, E extends Throwable> T accept(PhysicalVisitor<T, X, E> physicalVisitor, X value) throws E {
     return physicalVisitor.visitHashPartitionSender(this, value);
@@ -27,6 +27,8 @@ import org.apache.drill.exec.physical.base.Receiver;
 import org.apache.drill.exec.physical.base.Sender;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 
@@ -41,17 +43,27 @@ public class HashToRandomExchange extends AbstractExchange{
   }
 
   private final LogicalExpression expr;
+  private final LogicalExpression skewExpr;
+  private final boolean broadcastSkewed;
+
+  public HashToRandomExchange(PhysicalOperator child, LogicalExpression expr) {
+    this(child, expr, null, false);
+  }
 
   @JsonCreator
-  public HashToRandomExchange(@JsonProperty("child") PhysicalOperator child, @JsonProperty("expr") LogicalExpression expr) {
+  public HashToRandomExchange(@JsonProperty("child") PhysicalOperator child, @JsonProperty("expr") LogicalExpression expr,
+                              @JsonProperty("skewExpr") LogicalExpression skewExpr,
+                              @JsonProperty("broadcastSkewed") boolean broadcastSkewed) {
     super(child);
     this.expr = expr;
+    this.skewExpr = skewExpr;
+    this.broadcastSkewed = broadcastSkewed;
   }
 
   @Override
   public Sender getSender(int minorFragmentId, PhysicalOperator child) {
     return new HashPartitionSender(receiverMajorFragmentId, child, expr,
-        PhysicalOperatorUtil.getIndexOrderedEndpoints(receiverLocations));
+        PhysicalOperatorUtil.getIndexOrderedEndpoints(receiverLocations), skewExpr, broadcastSkewed);
   }
 
   @Override
@@ -61,11 +73,22 @@ public class HashToRandomExchange extends AbstractExchange{
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new HashToRandomExchange(child, expr);
+    return new HashToRandomExchange(child, expr, skewExpr, broadcastSkewed);
   }
 
   @JsonProperty("expr")
   public LogicalExpression getExpression(){
     return expr;
   }
+
+  @JsonProperty("skewExpr")
+  @JsonInclude(Include.NON_NULL)
+  public LogicalExpression getSkewExpression() {
+    return skewExpr;
+  }
+
+  @JsonProperty("broadcastSkewed")
+  public boolean isBroadcastSkewed() {
+    return broadcastSkewed;
+  }
 }
@@ -44,9 +44,9 @@ public class NestedLoopJoinPOP extends AbstractBase {
   private final PhysicalOperator right;
 
   /*
-   * Conditions and jointype are currently not used, since the condition is always true
-   * and we don't perform any special execution operation based on join type either. However
-   * when we enhance NLJ this would be used.
+   * The join condition itself is applied by a filter above the NLJ. Conditions only carry <, <=, > and >=
+   * comparisons of one left column with right columns (see BandIndex), which restrict the pairs the NLJ
+   * produces to those the filter can keep. Jointype is currently not used.
    */
   private final List<JoinCondition> conditions;
   private final JoinRelType joinType;
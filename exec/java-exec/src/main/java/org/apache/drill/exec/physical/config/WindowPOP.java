@@ -96,6 +96,14 @@ public class WindowPOP extends AbstractSingle {
     return frameUnitsRows;
   }
 
+  /**
+   * @return true if a bound of the frame is n PRECEDING or n FOLLOWING rather than UNBOUNDED or CURRENT ROW
+   */
+  @JsonIgnore
+  public boolean hasOffsetFrame() {
+    return start.isOffset() || end.isOffset();
+  }
+
   @JsonTypeName("windowBound")
   public static class Bound {
     private final boolean unbounded;
@@ -115,12 +123,34 @@ public class WindowPOP extends AbstractSingle {
       return offset == 0;
     }
 
+    /**
+     * @return true for n PRECEDING and n FOLLOWING bounds
+     */
+    @JsonIgnore
+    public boolean isOffset() {
+      return !unbounded && offset != 0;
+    }
+
+    /**
+     * @return for a bounded frame, the distance of the bound from the current row: negative when PRECEDING and
+     *         positive when FOLLOWING. Counted in rows for ROWS frames, and in units of the order by key for RANGE
+     *         frames.
+     */
     public long getOffset() {
       return offset;
     }
   }
 
-  public static Bound newBound(RexWindowBound windowBound) {
-    return new Bound(windowBound.isUnbounded(), windowBound.isCurrentRow() ? 0 : Long.MIN_VALUE); //TODO: Get offset to work
+  /**
+   * @param offset distance of an n PRECEDING or n FOLLOWING bound from the current row, ignored for other bounds
+   */
+  public static Bound newBound(RexWindowBound windowBound, long offset) {
+    if (windowBound.isUnbounded()) {
+      return new Bound(true, Long.MIN_VALUE);
+    }
+    if (windowBound.isCurrentRow()) {
+      return new Bound(false, 0);
+    }
+    return new Bound(false, windowBound.isPreceding() ? -offset : offset);
   }
 }
@@ -35,6 +35,7 @@ import org.apache.drill.exec.expr.TypeHelper;
 import org.apache.drill.exec.ops.FragmentContext;
 import org.apache.drill.exec.ops.OperatorContext;
 import org.apache.drill.exec.physical.base.PhysicalOperator;
+import org.apache.drill.exec.physical.impl.TopN.TopNThreshold;
 import org.apache.drill.exec.record.BatchSchema;
 import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
 import org.apache.drill.exec.record.CloseableRecordBatch;
@@ -83,12 +84,14 @@ public class ScanBatch implements CloseableRecordBatch {
   private Map<String, ValueVector> implicitVectors;
   private Iterator<Map<String, String>> implicitColumns;
   private Map<String, String> implicitValues;
+  private final int operatorId;
 
   public ScanBatch(PhysicalOperator subScanConfig, FragmentContext context,
                    OperatorContext oContext, Iterator<RecordReader> readers,
                    List<Map<String, String>> implicitColumns) throws ExecutionSetupException {
     this.context = context;
     this.readers = readers;
+    this.operatorId = subScanConfig != null ? subScanConfig.getOperatorId() : -1;
     if (!readers.hasNext()) {
       throw new ExecutionSetupException("A scan batch must contain at least one reader.");
     }
@@ -209,6 +212,7 @@ public class ScanBatch implements CloseableRecordBatch {
           currentReader.close();
           currentReader = readers.next();
           implicitValues = implicitColumns.hasNext() ? implicitColumns.next() : null;
+          skipReaders();
           currentReader.setup(oContext, mutator);
           try {
             currentReader.allocate(fieldVectorMap);
@@ -257,6 +261,25 @@ public class ScanBatch implements CloseableRecordBatch {
     }
   }
 
+  /**
+   * Moves past readers a TopN above this scan has ruled out, without setting them up. The last reader is always
+   * kept so the scan ends the same way whether or not readers were skipped.
+   */
+  private void skipReaders() throws Exception {
+    final TopNThreshold threshold = context.getTopNThreshold(operatorId);
+    if (threshold == null) {
+      return;
+    }
+    while (readers.hasNext() && currentReader instanceof TopNThreshold.SkippableReader
+        && ((TopNThreshold.SkippableReader) currentReader).canSkip(threshold)) {
+      logger.debug("Skipping reader {}, none of its rows can pass {}", currentReader, threshold);
+      oContext.getStats().addLongStat(((TopNThreshold.SkippableReader) currentReader).getSkippedMetric(), 1);
+      currentReader.close();
+      currentReader = readers.next();
+      implicitValues = implicitColumns.hasNext() ? implicitColumns.next() : null;
+    }
+  }
+
   private void addImplicitVectors() throws ExecutionSetupException {
     try {
       if (implicitVectors != null) {
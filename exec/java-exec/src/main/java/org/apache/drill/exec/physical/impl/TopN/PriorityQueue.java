@@ -26,7 +26,16 @@ import org.apache.drill.exec.record.VectorContainer;
 import org.apache.drill.exec.record.selection.SelectionVector4;
 
 public interface PriorityQueue {
-  public void add(FragmentContext context, RecordBatchData batch) throws SchemaChangeException;
+  /**
+   * Adds the rows of the batch to the queue.
+   * @return false if the queue was already full and none of the rows sorted before its current last row; in
+   *         that case the batch is not kept by the queue and the caller still owns its vectors
+   */
+  public boolean add(FragmentContext context, RecordBatchData batch) throws SchemaChangeException;
+  /**
+   * @return true once the queue holds limit rows, from then on the root of the heap is the current last row
+   */
+  public boolean isFull();
   public void init(int limit, FragmentContext context, BufferAllocator allocator, boolean hasSv2) throws SchemaChangeException;
   public void generate() throws SchemaChangeException;
   public VectorContainer getHyperBatch();
@@ -88,7 +88,7 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
   }
 
   @Override
-  public void add(FragmentContext context, RecordBatchData batch) throws SchemaChangeException{
+  public boolean add(FragmentContext context, RecordBatchData batch) throws SchemaChangeException{
     Stopwatch watch = Stopwatch.createStarted();
     if (hyperBatch == null) {
       hyperBatch = new ExpandableHyperContainer(batch.getContainer());
@@ -99,6 +99,7 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     doSetup(context, hyperBatch, null); // may not need to do this every time
 
     int count = 0;
+    int kept = 0;
     SelectionVector2 sv2 = null;
     if (hasSv2) {
       sv2 = batch.getSv2();
@@ -106,6 +107,7 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     for (; queueSize < limit && count < batch.getRecordCount();  count++) {
       heapSv4.set(queueSize, batchCount, hasSv2 ? sv2.getIndex(count) : count);
       queueSize++;
+      kept++;
       siftUp();
     }
     for (; count < batch.getRecordCount(); count++) {
@@ -113,13 +115,26 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
       if (compare(limit, 0) < 0) {
         swap(limit, 0);
         siftDown();
+        kept++;
       }
     }
-    batchCount++;
     if (hasSv2) {
       sv2.clear();
     }
+    if (kept == 0 && batchCount > 0) {
+      // No row beat the root of the full heap, nothing refers to this batch so don't hold on to it until the next purge.
+      hyperBatch.removeLastBatch();
+      logger.debug("Took {} us to reject {} records", watch.elapsed(TimeUnit.MICROSECONDS), count);
+      return false;
+    }
+    batchCount++;
     logger.debug("Took {} us to add {} records", watch.elapsed(TimeUnit.MICROSECONDS), count);
+    return true;
+  }
+
+  @Override
+  public boolean isFull() {
+    return queueSize == limit;
   }
 
   @Override
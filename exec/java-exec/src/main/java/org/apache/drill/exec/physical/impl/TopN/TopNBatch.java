@@ -28,7 +28,9 @@ import org.apache.drill.common.expression.ErrorCollector;
 import org.apache.drill.common.expression.ErrorCollectorImpl;
 import org.apache.drill.common.expression.LogicalExpression;
 import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.common.logical.data.NamedExpression;
 import org.apache.drill.common.logical.data.Order.Ordering;
+import org.apache.drill.common.types.TypeProtos.MinorType;
 import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.compile.sig.MappingSet;
 import org.apache.drill.exec.exception.ClassTransformationException;
@@ -41,11 +43,18 @@ import org.apache.drill.exec.expr.ExpressionTreeMaterializer;
 import org.apache.drill.exec.expr.TypeHelper;
 import org.apache.drill.exec.expr.fn.FunctionGenerationHelper;
 import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.physical.base.AbstractSingle;
+import org.apache.drill.exec.physical.base.PhysicalOperator;
+import org.apache.drill.exec.physical.base.SubScan;
+import org.apache.drill.exec.physical.config.Filter;
+import org.apache.drill.exec.physical.config.Project;
+import org.apache.drill.exec.physical.config.SelectionVectorRemover;
 import org.apache.drill.exec.physical.config.TopN;
 import org.apache.drill.exec.physical.impl.sort.RecordBatchData;
 import org.apache.drill.exec.physical.impl.sort.SortRecordBatchBuilder;
 import org.apache.drill.exec.physical.impl.svremover.Copier;
 import org.apache.drill.exec.physical.impl.svremover.RemovingRecordBatch;
+import org.apache.drill.exec.planner.StarColumnHelper;
 import org.apache.drill.exec.record.AbstractRecordBatch;
 import org.apache.drill.exec.record.BatchSchema;
 import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
@@ -87,12 +96,92 @@ public class TopNBatch extends AbstractRecordBatch<TopN> {
   private Copier copier;
   private boolean first = true;
   private int recordCount = 0;
+  private TopNThreshold threshold;
+  private String thresholdKey;
 
   public TopNBatch(TopN popConfig, FragmentContext context, RecordBatch incoming) throws OutOfMemoryException {
     super(popConfig, context);
     this.incoming = incoming;
     this.config = popConfig;
     batchPurgeThreshold = context.getConfig().getInt(ExecConstants.BATCH_PURGE_THRESHOLD);
+    if (context.getOptions().getOption(ExecConstants.TOPN_SCAN_PRUNING)) {
+      registerThreshold();
+    }
+  }
+
+  /**
+   * Registers a threshold for the scan feeding this TopN when the first sort key is a plain column of that scan
+   * and only filters, selection vector removers and projections that pass the column through are in between.
+   */
+  private void registerThreshold() {
+    final Ordering first = config.getOrderings().get(0);
+    if (config.getLimit() <= 0 || !(first.getExpr() instanceof SchemaPath)
+        || !((SchemaPath) first.getExpr()).getRootSegment().isLastPath()) {
+      return;
+    }
+    final String key = ((SchemaPath) first.getExpr()).getRootSegment().getPath();
+    String column = key;
+    PhysicalOperator op = config.getChild();
+    while (!(op instanceof SubScan)) {
+      if (op instanceof Filter || op instanceof SelectionVectorRemover) {
+        op = ((AbstractSingle) op).getChild();
+      } else if (op instanceof Project) {
+        column = getProjectedColumn((Project) op, column);
+        if (column == null) {
+          return;
+        }
+        op = ((Project) op).getChild();
+      } else {
+        return;
+      }
+    }
+    final boolean descending = first.getDirection() == Direction.DESCENDING;
+    threshold = new TopNThreshold(column, descending, first.nullsSortHigh() == descending);
+    thresholdKey = key;
+    context.registerTopNThreshold(op.getOperatorId(), threshold);
+  }
+
+  /**
+   * @return the input column the project copies into the given output column, or null if it computes it
+   */
+  private static String getProjectedColumn(Project project, String column) {
+    boolean star = false;
+    for (NamedExpression ne : project.getExprs()) {
+      final String ref = ne.getRef().getRootSegment().getPath();
+      if (ref.equalsIgnoreCase(column)) {
+        if (ne.getExpr() instanceof SchemaPath && ((SchemaPath) ne.getExpr()).getRootSegment().isLastPath()) {
+          return ((SchemaPath) ne.getExpr()).getRootSegment().getPath();
+        }
+        return null;
+      }
+      star |= ref.equals(StarColumnHelper.STAR_COLUMN) && ne.getExpr() instanceof SchemaPath
+          && ((SchemaPath) ne.getExpr()).getRootSegment().getPath().equals(StarColumnHelper.STAR_COLUMN);
+    }
+    return star ? column : null;
+  }
+
+  /**
+   * Publishes the first sort key of the row at the root of the full heap, the last row of the current top N.
+   */
+  private void updateThreshold() {
+    if (threshold == null || !priorityQueue.isFull()) {
+      return;
+    }
+    for (VectorWrapper<?> w : priorityQueue.getHyperBatch()) {
+      if (!w.getField().getPath().equalsIgnoreCase(thresholdKey)) {
+        continue;
+      }
+      final MinorType type = w.getField().getType().getMinorType();
+      if (type != MinorType.INT && type != MinorType.BIGINT) {
+        return;
+      }
+      final int root = priorityQueue.getHeapSv4().get(0);
+      final Object value = w.getValueVectors()[root >>> 16].getAccessor().getObject(root & 65535);
+      if (value != null) {
+        threshold.set(((Number) value).longValue());
+      }
+      return;
+    }
   }
 
   @Override
@@ -224,8 +313,6 @@ public class TopNBatch extends AbstractRecordBatch<TopN> {
             }
             break;
           }
-          countSincePurge += incoming.getRecordCount();
-          batchCount++;
           RecordBatchData batch;
           if (schemaChanged) {
             batch = new RecordBatchData(SchemaUtil.coerceContainer(incoming, this.schema, oContext), oContext.getAllocator());
@@ -239,12 +326,19 @@ public class TopNBatch extends AbstractRecordBatch<TopN> {
               assert !schemaChanged;
               priorityQueue = createNewPriorityQueue(context, config.getOrderings(), new ExpandableHyperContainer(batch.getContainer()), MAIN_MAPPING, LEFT_MAPPING, RIGHT_MAPPING);
             }
-            priorityQueue.add(context, batch);
-            if (countSincePurge > config.getLimit() && batchCount > batchPurgeThreshold) {
-              purge();
-              countSincePurge = 0;
-              batchCount = 0;
+            if (priorityQueue.add(context, batch)) {
+              countSincePurge += incoming.getRecordCount();
+              batchCount++;
+              if (countSincePurge > config.getLimit() && batchCount > batchPurgeThreshold) {
+                purge();
+                countSincePurge = 0;
+                batchCount = 0;
+              }
+            } else {
+              // the queue didn't keep any row of the batch
+              batch.clear();
             }
+            updateThreshold();
             success = true;
           } finally {
             if (!success) {
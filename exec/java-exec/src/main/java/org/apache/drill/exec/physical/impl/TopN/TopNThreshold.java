@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.TopN;
+
+import org.apache.drill.exec.ops.MetricDef;
+
+/**
+ * Sort key value of the last row a TopN currently holds, published for the scan below it. Once the queue is full
+ * a row can only make the top N if its first sort key sorts no later than this value, so readers whose statistics
+ * show that every row sorts strictly after it can be skipped. The value only ever improves as rows are added.
+ *
+ * Only integer first sort keys are tracked; the TopN and the scan run in the same fragment thread.
+ */
+public class TopNThreshold {
+
+  /**
+   * Implemented by readers that can tell from metadata, before being set up, that none of their rows can pass a
+   * threshold.
+   */
+  public interface SkippableReader {
+    boolean canSkip(TopNThreshold threshold);
+
+    /**
+     * @return metric of the scan counting the readers skipped this way
+     */
+    MetricDef getSkippedMetric();
+  }
+
+  private final String column;
+  private final boolean descending;
+  private final boolean nullsFirst;
+  private boolean set;
+  private long value;
+
+  /**
+   * @param column scan column the first sort key reads
+   * @param descending whether the first sort key is descending
+   * @param nullsFirst whether null keys sort before all values
+   */
+  public TopNThreshold(String column, boolean descending, boolean nullsFirst) {
+    this.column = column;
+    this.descending = descending;
+    this.nullsFirst = nullsFirst;
+  }
+
+  public String getColumn() {
+    return column;
+  }
+
+  public boolean isSet() {
+    return set;
+  }
+
+  void set(long value) {
+    this.value = value;
+    this.set = true;
+  }
+
+  /**
+   * @param min smallest non null value of the column in the rows to skip
+   * @param max largest non null value of the column in the rows to skip
+   * @param hasNulls whether some of the rows hold null in the column
+   * @return true if none of the rows can make the top N
+   */
+  public boolean canSkip(long min, long max, boolean hasNulls) {
+    if (!set || (hasNulls && nullsFirst)) {
+      return false;
+    }
+    return descending ? max < value : min > value;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s %s %s", column, descending ? "<" : ">", set ? String.valueOf(value) : "?");
+  }
+}
@@ -33,6 +33,7 @@ import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
 import org.apache.drill.exec.record.MaterializedField;
 import org.apache.drill.exec.record.RecordBatch;
 import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.store.ColumnarRecordWriter;
 import org.apache.drill.exec.store.EventBasedRecordWriter;
 import org.apache.drill.exec.store.RecordWriter;
 import org.apache.drill.exec.vector.AllocationHelper;
@@ -44,6 +45,7 @@ public class WriterRecordBatch extends AbstractRecordBatch<Writer> {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WriterRecordBatch.class);
 
   private EventBasedRecordWriter eventBasedRecordWriter;
+  private ColumnarRecordWriter columnarRecordWriter;
   private RecordWriter recordWriter;
   private long counter = 0;
   private final RecordBatch incoming;
@@ -103,7 +105,11 @@ public class WriterRecordBatch extends AbstractRecordBatch<Writer> {
             setupNewSchema();
             // $FALL-THROUGH$
           case OK:
-            counter += eventBasedRecordWriter.write(incoming.getRecordCount());
+            if (columnarRecordWriter != null) {
+              counter += columnarRecordWriter.writeBatch(incoming, incoming.getRecordCount());
+            } else {
+              counter += eventBasedRecordWriter.write(incoming.getRecordCount());
+            }
             logger.debug("Total records written so far: {}", counter);
 
             for(final VectorWrapper<?> v : incoming) {
@@ -169,7 +175,14 @@ public class WriterRecordBatch extends AbstractRecordBatch<Writer> {
       stats.stopSetup();
     }
 
-    eventBasedRecordWriter = new EventBasedRecordWriter(incoming, recordWriter);
+    // writers that support it take whole batches; everything else is driven record by record
+    if (recordWriter instanceof ColumnarRecordWriter && ((ColumnarRecordWriter) recordWriter).isColumnar()) {
+      columnarRecordWriter = (ColumnarRecordWriter) recordWriter;
+      eventBasedRecordWriter = null;
+    } else {
+      columnarRecordWriter = null;
+      eventBasedRecordWriter = new EventBasedRecordWriter(incoming, recordWriter);
+    }
     container.buildSchema(SelectionVectorMode.NONE);
     schema = container.getSchema();
   }
@@ -139,6 +139,14 @@ public class HashAggBatch extends AbstractRecordBatch<HashAggregate> {
       return aggregator.outputCurrentBatch();
     }
 
+    if (aggregator.isFlushing()) {
+      // a partial aggregate is emitting its groups in the middle of its input
+      IterOutcome outcome = aggregator.outputCurrentBatch();
+      if (outcome != IterOutcome.NONE) {
+        return outcome;
+      }
+    }
+
     logger.debug("Starting aggregator doWork; incoming record count = {} ", incoming.getRecordCount());
 
     AggOutcome out = aggregator.doWork();
@@ -30,6 +30,7 @@ import org.apache.drill.common.expression.ExpressionPosition;
 import org.apache.drill.common.expression.FieldReference;
 import org.apache.drill.common.expression.LogicalExpression;
 import org.apache.drill.common.types.TypeProtos.MajorType;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.compile.sig.RuntimeOverridden;
 import org.apache.drill.exec.exception.ClassTransformationException;
 import org.apache.drill.exec.exception.SchemaChangeException;
@@ -97,6 +98,16 @@ public abstract class HashAggTemplate implements HashAggregator {
   private boolean allFlushed = false;
   private boolean buildComplete = false;
 
+  // adaptive partial aggregation: after sampling, a first phase aggregate that barely reduces its input passes the
+  // remaining rows through as single row groups, emitted whenever a full batch of them has been collected
+  // (see ExecConstants.HASHAGG_ADAPTIVE_PARTIAL)
+  private boolean adaptive = false;
+  private long adaptiveSampleRows;
+  private double adaptiveMinReduction;
+  private boolean passThrough = false;
+  private long passThroughRecords;
+  private boolean flushing = false;
+
   private OperatorStats stats = null;
   private HashTableStats htStats = new HashTableStats();
 
@@ -105,7 +116,9 @@ public abstract class HashAggTemplate implements HashAggregator {
     NUM_BUCKETS,
     NUM_ENTRIES,
     NUM_RESIZING,
-    RESIZING_TIME;
+    RESIZING_TIME,
+    ADAPTIVE_FLUSHES,
+    PASS_THROUGH_RECORDS;
 
     // duplicate for hash ag
 
@@ -241,6 +254,14 @@ public abstract class HashAggTemplate implements HashAggregator {
 
     this.hashAggrConfig = hashAggrConfig;
 
+    if (hashAggrConfig.isPartial()
+        && context.getOptions().getOption(ExecConstants.HASHAGG_ADAPTIVE_PARTIAL_KEY).bool_val) {
+      adaptive = true;
+      adaptiveSampleRows = context.getOptions().getOption(ExecConstants.HASHAGG_ADAPTIVE_SAMPLE_ROWS_KEY).num_val;
+      adaptiveMinReduction =
+          context.getOptions().getOption(ExecConstants.HASHAGG_ADAPTIVE_MIN_REDUCTION_KEY).float_val;
+    }
+
     // currently, hash aggregation is only applicable if there are group-by expressions.
     // For non-grouped (a.k.a Plain) aggregations that don't involve DISTINCT, there is no
     // need to create hash table.  However, for plain aggregations with DISTINCT ..
@@ -305,6 +326,13 @@ public abstract class HashAggTemplate implements HashAggregator {
 
         try {
 
+          if (shouldFlush()) {
+            // emit the groups collected so far; the rest of the input is read once they are all out
+            flushing = true;
+            outputCurrentBatch();
+            return AggOutcome.RETURN_OUTCOME;
+          }
+
           while (true) {
             // Cleanup the previous batch since we are done processing it.
             for (VectorWrapper<?> v : incoming) {
@@ -459,6 +487,9 @@ public abstract class HashAggTemplate implements HashAggregator {
 
   public IterOutcome outputCurrentBatch() {
     if (outBatchIndex >= batchHolders.size()) {
+      if (flushing) {
+        resetAfterFlush();
+      }
       this.outcome = IterOutcome.NONE;
       return outcome;
     }
@@ -467,6 +498,9 @@ public abstract class HashAggTemplate implements HashAggregator {
     int numPendingOutput = batchHolders.get(outBatchIndex).getNumPendingOutput();
 
     if (numPendingOutput == 0) {
+      if (flushing) {
+        resetAfterFlush();
+      }
       this.outcome = IterOutcome.NONE;
       return outcome;
     }
@@ -494,7 +528,11 @@ public abstract class HashAggTemplate implements HashAggregator {
 
     lastBatchOutputCount = numOutputRecords;
     outBatchIndex++;
-    if (outBatchIndex == batchHolders.size()) {
+    if (flushing) {
+      if (outBatchIndex == batchHolders.size()) {
+        resetAfterFlush();
+      }
+    } else if (outBatchIndex == batchHolders.size()) {
       allFlushed = true;
 
       logger.debug("HashAggregate: All batches flushed.");
@@ -506,6 +544,45 @@ public abstract class HashAggTemplate implements HashAggregator {
     return this.outcome;
   }
 
+  // Decides, once the sample has been aggregated, whether this partial aggregate keeps all its groups until the end
+  // of its input or passes the remaining rows through, emitting them whenever the hash table holds a full batch.
+  private boolean shouldFlush() {
+    if (!adaptive) {
+      return false;
+    }
+    if (!passThrough) {
+      if (numGroupedRecords < adaptiveSampleRows) {
+        return false;
+      }
+      if (numGroupedRecords >= adaptiveMinReduction * htable.size()) {
+        // aggregation pays off, keep going as a regular hash aggregate
+        adaptive = false;
+        return false;
+      }
+      logger.debug("HashAggregate: {} rows formed {} groups; passing the remaining rows through.",
+          numGroupedRecords, htable.size());
+      passThrough = true;
+    }
+    return htable.size() >= HashTable.BATCH_SIZE;
+  }
+
+  private void resetAfterFlush() {
+    for (BatchHolder bh : batchHolders) {
+      bh.clear();
+    }
+    batchHolders.clear();
+    htable.reset();
+    outBatchIndex = 0;
+    flushing = false;
+    stats.addLongStat(Metric.ADAPTIVE_FLUSHES, 1);
+    stats.setLongStat(Metric.PASS_THROUGH_RECORDS, passThroughRecords);
+  }
+
+  @Override
+  public boolean isFlushing() {
+    return flushing;
+  }
+
   public boolean allFlushed() {
     return allFlushed;
   }
@@ -538,7 +615,13 @@ public abstract class HashAggTemplate implements HashAggregator {
      }
      */
 
-    htable.put(incomingRowIdx, htIdxHolder, 1 /* retry count */);
+    if (passThrough) {
+      // every row becomes a group of its own; the second phase merges them
+      htable.append(incomingRowIdx, htIdxHolder);
+      passThroughRecords++;
+    } else {
+      htable.put(incomingRowIdx, htIdxHolder, 1 /* retry count */);
+    }
 
     int currentIdx = htIdxHolder.value;
 
@@ -568,6 +651,7 @@ public abstract class HashAggTemplate implements HashAggregator {
     this.stats.setLongStat(Metric.NUM_ENTRIES, htStats.numEntries);
     this.stats.setLongStat(Metric.NUM_RESIZING, htStats.numResizing);
     this.stats.setLongStat(Metric.RESIZING_TIME, htStats.resizingTime);
+    this.stats.setLongStat(Metric.PASS_THROUGH_RECORDS, passThroughRecords);
   }
 
   // Code-generated methods (implemented in HashAggBatch)
@@ -60,6 +60,11 @@ public interface HashAggregator {
 
   public abstract boolean buildComplete();
 
+  /**
+   * @return true while a partial aggregate is emitting the groups it collected before reading the rest of its input
+   */
+  public abstract boolean isFlushing();
+
   public abstract IterOutcome outputCurrentBatch();
 
 }
@@ -62,6 +62,12 @@ public interface HashTable {
 
   public void put(int incomingRowIdx, IndexPointer htIdxHolder, int retryCount);
 
+  /**
+   * Stores the key of the given row as a new entry without looking it up or linking it into a bucket, so that later
+   * rows with the same key get entries of their own.
+   */
+  public void append(int incomingRowIdx, IndexPointer htIdxHolder);
+
   public int containsKey(int incomingRowIdx, boolean isProbe);
 
   public void getStats(HashTableStats stats);
@@ -72,6 +78,11 @@ public interface HashTable {
 
   public void clear();
 
+  /**
+   * Removes all entries but keeps the buckets, so that the table can be filled again.
+   */
+  public void reset();
+
   public boolean outputKeys(int batchIdx, VectorContainer outContainer, int outStartIndex, int numRecords);
 
   public void addNewKeyBatch();
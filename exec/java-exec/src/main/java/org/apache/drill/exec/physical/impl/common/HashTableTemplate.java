@@ -524,6 +524,18 @@ public abstract class HashTableTemplate implements HashTable {
     numEntries = 0;
   }
 
+  public void reset() {
+    for (BatchHolder bh : batchHolders) {
+      bh.clear();
+    }
+    batchHolders.clear();
+    for (int i = 0; i < numBuckets(); i++) {
+      startIndices.getMutator().set(i, EMPTY_SLOT);
+    }
+    numEntries = 0;
+    freeIndex = 0;
+  }
+
   private int getBucketIndex(int hash, int numBuckets) {
     return hash & (numBuckets - 1);
   }
@@ -614,6 +626,16 @@ public abstract class HashTableTemplate implements HashTable {
     return found ? PutStatus.KEY_PRESENT : PutStatus.KEY_ADDED;
   }
 
+  @Override
+  public void append(int incomingRowIdx, IndexPointer htIdxHolder) {
+    final int currentIdx = freeIndex++;
+    addBatchIfNeeded(currentIdx);
+    // no bucket leads to the entry, so puts never match it; the buckets are not resized since their chains do not grow
+    batchHolders.get((currentIdx >>> 16) & BATCH_MASK).insertEntry(incomingRowIdx, currentIdx, 0, null, EMPTY_SLOT);
+    numEntries++;
+    htIdxHolder.value = currentIdx;
+  }
+
   private void insertEntry(int incomingRowIdx, int currentIdx, int hashValue, BatchHolder lastEntryBatch, int lastEntryIdx) {
 
     addBatchIfNeeded(currentIdx);
@@ -23,6 +23,7 @@ import java.util.List;
 import org.apache.drill.common.expression.ErrorCollector;
 import org.apache.drill.common.expression.ErrorCollectorImpl;
 import org.apache.drill.common.expression.LogicalExpression;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.exception.ClassTransformationException;
 import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.exception.SchemaChangeException;
@@ -30,6 +31,7 @@ import org.apache.drill.exec.expr.ClassGenerator;
 import org.apache.drill.exec.expr.CodeGenerator;
 import org.apache.drill.exec.expr.ExpressionTreeMaterializer;
 import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.ops.MetricDef;
 import org.apache.drill.exec.physical.config.Filter;
 import org.apache.drill.exec.record.AbstractSingleRecordBatch;
 import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
@@ -38,6 +40,8 @@ import org.apache.drill.exec.record.TransferPair;
 import org.apache.drill.exec.record.VectorWrapper;
 import org.apache.drill.exec.record.selection.SelectionVector2;
 import org.apache.drill.exec.record.selection.SelectionVector4;
+import org.apache.drill.exec.vector.AllocationHelper;
+import org.apache.drill.exec.vector.BulkCopyableVector;
 import org.apache.drill.exec.vector.ValueVector;
 
 import com.google.common.collect.Lists;
@@ -45,12 +49,27 @@ import com.google.common.collect.Lists;
 public class FilterRecordBatch extends AbstractSingleRecordBatch<Filter>{
   //private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(FilterRecordBatch.class);
 
+  private final double compactionThreshold;
   private SelectionVector2 sv2;
   private SelectionVector4 sv4;
   private Filterer filter;
 
+  public enum Metric implements MetricDef {
+    SV2_BATCHES,
+    COMPACTED_BATCHES,
+    COMPACTED_RECORDS,
+    BULK_COPY_RUNS;
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
   public FilterRecordBatch(Filter pop, RecordBatch incoming, FragmentContext context) throws OutOfMemoryException {
     super(pop, context, incoming);
+    // compacting right before a selection vector remover would copy the selected rows twice
+    compactionThreshold = pop.isCompact() ? context.getOptions().getOption(ExecConstants.FILTER_COMPACTION_THRESHOLD) : 0;
   }
 
   @Override
@@ -79,9 +98,55 @@ public class FilterRecordBatch extends AbstractSingleRecordBatch<Filter>{
     int recordCount = incoming.getRecordCount();
     filter.filterBatch(recordCount);
 
+    final int selected = sv2.getCount();
+    if (selected > 0 && selected <= recordCount * compactionThreshold) {
+      compact(selected);
+      stats.addLongStat(Metric.COMPACTED_BATCHES, 1);
+      stats.addLongStat(Metric.COMPACTED_RECORDS, selected);
+    } else {
+      stats.addLongStat(Metric.SV2_BATCHES, 1);
+    }
+
     return IterOutcome.OK;
   }
 
+  /**
+   * Copies the rows selected by the SV2 into dense vectors, replacing the (mostly filtered out) transferred vectors
+   * in the outgoing container, and resets the SV2 to the identity selection. Vectors that support bulk copies gather
+   * each run of consecutive selected rows as a single memory block; all other vectors are copied row by row.
+   */
+  private void compact(final int count) {
+    for (final VectorWrapper<?> w : container) {
+      final ValueVector from = w.getValueVector();
+      final TransferPair tp = from.getTransferPair(oContext.getAllocator());
+      final ValueVector to = tp.getTo();
+      AllocationHelper.allocateNew(to, count);
+      if (to instanceof BulkCopyableVector) {
+        ((BulkCopyableVector) to).gatherSafe(sv2.getBuffer(false), 0, count, 0, from);
+      } else {
+        for (int i = 0; i < count; i++) {
+          tp.copyValueSafe(sv2.getIndex(i), i);
+        }
+      }
+      to.getMutator().setValueCount(count);
+      to.makeTransferPair(from).transfer();
+    }
+    stats.addLongStat(Metric.BULK_COPY_RUNS, countRuns(count));
+    for (int i = 0; i < count; i++) {
+      sv2.setIndex(i, (char) i);
+    }
+  }
+
+  private int countRuns(final int count) {
+    int runs = 0;
+    for (int i = 0; i < count; i++) {
+      if (i == 0 || sv2.getIndex(i) != sv2.getIndex(i - 1) + 1) {
+        runs++;
+      }
+    }
+    return runs;
+  }
+
   @Override
   public void close() {
     if (sv2 != null) {
@@ -27,6 +27,7 @@ import org.apache.drill.common.expression.FieldReference;
 import org.apache.drill.common.expression.LogicalExpression;
 import org.apache.drill.common.expression.SchemaPath;
 import org.apache.drill.common.logical.data.NamedExpression;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.exception.ClassTransformationException;
 import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.exception.SchemaChangeException;
@@ -39,15 +40,19 @@ import org.apache.drill.exec.expr.ValueVectorReadExpression;
 import org.apache.drill.exec.expr.ValueVectorWriteExpression;
 import org.apache.drill.exec.expr.fn.DrillComplexWriterFuncHolder;
 import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.ops.MetricDef;
 import org.apache.drill.exec.physical.config.FlattenPOP;
 import org.apache.drill.exec.record.AbstractSingleRecordBatch;
 import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
 import org.apache.drill.exec.record.MaterializedField;
 import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.RecordBatchSizer;
+import org.apache.drill.exec.record.RecordBatchSizer.ColumnSize;
 import org.apache.drill.exec.record.TransferPair;
 import org.apache.drill.exec.record.TypedFieldId;
 import org.apache.drill.exec.record.VectorContainer;
 import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.vector.BulkCopyableVector;
 import org.apache.drill.exec.vector.ValueVector;
 import org.apache.drill.exec.vector.complex.RepeatedMapVector;
 import org.apache.drill.exec.vector.complex.RepeatedValueVector;
@@ -69,6 +74,23 @@ public class FlattenRecordBatch extends AbstractSingleRecordBatch<FlattenPOP> {
   private int remainderIndex = 0;
   private int recordCount;
 
+  private final long outputBatchSize;
+  private long outputBatchCount;
+  private long totalOutputBatchSize;
+  private long maxOutputBatchSize;
+
+  public enum Metric implements MetricDef {
+    TARGET_RECORD_COUNT,
+    OUTPUT_BATCH_COUNT,
+    AVG_OUTPUT_BATCH_SIZE,
+    MAX_OUTPUT_BATCH_SIZE;
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
   private final Flattener.Monitor monitor = new Flattener.Monitor() {
     @Override
     public int getBufferSizeFor(int recordCount) {
@@ -96,6 +118,7 @@ public class FlattenRecordBatch extends AbstractSingleRecordBatch<FlattenPOP> {
 
   public FlattenRecordBatch(FlattenPOP pop, RecordBatch incoming, FragmentContext context) throws OutOfMemoryException {
     super(pop, context, incoming);
+    outputBatchSize = context.getOptions().getOption(ExecConstants.OUTPUT_BATCH_SIZE);
   }
 
   @Override
@@ -157,6 +180,7 @@ public class FlattenRecordBatch extends AbstractSingleRecordBatch<FlattenPOP> {
     // we call this in setupSchema, but we also need to call it here so we have a reference to the appropriate vector
     // inside of the the flattener for the current batch
     setFlattenVector();
+    updateOutputLimit();
 
     int childCount = incomingRecordCount == 0 ? 0 : flattener.getFlattenField().getAccessor().getInnerValueCount();
     int outputRecords = childCount == 0 ? 0: flattener.flattenRecords(incomingRecordCount, 0, monitor);
@@ -179,6 +203,7 @@ public class FlattenRecordBatch extends AbstractSingleRecordBatch<FlattenPOP> {
     if (complexWriters != null) {
       container.buildSchema(SelectionVectorMode.NONE);
     }
+    updateBatchStats();
 
     return IterOutcome.OK;
   }
@@ -210,6 +235,43 @@ public class FlattenRecordBatch extends AbstractSingleRecordBatch<FlattenPOP> {
     if (complexWriters != null) {
       container.buildSchema(SelectionVectorMode.NONE);
     }
+    updateBatchStats();
+  }
+
+  /**
+   * Derive the number of records per output batch from the measured widths of the incoming columns. Every output
+   * record carries a copy of the other columns of its parent record plus one element of the flattened column, so the
+   * width of the flattened column is spread over its inner values rather than over the parent records. The limit
+   * never exceeds the fixed record count Flatten used before batches were sized by memory.
+   */
+  private void updateOutputLimit() {
+    final RepeatedValueVector flattenField = flattener.getFlattenField();
+    final String flattenPath = flattenField.getField().getPath();
+    final int innerValueCount = flattenField.getAccessor().getInnerValueCount();
+
+    int rowWidth = 0;
+    for (final ColumnSize column : new RecordBatchSizer(incoming).getColumns()) {
+      if (column.field.getPath().equals(flattenPath)) {
+        rowWidth += innerValueCount == 0 ? 0 : (column.dataSize + innerValueCount - 1) / innerValueCount;
+      } else {
+        rowWidth += column.getWidth();
+      }
+    }
+
+    final int outputCount = RecordBatchSizer.rowCountFor(outputBatchSize, rowWidth, FlattenTemplate.OUTPUT_BATCH_SIZE);
+    flattener.setOutputCount(outputCount);
+    stats.setLongStat(Metric.TARGET_RECORD_COUNT, outputCount);
+    logger.debug("Flatten row width: {}, output records per batch: {}", rowWidth, outputCount);
+  }
+
+  private void updateBatchStats() {
+    final long batchSize = new RecordBatchSizer(container).getBatchSize();
+    outputBatchCount++;
+    totalOutputBatchSize += batchSize;
+    maxOutputBatchSize = Math.max(maxOutputBatchSize, batchSize);
+    stats.setLongStat(Metric.OUTPUT_BATCH_COUNT, outputBatchCount);
+    stats.setLongStat(Metric.AVG_OUTPUT_BATCH_SIZE, totalOutputBatchSize / outputBatchCount);
+    stats.setLongStat(Metric.MAX_OUTPUT_BATCH_SIZE, maxOutputBatchSize);
   }
 
   public void addComplexWriter(ComplexWriter writer) {
@@ -302,6 +364,8 @@ public class FlattenRecordBatch extends AbstractSingleRecordBatch<FlattenPOP> {
 
     final ClassGenerator<Flattener> cg = CodeGenerator.getRoot(Flattener.TEMPLATE_DEFINITION, context.getFunctionRegistry(), context.getOptions());
     final IntHashSet transferFieldIds = new IntHashSet();
+    final List<ValueVector> parentFrom = Lists.newArrayList();
+    final List<BulkCopyableVector> parentTo = Lists.newArrayList();
 
     final NamedExpression flattenExpr = new NamedExpression(popConfig.getColumn(), new FieldReference(popConfig.getColumn()));
     final ValueVectorReadExpression vectorRead = (ValueVectorReadExpression)ExpressionTreeMaterializer.materialize(flattenExpr.getExpr(), incoming, collector, context.getFunctionRegistry(), true);
@@ -352,10 +416,17 @@ public class FlattenRecordBatch extends AbstractSingleRecordBatch<FlattenPOP> {
         ValueVector vector = TypeHelper.getNewVector(outputField, oContext.getAllocator());
         allocationVectors.add(vector);
         TypedFieldId fid = container.add(vector);
-        ValueVectorWriteExpression write = new ValueVectorWriteExpression(fid, expr, true);
-        cg.addExpr(write);
-
-        logger.debug("Added eval for project expression.");
+        final ValueVector parentVector = getParentColumn(expr, vector);
+        if (parentVector != null) {
+          parentFrom.add(parentVector);
+          parentTo.add((BulkCopyableVector) vector);
+          logger.debug("Added bulk copy for project expression.");
+        } else {
+          ValueVectorWriteExpression write = new ValueVectorWriteExpression(fid, expr, true);
+          cg.addExpr(write);
+
+          logger.debug("Added eval for project expression.");
+        }
       }
     }
 
@@ -366,6 +437,7 @@ public class FlattenRecordBatch extends AbstractSingleRecordBatch<FlattenPOP> {
 
     try {
       this.flattener = context.getImplementationClass(cg.getCodeGenerator());
+      flattener.setParentColumns(parentFrom, parentTo);
       flattener.setup(context, incoming, this, transfers);
     } catch (ClassTransformationException | IOException e) {
       throw new SchemaChangeException("Failure while attempting to load generated class", e);
@@ -373,6 +445,25 @@ public class FlattenRecordBatch extends AbstractSingleRecordBatch<FlattenPOP> {
     return true;
   }
 
+  /**
+   * Parent columns read as is are repeated into the output with bulk copies instead of one generated copy per output
+   * record, as long as the vectors support it.
+   *
+   * @return the incoming vector to copy from, or null if the expression has to be evaluated by the generated code
+   */
+  private ValueVector getParentColumn(LogicalExpression expr, ValueVector out) {
+    if (!(expr instanceof ValueVectorReadExpression) || !(out instanceof BulkCopyableVector)) {
+      return null;
+    }
+    final ValueVectorReadExpression read = (ValueVectorReadExpression) expr;
+    final TypedFieldId fieldId = read.getFieldId();
+    if (read.hasReadPath() || fieldId.isHyperReader() || fieldId.getFieldIds().length != 1
+        || incoming.getSchema().getColumn(fieldId.getFieldIds()[0]).getValueClass() != out.getClass()) {
+      return null;
+    }
+    return incoming.getValueAccessorById(out.getClass(), fieldId.getFieldIds()).getValueVector();
+  }
+
   private List<NamedExpression> getExpressionList() {
 
     List<NamedExpression> exprs = Lists.newArrayList();
@@ -31,6 +31,9 @@ import org.apache.drill.exec.record.TransferPair;
 
 import com.google.common.collect.ImmutableList;
 
+import org.apache.drill.exec.vector.BulkCopyUtil;
+import org.apache.drill.exec.vector.BulkCopyableVector;
+import org.apache.drill.exec.vector.ValueVector;
 import org.apache.drill.exec.vector.complex.RepeatedValueVector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,12 +41,14 @@ import org.slf4j.LoggerFactory;
 public abstract class FlattenTemplate implements Flattener {
   private static final Logger logger = LoggerFactory.getLogger(FlattenTemplate.class);
 
-  private static final int OUTPUT_BATCH_SIZE = 4*1024;
+  static final int OUTPUT_BATCH_SIZE = 4*1024;
   private static final int OUTPUT_MEMORY_LIMIT = 512 * 1024 * 1024;
 
   private ImmutableList<TransferPair> transfers;
   private BufferAllocator outputAllocator;
   private SelectionVectorMode svMode;
+  private ValueVector[] parentFrom = new ValueVector[0];
+  private BulkCopyableVector[] parentTo = new BulkCopyableVector[0];
   private RepeatedValueVector fieldToFlatten;
   private RepeatedValueVector.RepeatedAccessor accessor;
   private int valueIndex;
@@ -51,7 +56,8 @@ public abstract class FlattenTemplate implements Flattener {
   private int bigRecordsBufferSize;
 
   /**
-   * The output batch limit starts at OUTPUT_BATCH_SIZE, but may be decreased
+   * The output batch limit starts at OUTPUT_BATCH_SIZE, is replaced by the
+   * memory based limit given to setOutputCount(), and may be decreased
    * if records are found to be large.
    */
   private int outputLimit = OUTPUT_BATCH_SIZE;
@@ -71,10 +77,21 @@ public abstract class FlattenTemplate implements Flattener {
     this.accessor = RepeatedValueVector.RepeatedAccessor.class.cast(flattenField.getAccessor());
   }
 
+  @Override
+  public void setParentColumns(List<ValueVector> from, List<BulkCopyableVector> to) {
+    parentFrom = from.toArray(new ValueVector[from.size()]);
+    parentTo = to.toArray(new BulkCopyableVector[to.size()]);
+  }
+
   public RepeatedValueVector getFlattenField() {
     return fieldToFlatten;
   }
 
+  @Override
+  public void setOutputCount(int outputCount) {
+    outputLimit = bigRecords ? Math.min(outputLimit, outputCount) : outputCount;
+  }
+
   @Override
   public final int flattenRecords(final int recordCount, final int firstOutputIndex,
       final Flattener.Monitor monitor) {
@@ -95,13 +112,25 @@ public abstract class FlattenTemplate implements Flattener {
         int valueIndexLocal = valueIndex;
         int innerValueIndexLocal = innerValueIndex;
         int currentInnerValueIndexLocal = currentInnerValueIndex;
+        int outputIndex = firstOutputIndex;
+        // first output record whose parent columns have not been filled yet, all following ones repeat the current
+        // parent record
+        int parentFilled = outputIndex;
+        boolean measureBigRecords = false;
+        final int valueCount = accessor.getValueCount();
         outer: {
-          int outputIndex = firstOutputIndex;
           int recordsThisCall = 0;
-          final int valueCount = accessor.getValueCount();
           for ( ; valueIndexLocal < valueCount; valueIndexLocal++) {
             final int innerValueCount = accessor.getInnerValueCountAt(valueIndexLocal);
             for ( ; innerValueIndexLocal < innerValueCount; innerValueIndexLocal++) {
+              // Fill the parent columns every half batch, so that the memory checks below account for them.
+              if (recordsThisCall == outputLimit / 2 || recordsThisCall == outputLimit) {
+                parentFilled = copyParentColumns(valueIndexLocal, parentFilled, outputIndex);
+                if (parentFilled < outputIndex) {
+                  break outer;
+                }
+              }
+
               // If we've hit the batch size limit, stop and flush what we've got so far.
               if (recordsThisCall == outputLimit) {
                 if (bigRecords) {
@@ -162,11 +191,12 @@ public abstract class FlattenTemplate implements Flattener {
                   }
 
                   /*
-                   * This will differ from what the allocator reports because of
-                   * overhead. But the allocator check is much cheaper to do, so we
+                   * The buffer size is taken once the parent columns of the records so
+                   * far are filled. This will differ from what the allocator reports because
+                   * of overhead. But the allocator check is much cheaper to do, so we
                    * only compute this at selected times.
                    */
-                  bigRecordsBufferSize = monitor.getBufferSizeFor(recordsThisCall);
+                  measureBigRecords = true;
 
                   // Stop and flush.
                   break outer;
@@ -193,9 +223,26 @@ public abstract class FlattenTemplate implements Flattener {
               currentInnerValueIndexLocal++;
               ++recordsThisCall;
             }
+            parentFilled = copyParentColumns(valueIndexLocal, parentFilled, outputIndex);
+            if (parentFilled < outputIndex) {
+              break outer;
+            }
             innerValueIndexLocal = 0;
           }
         }
+        // fill the records of the parent record the loop stopped within, if any; if the parent columns are
+        // already full this fails again on the first record
+        parentFilled = copyParentColumns(valueIndexLocal, parentFilled, outputIndex);
+        if (parentFilled < outputIndex) {
+          // the parent columns are full, split the batch after the last record they could be filled for
+          final int dropped = outputIndex - parentFilled;
+          outputIndex = parentFilled;
+          currentInnerValueIndexLocal -= dropped;
+          innerValueIndexLocal -= dropped;
+        }
+        if (measureBigRecords) {
+          bigRecordsBufferSize = monitor.getBufferSizeFor(outputIndex - firstOutputIndex);
+        }
         // save state to heap
         valueIndex = valueIndexLocal;
         innerValueIndex = innerValueIndexLocal;
@@ -212,6 +259,37 @@ public abstract class FlattenTemplate implements Flattener {
     }
   }
 
+  /**
+   * Fill the parent columns of output records {@code [outStart, outEnd)} with input record {@code inIndex}.
+   *
+   * @return the end of the records filled, less than {@code outEnd} if the parent columns reached
+   *   their maximum size
+   */
+  private int copyParentColumns(int inIndex, int outStart, int outEnd) {
+    if (outStart == outEnd) {
+      return outEnd;
+    }
+    try {
+      for (int i = 0; i < parentTo.length; i++) {
+        BulkCopyUtil.repeat(parentTo[i], inIndex, outStart, outEnd - outStart, parentFrom[i]);
+      }
+      return outEnd;
+    } catch (OversizedAllocationException ex) {
+      // fill record by record as far as the columns allow, the batch is split there
+      logger.debug("Reached allocation limit while copying parent columns of input index: {}", inIndex);
+      for (int outIndex = outStart; outIndex < outEnd; outIndex++) {
+        try {
+          for (int i = 0; i < parentTo.length; i++) {
+            parentTo[i].copyRangeSafe(inIndex, outIndex, 1, parentFrom[i]);
+          }
+        } catch (OversizedAllocationException e) {
+          return outIndex;
+        }
+      }
+      return outEnd;
+    }
+  }
+
   /**
    * Determine if the current batch record limit needs to be adjusted (when handling
    * bigRecord mode). If so, adjust the limit, and return true, otherwise return false.
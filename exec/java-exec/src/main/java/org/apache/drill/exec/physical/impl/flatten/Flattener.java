@@ -24,6 +24,8 @@ import org.apache.drill.exec.exception.SchemaChangeException;
 import org.apache.drill.exec.ops.FragmentContext;
 import org.apache.drill.exec.record.RecordBatch;
 import org.apache.drill.exec.record.TransferPair;
+import org.apache.drill.exec.vector.BulkCopyableVector;
+import org.apache.drill.exec.vector.ValueVector;
 import org.apache.drill.exec.vector.complex.RepeatedValueVector;
 
 public interface Flattener {
@@ -42,6 +44,23 @@ public interface Flattener {
 
   public int flattenRecords(int recordCount, int firstOutputIndex, Monitor monitor);
 
+  /**
+   * Set the number of records to produce per output batch. When large records have already forced a lower limit,
+   * the lower of the two is kept.
+   *
+   * @param outputCount the target number of records per output batch
+   */
+  public void setOutputCount(int outputCount);
+
+  /**
+   * Set the columns copied from the parent record of each flattened value without generated code. The value of a
+   * parent record is repeated into all the output records of its list at once.
+   *
+   * @param from the incoming vectors
+   * @param to the outgoing vectors, at the same positions
+   */
+  public void setParentColumns(List<ValueVector> from, List<BulkCopyableVector> to);
+
   public void setFlattenField(RepeatedValueVector repeatedColumn);
   public RepeatedValueVector getFlattenField();
   public void resetGroupIndex();
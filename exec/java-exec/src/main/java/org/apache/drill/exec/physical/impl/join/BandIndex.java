@@ -0,0 +1,341 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.join;
+
+import java.util.List;
+
+import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.common.logical.data.JoinCondition;
+import org.apache.drill.common.types.TypeProtos.DataMode;
+import org.apache.drill.common.types.TypeProtos.MajorType;
+import org.apache.drill.common.types.TypeProtos.MinorType;
+import org.apache.drill.exec.expr.TypeHelper;
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.physical.impl.sort.KeyPrefixSorter;
+import org.apache.drill.exec.record.TypedFieldId;
+import org.apache.drill.exec.record.VectorAccessible;
+import org.apache.drill.exec.vector.BaseDataValueVector;
+import org.apache.drill.exec.vector.NullableVector;
+import org.apache.drill.exec.vector.ValueVector;
+
+import com.google.common.collect.Lists;
+import com.google.common.math.LongMath;
+
+/**
+ * Band condition of a nested loop join: comparisons of one left column with right columns by <, <=, > or >=, such as
+ * the two comparisons of {@code l.ts BETWEEN r.start_ts AND r.end_ts}. The right rows in memory are sorted on the right
+ * column of the first comparison, the key, so that the right rows a left row may join with are found by binary search
+ * instead of trying all of them. Comparisons with other right columns bound the key through the smallest and largest
+ * difference between those columns and the key over the right rows.
+ * <p>
+ * The range found is a superset of the matching rows, the join condition is still applied by the filter above the
+ * join. Right rows with a null in any of the columns are left out, as a comparison with a null never holds.</p>
+ */
+public class BandIndex implements AutoCloseable {
+
+  private final BufferAllocator allocator;
+
+  private final int[] leftFieldIds;
+  private final Class<?> leftClass;
+  private final MajorType leftType;
+
+  /** right columns compared, the key first */
+  private final List<int[]> rightFieldIds;
+  private final List<Class<?>> rightClasses;
+  private final List<MajorType> rightTypes;
+  /** for each comparison, the right column and whether it bounds the right column from below */
+  private final int[] boundColumns;
+  private final boolean[] lowerBounds;
+
+  private KeyPrefixSorter sorter;
+  private int count;
+  private boolean hasLower;
+  private long lowerOffset;
+  private boolean hasUpper;
+  private long upperOffset;
+  private ValueVector leftVector;
+
+  private BandIndex(BufferAllocator allocator, TypedFieldId leftId, List<TypedFieldId> rightIds, int[] boundColumns,
+                    boolean[] lowerBounds) {
+    this.allocator = allocator;
+    this.leftFieldIds = leftId.getFieldIds();
+    this.leftType = leftId.getFinalType();
+    this.leftClass = TypeHelper.getValueVectorClass(leftType.getMinorType(), leftType.getMode());
+    this.rightFieldIds = Lists.newArrayList();
+    this.rightClasses = Lists.newArrayList();
+    this.rightTypes = Lists.newArrayList();
+    for (TypedFieldId rightId : rightIds) {
+      final MajorType type = rightId.getFinalType();
+      rightFieldIds.add(rightId.getFieldIds());
+      rightClasses.add(TypeHelper.getValueVectorClass(type.getMinorType(), type.getMode()));
+      rightTypes.add(type);
+    }
+    this.boundColumns = boundColumns;
+    this.lowerBounds = lowerBounds;
+  }
+
+  /**
+   * @param conditions comparisons of the form left column, relationship, right column
+   * @param right the right batches, a hyper container
+   * @return the index for the conditions, or null if they are not all comparisons of the same left column with right
+   *         columns of integer, date or time types that compare as their stored values
+   */
+  public static BandIndex create(List<JoinCondition> conditions, VectorAccessible left, VectorAccessible right,
+                                 BufferAllocator allocator) {
+    if (conditions == null || conditions.isEmpty()) {
+      return null;
+    }
+    TypedFieldId leftId = null;
+    final List<SchemaPath> rightPaths = Lists.newArrayList();
+    final List<TypedFieldId> rightIds = Lists.newArrayList();
+    final int[] boundColumns = new int[conditions.size()];
+    final boolean[] lowerBounds = new boolean[conditions.size()];
+    for (int i = 0; i < conditions.size(); i++) {
+      final JoinCondition condition = conditions.get(i);
+      switch (condition.getRelationship().toUpperCase()) {
+        case "LESS_THAN":
+        case "LESS_THAN_OR_EQUAL":
+          lowerBounds[i] = true;
+          break;
+        case "GREATER_THAN":
+        case "GREATER_THAN_OR_EQUAL":
+          lowerBounds[i] = false;
+          break;
+        default:
+          return null;
+      }
+      if (!(condition.getLeft() instanceof SchemaPath) || !(condition.getRight() instanceof SchemaPath)) {
+        return null;
+      }
+      final TypedFieldId conditionLeftId = left.getValueVectorId((SchemaPath) condition.getLeft());
+      if (conditionLeftId == null || (leftId != null && !conditionLeftId.equals(leftId))) {
+        return null;
+      }
+      leftId = conditionLeftId;
+
+      final SchemaPath rightPath = (SchemaPath) condition.getRight();
+      int column = rightPaths.indexOf(rightPath);
+      if (column < 0) {
+        final TypedFieldId rightId = right.getValueVectorId(rightPath);
+        if (rightId == null || rightId.getFieldIds().length != 1
+            || !isComparable(leftId.getFinalType(), rightId.getFinalType())) {
+          return null;
+        }
+        column = rightPaths.size();
+        rightPaths.add(rightPath);
+        rightIds.add(rightId);
+      }
+      boundColumns[i] = column;
+    }
+    if (leftId.getFieldIds().length != 1) {
+      return null;
+    }
+    return new BandIndex(allocator, leftId, rightIds, boundColumns, lowerBounds);
+  }
+
+  private static boolean isComparable(MajorType left, MajorType right) {
+    if (left.getMode() == DataMode.REPEATED || right.getMode() == DataMode.REPEATED) {
+      return false;
+    }
+    final MinorType leftType = left.getMinorType();
+    final MinorType rightType = right.getMinorType();
+    switch (leftType) {
+      case INT:
+      case BIGINT:
+        return rightType == MinorType.INT || rightType == MinorType.BIGINT;
+      case DATE:
+      case TIME:
+      case TIMESTAMP:
+        return rightType == leftType;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Sorts the right rows on the key and computes how far the other right columns compared are from it.
+   *
+   * @param right the right batches in memory, a hyper container
+   * @param counts the record counts of the right batches
+   */
+  public void build(VectorAccessible right, List<Integer> counts) {
+    closeSorter();
+    final int columns = rightTypes.size();
+    final ValueVector[][] vectors = new ValueVector[columns][];
+    for (int c = 0; c < columns; c++) {
+      vectors[c] = right.getValueAccessorById(rightClasses.get(c), rightFieldIds.get(c)).getValueVectors();
+    }
+
+    int rows = 0;
+    for (int batch = 0; batch < counts.size(); batch++) {
+      for (int index = 0; index < counts.get(batch); index++) {
+        if (!hasNull(vectors, batch, index)) {
+          rows++;
+        }
+      }
+    }
+
+    sorter = new KeyPrefixSorter(allocator, rows);
+    final long[] minDiffs = new long[columns];
+    final long[] maxDiffs = new long[columns];
+    final boolean[] overflows = new boolean[columns];
+    for (int c = 1; c < columns; c++) {
+      minDiffs[c] = Long.MAX_VALUE;
+      maxDiffs[c] = Long.MIN_VALUE;
+    }
+    int position = 0;
+    for (int batch = 0; batch < counts.size(); batch++) {
+      for (int index = 0; index < counts.get(batch); index++) {
+        if (hasNull(vectors, batch, index)) {
+          continue;
+        }
+        final long key = value(vectors[0][batch], rightTypes.get(0), index);
+        sorter.set(position++, key, (batch << 16) | (index & 65535));
+        for (int c = 1; c < columns; c++) {
+          try {
+            final long diff = LongMath.checkedSubtract(value(vectors[c][batch], rightTypes.get(c), index), key);
+            minDiffs[c] = Math.min(minDiffs[c], diff);
+            maxDiffs[c] = Math.max(maxDiffs[c], diff);
+          } catch (ArithmeticException e) {
+            overflows[c] = true;
+          }
+        }
+      }
+    }
+    sorter.sort();
+    count = rows;
+
+    // a comparison with the key bounds it by the left value, one with column c by the left value minus c - key
+    hasLower = false;
+    hasUpper = false;
+    for (int i = 0; i < boundColumns.length; i++) {
+      final int c = boundColumns[i];
+      final long diff = c == 0 ? 0 : lowerBounds[i] ? maxDiffs[c] : minDiffs[c];
+      if (c != 0 && (rows == 0 || overflows[c] || diff == Long.MIN_VALUE)) {
+        continue;
+      }
+      if (lowerBounds[i]) {
+        lowerOffset = hasLower ? Math.max(lowerOffset, -diff) : -diff;
+        hasLower = true;
+      } else {
+        upperOffset = hasUpper ? Math.min(upperOffset, -diff) : -diff;
+        hasUpper = true;
+      }
+    }
+  }
+
+  private boolean hasNull(ValueVector[][] vectors, int batch, int index) {
+    for (int c = 0; c < vectors.length; c++) {
+      if (rightTypes.get(c).getMode() == DataMode.OPTIONAL && vectors[c][batch].getAccessor().isNull(index)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sets the left batch whose rows are looked up next.
+   */
+  public void setLeft(VectorAccessible left) {
+    leftVector = left.getValueAccessorById(leftClass, leftFieldIds).getValueVector();
+  }
+
+  /**
+   * @return the position of the first sorted right row the left row may join with
+   */
+  public int getStart(int leftIndex) {
+    if (count == 0 || !hasLower || isLeftNull(leftIndex)) {
+      return 0;
+    }
+    return search(saturatedAdd(value(leftVector, leftType, leftIndex), lowerOffset), false);
+  }
+
+  /**
+   * @return the position after the last sorted right row the left row may join with
+   */
+  public int getEnd(int leftIndex) {
+    if (count == 0 || isLeftNull(leftIndex)) {
+      return 0;
+    }
+    if (!hasUpper) {
+      return count;
+    }
+    return search(saturatedAdd(value(leftVector, leftType, leftIndex), upperOffset), true);
+  }
+
+  /**
+   * @return the compound index, batch and index within the batch, of the right row at the sorted position
+   */
+  public int getRow(int position) {
+    return sorter.getIndex(position);
+  }
+
+  private boolean isLeftNull(int leftIndex) {
+    return leftType.getMode() == DataMode.OPTIONAL && leftVector.getAccessor().isNull(leftIndex);
+  }
+
+  /**
+   * @return the first position whose key is larger than the value, or not smaller if after is false
+   */
+  private int search(long value, boolean after) {
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      final long key = sorter.getPrefix(mid);
+      if (key < value || (after && key == value)) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static long saturatedAdd(long a, long b) {
+    final long sum = a + b;
+    if (((a ^ sum) & (b ^ sum)) < 0) {
+      return b > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+    }
+    return sum;
+  }
+
+  private static long value(ValueVector vector, MajorType type, int index) {
+    final ValueVector values = type.getMode() == DataMode.OPTIONAL ? ((NullableVector) vector).getValuesVector() : vector;
+    switch (type.getMinorType()) {
+      case INT:
+      case TIME:
+        return ((BaseDataValueVector) values).getBuffer().getInt(index * 4);
+      default:
+        return ((BaseDataValueVector) values).getBuffer().getLong(index * 8);
+    }
+  }
+
+  private void closeSorter() {
+    if (sorter != null) {
+      sorter.close();
+      sorter = null;
+    }
+    count = 0;
+  }
+
+  @Override
+  public void close() {
+    closeSorter();
+  }
+}
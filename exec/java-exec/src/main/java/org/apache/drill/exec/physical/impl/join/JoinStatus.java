@@ -44,6 +44,11 @@ public final class JoinStatus {
   public boolean ok = true;
   public boolean hasMoreData = false;
 
+  // Outer positions in the right iterator of the first record of the current run of equal keys and of the record
+  // past its last one. runEnd is -1 until the end of the run was found.
+  private long runStart = -1;
+  private long runEnd = -1;
+
   public JoinStatus(RecordIterator left, RecordIterator right, MergeJoinBatch output) {
     this.left = left;
     this.right = right;
@@ -121,6 +126,29 @@ public final class JoinStatus {
     return allowMarking;
   }
 
+  /**
+   * Sets the start of the run of equal right keys matching the current left record. The end of the run found for
+   * earlier left records is kept if the run starts at the same right record.
+   */
+  public void startRun(long start) {
+    if (start != runStart) {
+      runStart = start;
+      runEnd = -1;
+    }
+  }
+
+  public long getRunEnd() {
+    return runEnd;
+  }
+
+  public void setRunEnd(long end) {
+    runEnd = end;
+  }
+
+  public void resetRun() {
+    runStart = runEnd = -1;
+  }
+
   public boolean isHasMoreData() {
     return hasMoreData;
   }
@@ -30,19 +30,28 @@ import org.apache.calcite.rel.core.JoinRelType;
  */
 public abstract class JoinTemplate implements JoinWorker {
 
+  // Number of records one side advances past the other before we check whether it can skip the rest of its batch
+  private static final int SKIP_PROBE_INTERVAL = 16;
+
   @Override
   public void setupJoin(FragmentContext context, JoinStatus status, VectorContainer outgoing) throws SchemaChangeException {
+    status.resetRun();
     doSetup(context, status, outgoing);
   }
 
   /**
-   * Copy rows from the input record batches until the output record batch is full
+   * Copy rows from the input record batches until the output record batch is full. Each run of right records with
+   * the same key is compared with the first left record of that key only; the following left records with that key
+   * are joined with the whole run without comparing. While one side is behind the other, it periodically compares the
+   * last record of its batch to skip the rest of the batch at once.
    * @param status  State of the join operation (persists across multiple record batches/schema changes)
    * @return  true of join succeeded; false if the worker needs to be regenerated
    */
   public final boolean doJoin(final JoinStatus status) {
     final boolean isLeftJoin = (((MergeJoinPOP)status.outputBatch.getPopConfig()).getJoinType() == JoinRelType.LEFT);
     status.setHasMoreData(false);
+    int leftAdvances = 0;
+    int rightAdvances = 0;
     while (!status.isOutgoingBatchFull()) {
       if (status.right.finished()) {
         if (isLeftJoin) {
@@ -65,20 +74,32 @@ public abstract class JoinTemplate implements JoinWorker {
       switch (comparison) {
         case -1:
           // left key < right key
+          rightAdvances = 0;
           if (isLeftJoin) {
             doCopyLeft(status.left.getCurrentPosition(), status.getOutPosition());
             status.incOutputPos();
+          } else if (++leftAdvances == SKIP_PROBE_INTERVAL) {
+            leftAdvances = 0;
+            final int lastLeft = status.left.getInnerRecordCount() - 1;
+            if (status.left.getCurrentPosition() < lastLeft
+                && doCompare(lastLeft, status.right.getCurrentPosition()) < 0) {
+              // the rest of the left batch is smaller than the right key too
+              status.left.forwardInBatch(lastLeft - status.left.getCurrentPosition());
+            }
           }
           status.left.next();
           continue;
 
         case 0:
           // left key == right key
+          leftAdvances = rightAdvances = 0;
           // Mark current position in right iterator.
           // If we have set a mark in previous iteration but didn't finish the inner loop,
           // skip current right side as its already copied in earlier iteration.
           if (status.shouldMark()) {
             status.right.mark();
+            // A run found for an earlier left record is still valid if it starts at the same right record.
+            status.startRun(status.right.getOuterPosition());
             // Copy all equal keys from right side to the output record batch.
             doCopyLeft(status.left.getCurrentPosition(), status.getOutPosition());
             doCopyRight(status.right.getCurrentPosition(), status.getOutPosition());
@@ -93,8 +114,10 @@ public abstract class JoinTemplate implements JoinWorker {
           }
           // Move to next position in right iterator.
           status.right.next();
-          while (!status.right.finished()) {
-            if (doCompare(status.left.getCurrentPosition(), status.right.getCurrentPosition()) == 0) {
+          final long runEnd = status.getRunEnd();
+          if (runEnd >= 0) {
+            // The left key equals the first key of the run, so it equals all of them.
+            while (status.right.getOuterPosition() < runEnd) {
               doCopyLeft(status.left.getCurrentPosition(), status.getOutPosition());
               doCopyRight(status.right.getCurrentPosition(), status.getOutPosition());
               status.incOutputPos();
@@ -104,9 +127,24 @@ public abstract class JoinTemplate implements JoinWorker {
                 return true;
               }
               status.right.next();
-            } else {
-              break;
             }
+          } else {
+            while (!status.right.finished()) {
+              if (doCompare(status.left.getCurrentPosition(), status.right.getCurrentPosition()) == 0) {
+                doCopyLeft(status.left.getCurrentPosition(), status.getOutPosition());
+                doCopyRight(status.right.getCurrentPosition(), status.getOutPosition());
+                status.incOutputPos();
+                if (status.isOutgoingBatchFull()) {
+                  status.setHasMoreData(true);
+                  status.disableMarking();
+                  return true;
+                }
+                status.right.next();
+              } else {
+                break;
+              }
+            }
+            status.setRunEnd(status.right.getOuterPosition());
           }
           status.right.reset();
           // Enable marking only when we have consumed all equal keys on right side.
@@ -115,6 +153,16 @@ public abstract class JoinTemplate implements JoinWorker {
           continue;
         case 1:
           // left key > right key
+          leftAdvances = 0;
+          if (++rightAdvances == SKIP_PROBE_INTERVAL) {
+            rightAdvances = 0;
+            final int lastRight = status.right.getInnerRecordCount() - 1;
+            if (status.right.getCurrentPosition() < lastRight
+                && doCompare(status.left.getCurrentPosition(), lastRight) > 0) {
+              // the rest of the right batch is smaller than the left key too
+              status.right.forwardInBatch(lastRight - status.right.getCurrentPosition());
+            }
+          }
           status.right.next();
           continue;
 
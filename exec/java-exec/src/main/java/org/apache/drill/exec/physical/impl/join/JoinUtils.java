@@ -20,7 +20,14 @@ package org.apache.drill.exec.physical.impl.join;
 
 import org.apache.calcite.rel.core.Join;
 import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlOperator;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.drill.common.exceptions.UserException;
 import org.apache.drill.common.logical.data.JoinCondition;
 import org.apache.calcite.rel.RelNode;
@@ -42,10 +49,13 @@ import org.apache.drill.exec.record.RecordBatch;
 import org.apache.drill.exec.record.VectorAccessible;
 import org.apache.drill.exec.resolver.TypeCastRules;
 
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 public class JoinUtils {
 
@@ -257,4 +267,74 @@ public class JoinUtils {
     return JoinCategory.EQUALITY;
   }
 
+  /**
+   * Picks out of a join condition the comparisons of a left column with a right column by {@code <}, {@code <=},
+   * {@code >} or {@code >=} that a nested loop join can answer by binary search over the sorted right side, see
+   * {@link BandIndex}. Only the comparisons on the left column compared most often are kept, each rewritten with the
+   * left column first.
+   * @param condition join condition
+   * @param leftFieldCount number of fields of the left input
+   * @param builder builder for the rewritten comparisons
+   * @return the band comparisons, or an empty list if the condition has none
+   */
+  public static List<RexNode> getBandConditions(RexNode condition, int leftFieldCount, RexBuilder builder) {
+    final Map<Integer, List<RexNode>> bands = Maps.newLinkedHashMap();
+    List<RexNode> best = Collections.emptyList();
+    for (RexNode conjunct : RelOptUtil.conjunctions(condition)) {
+      final SqlOperator op;
+      switch (conjunct.getKind()) {
+      case LESS_THAN:
+        op = SqlStdOperatorTable.GREATER_THAN;
+        break;
+      case LESS_THAN_OR_EQUAL:
+        op = SqlStdOperatorTable.GREATER_THAN_OR_EQUAL;
+        break;
+      case GREATER_THAN:
+        op = SqlStdOperatorTable.LESS_THAN;
+        break;
+      case GREATER_THAN_OR_EQUAL:
+        op = SqlStdOperatorTable.LESS_THAN_OR_EQUAL;
+        break;
+      default:
+        continue;
+      }
+      final List<RexNode> operands = ((RexCall) conjunct).getOperands();
+      if (!(operands.get(0) instanceof RexInputRef && operands.get(1) instanceof RexInputRef)) {
+        continue;
+      }
+      final RexInputRef first = (RexInputRef) operands.get(0);
+      final RexInputRef second = (RexInputRef) operands.get(1);
+      final boolean leftFirst = first.getIndex() < leftFieldCount;
+      if (leftFirst == (second.getIndex() < leftFieldCount) || !isBandType(first.getType(), second.getType())) {
+        continue;
+      }
+      final RexNode band = leftFirst ? conjunct : builder.makeCall(op, second, first);
+      final int leftColumn = leftFirst ? first.getIndex() : second.getIndex();
+      List<RexNode> list = bands.get(leftColumn);
+      if (list == null) {
+        list = Lists.newArrayList();
+        bands.put(leftColumn, list);
+      }
+      list.add(band);
+      if (list.size() > best.size()) {
+        best = list;
+      }
+    }
+    return best;
+  }
+
+  // Band columns are compared as longs; types only known at execution are checked again by BandIndex
+  private static boolean isBandType(RelDataType left, RelDataType right) {
+    final SqlTypeName leftType = left.getSqlTypeName();
+    final SqlTypeName rightType = right.getSqlTypeName();
+    if (leftType == SqlTypeName.ANY || rightType == SqlTypeName.ANY) {
+      return true;
+    }
+    if (SqlTypeName.INT_TYPES.contains(leftType) && SqlTypeName.INT_TYPES.contains(rightType)) {
+      return true;
+    }
+    return leftType == rightType
+        && (leftType == SqlTypeName.DATE || leftType == SqlTypeName.TIME || leftType == SqlTypeName.TIMESTAMP);
+  }
+
 }
@@ -21,6 +21,7 @@ import org.apache.drill.exec.compile.TemplateClassDefinition;
 import org.apache.drill.exec.ops.FragmentContext;
 import org.apache.drill.exec.record.ExpandableHyperContainer;
 import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.VectorAccessible;
 import org.apache.drill.exec.record.VectorContainer;
 
 import java.util.LinkedList;
@@ -32,9 +33,10 @@ public interface NestedLoopJoin {
   public static TemplateClassDefinition<NestedLoopJoin> TEMPLATE_DEFINITION =
       new TemplateClassDefinition<>(NestedLoopJoin.class, NestedLoopJoinTemplate.class);
 
-  public void setupNestedLoopJoin(FragmentContext context, RecordBatch left,
+  public void setupNestedLoopJoin(FragmentContext context, VectorAccessible left,
                                   ExpandableHyperContainer rightContainer,
                                   LinkedList<Integer> rightCounts,
+                                  BandIndex band,
                                   NestedLoopJoinBatch outgoing);
   // Produce output records
   public int outputRecords();
@@ -46,5 +48,5 @@ public interface NestedLoopJoin {
   public void emitRight(int batchIndex, int recordIndexWithinBatch, int outIndex);
 
   // Setup the input/output value vector references
-  public void doSetup(FragmentContext context, VectorContainer rightContainer, RecordBatch leftBatch, RecordBatch outgoing);
+  public void doSetup(FragmentContext context, VectorContainer rightContainer, VectorAccessible leftBatch, RecordBatch outgoing);
 }
@@ -30,14 +30,18 @@ import org.apache.drill.exec.exception.SchemaChangeException;
 import org.apache.drill.exec.expr.ClassGenerator;
 import org.apache.drill.exec.expr.CodeGenerator;
 import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.ops.MetricDef;
 import org.apache.drill.exec.physical.config.NestedLoopJoinPOP;
 import org.apache.drill.exec.physical.impl.sort.RecordBatchData;
+import org.apache.drill.exec.physical.impl.spill.SpillSet;
 import org.apache.drill.exec.record.AbstractRecordBatch;
 import org.apache.drill.exec.record.BatchSchema;
 import org.apache.drill.exec.record.ExpandableHyperContainer;
 import org.apache.drill.exec.record.MaterializedField;
 import org.apache.drill.exec.record.RecordBatch;
 import org.apache.drill.exec.record.TypedFieldId;
+import org.apache.drill.exec.record.VectorAccessible;
+import org.apache.drill.exec.record.VectorContainer;
 import org.apache.drill.exec.record.VectorWrapper;
 import org.apache.drill.exec.vector.AllocationHelper;
 
@@ -52,6 +56,16 @@ import com.sun.codemodel.JVar;
 public class NestedLoopJoinBatch extends AbstractRecordBatch<NestedLoopJoinPOP> {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(NestedLoopJoinBatch.class);
 
+  public enum Metric implements MetricDef {
+    SPILL_COUNT,  // number of batches written to disk
+    PASS_COUNT;   // number of passes over the left side
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
   // Maximum number records in the outgoing batch
   protected static final int MAX_BATCH_SIZE = 4096;
 
@@ -89,6 +103,21 @@ public class NestedLoopJoinBatch extends AbstractRecordBatch<NestedLoopJoinPOP>
   // Record count of the individual batches in the right hypoer container
   private LinkedList<Integer> rightCounts = new LinkedList<>();
 
+  // Bytes of the right batches in the hyper container
+  private long rightMemory = 0;
+
+  // Writes the right batches that don't fit in memory and the left batches to disk
+  private final NestedLoopJoinSpiller spiller;
+
+  // Pass over the left side; after the first one the left batches are read back from disk
+  private int pass = 0;
+
+  // Left batch read back from disk
+  private VectorContainer spilledLeft = null;
+
+  // Right rows sorted for the band conditions of the join, null to join all pairs of rows
+  private BandIndex band = null;
+
 
   // Generator mapping for the right side
   private static final GeneratorMapping EMIT_RIGHT =
@@ -126,13 +155,15 @@ public class NestedLoopJoinBatch extends AbstractRecordBatch<NestedLoopJoinPOP>
     Preconditions.checkNotNull(right);
     this.left = left;
     this.right = right;
+    this.spiller = new NestedLoopJoinSpiller(context, oContext, popConfig);
   }
 
   /**
    * Method drains the right side input of the NLJ and accumulates the data
    * in a hyper container. Once we have all the data from the right side we
    * process the left side one batch at a time and produce the output batch
-   * which is a cross product of the two sides.
+   * which is a cross product of the two sides. Right batches beyond the spill
+   * threshold are written to disk and joined in later passes over the left side.
    * @return IterOutcome state of the nested loop join batch
    */
   @Override
@@ -159,7 +190,12 @@ public class NestedLoopJoinBatch extends AbstractRecordBatch<NestedLoopJoinPOP>
             }
             // fall through
           case OK:
-            addBatchToHyperContainer(right);
+            if (spiller.hasSpilledRight() || (rightMemory > 0
+                && rightMemory + SpillSet.getMemorySize(right) > spiller.getThreshold())) {
+              spiller.spillRight(right);
+            } else {
+              addBatchToHyperContainer(right);
+            }
             break;
           case OUT_OF_MEMORY:
             return IterOutcome.OUT_OF_MEMORY;
@@ -171,8 +207,23 @@ public class NestedLoopJoinBatch extends AbstractRecordBatch<NestedLoopJoinPOP>
             break;
         }
       }
-      nljWorker.setupNestedLoopJoin(context, left, rightContainer, rightCounts, this);
+      stats.setLongStat(Metric.PASS_COUNT, 1);
+      band = BandIndex.create(popConfig.getConditions(), left, rightContainer, oContext.getAllocator());
+      if (band != null) {
+        band.build(rightContainer, rightCounts);
+      }
       state = BatchState.NOT_FIRST;
+
+      VectorAccessible firstLeft = left;
+      if (left.getRecordCount() == 0) {
+        firstLeft = nextLeft();
+      } else if (band != null) {
+        band.setLeft(left);
+      }
+      if (firstLeft == null) {
+        return IterOutcome.NONE;
+      }
+      nljWorker.setupNestedLoopJoin(context, firstLeft, rightContainer, rightCounts, band, this);
     }
 
     // allocate space for the outgoing batch
@@ -195,6 +246,78 @@ public class NestedLoopJoinBatch extends AbstractRecordBatch<NestedLoopJoinPOP>
     return (outputRecords > 0) ? IterOutcome.OK : IterOutcome.NONE;
   }
 
+  /**
+   * Called by the worker once a left batch was joined with all of the right batches in memory. Releases the batch, or
+   * writes it to disk if the right side was spilled, and moves on to the next left batch. Once the left side is done,
+   * starts a pass with the next spilled right batches over the left batches read back from disk.
+   * @return the next non empty left batch, or null when the join is done
+   */
+  public VectorAccessible nextLeft() {
+    VectorAccessible next = pass == 0 ? nextUpstreamLeft() : nextSpilledLeft();
+    while (next == null && startNextPass()) {
+      next = nextSpilledLeft();
+    }
+    if (next != null && band != null) {
+      band.setLeft(next);
+    }
+    return next;
+  }
+
+  private VectorAccessible nextUpstreamLeft() {
+    while (hasMore(leftUpstream)) {
+      // the left batch was joined with the right batches in memory
+      if (spiller.hasSpilledRight()) {
+        spiller.spillLeft(left);
+      } else {
+        for (final VectorWrapper<?> vw : left) {
+          vw.getValueVector().clear();
+        }
+      }
+      leftUpstream = next(LEFT_INPUT, left);
+      switch (leftUpstream) {
+        case OK_NEW_SCHEMA:
+          throw new DrillRuntimeException("Nested loop join does not handle schema change. Schema change" +
+              " found on the left side of NLJ.");
+        case OK:
+          if (left.getRecordCount() > 0) {
+            return left;
+          }
+          break;
+        default:
+          return null;
+      }
+    }
+    return null;
+  }
+
+  private VectorAccessible nextSpilledLeft() {
+    if (spilledLeft != null) {
+      spilledLeft.clear();
+    }
+    spilledLeft = spiller.nextLeft();
+    return spilledLeft;
+  }
+
+  /**
+   * Replaces the right batches in memory with the next spilled ones and starts reading the left side back from disk.
+   * @return false if all right batches were joined, or the left input failed
+   */
+  private boolean startNextPass() {
+    if (!spiller.hasMoreRight() || leftUpstream == IterOutcome.STOP) {
+      return false;
+    }
+    rightContainer.clear();
+    rightCounts.clear();
+    spiller.loadRightBlock(rightContainer, rightCounts);
+    if (band != null) {
+      band.build(rightContainer, rightCounts);
+    }
+    spiller.rewindLeft();
+    pass++;
+    stats.setLongStat(Metric.PASS_COUNT, pass + 1);
+    return true;
+  }
+
   private void killAndDrainRight() {
     if (!hasMore(rightUpstream)) {
       return;
@@ -345,6 +468,7 @@ public class NestedLoopJoinBatch extends AbstractRecordBatch<NestedLoopJoinPOP>
     try {
       rightCounts.addLast(inputBatch.getRecordCount());
       rightContainer.addBatch(batchCopy.getContainer());
+      rightMemory += SpillSet.getMemorySize(batchCopy.getContainer());
       success = true;
     } finally {
       if (!success) {
@@ -357,6 +481,13 @@ public class NestedLoopJoinBatch extends AbstractRecordBatch<NestedLoopJoinPOP>
   public void close() {
     rightContainer.clear();
     rightCounts.clear();
+    if (spilledLeft != null) {
+      spilledLeft.clear();
+    }
+    if (band != null) {
+      band.close();
+    }
+    spiller.close();
     super.close();
   }
 
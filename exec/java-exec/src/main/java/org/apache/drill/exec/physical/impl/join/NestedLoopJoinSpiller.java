@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.join;
+
+import java.util.List;
+
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.ops.OperatorContext;
+import org.apache.drill.exec.ops.OperatorStats;
+import org.apache.drill.exec.physical.config.NestedLoopJoinPOP;
+import org.apache.drill.exec.physical.impl.spill.SpillSet;
+import org.apache.drill.exec.record.ExpandableHyperContainer;
+import org.apache.drill.exec.record.VectorAccessible;
+import org.apache.drill.exec.record.VectorContainer;
+import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Turns the nested loop join into a block nested loop join once the right batches take more than
+ * {@link ExecConstants#NLJOIN_SPILL_THRESHOLD_KEY} bytes.
+ * <p>
+ * The right batches received after the threshold was reached are written to disk, each to its own file. The left
+ * batches are joined with the right batches in memory as they arrive and then written to disk too. Each later pass
+ * reads as many spilled right batches as fit in the threshold, at least one, and joins them with the left batches
+ * read back one at a time.</p>
+ */
+class NestedLoopJoinSpiller {
+  static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(NestedLoopJoinSpiller.class);
+
+  private final OperatorStats stats;
+  private final long threshold;
+
+  private final SpillSet spillSet;
+
+  private final List<Path> rightFiles = Lists.newArrayList();
+  private final List<Long> rightSizes = Lists.newArrayList();
+  private int nextRightFile;
+  private final List<Path> leftFiles = Lists.newArrayList();
+  private int nextLeftFile;
+  private int spillCount;
+
+  NestedLoopJoinSpiller(final FragmentContext context, final OperatorContext oContext,
+                        final NestedLoopJoinPOP popConfig) {
+    this.stats = oContext.getStats();
+    this.threshold = context.getOptions().getOption(ExecConstants.NLJOIN_SPILL_THRESHOLD);
+    this.spillSet = new SpillSet(context, oContext, popConfig);
+  }
+
+  long getThreshold() {
+    return threshold;
+  }
+
+  boolean hasSpilledRight() {
+    return !rightFiles.isEmpty();
+  }
+
+  /**
+   * @return whether spilled right batches are left for another pass over the left side
+   */
+  boolean hasMoreRight() {
+    return nextRightFile < rightFiles.size() && !leftFiles.isEmpty();
+  }
+
+  /**
+   * writes a right batch to disk and releases its buffers
+   */
+  void spillRight(final VectorAccessible batch) {
+    if (batch.getRecordCount() == 0) {
+      clear(batch);
+      return;
+    }
+    final long size = SpillSet.getMemorySize(batch);
+    rightFiles.add(spill(batch, "right_" + rightFiles.size()));
+    rightSizes.add(size);
+  }
+
+  /**
+   * writes a left batch that was joined with the first right batches to disk and releases its buffers
+   */
+  void spillLeft(final VectorAccessible batch) {
+    if (batch.getRecordCount() == 0) {
+      clear(batch);
+      return;
+    }
+    leftFiles.add(spill(batch, "left_" + leftFiles.size()));
+  }
+
+  /**
+   * reads the next spilled right batches, as many as fit in the threshold, into the emptied container
+   */
+  void loadRightBlock(final ExpandableHyperContainer container, final List<Integer> counts) {
+    long size = 0;
+    do {
+      final VectorContainer batch = spillSet.read(rightFiles.get(nextRightFile));
+      spillSet.delete(rightFiles.get(nextRightFile));
+      size += rightSizes.get(nextRightFile);
+      nextRightFile++;
+      counts.add(batch.getRecordCount());
+      container.addBatch(batch);
+    } while (nextRightFile < rightFiles.size() && size + rightSizes.get(nextRightFile) <= threshold);
+  }
+
+  /**
+   * starts reading the spilled left batches from the first one
+   */
+  void rewindLeft() {
+    nextLeftFile = 0;
+  }
+
+  /**
+   * @return the next spilled left batch, or null after the last one
+   */
+  VectorContainer nextLeft() {
+    if (nextLeftFile == leftFiles.size()) {
+      return null;
+    }
+    return spillSet.read(leftFiles.get(nextLeftFile++));
+  }
+
+  private static void clear(final VectorAccessible batch) {
+    for (final VectorWrapper<?> w : batch) {
+      w.getValueVector().clear();
+    }
+  }
+
+  private Path spill(final VectorAccessible batch, final String name) {
+    final Path path = spillSet.getPath(name);
+    spillSet.write(batch, batch.getRecordCount(), path);
+    spillCount++;
+    stats.setLongStat(NestedLoopJoinBatch.Metric.SPILL_COUNT, spillCount);
+    return path;
+  }
+
+  void close() {
+    spillSet.close();
+  }
+}
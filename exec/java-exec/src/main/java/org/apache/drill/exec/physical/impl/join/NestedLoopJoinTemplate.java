@@ -17,12 +17,11 @@
  */
 package org.apache.drill.exec.physical.impl.join;
 
-import org.apache.drill.common.exceptions.DrillRuntimeException;
 import org.apache.drill.exec.ops.FragmentContext;
 import org.apache.drill.exec.record.ExpandableHyperContainer;
 import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.VectorAccessible;
 import org.apache.drill.exec.record.VectorContainer;
-import org.apache.drill.exec.record.VectorWrapper;
 
 import javax.inject.Named;
 import java.util.LinkedList;
@@ -34,8 +33,10 @@ import java.util.List;
  */
 public abstract class NestedLoopJoinTemplate implements NestedLoopJoin {
 
-  // Current left input batch being processed
-  private RecordBatch left = null;
+  private FragmentContext context = null;
+
+  // Hyper container holding the right batches in memory
+  private ExpandableHyperContainer rightContainer = null;
 
   // Record count of the left batch currently being processed
   private int leftRecordCount = 0;
@@ -46,6 +47,9 @@ public abstract class NestedLoopJoinTemplate implements NestedLoopJoin {
   // Output batch
   private NestedLoopJoinBatch outgoing = null;
 
+  // Sorted right rows to join each left row with, null to join with all of them
+  private BandIndex band = null;
+
   // Next right batch to process
   private int nextRightBatchToProcess = 0;
 
@@ -55,21 +59,31 @@ public abstract class NestedLoopJoinTemplate implements NestedLoopJoin {
   // Next record in the left batch to process
   private int nextLeftRecordToProcess = 0;
 
+  // Next position in the band of the current left record, -1 if its band is not looked up yet
+  private int nextBandPosition = -1;
+
+  // End of the band of the current left record
+  private int bandEnd = 0;
+
   /**
    * Method initializes necessary state and invokes the doSetup() to set the
    * input and output value vector references
    * @param context Fragment context
    * @param left Current left input batch being processed
    * @param rightContainer Hyper container
+   * @param band Sorted right rows to look up for each left record, null to join every left record with every right one
    * @param outgoing Output batch
    */
-  public void setupNestedLoopJoin(FragmentContext context, RecordBatch left,
+  public void setupNestedLoopJoin(FragmentContext context, VectorAccessible left,
                                   ExpandableHyperContainer rightContainer,
                                   LinkedList<Integer> rightCounts,
+                                  BandIndex band,
                                   NestedLoopJoinBatch outgoing) {
-    this.left = left;
+    this.context = context;
+    this.rightContainer = rightContainer;
     leftRecordCount = left.getRecordCount();
     this.rightCounts = rightCounts;
+    this.band = band;
     this.outgoing = outgoing;
 
     doSetup(context, rightContainer, left, outgoing);
@@ -136,6 +150,51 @@ public abstract class NestedLoopJoinTemplate implements NestedLoopJoin {
     return outputIndex;
   }
 
+  /**
+   * Band join variant of populateOutgoingBatch(): for every record on the left we only go over the right records in
+   * its band, the condition above the join filters them further.
+   * @param outputIndex index to start emitting records at
+   * @return final outputIndex after producing records in the output batch
+   */
+  private int populateOutgoingBatchFromBand(int outputIndex) {
+    final BandIndex localBand = band;
+    final int localLeftRecordCount = leftRecordCount;
+
+    int localNextLeftRecordToProcess = nextLeftRecordToProcess;
+    int localNextBandPosition = nextBandPosition;
+    int localBandEnd = bandEnd;
+
+    outer: {
+
+      for (; localNextLeftRecordToProcess < localLeftRecordCount; localNextLeftRecordToProcess++) {
+        if (localNextBandPosition < 0) {
+          localNextBandPosition = localBand.getStart(localNextLeftRecordToProcess);
+          localBandEnd = localBand.getEnd(localNextLeftRecordToProcess);
+        }
+        for (; localNextBandPosition < localBandEnd; localNextBandPosition++) {
+          final int compositeIndex = localBand.getRow(localNextBandPosition);
+          emitLeft(localNextLeftRecordToProcess, outputIndex);
+          emitRight(compositeIndex >>> 16, compositeIndex & 65535, outputIndex);
+          outputIndex++;
+
+          if (outputIndex >= NestedLoopJoinBatch.MAX_BATCH_SIZE) {
+            localNextBandPosition++;
+
+            // no more space left in the batch, stop processing
+            break outer;
+          }
+        }
+        localNextBandPosition = -1;
+      }
+    }
+
+    nextLeftRecordToProcess = localNextLeftRecordToProcess;
+    nextBandPosition = localNextBandPosition;
+    bandEnd = localBandEnd;
+
+    return outputIndex;
+  }
+
   /**
    * Main entry point for producing the output records. Thin wrapper around populateOutgoingBatch(), this method
    * controls which left batch we are processing and fetches the next left input batch one we exhaust
@@ -145,7 +204,7 @@ public abstract class NestedLoopJoinTemplate implements NestedLoopJoin {
   public int outputRecords() {
     int outputIndex = 0;
     while (leftRecordCount != 0) {
-      outputIndex = populateOutgoingBatch(outputIndex);
+      outputIndex = band != null ? populateOutgoingBatchFromBand(outputIndex) : populateOutgoingBatch(outputIndex);
       if (outputIndex >= NestedLoopJoinBatch.MAX_BATCH_SIZE) {
         break;
       }
@@ -156,35 +215,25 @@ public abstract class NestedLoopJoinTemplate implements NestedLoopJoin {
   }
 
   /**
-   * Utility method to clear the memory in the left input batch once we have completed processing it. Resets some
-   * internal state which indicate the next records to process in the left and right batches. Also fetches the next
-   * left input batch.
+   * Utility method to release the left batch once we have completed processing it. Resets some internal state which
+   * indicate the next records to process in the left and right batches. Also fetches the next left batch, which may
+   * come from the left input or, once the right side was spilled, from disk, and binds the vectors of the batch.
    */
   private void resetAndGetNextLeft() {
-
-    for (VectorWrapper<?> vw : left) {
-      vw.getValueVector().clear();
-    }
     nextRightBatchToProcess = nextRightRecordToProcess = nextLeftRecordToProcess = 0;
-    RecordBatch.IterOutcome leftOutcome = outgoing.next(NestedLoopJoinBatch.LEFT_INPUT, left);
-    switch (leftOutcome) {
-      case OK_NEW_SCHEMA:
-        throw new DrillRuntimeException("Nested loop join does not handle schema change. Schema change" +
-            " found on the left side of NLJ.");
-      case NONE:
-      case NOT_YET:
-      case STOP:
-        leftRecordCount = 0;
-        break;
-      case OK:
-        leftRecordCount = left.getRecordCount();
-        break;
+    nextBandPosition = -1;
+    final VectorAccessible left = outgoing.nextLeft();
+    if (left == null) {
+      leftRecordCount = 0;
+      return;
     }
+    leftRecordCount = left.getRecordCount();
+    doSetup(context, rightContainer, left, outgoing);
   }
 
   public abstract void doSetup(@Named("context") FragmentContext context,
                                @Named("rightContainer") VectorContainer rightContainer,
-                               @Named("leftBatch") RecordBatch leftBatch,
+                               @Named("leftBatch") VectorAccessible leftBatch,
                                @Named("outgoing") RecordBatch outgoing);
 
   public abstract void emitRight(@Named("batchIndex") int batchIndex,
@@ -18,10 +18,8 @@
 package org.apache.drill.exec.physical.impl.mergereceiver;
 
 import java.io.IOException;
-import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
-import java.util.PriorityQueue;
 
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 import org.apache.drill.common.exceptions.DrillRuntimeException;
@@ -30,6 +28,7 @@ import org.apache.drill.common.expression.ErrorCollectorImpl;
 import org.apache.drill.common.expression.LogicalExpression;
 import org.apache.drill.common.expression.SchemaPath;
 import org.apache.drill.common.logical.data.Order.Ordering;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.compile.sig.GeneratorMapping;
 import org.apache.drill.exec.compile.sig.MappingSet;
 import org.apache.drill.exec.exception.ClassTransformationException;
@@ -44,6 +43,8 @@ import org.apache.drill.exec.ops.FragmentContext;
 import org.apache.drill.exec.ops.MetricDef;
 import org.apache.drill.exec.physical.MinorFragmentEndpoint;
 import org.apache.drill.exec.physical.config.MergingReceiverPOP;
+import org.apache.drill.exec.physical.impl.sort.LoserTree;
+import org.apache.drill.exec.physical.impl.sort.SortKeyPrefix;
 import org.apache.drill.exec.proto.BitControl.FinishedReceiver;
 import org.apache.drill.exec.proto.ExecProtos.FragmentHandle;
 import org.apache.drill.exec.proto.GeneralRPCProtos.Ack;
@@ -106,7 +107,11 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
   private int senderCount = 0;
   private RawFragmentBatch[] incomingBatches;
   private int[] batchOffsets;
-  private PriorityQueue <Node> pqueue;
+  private LoserTree tree;
+  /** index of the current record of each incoming batch */
+  private int[] valueIndexes;
+  private SortKeyPrefix keyPrefix;
+  private ValueVector[] keyVectors;
   private RawFragmentBatch emptyBatch = null;
   private RawFragmentBatch[] tempBatchHolder;
   private long[] inputCounts;
@@ -310,17 +315,32 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
         return IterOutcome.STOP;
       }
 
-      // allocate the priority queue with the generated comparator
-      this.pqueue = new PriorityQueue<>(fragProviders.length, new Comparator<Node>() {
+      // merge with a loser tree on the key prefixes, falling back to the generated comparator
+      if (context.getOptions().getOption(ExecConstants.SORT_KEY_PREFIX)) {
+        keyPrefix = SortKeyPrefix.create(popConfig.getOrderings(), batchLoaders[0]);
+      }
+      if (keyPrefix != null) {
+        keyVectors = new ValueVector[senderCount];
+        for (int b = 0; b < senderCount; ++b) {
+          keyVectors[b] = keyPrefix.getVectors(batchLoaders[b])[0];
+        }
+      }
+      valueIndexes = new int[senderCount];
+      tree = new LoserTree(senderCount, new LoserTree.Streams() {
         @Override
-        public int compare(final Node node1, final Node node2) {
-          final int leftIndex = (node1.batchId << 16) + node1.valueIndex;
-          final int rightIndex = (node2.batchId << 16) + node2.valueIndex;
+        public long prefix(final int stream) {
+          return keyPrefix.prefix(keyVectors[stream], valueIndexes[stream]);
+        }
+
+        @Override
+        public int compare(final int leftStream, final int rightStream) {
+          final int leftIndex = (leftStream << 16) + valueIndexes[leftStream];
+          final int rightIndex = (rightStream << 16) + valueIndexes[rightStream];
           return merger.doEval(leftIndex, rightIndex);
         }
-      });
+      }, keyPrefix != null);
 
-      // populate the priority queue with initial values
+      // populate the tree with initial values
       for (int b = 0; b < senderCount; ++b) {
         while (batchLoaders[b] != null && batchLoaders[b].getRecordCount() == 0) {
           try {
@@ -340,36 +360,37 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
             return IterOutcome.STOP;
           }
         }
-        if (batchLoaders[b] != null) {
-          pqueue.add(new Node(b, 0));
+        if (batchLoaders[b] == null) {
+          tree.setEmpty(b);
         }
       }
+      tree.build();
 
       hasRun = true;
       // finished lazy initialization
     }
 
-    while (!pqueue.isEmpty()) {
-      // pop next value from pq and copy to outgoing batch
-      final Node node = pqueue.peek();
-      if (!copyRecordToOutgoingBatch(node)) {
+    while (!tree.isEmpty()) {
+      // copy the winner of the tree to outgoing batch
+      final int batchId = tree.winner();
+      final int valueIndex = valueIndexes[batchId];
+      if (!copyRecordToOutgoingBatch(batchId, valueIndex)) {
         logger.debug("Outgoing vectors space is full; breaking");
         prevBatchWasFull = true;
       }
-      pqueue.poll();
 
-      if (node.valueIndex == batchLoaders[node.batchId].getRecordCount() - 1) {
+      if (valueIndex == batchLoaders[batchId].getRecordCount() - 1) {
         // reached the end of an incoming record batch
         RawFragmentBatch nextBatch;
         try {
-          nextBatch = getNext(node.batchId);
+          nextBatch = getNext(batchId);
 
           while (nextBatch != null && nextBatch.getHeader().getDef().getRecordCount() == 0) {
-            nextBatch = getNext(node.batchId);
+            nextBatch = getNext(batchId);
           }
 
-          assert nextBatch != null || inputCounts[node.batchId] == outputCounts[node.batchId]
-              : String.format("Stream %d input count: %d output count %d", node.batchId, inputCounts[node.batchId], outputCounts[node.batchId]);
+          assert nextBatch != null || inputCounts[batchId] == outputCounts[batchId]
+              : String.format("Stream %d input count: %d output count %d", batchId, inputCounts[batchId], outputCounts[batchId]);
           if (nextBatch == null && !context.shouldContinue()) {
             return IterOutcome.STOP;
           }
@@ -378,9 +399,11 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
           return IterOutcome.STOP;
         }
 
-        incomingBatches[node.batchId] = nextBatch;
+        incomingBatches[batchId] = nextBatch;
 
         if (nextBatch == null) {
+          tree.exhaust();
+
           // batch is empty
           boolean allBatchesEmpty = true;
 
@@ -397,7 +420,7 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
             break;
           }
 
-          // this batch is empty; since the pqueue no longer references this batch, it will be
+          // this batch is empty; since the tree no longer references this batch, it will be
           // ignored in subsequent iterations.
           if (prevBatchWasFull) {
             break;
@@ -406,25 +429,29 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
           }
         }
 
-        final UserBitShared.RecordBatchDef rbd = incomingBatches[node.batchId].getHeader().getDef();
+        final UserBitShared.RecordBatchDef rbd = incomingBatches[batchId].getHeader().getDef();
         try {
-          batchLoaders[node.batchId].load(rbd, incomingBatches[node.batchId].getBody());
+          batchLoaders[batchId].load(rbd, incomingBatches[batchId].getBody());
           // TODO:  Clean:  DRILL-2933:  That load(...) no longer throws
           // SchemaChangeException, so check/clean catch clause below.
         } catch(final SchemaChangeException ex) {
           context.fail(ex);
           return IterOutcome.STOP;
         }
-        incomingBatches[node.batchId].release();
-        batchOffsets[node.batchId] = 0;
+        incomingBatches[batchId].release();
+        batchOffsets[batchId] = 0;
 
-        // add front value from batch[x] to priority queue
-        if (batchLoaders[node.batchId].getRecordCount() != 0) {
-          pqueue.add(new Node(node.batchId, 0));
+        // replay the tree with the front value from batch[x]
+        if (batchLoaders[batchId].getRecordCount() != 0) {
+          valueIndexes[batchId] = 0;
+          tree.advance();
+        } else {
+          tree.exhaust();
         }
 
       } else {
-        pqueue.add(new Node(node.batchId, node.valueIndex + 1));
+        valueIndexes[batchId] = valueIndex + 1;
+        tree.advance();
       }
 
       if (prevBatchWasFull) {
@@ -437,7 +464,7 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
       vw.getValueVector().getMutator().setValueCount(outgoingPosition);
     }
 
-    if (pqueue.isEmpty()) {
+    if (tree.isEmpty()) {
       state = BatchState.DONE;
     }
 
@@ -698,15 +725,16 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
   }
 
   /**
-   * Copy the record referenced by the supplied node to the next output position.
+   * Copy the referenced record to the next output position.
    * Side Effect: increments outgoing position if successful
    *
-   * @param node Reference to the next record to copy from the incoming batches
+   * @param batchId incoming batch of the next record to copy
+   * @param valueIndex index of the record within the batch
    */
-  private boolean copyRecordToOutgoingBatch(final Node node) {
-    assert ++outputCounts[node.batchId] <= inputCounts[node.batchId]
-        : String.format("Stream %d input count: %d output count %d", node.batchId, inputCounts[node.batchId], outputCounts[node.batchId]);
-    final int inIndex = (node.batchId << 16) + node.valueIndex;
+  private boolean copyRecordToOutgoingBatch(final int batchId, final int valueIndex) {
+    assert ++outputCounts[batchId] <= inputCounts[batchId]
+        : String.format("Stream %d input count: %d output count %d", batchId, inputCounts[batchId], outputCounts[batchId]);
+    final int inIndex = (batchId << 16) + valueIndex;
     merger.doCopy(inIndex, outgoingPosition);
     outgoingPosition++;
     if (outgoingPosition == OUTGOING_BATCH_SIZE) {
@@ -715,19 +743,6 @@ public class MergingRecordBatch extends AbstractRecordBatch<MergingReceiverPOP>
     return true;
   }
 
-  /**
-   * A Node contains a reference to a single value in a specific incoming batch.  It is used
-   * as a wrapper for the priority queue.
-   */
-  public class Node {
-    public int batchId;      // incoming batch
-    public int valueIndex;   // value within the batch
-    Node(final int batchId, final int valueIndex) {
-      this.batchId = batchId;
-      this.valueIndex = valueIndex;
-    }
-  }
-
   @Override
   public void close() {
     outgoingContainer.clear();
@@ -88,7 +88,10 @@ public class PartitionSenderRootExec extends BaseRootExec {
     N_RECEIVERS,
     BYTES_SENT,
     SENDING_THREADS_COUNT,
-    COST;
+    COST,
+    SKEWED_RECORDS,
+    SKEWED_RECORDS_SENT,
+    SKEW_BROADCAST;
 
     @Override
     public int metricId() {
@@ -278,6 +281,25 @@ public class PartitionSenderRootExec extends BaseRootExec {
     // generate code to copy from an incoming value vector to the destination partition's outgoing value vector
     JExpression bucket = JExpr.direct("bucket");
 
+    // rows of hot keys are not hash partitioned; the partitioner routes them on its own when the bucket is negative
+    final LogicalExpression skewExpr = operator.getSkewExpr();
+    if (skewExpr != null) {
+      final LogicalExpression materializedSkewExpr = ExpressionTreeMaterializer.materialize(skewExpr, incoming, collector,
+          context.getFunctionRegistry());
+      if (collector.hasErrors()) {
+        throw new SchemaChangeException(String.format(
+            "Failure while trying to materialize incoming schema.  Errors:\n %s.",
+            collector.toErrorString()));
+      }
+      final ClassGenerator.HoldingContainer skewHolder = cg.addExpr(materializedSkewExpr);
+      JExpression isSkewed = skewHolder.getValue().eq(JExpr.lit(1));
+      if (skewHolder.isOptional()) {
+        isSkewed = skewHolder.getIsSet().eq(JExpr.lit(1)).cand(isSkewed);
+      }
+      cg.getEvalBlock()._if(isSkewed)._then()._return(JExpr.lit(-1));
+      stats.setLongStat(Metric.SKEW_BROADCAST, operator.isBroadcastSkewed() ? 1 : 0);
+    }
+
     // generate evaluate expression to determine the hash
     ClassGenerator.HoldingContainer exprHolder = cg.addExpr(materializedExpr);
     cg.getEvalBlock().decl(JType.parse(cg.getModel(), "int"), "bucket", exprHolder.getValue().mod(JExpr.lit(outGoingBatchCount)));
@@ -63,6 +63,9 @@ public abstract class PartitionerTemplate implements Partitioner {
   private OperatorStats stats;
   private int start;
   private int end;
+  private boolean broadcastSkewed;
+  private int destinationCount;
+  private long skewedRecords;
   private List<OutgoingRecordBatch> outgoingBatches = Lists.newArrayList();
 
   private int outgoingRecordBatchSize = DEFAULT_RECORD_BATCH_SIZE;
@@ -95,6 +98,10 @@ public abstract class PartitionerTemplate implements Partitioner {
     this.stats = stats;
     this.start = start;
     this.end = end;
+    this.broadcastSkewed = popConfig.isBroadcastSkewed();
+    this.destinationCount = popConfig.getDestinations().size();
+    // every sender starts spreading at another receiver
+    this.skewedRecords = context.getHandle().getMinorFragmentId();
     doSetup(context, incoming, null);
 
     // Half the outgoing record batch size if the number of senders exceeds 1000 to reduce the total amount of memory
@@ -203,12 +210,38 @@ public abstract class PartitionerTemplate implements Partitioner {
    */
   private void doCopy(int svIndex) throws IOException {
     int index = doEval(svIndex);
+    if (index < 0) {
+      copySkewed(svIndex);
+      return;
+    }
     if ( index >= start && index < end) {
       OutgoingRecordBatch outgoingBatch = outgoingBatches.get(index - start);
       outgoingBatch.copy(svIndex);
     }
   }
 
+  /**
+   * Copies a row of a hot key, which either goes to every receiver or to the next one in round-robin order. Each
+   * sub-partitioner sees every row, so they all agree on the receiver; only the first one counts the row.
+   */
+  private void copySkewed(int svIndex) throws IOException {
+    if (start == 0) {
+      stats.addLongStat(PartitionSenderRootExec.Metric.SKEWED_RECORDS, 1);
+    }
+    if (broadcastSkewed) {
+      for (OutgoingRecordBatch outgoingBatch : outgoingBatches) {
+        outgoingBatch.copy(svIndex);
+      }
+      stats.addLongStat(PartitionSenderRootExec.Metric.SKEWED_RECORDS_SENT, outgoingBatches.size());
+      return;
+    }
+    final int index = (int) (skewedRecords++ % destinationCount);
+    if (index >= start && index < end) {
+      outgoingBatches.get(index - start).copy(svIndex);
+      stats.addLongStat(PartitionSenderRootExec.Metric.SKEWED_RECORDS_SENT, 1);
+    }
+  }
+
   @Override
   public void clear() {
     for (OutgoingRecordBatch outgoingRecordBatch : outgoingBatches) {
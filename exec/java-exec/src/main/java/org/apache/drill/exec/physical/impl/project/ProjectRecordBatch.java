@@ -37,6 +37,7 @@ import org.apache.drill.common.expression.fn.CastFunctions;
 import org.apache.drill.common.logical.data.NamedExpression;
 import org.apache.drill.common.types.TypeProtos.MinorType;
 import org.apache.drill.common.types.Types;
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.exception.ClassTransformationException;
 import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.exception.SchemaChangeException;
@@ -50,12 +51,14 @@ import org.apache.drill.exec.expr.ValueVectorReadExpression;
 import org.apache.drill.exec.expr.ValueVectorWriteExpression;
 import org.apache.drill.exec.expr.fn.DrillComplexWriterFuncHolder;
 import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.ops.MetricDef;
 import org.apache.drill.exec.physical.config.Project;
 import org.apache.drill.exec.planner.StarColumnHelper;
 import org.apache.drill.exec.record.AbstractSingleRecordBatch;
 import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
 import org.apache.drill.exec.record.MaterializedField;
 import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.RecordBatchSizer;
 import org.apache.drill.exec.record.TransferPair;
 import org.apache.drill.exec.record.TypedFieldId;
 import org.apache.drill.exec.record.VectorContainer;
@@ -86,6 +89,25 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
   private boolean first = true;
   private boolean wasNone = false; // whether a NONE iter outcome was already seen
 
+  // output batches are limited to this many records, derived from the incoming row width and the target batch size
+  private final long outputBatchSize;
+  private int maxOutputRecords = RecordBatchSizer.MAX_ROW_COUNT;
+  private long outputBatchCount;
+  private long totalOutputBatchSize;
+  private long maxOutputBatchSize;
+
+  public enum Metric implements MetricDef {
+    TARGET_RECORD_COUNT,
+    OUTPUT_BATCH_COUNT,
+    AVG_OUTPUT_BATCH_SIZE,
+    MAX_OUTPUT_BATCH_SIZE;
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
   private class ClassifierResult {
     public boolean isStar = false;
     public List<String> outputNames;
@@ -107,6 +129,7 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
 
   public ProjectRecordBatch(final Project pop, final RecordBatch incoming, final FragmentContext context) throws OutOfMemoryException {
     super(pop, context, incoming);
+    outputBatchSize = context.getOptions().getOption(ExecConstants.OUTPUT_BATCH_SIZE);
   }
 
   @Override
@@ -191,12 +214,14 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
 
     container.zeroVectors();
 
-    if (!doAlloc(incomingRecordCount)) {
+    updateOutputLimit();
+    final int recordsToProject = Math.min(incomingRecordCount, maxOutputRecords);
+    if (!doAlloc(recordsToProject)) {
       outOfMemory = true;
       return IterOutcome.OUT_OF_MEMORY;
     }
 
-    final int outputRecords = projector.projectRecords(0, incomingRecordCount, 0);
+    final int outputRecords = projector.projectRecords(0, recordsToProject, 0);
     if (outputRecords < incomingRecordCount) {
       setValueCount(outputRecords);
       hasRemainder = true;
@@ -214,17 +239,19 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
     if (complexWriters != null) {
       container.buildSchema(SelectionVectorMode.NONE);
     }
+    updateBatchStats();
 
     return IterOutcome.OK;
   }
 
   private void handleRemainder() {
     final int remainingRecordCount = incoming.getRecordCount() - remainderIndex;
-    if (!doAlloc(remainingRecordCount)) {
+    final int recordsToProject = Math.min(remainingRecordCount, maxOutputRecords);
+    if (!doAlloc(recordsToProject)) {
       outOfMemory = true;
       return;
     }
-    final int projRecords = projector.projectRecords(remainderIndex, remainingRecordCount, 0);
+    final int projRecords = projector.projectRecords(remainderIndex, recordsToProject, 0);
     if (projRecords < remainingRecordCount) {
       setValueCount(projRecords);
       this.recordCount = projRecords;
@@ -243,6 +270,32 @@ public class ProjectRecordBatch extends AbstractSingleRecordBatch<Project> {
     if (complexWriters != null) {
       container.buildSchema(SelectionVectorMode.NONE);
     }
+    updateBatchStats();
+  }
+
+  /**
+   * Derive the number of records per output batch from the measured width of the incoming rows, so that output
+   * batches stay near the configured target size. The projected row is assumed to be as wide as the incoming one.
+   * Selection vector inputs are projected whole since the projector cannot resume part way through them.
+   */
+  private void updateOutputLimit() {
+    if (incoming.getSchema().getSelectionVectorMode() != SelectionVectorMode.NONE) {
+      maxOutputRecords = RecordBatchSizer.MAX_ROW_COUNT;
+      return;
+    }
+    final RecordBatchSizer sizer = new RecordBatchSizer(incoming);
+    maxOutputRecords = RecordBatchSizer.rowCountFor(outputBatchSize, sizer.getRowWidth(), RecordBatchSizer.MAX_ROW_COUNT);
+    stats.setLongStat(Metric.TARGET_RECORD_COUNT, maxOutputRecords);
+  }
+
+  private void updateBatchStats() {
+    final long batchSize = new RecordBatchSizer(container).getBatchSize();
+    outputBatchCount++;
+    totalOutputBatchSize += batchSize;
+    maxOutputBatchSize = Math.max(maxOutputBatchSize, batchSize);
+    stats.setLongStat(Metric.OUTPUT_BATCH_COUNT, outputBatchCount);
+    stats.setLongStat(Metric.AVG_OUTPUT_BATCH_SIZE, totalOutputBatchSize / outputBatchCount);
+    stats.setLongStat(Metric.MAX_OUTPUT_BATCH_SIZE, maxOutputBatchSize);
   }
 
   public void addComplexWriter(final ComplexWriter writer) {
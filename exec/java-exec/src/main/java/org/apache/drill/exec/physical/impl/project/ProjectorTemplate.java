@@ -38,6 +38,7 @@ public abstract class ProjectorTemplate implements Projector {
   private SelectionVector2 vector2;
   private SelectionVector4 vector4;
   private SelectionVectorMode svMode;
+  private RecordBatch incoming;
 
   public ProjectorTemplate() throws SchemaChangeException {
   }
@@ -61,7 +62,9 @@ public abstract class ProjectorTemplate implements Projector {
       for (i = startIndex; i < startIndex + countN; i++, firstOutputIndex++) {
         doEval(i, firstOutputIndex);
       }
-      if (i < startIndex + recordCount || startIndex > 0) {
+      // only part of the incoming batch was projected, either because the caller limited the output batch size or
+      // because we are resuming a split batch; the rest of the incoming vectors has to stay behind.
+      if (i < startIndex + recordCount || startIndex > 0 || i < incoming.getRecordCount()) {
         for (TransferPair t : transfers) {
           t.splitAndTransfer(startIndex, i - startIndex);
         }
@@ -80,6 +83,7 @@ public abstract class ProjectorTemplate implements Projector {
   @Override
   public final void setup(FragmentContext context, RecordBatch incoming, RecordBatch outgoing, List<TransferPair> transfers)  throws SchemaChangeException{
 
+    this.incoming = incoming;
     this.svMode = incoming.getSchema().getSelectionVectorMode();
     switch (svMode) {
     case FOUR_BYTE:
@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.sort;
+
+import io.netty.buffer.DrillBuf;
+
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.hadoop.util.IndexedSortable;
+import org.apache.hadoop.util.QuickSort;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Sorts row indexes by their {@link SortKeyPrefix} prefixes with an LSD radix sort over off-heap buffers, so the
+ * generated comparator is only needed to order rows whose prefixes are equal. Each entry is an 8 byte prefix and a
+ * 4 byte index (an SV2 index or an SV4 compound index) in two buffers of 12 bytes per row: the one holding the
+ * entries and the one the radix passes scatter into.
+ */
+public class KeyPrefixSorter implements AutoCloseable {
+
+  private static final int RADIX_BITS = 8;
+  private static final int RADIX = 1 << RADIX_BITS;
+  private static final int PASSES = Long.SIZE / RADIX_BITS;
+
+  /** Most rows whose entries fit a single buffer */
+  public static final int MAX_COUNT = Integer.MAX_VALUE / 12;
+
+  private final int count;
+  private DrillBuf entries;
+  private DrillBuf aux;
+
+  public KeyPrefixSorter(BufferAllocator allocator, int count) {
+    Preconditions.checkArgument(count <= MAX_COUNT, "Too many rows for a key prefix sort: %s", count);
+    this.count = count;
+    this.entries = allocator.buffer(Math.max(1, 12 * count));
+    try {
+      this.aux = allocator.buffer(Math.max(1, 12 * count));
+    } catch (RuntimeException e) {
+      entries.release();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the bytes a sorter over the given number of rows allocates
+   */
+  public static long memoryNeeded(int count) {
+    return 24L * count;
+  }
+
+  public void set(int position, long prefix, int index) {
+    entries.setLong(position * 8, prefix);
+    entries.setInt(count * 8 + position * 4, index);
+  }
+
+  public long getPrefix(int position) {
+    return entries.getLong(position * 8);
+  }
+
+  public int getIndex(int position) {
+    return entries.getInt(count * 8 + position * 4);
+  }
+
+  /**
+   * Orders the entries by prefix. Counts the digits of all passes in a single scan first and skips the passes whose
+   * digit is the same in every entry, e.g. the high bytes of small integer keys.
+   */
+  public void sort() {
+    final int[][] counts = new int[PASSES][RADIX];
+    for (int i = 0; i < count; i++) {
+      final long key = entries.getLong(i * 8) ^ Long.MIN_VALUE;
+      for (int pass = 0; pass < PASSES; pass++) {
+        counts[pass][(int) (key >>> (pass * RADIX_BITS)) & (RADIX - 1)]++;
+      }
+    }
+    for (int pass = 0; pass < PASSES; pass++) {
+      final int[] offsets = counts[pass];
+      if (isUniform(offsets)) {
+        continue;
+      }
+      int offset = 0;
+      for (int digit = 0; digit < RADIX; digit++) {
+        final int digitCount = offsets[digit];
+        offsets[digit] = offset;
+        offset += digitCount;
+      }
+      for (int i = 0; i < count; i++) {
+        final long prefix = entries.getLong(i * 8);
+        final int target = offsets[(int) ((prefix ^ Long.MIN_VALUE) >>> (pass * RADIX_BITS)) & (RADIX - 1)]++;
+        aux.setLong(target * 8, prefix);
+        aux.setInt(count * 8 + target * 4, entries.getInt(count * 8 + i * 4));
+      }
+      final DrillBuf tmp = entries;
+      entries = aux;
+      aux = tmp;
+    }
+  }
+
+  private boolean isUniform(int[] digitCounts) {
+    for (int digitCount : digitCounts) {
+      if (digitCount != 0) {
+        return digitCount == count;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sorts every run of entries with equal prefixes with the full comparator. The positions of the sortable have to
+   * hold the indexes in the order of {@link #sort()}.
+   */
+  public void sortTies(IndexedSortable sortable) {
+    final QuickSort quickSort = new QuickSort();
+    int start = 0;
+    for (int i = 1; i <= count; i++) {
+      if (i == count || getPrefix(i) != getPrefix(start)) {
+        if (i - start > 1) {
+          quickSort.sort(sortable, start, i);
+        }
+        start = i;
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    entries.release();
+    aux.release();
+  }
+}
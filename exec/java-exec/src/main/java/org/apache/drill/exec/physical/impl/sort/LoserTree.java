@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.sort;
+
+/**
+ * Tournament tree of losers merging k sorted streams. Each inner node keeps the stream that lost the match played
+ * there, so after the head of the winning stream changes only the log2(k) matches on its path to the root are
+ * replayed, with plain int arrays instead of a heap of objects. Matches are decided by the {@link SortKeyPrefix}
+ * prefixes of the heads where those differ and by the full comparator otherwise.
+ */
+public class LoserTree {
+
+  public interface Streams {
+    /**
+     * @return the normalized key prefix of the current head of the stream
+     */
+    long prefix(int stream);
+
+    /**
+     * Compares the current heads of two streams with the full comparator.
+     */
+    int compare(int leftStream, int rightStream);
+  }
+
+  private final Streams streams;
+  private final int size;
+  private final boolean usePrefixes;
+  /** tree[0] is the overall winner, tree[1 .. size - 1] the losers of the inner nodes */
+  private final int[] tree;
+  private final long[] prefixes;
+  private final boolean[] exhausted;
+  private long comparisons;
+
+  /**
+   * @param size number of streams
+   * @param usePrefixes whether {@link Streams#prefix} can be used to decide matches
+   */
+  public LoserTree(int size, Streams streams, boolean usePrefixes) {
+    this.streams = streams;
+    this.size = size;
+    this.usePrefixes = usePrefixes;
+    this.tree = new int[Math.max(1, size)];
+    this.prefixes = new long[size];
+    this.exhausted = new boolean[Math.max(1, size)];
+  }
+
+  /**
+   * Marks a stream that has no rows. Only valid before {@link #build()}.
+   */
+  public void setEmpty(int stream) {
+    exhausted[stream] = true;
+  }
+
+  /**
+   * Plays all matches once the heads of all streams that have rows are in place.
+   */
+  public void build() {
+    if (size == 0) {
+      exhausted[0] = true;
+      return;
+    }
+    if (usePrefixes) {
+      for (int i = 0; i < size; i++) {
+        if (!exhausted[i]) {
+          prefixes[i] = streams.prefix(i);
+        }
+      }
+    }
+    // leaf of stream i is node size + i, the parent of node p is p / 2
+    final int[] winners = new int[2 * size];
+    for (int i = 0; i < size; i++) {
+      winners[size + i] = i;
+    }
+    for (int p = size - 1; p > 0; p--) {
+      final int left = winners[2 * p];
+      final int right = winners[2 * p + 1];
+      if (beats(right, left)) {
+        winners[p] = right;
+        tree[p] = left;
+      } else {
+        winners[p] = left;
+        tree[p] = right;
+      }
+    }
+    tree[0] = size == 1 ? 0 : winners[1];
+  }
+
+  /**
+   * @return true once all streams are exhausted
+   */
+  public boolean isEmpty() {
+    return exhausted[tree[0]];
+  }
+
+  /**
+   * @return the stream whose head sorts first
+   */
+  public int winner() {
+    return tree[0];
+  }
+
+  /**
+   * The winning stream moved on to its next row.
+   */
+  public void advance() {
+    final int winner = tree[0];
+    if (usePrefixes) {
+      prefixes[winner] = streams.prefix(winner);
+    }
+    replay(winner);
+  }
+
+  /**
+   * The winning stream has no more rows.
+   */
+  public void exhaust() {
+    final int winner = tree[0];
+    exhausted[winner] = true;
+    replay(winner);
+  }
+
+  /**
+   * @return the number of times the full comparator was called
+   */
+  public long getComparisons() {
+    return comparisons;
+  }
+
+  private void replay(int stream) {
+    int candidate = stream;
+    for (int p = (size + stream) / 2; p > 0; p /= 2) {
+      final int loser = tree[p];
+      if (beats(loser, candidate)) {
+        tree[p] = candidate;
+        candidate = loser;
+      }
+    }
+    tree[0] = candidate;
+  }
+
+  /**
+   * @return true if the head of the left stream sorts strictly before the head of the right one
+   */
+  private boolean beats(int left, int right) {
+    if (exhausted[left]) {
+      return false;
+    }
+    if (exhausted[right]) {
+      return true;
+    }
+    if (usePrefixes && prefixes[left] != prefixes[right]) {
+      return prefixes[left] < prefixes[right];
+    }
+    comparisons++;
+    return streams.compare(left, right) < 0;
+  }
+}
@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.sort;
+
+import io.netty.buffer.DrillBuf;
+
+import java.util.List;
+
+import org.apache.calcite.rel.RelFieldCollation.Direction;
+import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.common.logical.data.Order.Ordering;
+import org.apache.drill.common.types.TypeProtos.DataMode;
+import org.apache.drill.common.types.TypeProtos.MajorType;
+import org.apache.drill.common.types.TypeProtos.MinorType;
+import org.apache.drill.exec.expr.TypeHelper;
+import org.apache.drill.exec.record.TypedFieldId;
+import org.apache.drill.exec.record.VectorAccessible;
+import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.vector.BaseDataValueVector;
+import org.apache.drill.exec.vector.NullableVector;
+import org.apache.drill.exec.vector.UInt4Vector;
+import org.apache.drill.exec.vector.ValueVector;
+import org.apache.drill.exec.vector.VarBinaryVector;
+import org.apache.drill.exec.vector.VarCharVector;
+
+/**
+ * Normalized 64 bit prefix of the first sort key of a row, read straight from the vector buffers. Prefixes compare as
+ * signed longs in sort order, direction and null ordering included: a row whose prefix is smaller sorts first, while
+ * equal prefixes decide nothing and the full comparator has to break the tie. Integer and date/time keys map to
+ * their value; VARCHAR and VARBINARY keys to their first 8 bytes.
+ */
+public class SortKeyPrefix {
+
+  private final TypedFieldId fieldId;
+  private final Class<?> vectorClass;
+  private final MajorType type;
+  private final boolean nullable;
+  private final boolean descending;
+  private final boolean nullsHigh;
+  private final boolean exact;
+
+  private SortKeyPrefix(TypedFieldId fieldId, MajorType type, boolean descending, boolean nullsHigh, boolean onlyOrdering) {
+    this.fieldId = fieldId;
+    this.vectorClass = TypeHelper.getValueVectorClass(type.getMinorType(), type.getMode());
+    this.type = type;
+    this.nullable = type.getMode() == DataMode.OPTIONAL;
+    this.descending = descending;
+    this.nullsHigh = nullsHigh;
+    this.exact = onlyOrdering && !nullable && type.getMinorType() != MinorType.VARCHAR
+        && type.getMinorType() != MinorType.VARBINARY;
+  }
+
+  /**
+   * @return the prefix of the first of the orderings over the given batch, or null if it is not a plain column of a
+   *         supported type
+   */
+  public static SortKeyPrefix create(List<Ordering> orderings, VectorAccessible batch) {
+    if (orderings.isEmpty() || !(orderings.get(0).getExpr() instanceof SchemaPath)) {
+      return null;
+    }
+    final Ordering ordering = orderings.get(0);
+    final SchemaPath path = (SchemaPath) ordering.getExpr();
+    if (!path.getRootSegment().isLastPath()) {
+      return null;
+    }
+    final TypedFieldId fieldId = batch.getValueVectorId(path);
+    if (fieldId == null || fieldId.getFieldIds().length != 1 || !isSupported(fieldId.getFinalType())) {
+      return null;
+    }
+    return new SortKeyPrefix(fieldId, fieldId.getFinalType(), ordering.getDirection() == Direction.DESCENDING,
+        ordering.nullsSortHigh(), orderings.size() == 1);
+  }
+
+  /**
+   * @return whether rows with equal prefixes are equal in sort order, so that ties need no comparator: the key is the
+   *         only ordering and neither a null nor a truncated string can share its prefix with another value
+   */
+  public boolean isExact() {
+    return exact;
+  }
+
+  public static boolean isSupported(MajorType type) {
+    if (type.getMode() == DataMode.REPEATED) {
+      return false;
+    }
+    switch (type.getMinorType()) {
+      case INT:
+      case BIGINT:
+      case DATE:
+      case TIME:
+      case TIMESTAMP:
+      case VARCHAR:
+      case VARBINARY:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return the key vectors of the batch, one per batch of a hyper batch
+   */
+  public ValueVector[] getVectors(VectorAccessible batch) {
+    final VectorWrapper<?> wrapper = batch.getValueAccessorById(vectorClass, fieldId.getFieldIds());
+    return wrapper.isHyper() ? wrapper.getValueVectors() : new ValueVector[] { wrapper.getValueVector() };
+  }
+
+  public long prefix(ValueVector vector, int index) {
+    long key;
+    if (nullable && vector.getAccessor().isNull(index)) {
+      key = nullsHigh ? Long.MAX_VALUE : Long.MIN_VALUE;
+    } else {
+      final ValueVector values = nullable ? ((NullableVector) vector).getValuesVector() : vector;
+      switch (type.getMinorType()) {
+        case INT:
+        case TIME:
+          key = ((BaseDataValueVector) values).getBuffer().getInt(index * 4);
+          break;
+        case VARCHAR:
+          key = bytesPrefix(((VarCharVector) values).getOffsetVector(), ((VarCharVector) values).getBuffer(), index);
+          break;
+        case VARBINARY:
+          key = bytesPrefix(((VarBinaryVector) values).getOffsetVector(), ((VarBinaryVector) values).getBuffer(), index);
+          break;
+        default:
+          key = ((BaseDataValueVector) values).getBuffer().getLong(index * 8);
+      }
+    }
+    // ~ reverses the order of signed longs without overflowing
+    return descending ? ~key : key;
+  }
+
+  /**
+   * Packs the first 8 bytes big endian, padded with zeros, and flips the sign bit so that the signed comparison of
+   * prefixes matches the unsigned byte comparison of the values.
+   */
+  private static long bytesPrefix(UInt4Vector offsets, DrillBuf data, int index) {
+    final int start = offsets.getAccessor().get(index);
+    final int length = Math.min(8, offsets.getAccessor().get(index + 1) - start);
+    long key = 0;
+    for (int i = 0; i < 8; i++) {
+      key = (key << 8) | (i < length ? data.getByte(start + i) & 0xFF : 0);
+    }
+    return key ^ Long.MIN_VALUE;
+  }
+}
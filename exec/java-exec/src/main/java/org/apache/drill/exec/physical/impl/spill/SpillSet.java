@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.spill;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.drill.common.config.DrillConfig;
+import org.apache.drill.common.exceptions.UserException;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.cache.VectorAccessibleSerializable;
+import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.ops.OperatorContext;
+import org.apache.drill.exec.physical.base.PhysicalOperator;
+import org.apache.drill.exec.proto.ExecProtos.FragmentHandle;
+import org.apache.drill.exec.proto.helper.QueryIdHelper;
+import org.apache.drill.exec.record.VectorAccessible;
+import org.apache.drill.exec.record.VectorContainer;
+import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.record.WritableBatch;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Spill directory of one operator, for operators that write single batches to their own files and read them back
+ * later.
+ * <p>
+ * Like the external sort, the directory is placed under one of the {@link ExecConstants#EXTERNAL_SORT_SPILL_DIRS}
+ * on the {@link ExecConstants#EXTERNAL_SORT_SPILL_FILESYSTEM}. It is named after the fragment and the operator, and
+ * only created, and marked for deletion on exit, by the first write. Closing the set deletes it along with every file
+ * left in it.</p>
+ */
+public class SpillSet {
+  static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SpillSet.class);
+
+  private final OperatorContext oContext;
+  private final DrillConfig config;
+  private final Path spillDir;
+  private FileSystem fs; // created on first spill
+
+  public SpillSet(FragmentContext context, OperatorContext oContext, PhysicalOperator popConfig) {
+    this.oContext = oContext;
+    this.config = context.getConfig();
+
+    final List<String> dirs = config.getStringList(ExecConstants.EXTERNAL_SORT_SPILL_DIRS);
+    final FragmentHandle handle = context.getHandle();
+    final String dirName = String.format("%s_majorfragment%s_minorfragment%s_operator%s",
+      QueryIdHelper.getQueryId(handle.getQueryId()), handle.getMajorFragmentId(), handle.getMinorFragmentId(),
+      popConfig.getOperatorId());
+    spillDir = new Path(dirs.get(handle.getMinorFragmentId() % dirs.size()), dirName);
+  }
+
+  /**
+   * @return path of the spill file with the given name
+   */
+  public Path getPath(String name) {
+    return new Path(spillDir, name);
+  }
+
+  /**
+   * writes the records of a batch, without selection vector, to the given file. The batch keeps its buffers
+   */
+  public void write(VectorAccessible batch, int recordCount, Path path) {
+    final WritableBatch writable = WritableBatch.getBatchNoHVWrap(recordCount, batch, false);
+    final VectorAccessibleSerializable serializable = new VectorAccessibleSerializable(writable, oContext.getAllocator());
+    try (FSDataOutputStream output = getFileSystem().create(path)) {
+      serializable.writeToStream(output);
+    } catch (IOException e) {
+      throw UserException.dataWriteError(e)
+        .message("Failed to spill batch to %s", path)
+        .build(logger);
+    }
+  }
+
+  /**
+   * @return a new container holding the batch written to the given file
+   */
+  public VectorContainer read(Path path) {
+    final VectorAccessibleSerializable serializable = new VectorAccessibleSerializable(oContext.getAllocator());
+    try (FSDataInputStream input = getFileSystem().open(path)) {
+      serializable.readFromStream(input);
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+        .message("Failed to read spilled batch from %s", path)
+        .build(logger);
+    }
+    return serializable.get();
+  }
+
+  /**
+   * deletes a spill file that is not needed anymore
+   */
+  public void delete(Path path) {
+    try {
+      getFileSystem().delete(path, false);
+    } catch (IOException e) {
+      // the whole spill directory is deleted on close anyway, we don't propagate the exception
+      logger.warn("Unable to delete spill file " + path, e);
+    }
+  }
+
+  /**
+   * @return bytes taken by the buffers of the batch
+   */
+  public static long getMemorySize(VectorAccessible batch) {
+    long size = 0;
+    for (VectorWrapper<?> w : batch) {
+      size += w.getValueVector().getBufferSize();
+    }
+    return size;
+  }
+
+  private FileSystem getFileSystem() throws IOException {
+    if (fs == null) {
+      final Configuration conf = new Configuration();
+      conf.set("fs.default.name", config.getString(ExecConstants.EXTERNAL_SORT_SPILL_FILESYSTEM));
+      fs = FileSystem.get(conf);
+      fs.mkdirs(spillDir);
+      fs.deleteOnExit(spillDir);
+    }
+    return fs;
+  }
+
+  /**
+   * deletes the spill directory, if anything was written
+   */
+  public void close() {
+    if (fs == null) {
+      return;
+    }
+
+    try {
+      if (fs.exists(spillDir) && fs.delete(spillDir, true)) {
+        fs.cancelDeleteOnExit(spillDir);
+      }
+    } catch (IOException e) {
+      // since this is meant to be used in the operator's cleanup, we don't propagate the exception
+      logger.warn("Unable to delete spill directory " + spillDir, e);
+    }
+  }
+}
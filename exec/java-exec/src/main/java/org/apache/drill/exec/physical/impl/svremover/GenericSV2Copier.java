@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.svremover;
+
+import java.util.List;
+
+import org.apache.drill.common.types.TypeProtos.MajorType;
+import org.apache.drill.common.types.Types;
+import org.apache.drill.exec.exception.SchemaChangeException;
+import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.record.selection.SelectionVector2;
+import org.apache.drill.exec.vector.AllocationHelper;
+import org.apache.drill.exec.vector.BulkCopyableVector;
+import org.apache.drill.exec.vector.ValueVector;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Non-generated SV2 copier used when every vector in the batch is a {@link BulkCopyableVector}. Each column is
+ * copied with a single gather call, which moves runs of consecutive selected records as one memory block.
+ */
+public class GenericSV2Copier implements Copier {
+
+  private SelectionVector2 sv2;
+  private ValueVector[] in;
+  private BulkCopyableVector[] out;
+  private RecordBatch outgoing;
+
+  /**
+   * @return true if every vector of the given (non hyper) batch supports bulk copies
+   */
+  public static boolean canCopy(RecordBatch batch) {
+    for (VectorWrapper<?> vw : batch) {
+      if (!(vw.getValueVector() instanceof BulkCopyableVector)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void setupRemover(FragmentContext context, RecordBatch incoming, RecordBatch outgoing) throws SchemaChangeException {
+    this.sv2 = incoming.getSelectionVector2();
+    this.outgoing = outgoing;
+    final List<ValueVector> inVectors = Lists.newArrayList();
+    final List<BulkCopyableVector> outVectors = Lists.newArrayList();
+    for (VectorWrapper<?> vw : incoming) {
+      inVectors.add(vw.getValueVector());
+    }
+    for (VectorWrapper<?> vw : outgoing) {
+      outVectors.add((BulkCopyableVector) vw.getValueVector());
+    }
+    in = inVectors.toArray(new ValueVector[inVectors.size()]);
+    out = outVectors.toArray(new BulkCopyableVector[outVectors.size()]);
+  }
+
+  @Override
+  public int copyRecords(int index, int recordCount) {
+    allocateOutgoing(outgoing, recordCount);
+    for (int i = 0; i < out.length; i++) {
+      out[i].gatherSafe(sv2.getBuffer(false), index, recordCount, 0, in[i]);
+    }
+    return recordCount;
+  }
+
+  static void allocateOutgoing(RecordBatch outgoing, int recordCount) {
+    for (VectorWrapper<?> out : outgoing) {
+      MajorType type = out.getField().getType();
+      if (!Types.isFixedWidthType(type) || Types.isRepeated(type)) {
+        out.getValueVector().allocateNew();
+      } else {
+        AllocationHelper.allocate(out.getValueVector(), recordCount, 1);
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.svremover;
+
+import java.util.List;
+
+import org.apache.drill.exec.exception.SchemaChangeException;
+import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.record.RecordBatch;
+import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.record.selection.SelectionVector4;
+import org.apache.drill.exec.vector.BulkCopyableVector;
+import org.apache.drill.exec.vector.ValueVector;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Non-generated SV4 copier used when every vector in the hyper batch is a {@link BulkCopyableVector}. Runs of
+ * consecutive records from the same batch are copied as one memory block.
+ */
+public class GenericSV4Copier implements Copier {
+
+  private SelectionVector4 sv4;
+  private ValueVector[][] in;
+  private BulkCopyableVector[] out;
+  private RecordBatch outgoing;
+
+  /**
+   * @return true if every vector of the given hyper batch supports bulk copies
+   */
+  public static boolean canCopy(RecordBatch batch) {
+    for (VectorWrapper<?> vw : batch) {
+      for (ValueVector v : vw.getValueVectors()) {
+        if (!(v instanceof BulkCopyableVector)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void setupRemover(FragmentContext context, RecordBatch incoming, RecordBatch outgoing) throws SchemaChangeException {
+    this.sv4 = incoming.getSelectionVector4();
+    this.outgoing = outgoing;
+    final List<ValueVector[]> inVectors = Lists.newArrayList();
+    final List<BulkCopyableVector> outVectors = Lists.newArrayList();
+    for (VectorWrapper<?> vw : incoming) {
+      inVectors.add(vw.getValueVectors());
+    }
+    for (VectorWrapper<?> vw : outgoing) {
+      outVectors.add((BulkCopyableVector) vw.getValueVector());
+    }
+    in = inVectors.toArray(new ValueVector[inVectors.size()][]);
+    out = outVectors.toArray(new BulkCopyableVector[outVectors.size()]);
+  }
+
+  @Override
+  public int copyRecords(int index, int recordCount) {
+    GenericSV2Copier.allocateOutgoing(outgoing, recordCount);
+    for (int i = 0; i < out.length; i++) {
+      out[i].gatherHyperSafe(sv4.getBuffer(), sv4.getStart() + index, recordCount, 0, in[i]);
+    }
+    return recordCount;
+  }
+}
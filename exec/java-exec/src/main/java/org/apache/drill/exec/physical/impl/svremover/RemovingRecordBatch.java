@@ -225,6 +225,12 @@ public class RemovingRecordBatch extends AbstractSingleRecordBatch<SelectionVect
       TransferPair tp = vv.getValueVector().makeTransferPair(container.addOrGet(vv.getField(), callBack));
     }
 
+    if (GenericSV2Copier.canCopy(incoming)) {
+      final Copier copier = new GenericSV2Copier();
+      copier.setupRemover(context, incoming, this);
+      return copier;
+    }
+
     try {
       final CodeGenerator<Copier> cg = CodeGenerator.get(Copier.TEMPLATE_DEFINITION2, context.getFunctionRegistry(), context.getOptions());
       CopyUtil.generateCopies(cg.getRoot(), incoming, false);
@@ -249,6 +255,12 @@ public class RemovingRecordBatch extends AbstractSingleRecordBatch<SelectionVect
       v.makeTransferPair(container.addOrGet(v.getField(), callBack));
     }
 
+    if (GenericSV4Copier.canCopy(batch)) {
+      final Copier copier = new GenericSV4Copier();
+      copier.setupRemover(context, batch, outgoing);
+      return copier;
+    }
+
     try {
       final CodeGenerator<Copier> cg = CodeGenerator.get(Copier.TEMPLATE_DEFINITION4, context.getFunctionRegistry(), context.getOptions());
       CopyUtil.generateCopies(cg.getRoot(), batch, true);
@@ -47,6 +47,7 @@ public abstract class FrameSupportTemplate implements WindowFramer {
   private WindowDataBatch current;
 
   private int frameLastRow;
+  private WindowDataBatch frameLastBatch; // batch that holds frameLastRow
 
   // true when at least one window function needs to process all batches of a partition before passing any batch downstream
   private boolean requireFullPartition;
@@ -173,6 +174,11 @@ public abstract class FrameSupportTemplate implements WindowFramer {
   }
 
   private int processRANGE(int row) throws DrillException {
+    if (remainingPeers > 0) {
+      // the frame started in a previous batch, its last batch may have been spilled and read back since
+      setupReadLastValue(frameLastBatch, container);
+    }
+
     while (row < outputCount && !isPartitionDone()) {
       if (remainingPeers == 0) {
         // because all peer rows share the same frame, we only need to compute and aggregate the frame once
@@ -251,11 +257,12 @@ public abstract class FrameSupportTemplate implements WindowFramer {
     logger.trace("aggregating rows starting from {}", start);
 
     final boolean unboundedFollowing = popConfig.getEnd().isUnbounded();
-    VectorAccessible last = current;
+    WindowDataBatch last = current;
     long length = 0;
 
     // a single frame can include rows from multiple batches
     // start processing first batch and, if necessary, move to next batches
+    outer:
     for (WindowDataBatch batch : batches) {
       setupEvaluatePeer(batch, container);
       final int recordCount = batch.getRecordCount();
@@ -264,11 +271,11 @@ public abstract class FrameSupportTemplate implements WindowFramer {
       for (int row = (batch == current) ? start : 0; row < recordCount; row++, length++) {
         if (unboundedFollowing) {
           if (length >= remainingRows) {
-            break;
+            break outer;
           }
         } else {
           if (!isPeer(start, current, row, batch)) {
-            break;
+            break outer;
           }
         }
 
@@ -279,6 +286,7 @@ public abstract class FrameSupportTemplate implements WindowFramer {
     }
 
     setupReadLastValue(last, container);
+    frameLastBatch = last;
 
     return length;
   }
@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.window;
+
+import io.netty.buffer.DrillBuf;
+
+import org.apache.drill.common.types.TypeProtos.DataMode;
+import org.apache.drill.common.types.TypeProtos.MajorType;
+import org.apache.drill.common.types.TypeProtos.MinorType;
+import org.apache.drill.exec.expr.TypeHelper;
+import org.apache.drill.exec.record.TypedFieldId;
+import org.apache.drill.exec.record.VectorAccessible;
+import org.apache.drill.exec.vector.BaseDataValueVector;
+import org.apache.drill.exec.vector.NullableVector;
+import org.apache.drill.exec.vector.ValueVector;
+
+/**
+ * Reads the values of a column of the window batches as longs, straight from the vector buffers. Floating point
+ * values are returned as the bits of the corresponding double, dates and times as milliseconds.
+ * <p>
+ * Columns of any other type can only be checked for nulls.</p>
+ */
+class FrameValueReader {
+
+  private final TypedFieldId fieldId;
+  private final Class<?> vectorClass;
+  private final MinorType type;
+  private final boolean nullable;
+  private final boolean hasValues;
+
+  private ValueVector.Accessor accessor;
+  private DrillBuf data;
+
+  FrameValueReader(final TypedFieldId fieldId) {
+    final MajorType majorType = fieldId.getFinalType();
+    this.fieldId = fieldId;
+    this.vectorClass = TypeHelper.getValueVectorClass(majorType.getMinorType(), majorType.getMode());
+    this.type = majorType.getMinorType();
+    this.nullable = majorType.getMode() == DataMode.OPTIONAL;
+    this.hasValues = hasValues(majorType);
+  }
+
+  static boolean hasValues(final MajorType type) {
+    if (type.getMode() == DataMode.REPEATED) {
+      return false;
+    }
+
+    switch (type.getMinorType()) {
+      case INT:
+      case BIGINT:
+      case FLOAT4:
+      case FLOAT8:
+      case DATE:
+      case TIME:
+      case TIMESTAMP:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  static boolean isNumeric(final MinorType type) {
+    return type == MinorType.INT || type == MinorType.BIGINT || isFloatingPoint(type);
+  }
+
+  static boolean isFloatingPoint(final MinorType type) {
+    return type == MinorType.FLOAT4 || type == MinorType.FLOAT8;
+  }
+
+  MinorType getType() {
+    return type;
+  }
+
+  /**
+   * @return false if the column can only be checked for nulls
+   */
+  boolean hasValues() {
+    return hasValues;
+  }
+
+  /**
+   * points the reader to the given batch. Must be called again whenever the batch may have been spilled and read
+   * back, as its buffers change
+   */
+  void bind(final VectorAccessible batch) {
+    final ValueVector vector = batch.getValueAccessorById(vectorClass, fieldId.getFieldIds()).getValueVector();
+    accessor = vector.getAccessor();
+    if (hasValues) {
+      final ValueVector values = nullable ? ((NullableVector) vector).getValuesVector() : vector;
+      data = ((BaseDataValueVector) values).getBuffer();
+    }
+  }
+
+  boolean isNull(final int index) {
+    return nullable && accessor.isNull(index);
+  }
+
+  long get(final int index) {
+    switch (type) {
+      case INT:
+      case TIME:
+        return data.getInt(index * 4);
+      case FLOAT4:
+        return Double.doubleToRawLongBits(Float.intBitsToFloat(data.getInt(index * 4)));
+      default:
+        return data.getLong(index * 8);
+    }
+  }
+}
@@ -252,13 +252,14 @@ public abstract class NoFrameSupportTemplate implements WindowFramer {
 
     // a single frame can include rows from multiple batches
     // start processing first batch and, if necessary, move to next batches
+    outer:
     for (WindowDataBatch batch : batches) {
       final int recordCount = batch.getRecordCount();
 
       // for every remaining row in the partition, count it if it's a peer row
       for (int row = (batch == current) ? start : 0; row < recordCount; row++, length++) {
         if (!isPeer(start, current, row, batch)) {
-          break;
+          break outer;
         }
       }
     }
@@ -0,0 +1,598 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.window;
+
+import java.util.List;
+
+import org.apache.calcite.rel.RelFieldCollation.Direction;
+import org.apache.drill.common.exceptions.DrillException;
+import org.apache.drill.common.logical.data.Order;
+import org.apache.drill.exec.exception.SchemaChangeException;
+import org.apache.drill.exec.ops.OperatorContext;
+import org.apache.drill.exec.physical.config.WindowPOP;
+import org.apache.drill.exec.record.TypedFieldId;
+import org.apache.drill.exec.record.VectorAccessible;
+import org.apache.drill.exec.record.VectorContainer;
+
+/**
+ * WindowFramer for aggregates, FIRST_VALUE and LAST_VALUE when a bound of the frame is n PRECEDING or n FOLLOWING.
+ * <p>
+ * Both ends of the frame only move forward as the current row advances, so the frame slides over the partition: rows
+ * entering the frame are added to each {@link OffsetFrameFunction} and rows leaving it are removed. The rows are read
+ * ahead from the batches and the values the functions need are copied in a buffer, that holds the rows from the start
+ * of the current frame to the last row read. Batches can thus be spilled once they have been read.</p>
+ * <p>
+ * ROWS frames are computed from the positions of the rows. RANGE frames need a single order by column of a numeric,
+ * date or time type, offsets are in units of this column (milliseconds for dates and times).</p>
+ */
+class OffsetFrameFramer implements WindowFramer {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(OffsetFrameFramer.class);
+
+  private final WindowFramer comparator; // generated framer only used to compare rows
+  private final boolean ownsComparator;
+  private final OffsetFrameFunction[] functions;
+  private final FrameValueReader[] inputs; // read ahead rows, null for COUNT(*)
+  private final FrameValueReader orderKey; // RANGE frames, read ahead rows
+  private final FrameValueReader currentKey; // RANGE frames, rows of the first batch
+  private final FrameValueReader lastKey; // RANGE frames, last row of the last batch
+  private final int keyColumn; // index of the order key in the buffer
+
+  private final boolean frameUnitsRows;
+  private final boolean startUnbounded;
+  private final boolean endUnbounded;
+  private final long startOffset;
+  private final long endOffset;
+  private final boolean descending;
+  private final boolean nullsLast;
+  private final boolean floatingPointKey;
+
+  private List<WindowDataBatch> batches;
+  private VectorContainer container;
+  private int outputCount; // number of rows in currently/last processed batch
+
+  // state of the current partition, rows are numbered from the first row of the partition
+  private boolean partitionContinues; // first row of the next batch is in the partition of the last processed row
+  private long currentRow;
+  private long frameStart; // functions aggregated the rows [frameStart, frameEnd)
+  private long frameEnd;
+  private long partitionEnd; // number of rows in the partition, once its end was read
+  private final FrameBuffer buffer;
+  private final long[] firstValues; // values of the first row of the partition, for FIRST_VALUE
+  private final boolean[] firstNulls;
+
+  // read ahead cursor: readRow is the next row of the partition to read
+  private long readRow;
+  private long readOffset; // position of readRow counted from the first row of the first batch
+  private int readBatch; // index of the batch that holds readRow
+  private long readBatchStart; // position of the first row of readBatch
+  private boolean readBound; // true if the readers are bound to readBatch
+
+  /**
+   * @param comparator framer used to compare partitions
+   * @param ownsComparator true if the comparator must be cleaned up with this framer
+   * @param orderKeyId order by column for RANGE frames, null for ROWS frames
+   */
+  OffsetFrameFramer(final WindowFramer comparator, final boolean ownsComparator,
+                    final List<OffsetFrameFunction> functions, final WindowPOP popConfig,
+                    final TypedFieldId orderKeyId) {
+    this.comparator = comparator;
+    this.ownsComparator = ownsComparator;
+    this.functions = functions.toArray(new OffsetFrameFunction[functions.size()]);
+
+    inputs = new FrameValueReader[this.functions.length];
+    for (int i = 0; i < inputs.length; i++) {
+      inputs[i] = this.functions[i].newInputReader();
+    }
+
+    frameUnitsRows = popConfig.isFrameUnitsRows();
+    startUnbounded = popConfig.getStart().isUnbounded();
+    endUnbounded = popConfig.getEnd().isUnbounded();
+    startOffset = popConfig.getStart().getOffset();
+    endOffset = popConfig.getEnd().getOffset();
+
+    if (orderKeyId != null) {
+      final Order.Ordering ordering = popConfig.getOrderings().get(0);
+      descending = ordering.getDirection() == Direction.DESCENDING;
+      nullsLast = ordering.nullsSortHigh() != descending;
+      orderKey = new FrameValueReader(orderKeyId);
+      currentKey = new FrameValueReader(orderKeyId);
+      lastKey = new FrameValueReader(orderKeyId);
+      floatingPointKey = FrameValueReader.isFloatingPoint(orderKey.getType());
+    } else {
+      descending = false;
+      nullsLast = false;
+      orderKey = null;
+      currentKey = null;
+      lastKey = null;
+      floatingPointKey = false;
+    }
+
+    keyColumn = inputs.length;
+    buffer = new FrameBuffer(inputs.length + 1);
+    firstValues = new long[inputs.length];
+    firstNulls = new boolean[inputs.length];
+  }
+
+  @Override
+  public void setup(final List<WindowDataBatch> batches, final VectorContainer container,
+                    final OperatorContext operatorContext, final boolean requireFullPartition,
+                    final WindowPOP popConfig) throws SchemaChangeException {
+    this.batches = batches;
+    this.container = container;
+    outputCount = 0;
+    partitionContinues = false;
+  }
+
+  /**
+   * @return true if the batches hold all the rows the frames of the first batch need
+   */
+  boolean canDoWork(final boolean frameEndReached, final boolean partitionEndReached) {
+    if (partitionEndReached) {
+      return true;
+    } else if (endUnbounded) {
+      return false;
+    }
+
+    final WindowDataBatch current = batches.get(0);
+    if (frameUnitsRows) {
+      // the last row of the first batch needs the endOffset rows that follow it
+      long available = 0;
+      for (int i = 1; i < batches.size(); i++) {
+        available += batches.get(i).getRecordCount();
+      }
+      return available >= endOffset;
+    }
+
+    if (endOffset < 0) {
+      return true;
+    } else if (endOffset == 0) {
+      return frameEndReached;
+    }
+
+    // the frame of the last row of the first batch must end before the last row we hold
+    final WindowDataBatch last = batches.get(batches.size() - 1);
+    final int currentIndex = current.getRecordCount() - 1;
+    final int lastIndex = last.getRecordCount() - 1;
+    currentKey.bind(current);
+    lastKey.bind(last);
+    if (currentKey.isNull(currentIndex) || lastKey.isNull(lastIndex)) {
+      return frameEndReached;
+    }
+    final long frameEndKey = addOffset(toKey(currentKey.get(currentIndex)), endOffset);
+    return compareKeys(toKey(lastKey.get(lastIndex)), frameEndKey) > 0;
+  }
+
+  @Override
+  public void doWork() throws DrillException {
+    final WindowDataBatch current = batches.get(0);
+    outputCount = current.getRecordCount();
+
+    for (final OffsetFrameFunction function : functions) {
+      function.setupOutput(container);
+    }
+    if (currentKey != null) {
+      currentKey.bind(current);
+    }
+    readBatch = 0;
+    readBatchStart = 0;
+    readBound = false;
+
+    for (int row = 0; row < outputCount; row++) {
+      final boolean newPartition = row == 0 ? !partitionContinues :
+        !comparator.isSamePartition(row - 1, current, row, current);
+      if (newPartition) {
+        newPartition(row);
+      }
+
+      // read the current row itself
+      ensureRead(currentRow, row);
+
+      if (frameUnitsRows) {
+        slideRows(row);
+      } else {
+        slideRange(row);
+      }
+
+      outputRow(row);
+
+      currentRow++;
+      final long lastRow = Math.max(0, frameEnd - 1);
+      buffer.dropBefore(startUnbounded ? lastRow : Math.min(frameStart, lastRow));
+    }
+
+    partitionContinues = batches.size() > 1 &&
+      comparator.isSamePartition(outputCount - 1, current, 0, batches.get(1));
+    readOffset -= outputCount;
+  }
+
+  private void newPartition(final int row) {
+    logger.trace("new partition starting at row {}", row);
+    currentRow = 0;
+    frameStart = 0;
+    frameEnd = 0;
+    partitionEnd = Long.MAX_VALUE;
+    buffer.clear();
+    for (final OffsetFrameFunction function : functions) {
+      function.reset();
+    }
+
+    readRow = 0;
+    readOffset = row;
+    readBatch = 0;
+    readBatchStart = 0;
+    readBound = false;
+  }
+
+  /**
+   * reads the rows of the current partition in the buffer, up to the given row
+   * @param row row of the partition to read
+   * @param currentIndex index of the current row in the first batch
+   * @return false if the partition ends before the row
+   */
+  private boolean ensureRead(final long row, final int currentIndex) {
+    final WindowDataBatch current = batches.get(0);
+    while (readRow <= row) {
+      if (readRow >= partitionEnd) {
+        return false;
+      }
+
+      int index = (int) (readOffset - readBatchStart);
+      while (index >= batches.get(readBatch).getRecordCount()) {
+        if (readBatch == batches.size() - 1) {
+          // canDoWork() waits for all the rows the frames need, unless there is no more input
+          partitionEnd = readRow;
+          return false;
+        }
+        readBatchStart += batches.get(readBatch).getRecordCount();
+        readBatch++;
+        readBound = false;
+        index = (int) (readOffset - readBatchStart);
+      }
+
+      final WindowDataBatch batch = batches.get(readBatch);
+      if (readRow > currentRow && !comparator.isSamePartition(currentIndex, current, index, batch)) {
+        partitionEnd = readRow;
+        return false;
+      }
+
+      if (!readBound) {
+        for (final FrameValueReader input : inputs) {
+          if (input != null) {
+            input.bind(batch);
+          }
+        }
+        if (orderKey != null) {
+          orderKey.bind(batch);
+        }
+        readBound = true;
+      }
+
+      final int slot = buffer.append();
+      for (int i = 0; i < inputs.length; i++) {
+        final FrameValueReader input = inputs[i];
+        if (input != null) {
+          final boolean isNull = input.isNull(index);
+          buffer.set(i, slot, isNull, isNull || !input.hasValues() ? 0 : input.get(index));
+        }
+      }
+      if (orderKey != null) {
+        final boolean isNull = orderKey.isNull(index);
+        buffer.set(keyColumn, slot, isNull, isNull ? 0 : toKey(orderKey.get(index)));
+      }
+
+      if (readRow == 0) {
+        for (int i = 0; i < inputs.length; i++) {
+          firstNulls[i] = buffer.isNull(i, 0);
+          firstValues[i] = buffer.get(i, 0);
+        }
+      }
+
+      readRow++;
+      readOffset++;
+    }
+    return true;
+  }
+
+  /**
+   * reads the rest of the partition
+   * @return number of rows in the partition
+   */
+  private long readPartition(final int currentIndex) {
+    ensureRead(Long.MAX_VALUE - 1, currentIndex);
+    return readRow;
+  }
+
+  private void slideRows(final int currentIndex) {
+    long end;
+    if (endUnbounded) {
+      end = readPartition(currentIndex);
+    } else {
+      end = addSaturated(addSaturated(currentRow, endOffset), 1);
+      if (end > 0) {
+        ensureRead(end - 1, currentIndex);
+        end = Math.min(end, readRow);
+      } else {
+        end = 0;
+      }
+    }
+
+    final long start = startUnbounded ? 0 : Math.max(0, addSaturated(currentRow, startOffset));
+    slide(Math.min(start, end), end);
+  }
+
+  private void slideRange(final int currentIndex) {
+    final boolean keyNull = currentKey.isNull(currentIndex);
+    final long key = keyNull ? 0 : toKey(currentKey.get(currentIndex));
+
+    long end;
+    if (endUnbounded) {
+      end = readPartition(currentIndex);
+    } else {
+      // rows before the previous frame end are still in the frame, as keys never decrease
+      final long endKey = keyNull ? 0 : addOffset(key, endOffset);
+      end = frameEnd;
+      while (ensureRead(end, currentIndex) && isBeforeEnd(end, keyNull, endKey)) {
+        end++;
+      }
+    }
+
+    long start = 0;
+    if (!startUnbounded) {
+      final long startKey = keyNull ? 0 : addOffset(key, startOffset);
+      start = frameStart;
+      while (start < end && isBeforeStart(start, keyNull, startKey)) {
+        start++;
+      }
+    }
+
+    slide(start, end);
+  }
+
+  /**
+   * @return true if the row is before the end of the frame of a row with the given key. NULL keys are peers
+   */
+  private boolean isBeforeEnd(final long row, final boolean keyNull, final long endKey) {
+    final boolean rowNull = buffer.isNull(keyColumn, row);
+    if (keyNull) {
+      return nullsLast || rowNull;
+    } else if (rowNull) {
+      return !nullsLast;
+    }
+    return compareKeys(buffer.get(keyColumn, row), endKey) <= 0;
+  }
+
+  /**
+   * @return true if the row is before the start of the frame of a row with the given key. NULL keys are peers
+   */
+  private boolean isBeforeStart(final long row, final boolean keyNull, final long startKey) {
+    final boolean rowNull = buffer.isNull(keyColumn, row);
+    if (keyNull) {
+      return nullsLast && !rowNull;
+    } else if (rowNull) {
+      return !nullsLast;
+    }
+    return compareKeys(buffer.get(keyColumn, row), startKey) < 0;
+  }
+
+  /**
+   * moves the frame to the rows [start, end) of the partition
+   */
+  private void slide(final long start, final long end) {
+    if (frameStart >= frameEnd || start >= frameEnd) {
+      // the frames don't overlap
+      for (final OffsetFrameFunction function : functions) {
+        function.reset();
+      }
+      for (long row = start; row < end; row++) {
+        aggregate(row, true);
+      }
+    } else {
+      for (long row = frameStart; row < start; row++) {
+        aggregate(row, false);
+      }
+      for (long row = frameEnd; row < end; row++) {
+        aggregate(row, true);
+      }
+    }
+
+    frameStart = start;
+    frameEnd = end;
+  }
+
+  private void aggregate(final long row, final boolean add) {
+    for (int i = 0; i < functions.length; i++) {
+      final OffsetFrameFunction function = functions[i];
+      if (function.isValueFunction()) {
+        continue;
+      }
+
+      final boolean isNull = inputs[i] != null && buffer.isNull(i, row);
+      final long value = inputs[i] != null ? buffer.get(i, row) : 0;
+      if (add) {
+        function.add(row, isNull, value);
+      } else {
+        function.remove(row, isNull, value);
+      }
+    }
+  }
+
+  private void outputRow(final int outIndex) {
+    final boolean empty = frameStart >= frameEnd;
+    for (int i = 0; i < functions.length; i++) {
+      final OffsetFrameFunction function = functions[i];
+      switch (function.getType()) {
+        case FIRST_VALUE:
+          if (empty) {
+            function.write(outIndex, true, 0);
+          } else if (startUnbounded) {
+            function.write(outIndex, firstNulls[i], firstValues[i]);
+          } else {
+            function.write(outIndex, buffer.isNull(i, frameStart), buffer.get(i, frameStart));
+          }
+          break;
+        case LAST_VALUE:
+          if (empty) {
+            function.write(outIndex, true, 0);
+          } else {
+            function.write(outIndex, buffer.isNull(i, frameEnd - 1), buffer.get(i, frameEnd - 1));
+          }
+          break;
+        default:
+          function.output(outIndex);
+      }
+    }
+  }
+
+  /**
+   * maps an order by value to a key that increases along the partition
+   */
+  private long toKey(final long value) {
+    if (!descending) {
+      return value;
+    } else if (floatingPointKey) {
+      return Double.doubleToRawLongBits(-Double.longBitsToDouble(value));
+    }
+    return value == Long.MIN_VALUE ? Long.MAX_VALUE : -value;
+  }
+
+  private long addOffset(final long key, final long offset) {
+    if (floatingPointKey) {
+      return Double.doubleToRawLongBits(Double.longBitsToDouble(key) + offset);
+    }
+    return addSaturated(key, offset);
+  }
+
+  private int compareKeys(final long key1, final long key2) {
+    if (floatingPointKey) {
+      return Double.compare(Double.longBitsToDouble(key1), Double.longBitsToDouble(key2));
+    }
+    return Long.compare(key1, key2);
+  }
+
+  private static long addSaturated(final long a, final long b) {
+    final long sum = a + b;
+    if (((a ^ sum) & (b ^ sum)) < 0) {
+      return b > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+    }
+    return sum;
+  }
+
+  @Override
+  public int getOutputCount() {
+    return outputCount;
+  }
+
+  @Override
+  public void cleanup() {
+    if (ownsComparator) {
+      comparator.cleanup();
+    }
+    buffer.clear();
+  }
+
+  @Override
+  public boolean isSamePartition(final int b1Index, final VectorAccessible b1, final int b2Index,
+                                 final VectorAccessible b2) {
+    return comparator.isSamePartition(b1Index, b1, b2Index, b2);
+  }
+
+  @Override
+  public boolean isPeer(final int b1Index, final VectorAccessible b1, final int b2Index, final VectorAccessible b2) {
+    return comparator.isPeer(b1Index, b1, b2Index, b2);
+  }
+
+  /**
+   * Ring buffer of the values of consecutive rows of the partition, one column per function input plus the order key.
+   */
+  private static class FrameBuffer {
+    private final int columns;
+    private long[][] values;
+    private boolean[][] nulls;
+    private long first; // row of the partition at head
+    private int head;
+    private int size;
+
+    FrameBuffer(final int columns) {
+      this.columns = columns;
+      values = new long[columns][16];
+      nulls = new boolean[columns][16];
+    }
+
+    void clear() {
+      first = 0;
+      head = 0;
+      size = 0;
+    }
+
+    /**
+     * @return slot of a new row at the end of the buffer
+     */
+    int append() {
+      if (size == values[0].length) {
+        grow();
+      }
+      size++;
+      return slot(first + size - 1);
+    }
+
+    void set(final int column, final int slot, final boolean isNull, final long value) {
+      nulls[column][slot] = isNull;
+      values[column][slot] = value;
+    }
+
+    boolean isNull(final int column, final long row) {
+      return nulls[column][slot(row)];
+    }
+
+    long get(final int column, final long row) {
+      return values[column][slot(row)];
+    }
+
+    /**
+     * releases the rows before the given row
+     */
+    void dropBefore(final long row) {
+      if (row > first) {
+        final int count = (int) Math.min(row - first, size);
+        head = (head + count) & (values[0].length - 1);
+        size -= count;
+        first += count;
+      }
+    }
+
+    private int slot(final long row) {
+      assert row >= first && row < first + size : "row " + row + " is not buffered";
+      return (head + (int) (row - first)) & (values[0].length - 1);
+    }
+
+    private void grow() {
+      final int capacity = values[0].length;
+      for (int c = 0; c < columns; c++) {
+        final long[] newValues = new long[capacity * 2];
+        final boolean[] newNulls = new boolean[capacity * 2];
+        for (int i = 0; i < size; i++) {
+          newValues[i] = values[c][(head + i) & (capacity - 1)];
+          newNulls[i] = nulls[c][(head + i) & (capacity - 1)];
+        }
+        values[c] = newValues;
+        nulls[c] = newNulls;
+      }
+      head = 0;
+    }
+  }
+}
@@ -0,0 +1,439 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.window;
+
+import org.apache.drill.common.exceptions.UserException;
+import org.apache.drill.common.expression.FunctionCall;
+import org.apache.drill.common.expression.LogicalExpression;
+import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.common.expression.ValueExpressions;
+import org.apache.drill.common.logical.data.NamedExpression;
+import org.apache.drill.common.types.TypeProtos.DataMode;
+import org.apache.drill.common.types.TypeProtos.MajorType;
+import org.apache.drill.common.types.TypeProtos.MinorType;
+import org.apache.drill.common.types.Types;
+import org.apache.drill.exec.expr.TypeHelper;
+import org.apache.drill.exec.record.MaterializedField;
+import org.apache.drill.exec.record.TypedFieldId;
+import org.apache.drill.exec.record.VectorAccessible;
+import org.apache.drill.exec.record.VectorContainer;
+import org.apache.drill.exec.vector.BigIntVector;
+import org.apache.drill.exec.vector.Float8Vector;
+import org.apache.drill.exec.vector.NullableBigIntVector;
+import org.apache.drill.exec.vector.NullableDateVector;
+import org.apache.drill.exec.vector.NullableFloat4Vector;
+import org.apache.drill.exec.vector.NullableFloat8Vector;
+import org.apache.drill.exec.vector.NullableIntVector;
+import org.apache.drill.exec.vector.NullableTimeStampVector;
+import org.apache.drill.exec.vector.NullableTimeVector;
+import org.apache.drill.exec.vector.ValueVector;
+
+/**
+ * Aggregate, FIRST_VALUE or LAST_VALUE window function computed over frames with a n PRECEDING or n FOLLOWING bound.
+ * <p>
+ * {@link OffsetFrameFramer} slides the frame along the partition, adding the rows that enter the frame and removing
+ * the ones that leave it. Each row is thus aggregated a bounded number of times, whatever the size of the frame.
+ * MIN and MAX keep a deque of the values that can still become the extremum of the frame. Floating point sums are
+ * updated incrementally and can differ in the last digits from a sum computed over each frame.</p>
+ */
+class OffsetFrameFunction {
+  static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(OffsetFrameFunction.class);
+
+  enum Type { COUNT, SUM, SUM0, AVG, MIN, MAX, FIRST_VALUE, LAST_VALUE }
+
+  private final Type type;
+  private final TypedFieldId inputId; // null for COUNT(*)
+  private final boolean floatingPoint; // input is FLOAT4 or FLOAT8, values are the bits of a double
+  private final MajorType outputType;
+  private final TypedFieldId outputId;
+  private ValueVector output;
+
+  private long count; // number of non null values in the frame
+  private long longSum;
+  private double doubleSum; // sum of the finite values in the frame
+  private long nanCount;
+  private long positiveInfinityCount;
+  private long negativeInfinityCount;
+  private final ExtremumDeque extremum; // MIN and MAX only
+
+  private OffsetFrameFunction(final Type type, final TypedFieldId inputId, final MajorType outputType,
+                              final TypedFieldId outputId) {
+    this.type = type;
+    this.inputId = inputId;
+    this.floatingPoint = inputId != null && FrameValueReader.isFloatingPoint(inputId.getFinalType().getMinorType());
+    this.outputType = outputType;
+    this.outputId = outputId;
+    this.extremum = type == Type.MIN || type == Type.MAX ? new ExtremumDeque(type == Type.MIN, floatingPoint) : null;
+  }
+
+  /**
+   * adds the output vector of the function to the container
+   * @param ne window function call
+   * @param incoming batch the function reads from
+   * @param container outgoing container
+   */
+  static OffsetFrameFunction create(final NamedExpression ne, final VectorAccessible incoming,
+                                    final VectorContainer container) {
+    final FunctionCall call = (FunctionCall) ne.getExpr();
+    final Type type = getType(call.getName());
+
+    final LogicalExpression argument = call.args.isEmpty() ? null : call.args.get(0);
+    TypedFieldId inputId = null;
+    if (argument instanceof SchemaPath) {
+      inputId = incoming.getValueVectorId((SchemaPath) argument);
+    } else if (type != Type.COUNT || !(argument instanceof ValueExpressions.LongExpression
+        || argument instanceof ValueExpressions.IntExpression)) {
+      throw unsupported(call.getName(), String.valueOf(argument));
+    }
+
+    final MajorType outputType;
+    if (inputId == null) {
+      outputType = Types.required(MinorType.BIGINT);
+    } else {
+      final MajorType inputType = inputId.getFinalType();
+      final MinorType input = inputType.getMinorType();
+      final boolean supported;
+      switch (type) {
+        case COUNT:
+          supported = inputType.getMode() != DataMode.REPEATED;
+          break;
+        case SUM:
+        case SUM0:
+        case AVG:
+          supported = inputType.getMode() != DataMode.REPEATED && FrameValueReader.isNumeric(input);
+          break;
+        default:
+          supported = FrameValueReader.hasValues(inputType);
+      }
+      if (!supported) {
+        throw unsupported(call.getName(), input.name());
+      }
+
+      final MinorType sumType = FrameValueReader.isFloatingPoint(input) ? MinorType.FLOAT8 : MinorType.BIGINT;
+      switch (type) {
+        case COUNT:
+          outputType = Types.required(MinorType.BIGINT);
+          break;
+        case SUM0:
+          outputType = Types.required(sumType);
+          break;
+        case SUM:
+          outputType = Types.optional(sumType);
+          break;
+        case AVG:
+          outputType = Types.optional(MinorType.FLOAT8);
+          break;
+        default:
+          // the frame can be empty, even if the input isn't nullable
+          outputType = Types.optional(input);
+      }
+    }
+
+    final MaterializedField output = MaterializedField.create(ne.getRef().getAsNamePart().getName(), outputType);
+    container.addOrGet(output).allocateNew();
+    final TypedFieldId outputId = container.getValueVectorId(ne.getRef());
+
+    return new OffsetFrameFunction(type, inputId, outputType, outputId);
+  }
+
+  private static Type getType(final String name) {
+    switch (name.toLowerCase()) {
+      case "count":
+        return Type.COUNT;
+      case "sum":
+        return Type.SUM;
+      case "$sum0":
+        return Type.SUM0;
+      case "avg":
+        return Type.AVG;
+      case "min":
+        return Type.MIN;
+      case "max":
+        return Type.MAX;
+      case "first_value":
+        return Type.FIRST_VALUE;
+      case "last_value":
+        return Type.LAST_VALUE;
+      default:
+        throw UserException.unsupportedError()
+          .message("Window function %s is not supported with a frame bound of n PRECEDING or n FOLLOWING", name)
+          .build(logger);
+    }
+  }
+
+  private static UserException unsupported(final String name, final String argument) {
+    return UserException.unsupportedError()
+      .message("Window function %s over %s is not supported with a frame bound of n PRECEDING or n FOLLOWING",
+        name, argument)
+      .build(logger);
+  }
+
+  Type getType() {
+    return type;
+  }
+
+  /**
+   * @return reader for the input column of the function, null for COUNT(*)
+   */
+  FrameValueReader newInputReader() {
+    return inputId == null ? null : new FrameValueReader(inputId);
+  }
+
+  /**
+   * @return true if the function outputs the first or last value of the frame instead of aggregating it
+   */
+  boolean isValueFunction() {
+    return type == Type.FIRST_VALUE || type == Type.LAST_VALUE;
+  }
+
+  void setupOutput(final VectorAccessible outgoing) {
+    final Class<?> vectorClass = TypeHelper.getValueVectorClass(outputType.getMinorType(), outputType.getMode());
+    output = outgoing.getValueAccessorById(vectorClass, outputId.getFieldIds()).getValueVector();
+  }
+
+  void reset() {
+    count = 0;
+    longSum = 0;
+    doubleSum = 0;
+    nanCount = 0;
+    positiveInfinityCount = 0;
+    negativeInfinityCount = 0;
+    if (extremum != null) {
+      extremum.clear();
+    }
+  }
+
+  /**
+   * adds a row entering the frame
+   * @param row position of the row in the partition
+   */
+  void add(final long row, final boolean isNull, final long value) {
+    if (isNull) {
+      return;
+    }
+
+    count++;
+    if (type == Type.MIN || type == Type.MAX) {
+      extremum.add(row, value);
+    } else if (floatingPoint) {
+      final double d = Double.longBitsToDouble(value);
+      if (Double.isNaN(d)) {
+        nanCount++;
+      } else if (d == Double.POSITIVE_INFINITY) {
+        positiveInfinityCount++;
+      } else if (d == Double.NEGATIVE_INFINITY) {
+        negativeInfinityCount++;
+      } else {
+        doubleSum += d;
+      }
+    } else {
+      longSum += value;
+    }
+  }
+
+  /**
+   * removes a row leaving the frame. Rows leave the frame in the order they entered it
+   */
+  void remove(final long row, final boolean isNull, final long value) {
+    if (isNull) {
+      return;
+    }
+
+    count--;
+    if (count == 0) {
+      // drop any rounding error accumulated while the frame slid
+      reset();
+    } else if (type == Type.MIN || type == Type.MAX) {
+      extremum.remove(row);
+    } else if (floatingPoint) {
+      final double d = Double.longBitsToDouble(value);
+      if (Double.isNaN(d)) {
+        nanCount--;
+      } else if (d == Double.POSITIVE_INFINITY) {
+        positiveInfinityCount--;
+      } else if (d == Double.NEGATIVE_INFINITY) {
+        negativeInfinityCount--;
+      } else {
+        doubleSum -= d;
+      }
+    } else {
+      longSum -= value;
+    }
+  }
+
+  /**
+   * writes the aggregated value of the current frame
+   */
+  void output(final int outIndex) {
+    switch (type) {
+      case COUNT:
+        write(outIndex, false, count);
+        break;
+      case SUM:
+      case SUM0:
+        if (count == 0) {
+          write(outIndex, type == Type.SUM, 0);
+        } else {
+          write(outIndex, false, floatingPoint ? Double.doubleToRawLongBits(getDoubleSum()) : longSum);
+        }
+        break;
+      case AVG:
+        if (count == 0) {
+          write(outIndex, true, 0);
+        } else {
+          final double sum = floatingPoint ? getDoubleSum() : longSum;
+          write(outIndex, false, Double.doubleToRawLongBits(sum / count));
+        }
+        break;
+      case MIN:
+      case MAX:
+        write(outIndex, extremum.isEmpty(), extremum.isEmpty() ? 0 : extremum.get());
+        break;
+      default:
+        throw new IllegalStateException("no aggregated value for " + type);
+    }
+  }
+
+  private double getDoubleSum() {
+    if (nanCount > 0 || (positiveInfinityCount > 0 && negativeInfinityCount > 0)) {
+      return Double.NaN;
+    } else if (positiveInfinityCount > 0) {
+      return Double.POSITIVE_INFINITY;
+    } else if (negativeInfinityCount > 0) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    return doubleSum;
+  }
+
+  /**
+   * writes a value in the output vector
+   * @param value as returned by {@link FrameValueReader#get(int)}
+   */
+  void write(final int outIndex, final boolean isNull, final long value) {
+    final int isSet = isNull ? 0 : 1;
+    switch (outputType.getMinorType()) {
+      case BIGINT:
+        if (outputType.getMode() == DataMode.REQUIRED) {
+          ((BigIntVector) output).getMutator().setSafe(outIndex, value);
+        } else {
+          ((NullableBigIntVector) output).getMutator().setSafe(outIndex, isSet, value);
+        }
+        break;
+      case FLOAT8:
+        if (outputType.getMode() == DataMode.REQUIRED) {
+          ((Float8Vector) output).getMutator().setSafe(outIndex, Double.longBitsToDouble(value));
+        } else {
+          ((NullableFloat8Vector) output).getMutator().setSafe(outIndex, isSet, Double.longBitsToDouble(value));
+        }
+        break;
+      case INT:
+        ((NullableIntVector) output).getMutator().setSafe(outIndex, isSet, (int) value);
+        break;
+      case FLOAT4:
+        ((NullableFloat4Vector) output).getMutator().setSafe(outIndex, isSet, (float) Double.longBitsToDouble(value));
+        break;
+      case DATE:
+        ((NullableDateVector) output).getMutator().setSafe(outIndex, isSet, value);
+        break;
+      case TIME:
+        ((NullableTimeVector) output).getMutator().setSafe(outIndex, isSet, (int) value);
+        break;
+      case TIMESTAMP:
+        ((NullableTimeStampVector) output).getMutator().setSafe(outIndex, isSet, value);
+        break;
+      default:
+        throw new IllegalStateException("unexpected output type " + outputType);
+    }
+  }
+
+  /**
+   * Values of the frame that can still become its minimum (resp. maximum), in the order they entered the frame. Each
+   * value is smaller (resp. bigger) than the ones before it, so the first one is the extremum of the frame.
+   */
+  private static class ExtremumDeque {
+    private final boolean min;
+    private final boolean floatingPoint;
+
+    private long[] rows = new long[16];
+    private long[] values = new long[16];
+    private int head;
+    private int size;
+
+    ExtremumDeque(final boolean min, final boolean floatingPoint) {
+      this.min = min;
+      this.floatingPoint = floatingPoint;
+    }
+
+    void clear() {
+      head = 0;
+      size = 0;
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    long get() {
+      return values[head];
+    }
+
+    void add(final long row, final long value) {
+      // values that are not better than the new one will leave the frame first, they can't be the extremum anymore
+      while (size > 0 && !isBetter(values[slot(size - 1)], value)) {
+        size--;
+      }
+
+      if (size == rows.length) {
+        grow();
+      }
+      final int slot = slot(size);
+      rows[slot] = row;
+      values[slot] = value;
+      size++;
+    }
+
+    void remove(final long row) {
+      if (size > 0 && rows[head] == row) {
+        head = slot(1);
+        size--;
+      }
+    }
+
+    private boolean isBetter(final long v1, final long v2) {
+      final int cmp = floatingPoint ? Double.compare(Double.longBitsToDouble(v1), Double.longBitsToDouble(v2))
+        : Long.compare(v1, v2);
+      return min ? cmp < 0 : cmp > 0;
+    }
+
+    private int slot(final int index) {
+      return (head + index) & (rows.length - 1);
+    }
+
+    private void grow() {
+      final long[] newRows = new long[rows.length * 2];
+      final long[] newValues = new long[values.length * 2];
+      for (int i = 0; i < size; i++) {
+        newRows[i] = rows[slot(i)];
+        newValues[i] = values[slot(i)];
+      }
+      rows = newRows;
+      values = newValues;
+      head = 0;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.window;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.ops.OperatorContext;
+import org.apache.drill.exec.ops.OperatorStats;
+import org.apache.drill.exec.physical.config.WindowPOP;
+import org.apache.drill.exec.physical.impl.spill.SpillSet;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Keeps the batches held by the window operator under {@link ExecConstants#WINDOW_SPILL_THRESHOLD_KEY} bytes.
+ * <p>
+ * Once the batches in memory take more than the threshold, batches are written to their own spill file, starting
+ * with the most recent ones. The first batch, that is being processed, and the last one, that tells if the current
+ * partition or frame ended, always stay in memory. Spilled batches are read back when the framers access them, and
+ * released again, least recently read first, when the batches in memory exceed the threshold.</p>
+ */
+class WindowBatchSpiller {
+  static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WindowBatchSpiller.class);
+
+  private final List<WindowDataBatch> batches;
+  private final OperatorStats stats;
+  private final long threshold;
+
+  private final SpillSet spillSet;
+
+  private final LinkedList<WindowDataBatch> readBack = Lists.newLinkedList(); // in read order
+  private int spillCount;
+  private int readBackCount;
+
+  WindowBatchSpiller(final List<WindowDataBatch> batches, final FragmentContext context,
+                     final OperatorContext oContext, final WindowPOP popConfig) {
+    this.batches = batches;
+    this.stats = oContext.getStats();
+    this.threshold = context.getOptions().getOption(ExecConstants.WINDOW_SPILL_THRESHOLD);
+    this.spillSet = new SpillSet(context, oContext, popConfig);
+  }
+
+  /**
+   * called after a batch was added at the end of the batches, spills batches until the ones left in memory fit in
+   * the threshold
+   */
+  void batchAdded() {
+    long size = getMemorySize();
+    for (int i = batches.size() - 2; i > 0 && size > threshold; i--) {
+      final WindowDataBatch batch = batches.get(i);
+      if (batch.isInMemory()) {
+        size -= batch.getMemorySize();
+        spill(batch);
+      }
+    }
+  }
+
+  /**
+   * reads a spilled batch back in memory, then releases batches that were read back earlier until the batches left
+   * in memory fit in the threshold
+   */
+  void reload(final WindowDataBatch batch) {
+    batch.readBack(spillSet);
+    readBackCount++;
+    stats.setLongStat(WindowFrameRecordBatch.Metric.READ_BACK_COUNT, readBackCount);
+    readBack.addLast(batch);
+
+    long size = getMemorySize();
+    final Iterator<WindowDataBatch> iter = readBack.iterator();
+    while (size > threshold && iter.hasNext()) {
+      final WindowDataBatch candidate = iter.next();
+      if (candidate != batch && candidate != batches.get(0)) {
+        size -= candidate.getMemorySize();
+        candidate.drop();
+        iter.remove();
+      }
+    }
+  }
+
+  /**
+   * called when a batch is cleared, deletes its spill file if any
+   */
+  void cleared(final WindowDataBatch batch, final Path spillFile) {
+    readBack.remove(batch);
+    if (spillFile != null) {
+      spillSet.delete(spillFile);
+    }
+  }
+
+  private void spill(final WindowDataBatch batch) {
+    if (batch.isSpilled()) {
+      // the batch was read back, its file still holds the data
+      readBack.remove(batch);
+      batch.drop();
+      return;
+    }
+
+    batch.spill(spillSet, spillSet.getPath(Integer.toString(spillCount)));
+    spillCount++;
+    stats.setLongStat(WindowFrameRecordBatch.Metric.SPILL_COUNT, spillCount);
+  }
+
+  private long getMemorySize() {
+    long size = 0;
+    for (final WindowDataBatch batch : batches) {
+      size += batch.getMemorySize();
+    }
+    return size;
+  }
+
+  void close() {
+    spillSet.close();
+  }
+}
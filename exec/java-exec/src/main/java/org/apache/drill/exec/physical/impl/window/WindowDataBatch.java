@@ -20,6 +20,7 @@ package org.apache.drill.exec.physical.impl.window;
 import com.google.common.collect.Lists;
 import org.apache.drill.common.expression.SchemaPath;
 import org.apache.drill.exec.ops.OperatorContext;
+import org.apache.drill.exec.physical.impl.spill.SpillSet;
 import org.apache.drill.exec.record.BatchSchema;
 import org.apache.drill.exec.record.TransferPair;
 import org.apache.drill.exec.record.TypedFieldId;
@@ -29,6 +30,7 @@ import org.apache.drill.exec.record.VectorWrapper;
 import org.apache.drill.exec.record.selection.SelectionVector2;
 import org.apache.drill.exec.record.selection.SelectionVector4;
 import org.apache.drill.exec.vector.ValueVector;
+import org.apache.hadoop.fs.Path;
 
 import java.util.Iterator;
 import java.util.List;
@@ -38,9 +40,21 @@ public class WindowDataBatch implements VectorAccessible {
   private final OperatorContext oContext;
   private final VectorContainer container;
   private final int recordCount;
+  private final WindowBatchSpiller spiller;
+
+  private Path spillFile; // set once the batch was written to disk, the file is kept until the batch is cleared
+  private boolean inMemory = true;
 
   public WindowDataBatch(final VectorAccessible batch, final OperatorContext oContext) {
+    this(batch, oContext, null);
+  }
+
+  /**
+   * @param spiller if not null, the batch can be spilled to disk and is read back transparently when accessed
+   */
+  public WindowDataBatch(final VectorAccessible batch, final OperatorContext oContext, final WindowBatchSpiller spiller) {
     this.oContext = oContext;
+    this.spiller = spiller;
     recordCount = batch.getRecordCount();
 
     List<ValueVector> vectors = Lists.newArrayList();
@@ -65,6 +79,7 @@ public class WindowDataBatch implements VectorAccessible {
   }
 
   public VectorContainer getContainer() {
+    load();
     return container;
   }
 
@@ -75,6 +90,7 @@ public class WindowDataBatch implements VectorAccessible {
 
   @Override
   public VectorWrapper<?> getValueAccessorById(Class<?> clazz, int... fieldIds) {
+    load();
     return container.getValueAccessorById(clazz, fieldIds);
   }
 
@@ -90,6 +106,7 @@ public class WindowDataBatch implements VectorAccessible {
 
   @Override
   public Iterator<VectorWrapper<?>> iterator() {
+    load();
     return container.iterator();
   }
 
@@ -105,5 +122,70 @@ public class WindowDataBatch implements VectorAccessible {
 
   public void clear() {
     container.clear();
+    inMemory = false;
+    if (spiller != null) {
+      spiller.cleared(this, spillFile);
+    }
+  }
+
+  boolean isInMemory() {
+    return inMemory;
+  }
+
+  boolean isSpilled() {
+    return spillFile != null;
+  }
+
+  /**
+   * @return size of the buffers this batch holds in memory
+   */
+  long getMemorySize() {
+    if (!inMemory) {
+      return 0;
+    }
+
+    return SpillSet.getMemorySize(container);
+  }
+
+  private void load() {
+    if (!inMemory && spiller != null) {
+      spiller.reload(this);
+    }
+  }
+
+  /**
+   * writes the batch to the given file and releases its buffers. The vectors stay in the container so they can be
+   * refilled by {@link #readBack(SpillSet)}
+   */
+  void spill(final SpillSet spillSet, final Path path) {
+    assert inMemory && spillFile == null;
+    spillSet.write(container, recordCount, path);
+    container.zeroVectors();
+    spillFile = path;
+    inMemory = false;
+  }
+
+  /**
+   * releases the buffers of a batch that was read back from disk, its spill file still holds the data
+   */
+  void drop() {
+    assert isSpilled();
+    container.zeroVectors();
+    inMemory = false;
+  }
+
+  /**
+   * reads the batch back from its spill file. The data is transferred into the existing vectors, so vectors obtained
+   * before the batch was spilled are valid again
+   */
+  void readBack(final SpillSet spillSet) {
+    assert !inMemory && spillFile != null;
+    final VectorContainer spilled = spillSet.read(spillFile);
+    final Iterator<VectorWrapper<?>> spilledVectors = spilled.iterator();
+    for (VectorWrapper<?> w : container) {
+      spilledVectors.next().getValueVector().makeTransferPair(w.getValueVector()).transfer();
+    }
+    spilled.zeroVectors();
+    inMemory = true;
   }
 }
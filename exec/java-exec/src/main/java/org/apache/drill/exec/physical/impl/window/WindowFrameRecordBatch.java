@@ -18,6 +18,7 @@
 package org.apache.drill.exec.physical.impl.window;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.collect.Iterables;
@@ -37,14 +38,18 @@ import org.apache.drill.exec.exception.SchemaChangeException;
 import org.apache.drill.exec.expr.ClassGenerator;
 import org.apache.drill.exec.expr.CodeGenerator;
 import org.apache.drill.exec.expr.ExpressionTreeMaterializer;
+import org.apache.drill.exec.expr.ValueVectorReadExpression;
 import org.apache.drill.exec.expr.fn.FunctionGenerationHelper;
 import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.ops.MetricDef;
 import org.apache.drill.exec.physical.config.WindowPOP;
 import org.apache.drill.exec.record.AbstractRecordBatch;
 import org.apache.drill.exec.record.BatchSchema;
 import org.apache.drill.exec.record.RecordBatch;
 import org.apache.drill.exec.record.TransferPair;
+import org.apache.drill.exec.record.TypedFieldId;
 import org.apache.drill.exec.record.VectorAccessible;
+import org.apache.drill.exec.record.VectorContainer;
 import org.apache.drill.exec.record.VectorWrapper;
 
 import com.google.common.collect.Lists;
@@ -58,10 +63,22 @@ import org.apache.drill.exec.vector.ValueVector;
 public class WindowFrameRecordBatch extends AbstractRecordBatch<WindowPOP> {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WindowFrameRecordBatch.class);
 
+  public enum Metric implements MetricDef {
+    SPILL_COUNT,      // number of batches written to disk
+    READ_BACK_COUNT;  // number of times a spilled batch was read back in memory
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
   private final RecordBatch incoming;
   private List<WindowDataBatch> batches;
+  private final WindowBatchSpiller spiller;
 
   private WindowFramer[] framers;
+  private OffsetFrameFramer offsetFramer; // only set if the frame has n PRECEDING or n FOLLOWING bounds
   private boolean hasOrderBy; // true if window definition contains an order-by clause
   private final List<WindowFunction> functions = Lists.newArrayList();
 
@@ -74,6 +91,7 @@ public class WindowFrameRecordBatch extends AbstractRecordBatch<WindowPOP> {
     super(popConfig, context);
     this.incoming = incoming;
     batches = Lists.newArrayList();
+    spiller = new WindowBatchSpiller(batches, context, oContext, popConfig);
   }
 
   /**
@@ -127,7 +145,8 @@ public class WindowFrameRecordBatch extends AbstractRecordBatch<WindowPOP> {
           }
         case OK:
           if (incoming.getRecordCount() > 0) {
-            batches.add(new WindowDataBatch(incoming, oContext));
+            batches.add(new WindowDataBatch(incoming, oContext, spiller));
+            spiller.batchAdded();
           }
           break;
         default:
@@ -217,7 +236,7 @@ public class WindowFrameRecordBatch extends AbstractRecordBatch<WindowPOP> {
       }
     }
 
-    return true;
+    return offsetFramer == null || offsetFramer.canDoWork(frameEndReached, partitionEndReached);
   }
 
   @Override
@@ -244,7 +263,7 @@ public class WindowFrameRecordBatch extends AbstractRecordBatch<WindowPOP> {
     }
 
     if (incoming.getRecordCount() > 0) {
-      batches.add(new WindowDataBatch(incoming, oContext));
+      batches.add(new WindowDataBatch(incoming, oContext, spiller));
     }
   }
 
@@ -262,6 +281,10 @@ public class WindowFrameRecordBatch extends AbstractRecordBatch<WindowPOP> {
 
     hasOrderBy = popConfig.getOrderings().size() > 0;
 
+    // frames with n PRECEDING or n FOLLOWING bounds are computed by the OffsetFrameFramer
+    final boolean offsetFrame = popConfig.hasOffsetFrame();
+    final List<OffsetFrameFunction> offsetFunctions = Lists.newArrayList();
+
     // all existing vectors will be transferred to the outgoing container in framer.doWork()
     for (final VectorWrapper<?> wrapper : batch) {
       container.addOrGet(wrapper.getField());
@@ -277,6 +300,11 @@ public class WindowFrameRecordBatch extends AbstractRecordBatch<WindowPOP> {
 
       final FunctionCall call = (FunctionCall) ne.getExpr();
       final WindowFunction winfun = WindowFunction.fromExpression(call);
+      if (offsetFrame && winfun.supportsCustomFrames()) {
+        offsetFunctions.add(OffsetFrameFunction.create(ne, batch, container));
+        continue;
+      }
+
       if (winfun.materialize(ne, container, context.getFunctionRegistry())) {
         functions.add(winfun);
         requireFullPartition |= winfun.requiresFullPartition(popConfig);
@@ -305,6 +333,7 @@ public class WindowFrameRecordBatch extends AbstractRecordBatch<WindowPOP> {
     // count how many framers we need
     int numFramers = useDefaultFrame ? 1 : 0;
     numFramers += useCustomFrame ? 1 : 0;
+    numFramers += offsetFunctions.isEmpty() ? 0 : 1;
     assert numFramers > 0 : "No framer was needed!";
 
     framers = new WindowFramer[numFramers];
@@ -318,9 +347,45 @@ public class WindowFrameRecordBatch extends AbstractRecordBatch<WindowPOP> {
     if (useCustomFrame) {
       framers[index] = generateFramer(keyExprs, orderExprs, functions, true);
       framers[index].setup(batches, container, oContext, requireFullPartition, popConfig);
+      index++;
+    }
+
+    if (!offsetFunctions.isEmpty()) {
+      offsetFramer = createOffsetFramer(keyExprs, orderExprs, offsetFunctions, index > 0 ? framers[0] : null);
+      offsetFramer.setup(batches, container, oContext, requireFullPartition, popConfig);
+      framers[index] = offsetFramer;
     }
   }
 
+  /**
+   * @param comparator framer used to compare rows, if null a framer without window functions is generated
+   */
+  private OffsetFrameFramer createOffsetFramer(final List<LogicalExpression> keyExprs,
+      final List<LogicalExpression> orderExprs, final List<OffsetFrameFunction> offsetFunctions,
+      final WindowFramer comparator) throws SchemaChangeException, IOException, ClassTransformationException {
+
+    TypedFieldId orderKeyId = null;
+    if (!popConfig.isFrameUnitsRows()) {
+      final LogicalExpression orderExpr = orderExprs.size() == 1 ? orderExprs.get(0) : null;
+      if (!(orderExpr instanceof ValueVectorReadExpression)
+        || !FrameValueReader.hasValues(((ValueVectorReadExpression) orderExpr).getFieldId().getFinalType())) {
+        throw UserException.unsupportedError()
+          .message("RANGE frames with a n PRECEDING or n FOLLOWING bound need a single ORDER BY column " +
+            "of a numeric, date or time type")
+          .build(logger);
+      }
+      orderKeyId = ((ValueVectorReadExpression) orderExpr).getFieldId();
+    }
+
+    if (comparator != null) {
+      return new OffsetFrameFramer(comparator, false, offsetFunctions, popConfig, orderKeyId);
+    }
+
+    final WindowFramer generated = generateFramer(keyExprs, orderExprs, Collections.<WindowFunction>emptyList(), false);
+    generated.setup(batches, new VectorContainer(oContext), oContext, false, popConfig);
+    return new OffsetFrameFramer(generated, true, offsetFunctions, popConfig, orderKeyId);
+  }
+
   private WindowFramer generateFramer(final List<LogicalExpression> keyExprs, final List<LogicalExpression> orderExprs,
       final List<WindowFunction> functions, boolean useCustomFrame) throws IOException, ClassTransformationException {
 
@@ -398,6 +463,8 @@ public class WindowFrameRecordBatch extends AbstractRecordBatch<WindowPOP> {
       }
       batches = null;
     }
+
+    spiller.close();
   }
 
   @Override
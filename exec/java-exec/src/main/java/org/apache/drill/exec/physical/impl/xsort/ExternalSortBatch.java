@@ -52,6 +52,7 @@ import org.apache.drill.exec.ops.FragmentContext;
 import org.apache.drill.exec.ops.MetricDef;
 import org.apache.drill.exec.physical.config.ExternalSort;
 import org.apache.drill.exec.physical.impl.sort.RecordBatchData;
+import org.apache.drill.exec.physical.impl.sort.SortKeyPrefix;
 import org.apache.drill.exec.physical.impl.sort.SortRecordBatchBuilder;
 import org.apache.drill.exec.proto.ExecProtos.FragmentHandle;
 import org.apache.drill.exec.proto.helper.QueryIdHelper;
@@ -102,6 +103,8 @@ public class ExternalSortBatch extends AbstractRecordBatch<ExternalSort> {
 
   private BatchSchema schema;
   private SingleBatchSorter sorter;
+  /** Whether the current schema lets the sorters order rows by key prefixes */
+  private boolean keyPrefixSort;
   private SortRecordBatchBuilder builder;
   private MSorter mSorter;
   /**
@@ -345,6 +348,7 @@ public class ExternalSortBatch extends AbstractRecordBatch<ExternalSort> {
               b.setSchema(schema);
             }
             this.sorter = createNewSorter(context, convertedBatch);
+            keyPrefixSort = createKeyPrefix(convertedBatch) != null;
           } else {
             convertedBatch = SchemaUtil.coerceContainer(incoming, schema, oContext);
           }
@@ -373,7 +377,7 @@ public class ExternalSortBatch extends AbstractRecordBatch<ExternalSort> {
           int count = sv2.getCount();
           totalCount += count;
           totalBatches++;
-          sorter.setup(context, sv2, convertedBatch);
+          sorter.setup(context, oAllocator, sv2, convertedBatch, createKeyPrefix(convertedBatch));
           sorter.sort(sv2);
           RecordBatchData rbd = new RecordBatchData(convertedBatch, oAllocator);
           boolean success = false;
@@ -462,7 +466,7 @@ public class ExternalSortBatch extends AbstractRecordBatch<ExternalSort> {
         builder.build(context, container);
         sv4 = builder.getSv4();
         mSorter = createNewMSorter();
-        mSorter.setup(context, oAllocator, getSelectionVector4(), this.container);
+        mSorter.setup(context, oAllocator, getSelectionVector4(), this.container, createKeyPrefix(this.container));
 
         // For testing memory-leak purpose, inject exception after mSorter finishes setup
         injector.injectUnchecked(context.getExecutionControls(), INTERRUPTION_AFTER_SETUP);
@@ -524,7 +528,7 @@ public class ExternalSortBatch extends AbstractRecordBatch<ExternalSort> {
     long currentlyAvailable =  popConfig.getMaxAllocation() - oAllocator.getAllocatedMemory();
 
     long neededForInMemorySort = SortRecordBatchBuilder.memoryNeeded(currentRecordCount) +
-        MSortTemplate.memoryNeeded(currentRecordCount);
+        MSortTemplate.memoryNeeded(currentRecordCount, keyPrefixSort);
 
     return currentlyAvailable > neededForInMemorySort;
   }
@@ -782,13 +786,22 @@ public class ExternalSortBatch extends AbstractRecordBatch<ExternalSort> {
         ValueVector v = TypeHelper.getNewVector(i.getField(), allocator);
         outputContainer.add(v);
       }
-      copier.setup(context, allocator, batch, batchGroupList, outputContainer);
+      copier.setup(context, allocator, batch, batchGroupList, outputContainer, createKeyPrefix(batch));
     } catch (ClassTransformationException | IOException e) {
       throw new RuntimeException(e);
     }
   }
 
 
+  /**
+   * @return the key prefix the sorters and the copier order the rows of the batch by, or null to only use the
+   *         generated comparator
+   */
+  private SortKeyPrefix createKeyPrefix(VectorAccessible batch) {
+    return context.getOptions().getOption(ExecConstants.SORT_KEY_PREFIX)
+        ? SortKeyPrefix.create(popConfig.getOrderings(), batch) : null;
+  }
+
   @Override
   public WritableBatch getWritableBatch() {
     throw new UnsupportedOperationException("A sort batch is not writable.");
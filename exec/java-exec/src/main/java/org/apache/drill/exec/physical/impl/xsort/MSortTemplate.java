@@ -25,12 +25,16 @@ import java.util.Queue;
 import javax.inject.Named;
 
 import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.exception.SchemaChangeException;
 import org.apache.drill.exec.memory.BufferAllocator;
 import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.physical.impl.sort.KeyPrefixSorter;
+import org.apache.drill.exec.physical.impl.sort.SortKeyPrefix;
 import org.apache.drill.exec.record.RecordBatch;
 import org.apache.drill.exec.record.VectorContainer;
 import org.apache.drill.exec.record.selection.SelectionVector4;
+import org.apache.drill.exec.vector.ValueVector;
 import org.apache.hadoop.util.IndexedSortable;
 
 import com.google.common.base.Preconditions;
@@ -38,13 +42,15 @@ import com.google.common.base.Stopwatch;
 import com.google.common.collect.Queues;
 
 public abstract class MSortTemplate implements MSorter, IndexedSortable {
-//  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MSortTemplate.class);
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MSortTemplate.class);
 
   private SelectionVector4 vector4;
   private SelectionVector4 aux;
   private long compares;
   private Queue<Integer> runStarts = Queues.newLinkedBlockingQueue();
   private FragmentContext context;
+  private KeyPrefixSorter prefixSorter;
+  private boolean exactPrefixes;
 
   /**
    * This is only useful for debugging and/or unit testing. Controls the maximum size of batches exposed to downstream
@@ -52,7 +58,7 @@ public abstract class MSortTemplate implements MSorter, IndexedSortable {
   private int desiredRecordBatchCount;
 
   @Override
-  public void setup(final FragmentContext context, final BufferAllocator allocator, final SelectionVector4 vector4, final VectorContainer hyperBatch) throws SchemaChangeException{
+  public void setup(final FragmentContext context, final BufferAllocator allocator, final SelectionVector4 vector4, final VectorContainer hyperBatch, final SortKeyPrefix keyPrefix) throws SchemaChangeException{
     // we pass in the local hyperBatch since that is where we'll be reading data.
     Preconditions.checkNotNull(vector4);
     this.vector4 = vector4.createNewWrapperCurrent();
@@ -73,27 +79,55 @@ public abstract class MSortTemplate implements MSorter, IndexedSortable {
         throw new UnsupportedOperationException(String.format("Missing batch. batch: %d newBatch: %d", batch, newBatch));
       }
     }
-    final DrillBuf drillBuf = allocator.buffer(4 * totalCount);
-
     try {
       desiredRecordBatchCount = context.getConfig().getInt(ExecConstants.EXTERNAL_SORT_MSORT_MAX_BATCHSIZE);
     } catch(ConfigException.Missing e) {
       // value not found, use default value instead
       desiredRecordBatchCount = Character.MAX_VALUE;
     }
+
+    if (keyPrefix != null && totalCount <= KeyPrefixSorter.MAX_COUNT) {
+      setupPrefixes(allocator, hyperBatch, keyPrefix);
+      if (prefixSorter != null) {
+        return;
+      }
+    }
+    final DrillBuf drillBuf = allocator.buffer(4 * totalCount);
     aux = new SelectionVector4(drillBuf, totalCount, desiredRecordBatchCount);
   }
 
+  /**
+   * Collects the key prefixes of all rows, or leaves the sort to the merge of the batches when there is no memory for
+   * them.
+   */
+  private void setupPrefixes(final BufferAllocator allocator, final VectorContainer hyperBatch,
+                             final SortKeyPrefix keyPrefix) {
+    final int totalCount = vector4.getTotalCount();
+    try {
+      prefixSorter = new KeyPrefixSorter(allocator, totalCount);
+    } catch (OutOfMemoryException e) {
+      logger.debug("No memory to sort {} records by key prefixes, merging them", totalCount);
+      return;
+    }
+    exactPrefixes = keyPrefix.isExact();
+    final ValueVector[] vectors = keyPrefix.getVectors(hyperBatch);
+    for (int i = 0; i < totalCount; i++) {
+      final int sv = vector4.get(i);
+      prefixSorter.set(i, keyPrefix.prefix(vectors[sv >>> 16], sv & 65535), sv);
+    }
+  }
+
   /**
    * For given recordCount how much memory does MSorter needs for its own purpose. This is used in
    * ExternalSortBatch to make decisions about whether to spill or not.
    *
    * @param recordCount
+   * @param keyPrefix whether the records are sorted by key prefixes
    * @return
    */
-  public static long memoryNeeded(final int recordCount) {
-    // We need 4 bytes (SV4) for each record.
-    return recordCount * 4;
+  public static long memoryNeeded(final int recordCount, final boolean keyPrefix) {
+    // We need 4 bytes (SV4) for each record, or the entries of the key prefix sort.
+    return keyPrefix ? KeyPrefixSorter.memoryNeeded(recordCount) : recordCount * 4;
   }
 
   private int merge(final int leftStart, final int rightStart, final int rightEnd, final int outStart) {
@@ -125,6 +159,10 @@ public abstract class MSortTemplate implements MSorter, IndexedSortable {
   @Override
   public void sort(final VectorContainer container) {
     final Stopwatch watch = Stopwatch.createStarted();
+    if (prefixSorter != null) {
+      sortByPrefixes();
+      return;
+    }
     while (runStarts.size() > 1) {
 
       // check if we're cancelled/failed frequently
@@ -162,6 +200,28 @@ public abstract class MSortTemplate implements MSorter, IndexedSortable {
     aux.clear();
   }
 
+  /**
+   * Orders the whole SV4 by key prefixes and then sorts the rows with equal prefixes with the generated comparator.
+   */
+  private void sortByPrefixes() {
+    try {
+      prefixSorter.sort();
+      final int totalCount = vector4.getTotalCount();
+      for (int i = 0; i < totalCount; i++) {
+        vector4.set(i, prefixSorter.getIndex(i));
+      }
+      final SelectionVector4 sorted = vector4.createNewWrapperCurrent(desiredRecordBatchCount);
+      vector4.clear();
+      vector4 = sorted;
+      if (!exactPrefixes && context.shouldContinue()) {
+        prefixSorter.sortTies(this);
+      }
+    } finally {
+      prefixSorter.close();
+      prefixSorter = null;
+    }
+  }
+
   private void copyRun(final int start, final int end) {
     for (int i = start; i < end; i++) {
       aux.set(i, vector4.get(i));
@@ -192,6 +252,11 @@ public abstract class MSortTemplate implements MSorter, IndexedSortable {
     if(aux != null) {
       aux.clear();
     }
+
+    if (prefixSorter != null) {
+      prefixSorter.close();
+      prefixSorter = null;
+    }
   }
 
   public abstract void doSetup(@Named("context") FragmentContext context, @Named("incoming") VectorContainer incoming, @Named("outgoing") RecordBatch outgoing);
@@ -24,14 +24,19 @@ import org.apache.drill.exec.compile.TemplateClassDefinition;
 import org.apache.drill.exec.exception.SchemaChangeException;
 import org.apache.drill.exec.memory.BufferAllocator;
 import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.physical.impl.sort.SortKeyPrefix;
 import org.apache.drill.exec.record.VectorAccessible;
 
 public interface PriorityQueueCopier extends AutoCloseable {
   public static final long INITIAL_ALLOCATION = 10000000;
   public static final long MAX_ALLOCATION = 20000000;
 
+  /**
+   * @param keyPrefix prefix of the first sort key used to merge without the generated comparator where it differs,
+   *                  null to always use the comparator
+   */
   public void setup(FragmentContext context, BufferAllocator allocator, VectorAccessible hyperBatch,
-      List<BatchGroup> batchGroups, VectorAccessible outgoing) throws SchemaChangeException;
+      List<BatchGroup> batchGroups, VectorAccessible outgoing, SortKeyPrefix keyPrefix) throws SchemaChangeException;
 
   public int next(int targetRecordCount);
 
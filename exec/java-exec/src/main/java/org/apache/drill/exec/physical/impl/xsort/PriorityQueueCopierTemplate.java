@@ -17,8 +17,6 @@
  */
 package org.apache.drill.exec.physical.impl.xsort;
 
-import io.netty.buffer.DrillBuf;
-
 import java.io.IOException;
 import java.util.List;
 
@@ -27,63 +25,71 @@ import javax.inject.Named;
 import org.apache.drill.exec.exception.SchemaChangeException;
 import org.apache.drill.exec.memory.BufferAllocator;
 import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.physical.impl.sort.LoserTree;
+import org.apache.drill.exec.physical.impl.sort.SortKeyPrefix;
 import org.apache.drill.exec.record.VectorAccessible;
 import org.apache.drill.exec.record.VectorWrapper;
-import org.apache.drill.exec.record.selection.SelectionVector4;
 import org.apache.drill.exec.vector.AllocationHelper;
+import org.apache.drill.exec.vector.ValueVector;
 
-public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier {
+public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier, LoserTree.Streams {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PriorityQueueCopierTemplate.class);
 
-  private SelectionVector4 vector4;
   private List<BatchGroup> batchGroups;
   private VectorAccessible hyperBatch;
   private VectorAccessible outgoing;
-  private int size;
-  private int queueSize = 0;
+  private LoserTree tree;
+  /** current row of each batch group as batch index << 16 | record index */
+  private int[] heads;
+  private SortKeyPrefix keyPrefix;
+  private ValueVector[] keyVectors;
 
   @Override
   public void setup(FragmentContext context, BufferAllocator allocator, VectorAccessible hyperBatch, List<BatchGroup> batchGroups,
-                    VectorAccessible outgoing) throws SchemaChangeException {
+                    VectorAccessible outgoing, SortKeyPrefix keyPrefix) throws SchemaChangeException {
     this.hyperBatch = hyperBatch;
     this.batchGroups = batchGroups;
     this.outgoing = outgoing;
-    this.size = batchGroups.size();
+    this.keyPrefix = keyPrefix;
+    final int size = batchGroups.size();
 
-    final DrillBuf drillBuf = allocator.buffer(4 * size);
-    vector4 = new SelectionVector4(drillBuf, size, Character.MAX_VALUE);
     doSetup(context, hyperBatch, outgoing);
 
-    queueSize = 0;
+    keyVectors = keyPrefix == null ? null : keyPrefix.getVectors(hyperBatch);
+    heads = new int[size];
+    tree = new LoserTree(size, this, keyPrefix != null);
     for (int i = 0; i < size; i++) {
-      vector4.set(i, i, batchGroups.get(i).getNextIndex());
-      siftUp();
-      queueSize++;
+      final int index = batchGroups.get(i).getNextIndex();
+      if (index < 0) {
+        tree.setEmpty(i);
+      } else {
+        heads[i] = (i << 16) | index;
+      }
     }
+    tree.build();
   }
 
   @Override
   public int next(int targetRecordCount) {
     allocateVectors(targetRecordCount);
     for (int outgoingIndex = 0; outgoingIndex < targetRecordCount; outgoingIndex++) {
-      if (queueSize == 0) {
+      if (tree.isEmpty()) {
         return 0;
       }
-      int compoundIndex = vector4.get(0);
-      int batch = compoundIndex >>> 16;
+      final int batch = tree.winner();
       assert batch < batchGroups.size() : String.format("batch: %d batchGroups: %d", batch, batchGroups.size());
-      doCopy(compoundIndex, outgoingIndex);
-      int nextIndex = batchGroups.get(batch).getNextIndex();
+      doCopy(heads[batch], outgoingIndex);
+      final int nextIndex = batchGroups.get(batch).getNextIndex();
       if (nextIndex < 0) {
-        vector4.set(0, vector4.get(--queueSize));
+        tree.exhaust();
       } else {
-        vector4.set(0, batch, nextIndex);
+        heads[batch] = (batch << 16) | nextIndex;
+        tree.advance();
       }
-      if (queueSize == 0) {
+      if (tree.isEmpty()) {
         setValueCount(++outgoingIndex);
         return outgoingIndex;
       }
-      siftDown();
     }
     setValueCount(targetRecordCount);
     return targetRecordCount;
@@ -97,7 +103,9 @@ public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier
 
   @Override
   public void close() throws IOException {
-    vector4.clear();
+    if (tree != null) {
+      logger.debug("Merged {} batch groups with {} full comparisons", heads.length, tree.getComparisons());
+    }
     for (final VectorWrapper<?> w: outgoing) {
       w.getValueVector().clear();
     }
@@ -110,56 +118,20 @@ public abstract class PriorityQueueCopierTemplate implements PriorityQueueCopier
     }
   }
 
-  private void siftUp() {
-    int p = queueSize;
-    while (p > 0) {
-      if (compare(p, (p - 1) / 2) < 0) {
-        swap(p, (p - 1) / 2);
-        p = (p - 1) / 2;
-      } else {
-        break;
-      }
-    }
-  }
-
   private void allocateVectors(int targetRecordCount) {
     for (VectorWrapper w: outgoing) {
       AllocationHelper.allocateNew(w.getValueVector(), targetRecordCount);
     }
   }
 
-  private void siftDown() {
-    int p = 0;
-    int next;
-    while (p * 2 + 1 < queueSize) { // While the current node has at least one child
-      if (p * 2 + 2 >= queueSize) { // if current node has only one child, then we only look at it
-        next = p * 2 + 1;
-      } else {
-        if (compare(p * 2 + 1, p * 2 + 2) <= 0) {//if current node has two children, we must first determine which one has higher priority
-          next = p * 2 + 1;
-        } else {
-          next = p * 2 + 2;
-        }
-      }
-      if (compare(p, next) > 0) { // compare current node to highest priority child and swap if necessary
-        swap(p, next);
-        p = next;
-      } else {
-        break;
-      }
-    }
-  }
-
-  public void swap(int sv0, int sv1) {
-    int tmp = vector4.get(sv0);
-    vector4.set(sv0, vector4.get(sv1));
-    vector4.set(sv1, tmp);
+  @Override
+  public long prefix(int batch) {
+    return keyPrefix.prefix(keyVectors[batch], heads[batch] & 65535);
   }
 
-  public int compare(int leftIndex, int rightIndex) {
-    int sv1 = vector4.get(leftIndex);
-    int sv2 = vector4.get(rightIndex);
-    return doEval(sv1, sv2);
+  @Override
+  public int compare(int leftBatch, int rightBatch) {
+    return doEval(heads[leftBatch], heads[rightBatch]);
   }
 
   public abstract void doSetup(@Named("context") FragmentContext context, @Named("incoming") VectorAccessible incoming, @Named("outgoing") VectorAccessible outgoing);
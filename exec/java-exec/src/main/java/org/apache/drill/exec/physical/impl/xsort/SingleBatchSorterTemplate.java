@@ -21,11 +21,16 @@ import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
 
+import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.exception.SchemaChangeException;
+import org.apache.drill.exec.memory.BufferAllocator;
 import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.physical.impl.sort.KeyPrefixSorter;
+import org.apache.drill.exec.physical.impl.sort.SortKeyPrefix;
 import org.apache.drill.exec.record.RecordBatch;
 import org.apache.drill.exec.record.VectorAccessible;
 import org.apache.drill.exec.record.selection.SelectionVector2;
+import org.apache.drill.exec.vector.ValueVector;
 import org.apache.hadoop.util.IndexedSortable;
 import org.apache.hadoop.util.QuickSort;
 
@@ -36,10 +41,17 @@ public abstract class SingleBatchSorterTemplate implements SingleBatchSorter, In
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SingleBatchSorterTemplate.class);
 
   private SelectionVector2 vector2;
+  private BufferAllocator allocator;
+  private SortKeyPrefix keyPrefix;
+  private ValueVector keyVector;
 
-  public void setup(FragmentContext context, SelectionVector2 vector2, VectorAccessible incoming) throws SchemaChangeException{
+  public void setup(FragmentContext context, BufferAllocator allocator, SelectionVector2 vector2, VectorAccessible incoming,
+                    SortKeyPrefix keyPrefix) throws SchemaChangeException{
     Preconditions.checkNotNull(vector2);
     this.vector2 = vector2;
+    this.allocator = allocator;
+    this.keyPrefix = keyPrefix;
+    this.keyVector = keyPrefix != null ? keyPrefix.getVectors(incoming)[0] : null;
     try {
       doSetup(context, incoming, null);
     } catch (IllegalStateException e) {
@@ -51,12 +63,44 @@ public abstract class SingleBatchSorterTemplate implements SingleBatchSorter, In
   public void sort(SelectionVector2 vector2){
     QuickSort qs = new QuickSort();
     Stopwatch watch = Stopwatch.createStarted();
-    if (vector2.getCount() > 0) {
+    if (vector2.getCount() > 0 && !(keyPrefix != null && sortByPrefixes(vector2))) {
       qs.sort(this, 0, vector2.getCount());
     }
     logger.debug("Took {} us to sort {} records", watch.elapsed(TimeUnit.MICROSECONDS), vector2.getCount());
   }
 
+  /**
+   * Orders the SV2 by key prefixes and then sorts the rows with equal prefixes with the generated comparator.
+   *
+   * @return false if there was no memory for the prefixes
+   */
+  private boolean sortByPrefixes(SelectionVector2 vector2) {
+    final int count = vector2.getCount();
+    final KeyPrefixSorter prefixSorter;
+    try {
+      prefixSorter = new KeyPrefixSorter(allocator, count);
+    } catch (OutOfMemoryException e) {
+      logger.debug("No memory to sort {} records by key prefixes", count);
+      return false;
+    }
+    try {
+      for (int i = 0; i < count; i++) {
+        final char index = vector2.getIndex(i);
+        prefixSorter.set(i, keyPrefix.prefix(keyVector, index), index);
+      }
+      prefixSorter.sort();
+      for (int i = 0; i < count; i++) {
+        vector2.setIndex(i, (char) prefixSorter.getIndex(i));
+      }
+      if (!keyPrefix.isExact()) {
+        prefixSorter.sortTies(this);
+      }
+    } finally {
+      prefixSorter.close();
+    }
+    return true;
+  }
+
   @Override
   public void swap(int sv0, int sv1) {
     char tmp = vector2.getIndex(sv0);
@@ -42,6 +42,7 @@ import org.apache.drill.exec.planner.logical.DrillAggregateRule;
 import org.apache.drill.exec.planner.logical.DrillFilterAggregateTransposeRule;
 import org.apache.drill.exec.planner.logical.DrillFilterJoinRules;
 import org.apache.drill.exec.planner.logical.DrillFilterRule;
+import org.apache.drill.exec.planner.logical.DrillJoinEnumerationRule;
 import org.apache.drill.exec.planner.logical.DrillJoinRel;
 import org.apache.drill.exec.planner.logical.DrillJoinRule;
 import org.apache.drill.exec.planner.logical.DrillLimitRule;
@@ -129,6 +130,8 @@ public enum PlannerPhase {
       return PlannerPhase.mergedRuleSets(
           RuleSets.ofList(
               DRILL_JOIN_TO_MULTIJOIN_RULE,
+              // tried first; it leaves the joins it cannot enumerate to LOPT
+              DrillJoinEnumerationRule.INSTANCE,
               DRILL_LOPT_OPTIMIZE_JOIN_RULE,
               ProjectRemoveRule.INSTANCE),
           getStorageRules(context, plugins, this)
@@ -20,10 +20,12 @@ package org.apache.drill.exec.planner.cost;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.metadata.ReflectiveRelMetadataProvider;
 import org.apache.calcite.rel.metadata.RelMdDistinctRowCount;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.metadata.RelMetadataProvider;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.util.BuiltInMethod;
 import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.drill.exec.planner.cost.TableStatistics.ColumnStatistics;
 import org.apache.drill.exec.planner.logical.DrillScanRel;
 
 public class DrillRelMdDistinctRowCount extends RelMdDistinctRowCount{
@@ -44,8 +46,36 @@ public class DrillRelMdDistinctRowCount extends RelMdDistinctRowCount{
   }
 
   private Double getDistinctRowCount(DrillScanRel scan, ImmutableBitSet groupKey, RexNode predicate) {
+    final TableStatistics statistics = TableStatistics.forScan(scan);
+    if (statistics != null && !groupKey.isEmpty()) {
+      final Double ndv = getDistinctRowCount(scan, statistics, groupKey);
+      if (ndv != null) {
+        double rows = RelMetadataQuery.getRowCount(scan);
+        if (predicate != null) {
+          rows *= RelMetadataQuery.getSelectivity(scan, predicate);
+        }
+        return Math.max(1.0, Math.min(ndv, rows));
+      }
+    }
+
     // Consistent with the estimation of Aggregate row count in RelMdRowCount : distinctRowCount = rowCount * 10%.
     return scan.getRows() * 0.1;
   }
 
+  /**
+   * Multiplies the distinct counts of the key columns, counting null as a value of its own.
+   * Returns null if any key column has not been analyzed.
+   */
+  private Double getDistinctRowCount(DrillScanRel scan, TableStatistics statistics, ImmutableBitSet groupKey) {
+    double ndv = 1.0;
+    for (int key : groupKey) {
+      final ColumnStatistics column = statistics.getColumn(scan.getRowType().getFieldNames().get(key));
+      if (column == null) {
+        return null;
+      }
+      ndv *= Math.max(column.getNdv(), 1.0) + (column.getNullCount() > 0 ? 1 : 0);
+    }
+    return ndv;
+  }
+
 }
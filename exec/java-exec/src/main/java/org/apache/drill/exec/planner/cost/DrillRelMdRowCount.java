@@ -24,6 +24,8 @@ import org.apache.calcite.rel.metadata.RelMdRowCount;
 import org.apache.calcite.rel.metadata.RelMetadataProvider;
 import org.apache.calcite.util.BuiltInMethod;
 import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.drill.exec.planner.logical.DrillScanRel;
+import org.apache.drill.exec.planner.physical.PrelUtil;
 
 public class DrillRelMdRowCount extends RelMdRowCount{
   private static final DrillRelMdRowCount INSTANCE = new DrillRelMdRowCount();
@@ -45,4 +47,18 @@ public class DrillRelMdRowCount extends RelMdRowCount{
   public Double getRowCount(Filter rel) {
     return rel.getRows();
   }
+
+  /**
+   * Uses the row count collected by ANALYZE TABLE when the group scan can only estimate it (e.g. from file sizes),
+   * unless partition pruning has already narrowed the scan to part of the table.
+   */
+  public Double getRowCount(DrillScanRel rel) {
+    final TableStatistics statistics = TableStatistics.forScan(rel);
+    if (statistics != null && !rel.partitionFilterPushdown()
+        && !rel.getGroupScan().getScanStats(PrelUtil.getPlannerSettings(rel.getCluster().getPlanner()))
+            .getGroupScanProperty().hasExactRowCount()) {
+      return statistics.getRowCount();
+    }
+    return rel.getRows();
+  }
 }
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.apache.drill.exec.planner.cost;
+
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.metadata.ReflectiveRelMetadataProvider;
+import org.apache.calcite.rel.metadata.RelMdSelectivity;
+import org.apache.calcite.rel.metadata.RelMdUtil;
+import org.apache.calcite.rel.metadata.RelMetadataProvider;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.util.BuiltInMethod;
+import org.apache.drill.exec.planner.cost.TableStatistics.ColumnStatistics;
+import org.apache.drill.exec.planner.logical.DrillScanRel;
+
+/**
+ * Estimates filter selectivity on scans of analyzed tables from their column statistics: equality from the number
+ * of distinct values, IS [NOT] NULL from the null count and range comparisons against numeric literals from the
+ * histogram. Conjuncts that cannot be estimated this way fall back to Calcite's default guesses.
+ */
+public class DrillRelMdSelectivity extends RelMdSelectivity {
+  private static final DrillRelMdSelectivity INSTANCE = new DrillRelMdSelectivity();
+
+  public static final RelMetadataProvider SOURCE =
+      ReflectiveRelMetadataProvider.reflectiveSource(BuiltInMethod.SELECTIVITY.method, INSTANCE);
+
+  @Override
+  public Double getSelectivity(RelNode rel, RexNode predicate) {
+    if (rel instanceof DrillScanRel) {
+      final TableStatistics statistics = TableStatistics.forScan((DrillScanRel) rel);
+      if (statistics != null && predicate != null) {
+        return getSelectivity((DrillScanRel) rel, statistics, predicate);
+      }
+    }
+    return super.getSelectivity(rel, predicate);
+  }
+
+  private Double getSelectivity(DrillScanRel scan, TableStatistics statistics, RexNode predicate) {
+    double selectivity = 1.0;
+    for (RexNode conjunct : RelOptUtil.conjunctions(predicate)) {
+      selectivity *= getConjunctSelectivity(scan, statistics, conjunct);
+    }
+    return selectivity;
+  }
+
+  private double getConjunctSelectivity(DrillScanRel scan, TableStatistics statistics, RexNode conjunct) {
+    if (!(conjunct instanceof RexCall) || statistics.getRowCount() <= 0) {
+      return RelMdUtil.guessSelectivity(conjunct);
+    }
+    final List<RexNode> operands = ((RexCall) conjunct).getOperands();
+    final SqlKind kind = conjunct.getKind();
+    switch (kind) {
+    case IS_NULL:
+    case IS_NOT_NULL: {
+      final ColumnStatistics column = getColumn(scan, statistics, operands.get(0));
+      if (column != null) {
+        final double nullFraction = Math.min(1.0, column.getNullCount() / statistics.getRowCount());
+        return kind == SqlKind.IS_NULL ? nullFraction : 1.0 - nullFraction;
+      }
+      break;
+    }
+    case EQUALS:
+    case NOT_EQUALS:
+    case LESS_THAN:
+    case LESS_THAN_OR_EQUAL:
+    case GREATER_THAN:
+    case GREATER_THAN_OR_EQUAL: {
+      boolean reversed = false;
+      ColumnStatistics column = getColumn(scan, statistics, operands.get(0));
+      RexNode other = operands.get(1);
+      if (column == null) {
+        column = getColumn(scan, statistics, operands.get(1));
+        other = operands.get(0);
+        reversed = true;
+      }
+      if (column == null || !(other instanceof RexLiteral)) {
+        break;
+      }
+      final double nonNullFraction = 1.0 - Math.min(1.0, column.getNullCount() / statistics.getRowCount());
+      if (kind == SqlKind.EQUALS) {
+        return nonNullFraction / Math.max(column.getNdv(), 1.0);
+      }
+      if (kind == SqlKind.NOT_EQUALS) {
+        return nonNullFraction * (1.0 - 1.0 / Math.max(column.getNdv(), 1.0));
+      }
+      final Comparable<?> value = ((RexLiteral) other).getValue();
+      if (!column.hasHistogram() || !(value instanceof Number)) {
+        break;
+      }
+      final double below = column.fractionBelow(((Number) value).doubleValue());
+      // "literal < column" is "column > literal"
+      final boolean lower = (kind == SqlKind.LESS_THAN || kind == SqlKind.LESS_THAN_OR_EQUAL) != reversed;
+      return nonNullFraction * (lower ? below : 1.0 - below);
+    }
+    default:
+      break;
+    }
+    return RelMdUtil.guessSelectivity(conjunct);
+  }
+
+  private ColumnStatistics getColumn(DrillScanRel scan, TableStatistics statistics, RexNode node) {
+    if (!(node instanceof RexInputRef)) {
+      return null;
+    }
+    return statistics.getColumn(scan.getRowType().getFieldNames().get(((RexInputRef) node).getIndex()));
+  }
+}
@@ -0,0 +1,259 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.cost;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.calcite.plan.hep.HepRelVertex;
+import org.apache.calcite.plan.volcano.RelSubset;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.drill.exec.planner.logical.DrillScanRel;
+import org.apache.drill.exec.planner.logical.DrillTable;
+import org.apache.drill.exec.planner.physical.PrelUtil;
+import org.apache.drill.exec.store.dfs.DrillFileSystem;
+import org.apache.drill.exec.store.dfs.FileSystemPlugin;
+import org.apache.drill.exec.store.dfs.FormatSelection;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Table and column statistics collected by ANALYZE TABLE. The statistics are written as a single JSON record into
+ * the {@link #STATISTICS_DIRECTORY} directory of the table root; being a dot directory it is never read as part
+ * of the table itself. The record holds the table row count and, for every analyzed column, the estimated number
+ * of distinct values, the number of non-null values and, for numeric columns, an equi-depth histogram.
+ */
+public class TableStatistics {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TableStatistics.class);
+
+  public static final String STATISTICS_DIRECTORY = ".stats.drill";
+  public static final String ROW_COUNT = "row_count";
+  public static final String NDV_PREFIX = "ndv$";
+  public static final String NON_NULL_PREFIX = "nonnull$";
+  public static final String HISTOGRAM_PREFIX = "histogram$";
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final double rowCount;
+  private final Map<String, ColumnStatistics> columns;
+
+  public TableStatistics(double rowCount, Map<String, ColumnStatistics> columns) {
+    this.rowCount = rowCount;
+    this.columns = columns;
+  }
+
+  public double getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * @return statistics of the given column, or null if the column was not analyzed
+   */
+  public ColumnStatistics getColumn(String name) {
+    return columns.get(name.toLowerCase());
+  }
+
+  /**
+   * @return statistics of the table read by the given scan, or null if there are none or their use is disabled
+   */
+  public static TableStatistics forScan(DrillScanRel scan) {
+    if (!PrelUtil.getPlannerSettings(scan.getCluster().getPlanner()).useStatistics()) {
+      return null;
+    }
+    return scan.getDrillTable().getStatistics();
+  }
+
+  /**
+   * Follows columns of a relational expression through filters and through projections of plain column references
+   * down to a scan.
+   *
+   * @param columns columns of {@code rel}; replaced by the corresponding columns of the scan
+   * @return the scan, or null if the columns do not come straight from one
+   */
+  public static DrillScanRel traceToScan(RelNode rel, int[] columns) {
+    while (true) {
+      if (rel instanceof HepRelVertex) {
+        rel = ((HepRelVertex) rel).getCurrentRel();
+      } else if (rel instanceof RelSubset) {
+        rel = ((RelSubset) rel).getOriginal();
+      } else if (rel instanceof Filter) {
+        rel = ((Filter) rel).getInput();
+      } else if (rel instanceof Project) {
+        for (int i = 0; i < columns.length; i++) {
+          final RexNode expr = ((Project) rel).getProjects().get(columns[i]);
+          if (!(expr instanceof RexInputRef)) {
+            return null;
+          }
+          columns[i] = ((RexInputRef) expr).getIndex();
+        }
+        rel = ((Project) rel).getInput();
+      } else {
+        return rel instanceof DrillScanRel ? (DrillScanRel) rel : null;
+      }
+    }
+  }
+
+  /**
+   * Loads the statistics of a file system table.
+   *
+   * @return the statistics, or null if the table is not a file system table or was never analyzed
+   */
+  public static TableStatistics forTable(DrillTable table) {
+    if (!(table.getPlugin() instanceof FileSystemPlugin) || !(table.getSelection() instanceof FormatSelection)) {
+      return null;
+    }
+    final FileSystemPlugin plugin = (FileSystemPlugin) table.getPlugin();
+    final FormatSelection selection = (FormatSelection) table.getSelection();
+    try {
+      final DrillFileSystem fs = new DrillFileSystem(plugin.getFormatPlugin(selection.getFormat()).getFsConf());
+      return read(fs, new Path(selection.getSelection().selectionRoot));
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failure while reading statistics of table {}", selection.getSelection().selectionRoot, e);
+      return null;
+    }
+  }
+
+  public static TableStatistics read(FileSystem fs, Path tableRoot) throws IOException {
+    final Path directory = new Path(tableRoot, STATISTICS_DIRECTORY);
+    if (!fs.exists(directory)) {
+      return null;
+    }
+    for (FileStatus status : fs.listStatus(directory)) {
+      final String name = status.getPath().getName();
+      if (status.isDirectory() || name.startsWith(".") || name.startsWith("_")) {
+        continue;
+      }
+      try (InputStream in = fs.open(status.getPath())) {
+        final JsonNode row = MAPPER.readTree(in);
+        if (row != null && row.has(ROW_COUNT)) {
+          return fromRecord(row);
+        }
+      }
+    }
+    return null;
+  }
+
+  static TableStatistics fromRecord(JsonNode row) throws IOException {
+    final Map<String, ColumnStatistics> columns = Maps.newHashMap();
+    final double rowCount = row.get(ROW_COUNT).asDouble();
+    final Iterator<String> names = row.fieldNames();
+    while (names.hasNext()) {
+      final String field = names.next();
+      if (!field.startsWith(NDV_PREFIX)) {
+        continue;
+      }
+      final String column = field.substring(NDV_PREFIX.length());
+      final JsonNode nonNull = row.get(NON_NULL_PREFIX + column);
+      final JsonNode histogram = row.get(HISTOGRAM_PREFIX + column);
+      columns.put(column.toLowerCase(), new ColumnStatistics(
+          row.get(field).asDouble(),
+          nonNull == null ? 0 : rowCount - nonNull.asDouble(),
+          histogram == null || histogram.isNull() ? null : MAPPER.readValue(histogram.asText(), double[].class)));
+    }
+    return new TableStatistics(rowCount, columns);
+  }
+
+  public static class ColumnStatistics {
+    private final double ndv;
+    private final double nullCount;
+    private final double[] histogram;
+
+    public ColumnStatistics(double ndv, double nullCount, double[] histogram) {
+      this.ndv = ndv;
+      this.nullCount = nullCount;
+      this.histogram = histogram;
+    }
+
+    public double getNdv() {
+      return ndv;
+    }
+
+    public double getNullCount() {
+      return nullCount;
+    }
+
+    public boolean hasHistogram() {
+      return histogram != null && histogram.length > 1;
+    }
+
+    /**
+     * Estimates the fraction of non-null values below {@code value} by interpolating within the histogram bucket
+     * containing it. Only valid if {@link #hasHistogram()}.
+     */
+    public double fractionBelow(double value) {
+      final int buckets = histogram.length - 1;
+      if (value <= histogram[0]) {
+        return 0;
+      }
+      if (value >= histogram[buckets]) {
+        return 1;
+      }
+      int bucket = 0;
+      while (bucket < buckets - 1 && histogram[bucket + 1] <= value) {
+        bucket++;
+      }
+      final double low = histogram[bucket];
+      final double high = histogram[bucket + 1];
+      final double inBucket = high > low ? (value - low) / (high - low) : 0.5;
+      return (bucket + inBucket) / buckets;
+    }
+
+    /**
+     * Finds the values repeated across histogram boundaries. A value that is the boundary of {@code k} consecutive
+     * buckets fills at least {@code k - 1} whole buckets, so it makes up at least that share of the non-null values.
+     * Only valid if {@link #hasHistogram()}.
+     *
+     * @param minFraction the least share of the non-null values of a returned value
+     * @return the frequent values, most frequent first
+     */
+    public List<Double> getFrequentValues(double minFraction) {
+      final int buckets = histogram.length - 1;
+      final List<Double> values = Lists.newArrayList();
+      final List<Integer> counts = Lists.newArrayList();
+      int start = 0;
+      for (int i = 1; i <= histogram.length; i++) {
+        if (i == histogram.length || histogram[i] != histogram[start]) {
+          final int fullBuckets = i - start - 1;
+          if (fullBuckets > 0 && (double) fullBuckets / buckets >= minFraction) {
+            int position = 0;
+            while (position < counts.size() && counts.get(position) >= fullBuckets) {
+              position++;
+            }
+            values.add(position, histogram[start]);
+            counts.add(position, fullBuckets);
+          }
+          start = i;
+        }
+      }
+      return values;
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.fragment;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.drill.exec.physical.PhysicalPlan;
+import org.apache.drill.exec.proto.UserBitShared.MajorFragmentProfile;
+import org.apache.drill.exec.proto.UserBitShared.MinorFragmentProfile;
+import org.apache.drill.exec.proto.UserBitShared.OperatorProfile;
+import org.apache.drill.exec.proto.UserBitShared.QueryProfile;
+import org.apache.drill.exec.proto.UserBitShared.StreamProfile;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+
+/**
+ * Remembers, per physical plan, how much work each major fragment actually did when the plan last ran on this
+ * Drillbit, so that {@link SimpleParallelizer} can size later runs of the same plan from observed row counts and
+ * processing times instead of the planner's estimates.
+ *
+ * <p>Plans are identified by a fingerprint of their JSON form, which does not depend on parallelization; major
+ * fragment ids are assigned deterministically by {@link MakeFragmentsVisitor}, so they are stable across runs.
+ */
+public class ParallelizationFeedback {
+  static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParallelizationFeedback.class);
+
+  static final int MAX_ENTRIES = 1000;
+
+  /**
+   * Work done by one major fragment, summed over its minor fragments and averaged over the recorded runs.
+   */
+  public static class FragmentObservation {
+    private final double records;
+    private final double processMillis;
+    private final int runs;
+
+    FragmentObservation(double records, double processMillis, int runs) {
+      this.records = records;
+      this.processMillis = processMillis;
+      this.runs = runs;
+    }
+
+    /**
+     * @return the largest number of records processed by any operator of the fragment
+     */
+    public double getRecords() {
+      return records;
+    }
+
+    /**
+     * @return the processing time of all operators of the fragment
+     */
+    public double getProcessMillis() {
+      return processMillis;
+    }
+
+    public int getRuns() {
+      return runs;
+    }
+
+    /**
+     * Converts the observation to a cost comparable with the slice target. Fragments are not split into parallel
+     * units doing less than the given amount of processing time.
+     */
+    public double getCost(long sliceTarget, long minFragmentMillis) {
+      final double maxWidth = Math.max(1.0, Math.floor(processMillis / Math.max(1, minFragmentMillis)));
+      return Math.min(records, maxWidth * sliceTarget);
+    }
+
+    FragmentObservation merge(FragmentObservation latest) {
+      // average over the last few runs only, so that growing inputs are picked up quickly
+      final int weight = Math.min(runs, 3);
+      return new FragmentObservation(
+          (records * weight + latest.records) / (weight + 1),
+          (processMillis * weight + latest.processMillis) / (weight + 1),
+          runs + 1);
+    }
+
+    @Override
+    public String toString() {
+      return "FragmentObservation [records=" + records + ", processMillis=" + processMillis + ", runs=" + runs + "]";
+    }
+  }
+
+  private final ObjectWriter planWriter;
+  private final Map<String, Map<Integer, FragmentObservation>> entries =
+      new LinkedHashMap<String, Map<Integer, FragmentObservation>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Map<Integer, FragmentObservation>> eldest) {
+          return size() > MAX_ENTRIES;
+        }
+      };
+
+  public ParallelizationFeedback(ObjectWriter planWriter) {
+    this.planWriter = planWriter;
+  }
+
+  public String getFingerprint(PhysicalPlan plan) {
+    return Hashing.sha256().hashString(plan.unparse(planWriter), Charsets.UTF_8).toString();
+  }
+
+  /**
+   * @return the observations recorded for the plan with the given fingerprint, keyed by major fragment id; empty
+   *         if the plan has not run on this Drillbit
+   */
+  public Map<Integer, FragmentObservation> get(String fingerprint) {
+    synchronized (entries) {
+      final Map<Integer, FragmentObservation> observations = entries.get(fingerprint);
+      return observations == null ? Collections.<Integer, FragmentObservation>emptyMap() : observations;
+    }
+  }
+
+  /**
+   * Records the work done by each major fragment of a successfully completed query.
+   */
+  public void record(String fingerprint, QueryProfile profile) {
+    final Map<Integer, FragmentObservation> latest = observe(profile);
+    synchronized (entries) {
+      final Map<Integer, FragmentObservation> previous = entries.get(fingerprint);
+      final Map<Integer, FragmentObservation> merged = Maps.newHashMap(latest);
+      if (previous != null) {
+        for (Map.Entry<Integer, FragmentObservation> entry : latest.entrySet()) {
+          final FragmentObservation observation = previous.get(entry.getKey());
+          if (observation != null) {
+            merged.put(entry.getKey(), observation.merge(entry.getValue()));
+          }
+        }
+      }
+      entries.put(fingerprint, ImmutableMap.copyOf(merged));
+    }
+    logger.debug("Recorded parallelization feedback for plan {}: {}", fingerprint, latest);
+  }
+
+  public void invalidateAll() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  @VisibleForTesting
+  static Map<Integer, FragmentObservation> observe(QueryProfile profile) {
+    final Map<Integer, FragmentObservation> observations = Maps.newHashMap();
+    for (MajorFragmentProfile major : profile.getFragmentProfileList()) {
+      final Map<Integer, Long> operatorRecords = Maps.newHashMap();
+      long processNanos = 0;
+      for (MinorFragmentProfile minor : major.getMinorFragmentProfileList()) {
+        for (OperatorProfile operator : minor.getOperatorProfileList()) {
+          long records = 0;
+          for (StreamProfile input : operator.getInputProfileList()) {
+            records += input.getRecords();
+          }
+          final Long sum = operatorRecords.get(operator.getOperatorId());
+          operatorRecords.put(operator.getOperatorId(), sum == null ? records : sum + records);
+          processNanos += operator.getProcessNanos();
+        }
+      }
+      long maxRecords = 0;
+      for (long records : operatorRecords.values()) {
+        maxRecords = Math.max(maxRecords, records);
+      }
+      observations.put(major.getMajorFragmentId(), new FragmentObservation(maxRecords, processNanos / 1e6, 1));
+    }
+    return observations;
+  }
+
+}
@@ -19,7 +19,9 @@ package org.apache.drill.exec.planner.fragment;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.drill.common.exceptions.ExecutionSetupException;
@@ -36,6 +38,7 @@ import org.apache.drill.exec.physical.base.Receiver;
 import org.apache.drill.exec.planner.PhysicalPlanReader;
 import org.apache.drill.exec.planner.fragment.Fragment.ExchangeFragmentPair;
 import org.apache.drill.exec.planner.fragment.Materializer.IndexedFragmentNode;
+import org.apache.drill.exec.planner.fragment.ParallelizationFeedback.FragmentObservation;
 import org.apache.drill.exec.proto.BitControl.Collector;
 import org.apache.drill.exec.proto.BitControl.PlanFragment;
 import org.apache.drill.exec.proto.BitControl.QueryContextInformation;
@@ -67,6 +70,8 @@ public class SimpleParallelizer implements ParallelizationParameters {
   private final int maxWidthPerNode;
   private final int maxGlobalWidth;
   private final double affinityFactor;
+  private long minFragmentMillis = 1;
+  private Map<Integer, FragmentObservation> observations = Collections.emptyMap();
 
   public SimpleParallelizer(QueryContext context) {
     OptionManager optionManager = context.getOptions();
@@ -75,6 +80,7 @@ public class SimpleParallelizer implements ParallelizationParameters {
     this.maxWidthPerNode = optionManager.getOption(ExecConstants.MAX_WIDTH_PER_NODE_KEY).num_val.intValue();
     this.maxGlobalWidth = optionManager.getOption(ExecConstants.MAX_WIDTH_GLOBAL_KEY).num_val.intValue();
     this.affinityFactor = optionManager.getOption(ExecConstants.AFFINITY_FACTOR_KEY).float_val.intValue();
+    this.minFragmentMillis = optionManager.getOption(ExecConstants.PARALLELIZATION_FEEDBACK_MIN_FRAGMENT_MILLIS);
   }
 
   public SimpleParallelizer(long parallelizationThreshold, int maxWidthPerNode, int maxGlobalWidth, double affinityFactor) {
@@ -84,6 +90,15 @@ public class SimpleParallelizer implements ParallelizationParameters {
     this.affinityFactor = affinityFactor;
   }
 
+  /**
+   * Sizes the major fragments for which previous runs of the plan were observed from those observations.
+   *
+   * @param observations observed work keyed by major fragment id
+   */
+  public void setObservations(Map<Integer, FragmentObservation> observations) {
+    this.observations = observations;
+  }
+
   @Override
   public long getSliceTarget() {
     return parallelizationThreshold;
@@ -247,6 +262,10 @@ public class SimpleParallelizer implements ParallelizationParameters {
     // Find stats. Stats include various factors including cost of physical operators, parallelizability of
     // work in physical operator and affinity of physical operator to certain nodes.
     fragmentWrapper.getNode().getRoot().accept(new StatsCollector(planningSet), fragmentWrapper);
+    final FragmentObservation observation = observations.get(fragmentWrapper.getMajorFragmentId());
+    if (observation != null) {
+      fragmentWrapper.getStats().setObservedCost(observation.getCost(getSliceTarget(), minFragmentMillis));
+    }
 
     fragmentWrapper.getStats().getDistributionAffinity()
         .getFragmentParallelizer()
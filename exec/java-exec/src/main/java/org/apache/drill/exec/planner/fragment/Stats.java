@@ -35,6 +35,13 @@ public class Stats {
     maxCost = Math.max(maxCost, cost);
   }
 
+  /**
+   * Replaces the estimated cost of the fragment by one derived from previous runs of the same plan.
+   */
+  public void setObservedCost(double cost) {
+    maxCost = cost;
+  }
+
   public void addMaxWidth(int maxWidth) {
     collector.addMaxWidth(maxWidth);
   }
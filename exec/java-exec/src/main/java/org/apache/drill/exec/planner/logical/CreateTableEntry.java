@@ -41,4 +41,10 @@ public interface CreateTableEntry {
   Writer getWriter(PhysicalOperator child) throws IOException;
 
   List<String> getPartitionColumns();
+
+  /**
+   * @return true if the writer can group rows by partition itself, so that its input does not have to be
+   *         sorted on the partition columns
+   */
+  boolean supportsBufferedPartitioning();
 }
@@ -0,0 +1,465 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.logical;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.metadata.RelMdUtil;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rel.rules.MultiJoin;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexShuttle;
+import org.apache.calcite.rex.RexUtil;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.expr.holders.IntHolder;
+import org.apache.drill.exec.planner.cost.DrillCostBase;
+import org.apache.drill.exec.planner.cost.TableStatistics;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.apache.drill.exec.planner.physical.PrelUtil;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Orders the inputs of an inner {@link MultiJoin} by dynamic programming over all connected subsets of its
+ * inputs, so that the result may be a bushy tree. Each candidate join is costed like a hash join whose build
+ * side is its right input, plus the cheaper of hash distributing both inputs or broadcasting the build side
+ * when the plan is distributed. Join cardinalities use the distinct counts collected by ANALYZE TABLE where
+ * available, and otherwise assume the join key of the smaller input is unique, as {@link DrillJoinRel} does.
+ *
+ * <p>The rule gives up, leaving the {@link MultiJoin} to {@link org.apache.calcite.rel.rules.LoptOptimizeJoinRule},
+ * for outer joins, for more inputs than {@link PlannerSettings#JOIN_ENUMERATION_MAX_RELATIONS} and when the inputs
+ * cannot be joined without a cartesian or inequality join.
+ */
+public class DrillJoinEnumerationRule extends RelOptRule {
+  public static final RelOptRule INSTANCE = new DrillJoinEnumerationRule();
+
+  private DrillJoinEnumerationRule() {
+    super(RelOptHelper.any(MultiJoin.class), "DrillJoinEnumerationRule");
+  }
+
+  @Override
+  public boolean matches(RelOptRuleCall call) {
+    final MultiJoin multiJoin = call.rel(0);
+    final PlannerSettings settings = PrelUtil.getPlannerSettings(call.getPlanner());
+    if (!settings.isJoinEnumerationEnabled() || multiJoin.isFullOuterJoin()
+        || multiJoin.getInputs().size() > settings.getJoinEnumerationMaxRelations()) {
+      return false;
+    }
+    for (JoinRelType joinType : multiJoin.getJoinTypes()) {
+      if (joinType != JoinRelType.INNER) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void onMatch(RelOptRuleCall call) {
+    final MultiJoin multiJoin = call.rel(0);
+    final RelNode result = new Enumerator(multiJoin, PrelUtil.getPlannerSettings(call.getPlanner())).enumerate();
+    if (result != null) {
+      call.transformTo(result);
+    }
+  }
+
+  /**
+   * A conjunct of the join condition together with the inputs it references.
+   */
+  private static class Predicate {
+    final RexNode condition;
+    final int inputs;
+    final boolean equi;
+
+    Predicate(RexNode condition, int inputs, boolean equi) {
+      this.condition = condition;
+      this.inputs = inputs;
+      this.equi = equi;
+    }
+  }
+
+  private static class Enumerator {
+    private final MultiJoin multiJoin;
+    private final PlannerSettings settings;
+    private final RexBuilder rexBuilder;
+    private final int inputCount;
+    private final int[] offsets;
+    private final RelNode[] leaves;
+    private final List<Predicate> predicates = Lists.newArrayList();
+    private final List<RexNode> constantConditions = Lists.newArrayList();
+
+    private final double fieldWidth;
+    private final double hashTableFactor;
+    private final boolean distributed;
+
+    // indexed by bitmask of inputs
+    private final double[] rows;
+    private final int[] fieldCounts;
+    private final DrillCostBase[] costs;
+    private final int[] bestLeft;
+
+    // selectivity of each predicate
+    private double[] selectivities;
+
+    Enumerator(MultiJoin multiJoin, PlannerSettings settings) {
+      this.multiJoin = multiJoin;
+      this.settings = settings;
+      this.rexBuilder = multiJoin.getCluster().getRexBuilder();
+      this.inputCount = multiJoin.getInputs().size();
+      this.offsets = new int[inputCount + 1];
+      for (int i = 0; i < inputCount; i++) {
+        offsets[i + 1] = offsets[i] + multiJoin.getInputs().get(i).getRowType().getFieldCount();
+      }
+      this.leaves = new RelNode[inputCount];
+      this.fieldWidth = settings.getOptions().getOption(ExecConstants.AVERAGE_FIELD_WIDTH_KEY).num_val;
+      this.hashTableFactor = settings.getOptions().getOption(ExecConstants.HASH_JOIN_TABLE_FACTOR_KEY).float_val;
+      this.distributed = !settings.isSingleMode() && settings.numEndPoints() > 1;
+      this.rows = new double[1 << inputCount];
+      this.fieldCounts = new int[1 << inputCount];
+      this.costs = new DrillCostBase[1 << inputCount];
+      this.bestLeft = new int[1 << inputCount];
+    }
+
+    /**
+     * @return the reordered join, or null if the inputs cannot be joined using equi-joins only
+     */
+    RelNode enumerate() {
+      classifyConditions();
+      for (int i = 0; i < inputCount; i++) {
+        final int mask = 1 << i;
+        rows[mask] = Math.max(1.0, RelMetadataQuery.getRowCount(leaves[i]));
+        fieldCounts[mask] = offsets[i + 1] - offsets[i];
+        costs[mask] = new DrillCostBase(0, 0, 0, 0, 0);
+      }
+      estimateSelectivities();
+
+      final int all = (1 << inputCount) - 1;
+      for (int mask = 1; mask <= all; mask++) {
+        if (Integer.bitCount(mask) < 2) {
+          continue;
+        }
+        for (int left = (mask - 1) & mask; left > 0; left = (left - 1) & mask) {
+          final int right = mask ^ left;
+          if (costs[left] == null || costs[right] == null || !isEquiJoined(left, right)) {
+            continue;
+          }
+          if (costs[mask] == null) {
+            // the cardinality of a set of inputs does not depend on how they are joined
+            rows[mask] = joinRows(left, right);
+            fieldCounts[mask] = fieldCounts[left] + fieldCounts[right];
+          }
+          final DrillCostBase cost = (DrillCostBase) costs[left].plus(costs[right]).plus(joinCost(left, right));
+          if (costs[mask] == null || cost.isLt(costs[mask])) {
+            costs[mask] = cost;
+            bestLeft[mask] = left;
+          }
+        }
+      }
+
+      if (costs[all] == null) {
+        return null;
+      }
+      return finish(build(all));
+    }
+
+    /**
+     * Splits the join condition into single input filters, which are applied to the inputs right away, and
+     * predicates spanning several inputs.
+     */
+    private void classifyConditions() {
+      final List<List<RexNode>> inputFilters = Lists.newArrayList();
+      for (int i = 0; i < inputCount; i++) {
+        inputFilters.add(new ArrayList<RexNode>());
+      }
+      for (RexNode conjunct : RelOptUtil.conjunctions(multiJoin.getJoinFilter())) {
+        if (conjunct.isAlwaysTrue()) {
+          continue;
+        }
+        final int inputs = inputsOf(RelOptUtil.InputFinder.bits(conjunct));
+        if (inputs == 0) {
+          constantConditions.add(conjunct);
+        } else if (Integer.bitCount(inputs) == 1) {
+          final int input = Integer.numberOfTrailingZeros(inputs);
+          inputFilters.get(input).add(RexUtil.shift(conjunct, -offsets[input]));
+        } else {
+          predicates.add(new Predicate(conjunct, inputs, isEquiCondition(conjunct, inputs)));
+        }
+      }
+      for (int i = 0; i < inputCount; i++) {
+        final RelNode input = multiJoin.getInputs().get(i);
+        leaves[i] = inputFilters.get(i).isEmpty() ? input : DrillRelFactories.DRILL_LOGICAL_FILTER_FACTORY
+            .createFilter(input, RexUtil.composeConjunction(rexBuilder, inputFilters.get(i), false));
+      }
+    }
+
+    private int inputsOf(ImmutableBitSet fields) {
+      int inputs = 0;
+      for (int field : fields) {
+        inputs |= 1 << inputOf(field);
+      }
+      return inputs;
+    }
+
+    private int inputOf(int field) {
+      int input = 0;
+      while (offsets[input + 1] <= field) {
+        input++;
+      }
+      return input;
+    }
+
+    private static boolean isEquiCondition(RexNode conjunct, int inputs) {
+      if (conjunct.getKind() != SqlKind.EQUALS || Integer.bitCount(inputs) != 2) {
+        return false;
+      }
+      final List<RexNode> operands = ((RexCall) conjunct).getOperands();
+      return operands.get(0) instanceof RexInputRef && operands.get(1) instanceof RexInputRef;
+    }
+
+    /**
+     * Estimates the selectivity of each predicate. The equi-join predicates between a pair of inputs are
+     * estimated together, from the distinct count of the composite key on either side.
+     */
+    private void estimateSelectivities() {
+      selectivities = new double[predicates.size()];
+      final double factor = settings.getRowCountEstimateFactor();
+      for (int p = 0; p < predicates.size(); p++) {
+        final Predicate predicate = predicates.get(p);
+        if (!predicate.equi) {
+          selectivities[p] = RelMdUtil.guessSelectivity(predicate.condition);
+          continue;
+        }
+        if (selectivities[p] != 0) {
+          // already estimated along with an earlier predicate on the same inputs
+          continue;
+        }
+        final int first = Integer.numberOfTrailingZeros(predicate.inputs);
+        final int second = 31 - Integer.numberOfLeadingZeros(predicate.inputs);
+        final ImmutableBitSet.Builder firstKeys = ImmutableBitSet.builder();
+        final ImmutableBitSet.Builder secondKeys = ImmutableBitSet.builder();
+        final List<Integer> samePair = Lists.newArrayList();
+        for (int q = p; q < predicates.size(); q++) {
+          final Predicate other = predicates.get(q);
+          if (other.equi && other.inputs == predicate.inputs) {
+            for (RexNode operand : ((RexCall) other.condition).getOperands()) {
+              final int field = ((RexInputRef) operand).getIndex();
+              if (inputOf(field) == first) {
+                firstKeys.set(field - offsets[first]);
+              } else {
+                secondKeys.set(field - offsets[second]);
+              }
+            }
+            samePair.add(q);
+          }
+        }
+        final Double firstNdv = getDistinctRowCount(first, firstKeys.build());
+        final Double secondNdv = getDistinctRowCount(second, secondKeys.build());
+        final double selectivity;
+        if (firstNdv != null && secondNdv != null) {
+          selectivity = 1.0 / Math.max(1.0, Math.max(firstNdv, secondNdv));
+        } else {
+          selectivity = factor / Math.min(rows[1 << first], rows[1 << second]);
+        }
+        // attribute the selectivity of the pair to one predicate only
+        for (int q : samePair) {
+          selectivities[q] = q == p ? selectivity : 1.0;
+        }
+      }
+    }
+
+    /**
+     * @return the number of distinct values of the given key columns of an input, if all of them were analyzed
+     */
+    private Double getDistinctRowCount(int input, ImmutableBitSet keys) {
+      final int[] columns = keys.toArray();
+      final DrillScanRel scan = TableStatistics.traceToScan(multiJoin.getInputs().get(input), columns);
+      final TableStatistics statistics = scan == null ? null : TableStatistics.forScan(scan);
+      if (statistics == null) {
+        return null;
+      }
+      for (int column : columns) {
+        if (statistics.getColumn(scan.getRowType().getFieldNames().get(column)) == null) {
+          return null;
+        }
+      }
+      final Double ndv = RelMetadataQuery.getDistinctRowCount(scan, ImmutableBitSet.of(columns), null);
+      return ndv == null ? null : Math.min(ndv, rows[1 << input]);
+    }
+
+    private boolean isEquiJoined(int left, int right) {
+      for (Predicate predicate : predicates) {
+        if (predicate.equi && crosses(predicate.inputs, left, right)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static boolean crosses(int inputs, int left, int right) {
+      return (inputs & ~(left | right)) == 0 && (inputs & left) != 0 && (inputs & right) != 0;
+    }
+
+    private double joinRows(int left, int right) {
+      double result = rows[left] * rows[right];
+      for (int p = 0; p < predicates.size(); p++) {
+        if (crosses(predicates.get(p).inputs, left, right)) {
+          result *= selectivities[p];
+        }
+      }
+      return Math.max(1.0, result);
+    }
+
+    /**
+     * Costs a hash join of the given inputs, building on the right one, in the same way as
+     * {@link DrillJoinRel#computeSelfCost}, and adds the cost of the cheaper exchange for a distributed plan.
+     */
+    private DrillCostBase joinCost(int left, int right) {
+      int keyCount = 0;
+      for (Predicate predicate : predicates) {
+        if (predicate.equi && crosses(predicate.inputs, left, right)) {
+          keyCount++;
+        }
+      }
+      final double probeRows = rows[left];
+      final double buildRows = rows[right];
+      final double cpu = DrillCostBase.HASH_CPU_COST * keyCount * (buildRows + probeRows)
+          + DrillCostBase.COMPARE_CPU_COST * keyCount * probeRows;
+      final double memory = (fieldWidth * keyCount + IntHolder.WIDTH + IntHolder.WIDTH) * buildRows * hashTableFactor;
+
+      double network = 0;
+      double exchangeCpu = 0;
+      if (distributed) {
+        final double probeBytes = probeRows * fieldCounts[left] * DrillCostBase.AVG_FIELD_WIDTH;
+        final double buildBytes = buildRows * fieldCounts[right] * DrillCostBase.AVG_FIELD_WIDTH;
+        network = DrillCostBase.BYTE_NETWORK_COST * (probeBytes + buildBytes);
+        exchangeCpu = (DrillCostBase.HASH_CPU_COST + DrillCostBase.SVR_CPU_COST) * (probeRows + buildRows);
+        if (settings.isBroadcastJoinEnabled() && buildRows < settings.getBroadcastThreshold()) {
+          final double broadcastNetwork = settings.getBroadcastFactor() * DrillCostBase.BYTE_NETWORK_COST * buildBytes
+              * settings.numEndPoints();
+          final double broadcastCpu = settings.getBroadcastFactor() * DrillCostBase.SVR_CPU_COST * buildRows;
+          if (broadcastNetwork + broadcastCpu < network + exchangeCpu) {
+            network = broadcastNetwork;
+            exchangeCpu = broadcastCpu;
+          }
+        }
+      }
+      return new DrillCostBase(rows[left | right], cpu + exchangeCpu, 0, network, memory);
+    }
+
+    /**
+     * @return the join tree of the given inputs; the fields of the result are those of its inputs, in the order
+     *         given by {@link #fieldsOf}
+     */
+    private RelNode build(int mask) {
+      if (Integer.bitCount(mask) == 1) {
+        return leaves[Integer.numberOfTrailingZeros(mask)];
+      }
+      final int left = bestLeft[mask];
+      final int right = mask ^ left;
+      final int[] positions = positionsOf(mask);
+
+      final List<RexNode> joinConditions = Lists.newArrayList();
+      final List<RexNode> residualConditions = Lists.newArrayList();
+      for (Predicate predicate : predicates) {
+        if (crosses(predicate.inputs, left, right)) {
+          (predicate.equi ? joinConditions : residualConditions).add(remap(predicate.condition, positions));
+        }
+      }
+      final RelNode join = DrillRelFactories.DRILL_LOGICAL_JOIN_FACTORY.createJoin(build(left), build(right),
+          RexUtil.composeConjunction(rexBuilder, joinConditions, false), JoinRelType.INNER,
+          Collections.<String>emptySet(), false);
+      if (residualConditions.isEmpty()) {
+        return join;
+      }
+      return DrillRelFactories.DRILL_LOGICAL_FILTER_FACTORY.createFilter(join,
+          RexUtil.composeConjunction(rexBuilder, residualConditions, false));
+    }
+
+    /**
+     * @return the fields of the {@link MultiJoin} produced by the join tree of the given inputs, in order
+     */
+    private List<Integer> fieldsOf(int mask) {
+      if (Integer.bitCount(mask) == 1) {
+        final int input = Integer.numberOfTrailingZeros(mask);
+        final List<Integer> fields = Lists.newArrayList();
+        for (int field = offsets[input]; field < offsets[input + 1]; field++) {
+          fields.add(field);
+        }
+        return fields;
+      }
+      final List<Integer> fields = fieldsOf(bestLeft[mask]);
+      fields.addAll(fieldsOf(mask ^ bestLeft[mask]));
+      return fields;
+    }
+
+    private int[] positionsOf(int mask) {
+      final int[] positions = new int[offsets[inputCount]];
+      final List<Integer> fields = fieldsOf(mask);
+      for (int i = 0; i < fields.size(); i++) {
+        positions[fields.get(i)] = i;
+      }
+      return positions;
+    }
+
+    private static RexNode remap(RexNode condition, final int[] positions) {
+      return condition.accept(new RexShuttle() {
+        @Override
+        public RexNode visitInputRef(RexInputRef inputRef) {
+          return new RexInputRef(positions[inputRef.getIndex()], inputRef.getType());
+        }
+      });
+    }
+
+    /**
+     * Restores the field order of the {@link MultiJoin} and applies the conditions that could not be pushed into
+     * the join tree.
+     */
+    private RelNode finish(RelNode joinTree) {
+      final int[] positions = positionsOf((1 << inputCount) - 1);
+      final List<RexNode> projects = Lists.newArrayList();
+      for (int field = 0; field < positions.length; field++) {
+        projects.add(rexBuilder.makeInputRef(multiJoin.getRowType().getFieldList().get(field).getType(),
+            positions[field]));
+      }
+      RelNode result = DrillRelFactories.DRILL_LOGICAL_PROJECT_FACTORY.createProject(joinTree, projects,
+          multiJoin.getRowType().getFieldNames());
+
+      final List<RexNode> conditions = Lists.newArrayList(constantConditions);
+      if (multiJoin.getPostJoinFilter() != null) {
+        conditions.add(multiJoin.getPostJoinFilter());
+      }
+      if (!conditions.isEmpty()) {
+        result = DrillRelFactories.DRILL_LOGICAL_FILTER_FACTORY.createFilter(result,
+            RexUtil.composeConjunction(rexBuilder, conditions, false));
+      }
+      return result;
+    }
+  }
+
+}
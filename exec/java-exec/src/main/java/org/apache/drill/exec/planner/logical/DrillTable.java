@@ -28,6 +28,7 @@ import org.apache.calcite.schema.Table;
 import org.apache.drill.common.JSONOptions;
 import org.apache.drill.common.logical.StoragePluginConfig;
 import org.apache.drill.exec.physical.base.GroupScan;
+import org.apache.drill.exec.planner.cost.TableStatistics;
 import org.apache.drill.exec.store.StoragePlugin;
 import org.apache.drill.exec.util.ImpersonationUtil;
 
@@ -40,6 +41,8 @@ public abstract class DrillTable implements Table {
   private final StoragePlugin plugin;
   private final String userName;
   private GroupScan scan;
+  private TableStatistics statistics;
+  private boolean statisticsLoaded;
 
   /**
    * Creates a DrillTable instance for a @{code TableType#Table} table.
@@ -87,6 +90,17 @@ public abstract class DrillTable implements Table {
     return scan;
   }
 
+  /**
+   * @return statistics collected by ANALYZE TABLE, or null if there are none
+   */
+  public TableStatistics getStatistics() {
+    if (!statisticsLoaded) {
+      statistics = TableStatistics.forTable(this);
+      statisticsLoaded = true;
+    }
+    return statistics;
+  }
+
   public StoragePluginConfig getStorageEngineConfig() {
     return storageEngineConfig;
   }
@@ -29,6 +29,7 @@ import org.apache.drill.exec.physical.base.Writer;
 import org.apache.drill.exec.store.StoragePluginRegistry;
 import org.apache.drill.exec.store.dfs.FileSystemConfig;
 import org.apache.drill.exec.store.dfs.FormatPlugin;
+import org.apache.drill.exec.store.parquet.ParquetFormatPlugin;
 
 import com.fasterxml.jackson.annotation.JacksonInject;
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -96,4 +97,9 @@ public class FileSystemCreateTableEntry implements CreateTableEntry {
   public List<String> getPartitionColumns() {
     return partitionColumns;
   }
+
+  @Override
+  public boolean supportsBufferedPartitioning() {
+    return formatPlugin instanceof ParquetFormatPlugin;
+  }
 }
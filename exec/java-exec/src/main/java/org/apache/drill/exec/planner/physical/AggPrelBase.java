@@ -51,7 +51,7 @@ import java.util.List;
 
 public abstract class AggPrelBase extends DrillAggregateRelBase implements Prel {
 
-  protected static enum OperatorPhase {PHASE_1of1, PHASE_1of2, PHASE_2of2};
+  public static enum OperatorPhase {PHASE_1of1, PHASE_1of2, PHASE_2of2};
 
   protected OperatorPhase operPhase = OperatorPhase.PHASE_1of1 ; // default phase
   protected List<NamedExpression> keys = Lists.newArrayList();
@@ -93,6 +93,22 @@ public abstract class AggPrelBase extends DrillAggregateRelBase implements Prel
 
   }
 
+  /**
+   * Aggregate function merging partial results in the second phase of an aggregation, see {@link AggregateSplit}.
+   * Its return type is the one of the aggregate it completes.
+   */
+  public static class SqlMergeAggFunction extends SqlAggFunction {
+
+    public SqlMergeAggFunction(String name, RelDataType type) {
+      super(name,
+          SqlKind.OTHER_FUNCTION,
+          ReturnTypes.explicit(type),
+          null,
+          OperandTypes.ANY,
+          SqlFunctionCategory.USER_DEFINED_FUNCTION);
+    }
+  }
+
   public AggPrelBase(RelOptCluster cluster,
                      RelTraitSet traits,
                      RelNode child,
@@ -134,12 +150,28 @@ public abstract class AggPrelBase extends DrillAggregateRelBase implements Prel
     for (Ord<AggregateCall> aggCall : Ord.zip(aggCalls)) {
       int aggExprOrdinal = groupSet.cardinality() + aggCall.i;
       FieldReference ref = FieldReference.getWithQuotedRef(fields.get(aggExprOrdinal));
-      LogicalExpression expr = toDrill(aggCall.e, childFields);
+      final AggregateSplit split = getOperatorPhase() == OperatorPhase.PHASE_1of2
+          ? AggregateSplit.get(aggCall.e, PrelUtil.getSettings(getCluster())) : null;
+      LogicalExpression expr = split == null
+          ? toDrill(aggCall.e, childFields)
+          : toDrill(aggCall.e, split.getPartialName(), childFields);
       NamedExpression ne = new NamedExpression(expr, ref);
       aggExprs.add(ne);
 
       if (getOperatorPhase() == OperatorPhase.PHASE_1of2) {
-        if (aggCall.e.getAggregation().getName().equals("COUNT")) {
+        if (split != null && !AggregateSplit.isSelfMergingBuiltIn(aggCall.e)
+            && !aggCall.e.getAggregation().getName().equals("COUNT")) {
+          // The merge function of other aggregates reads their intermediate state and returns the final result.
+          AggregateCall newAggCall =
+              new AggregateCall(
+                  new SqlMergeAggFunction(split.getMergeName(), aggCall.e.getType()),
+                  false,
+                  Collections.singletonList(aggExprOrdinal),
+                  aggCall.e.getType(),
+                  aggCall.e.getName());
+
+          phase2AggCallList.add(newAggCall);
+        } else if (aggCall.e.getAggregation().getName().equals("COUNT")) {
           // If we are doing a COUNT aggregate in Phase1of2, then in Phase2of2 we should SUM the COUNTs,
           SqlAggFunction sumAggFun = new SqlSumCountAggFunction(aggCall.e.getType());
           AggregateCall newAggCall =
@@ -167,6 +199,10 @@ public abstract class AggPrelBase extends DrillAggregateRelBase implements Prel
   }
 
   protected LogicalExpression toDrill(AggregateCall call, List<String> fn) {
+    return toDrill(call, call.getAggregation().getName().toLowerCase(), fn);
+  }
+
+  protected LogicalExpression toDrill(AggregateCall call, String functionName, List<String> fn) {
     List<LogicalExpression> args = Lists.newArrayList();
     for (Integer i : call.getArgList()) {
       args.add(FieldReference.getWithQuotedRef(fn.get(i)));
@@ -176,7 +212,7 @@ public abstract class AggPrelBase extends DrillAggregateRelBase implements Prel
     if (args.isEmpty()) {
       args.add(new ValueExpressions.LongExpression(1l));
     }
-    LogicalExpression expr = new FunctionCall(call.getAggregation().getName().toLowerCase(), args, ExpressionPosition.UNKNOWN );
+    LogicalExpression expr = new FunctionCall(functionName, args, ExpressionPosition.UNKNOWN );
     return expr;
   }
 
@@ -56,9 +56,9 @@ public abstract class AggPruleBase extends Prule {
     return groupByFields;
   }
 
-  // Create 2 phase aggr plan for aggregates such as SUM, MIN, MAX
-  // If any of the aggregate functions are not one of these, then we
-  // currently won't generate a 2 phase plan.
+  // Create 2 phase aggr plan for aggregates such as SUM, MIN, MAX and for aggregate functions
+  // declaring how to merge their partial results (see AggregateSplit). If any of the aggregate
+  // functions can't be split, then we won't generate a 2 phase plan.
   protected boolean create2PhasePlan(RelOptRuleCall call, DrillAggregateRel aggregate) {
     PlannerSettings settings = PrelUtil.getPlannerSettings(call.getPlanner());
     RelNode child = call.rel(0).getInputs().get(0);
@@ -68,9 +68,7 @@ public abstract class AggPruleBase extends Prule {
     }
 
     for (AggregateCall aggCall : aggregate.getAggCallList()) {
-      String name = aggCall.getAggregation().getName();
-      if ( ! (name.equals("SUM") || name.equals("MIN") || name.equals("MAX") || name.equals("COUNT")
-              || name.equals("$SUM0"))) {
+      if (AggregateSplit.get(aggCall, settings) == null) {
         return false;
       }
     }
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.physical;
+
+import java.util.List;
+
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.drill.exec.expr.fn.DrillFuncHolder;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Describes how an aggregate call is computed in two phases: the partial aggregate runs on each fragment of the
+ * input, and the merge aggregate combines the partial results once they have been exchanged.
+ * <p/>
+ * SUM, MIN, MAX and $SUM0 merge their own results and COUNT is merged by $SUM0. Any other Drill aggregate function
+ * is split when all its implementations declare the same partial and merge functions, see
+ * {@link org.apache.drill.exec.expr.annotations.FunctionTemplate#merge()}.
+ */
+public class AggregateSplit {
+
+  private static final ImmutableSet<String> SELF_MERGING_BUILT_INS = ImmutableSet.of("SUM", "MIN", "MAX", "$SUM0");
+
+  private final String partialName;
+  private final String mergeName;
+
+  private AggregateSplit(String partialName, String mergeName) {
+    this.partialName = partialName;
+    this.mergeName = mergeName;
+  }
+
+  /**
+   * @return name of the Drill function computing the partial aggregate
+   */
+  public String getPartialName() {
+    return partialName;
+  }
+
+  /**
+   * @return name of the Drill function merging the partial aggregates
+   */
+  public String getMergeName() {
+    return mergeName;
+  }
+
+  /**
+   * @return true if the call is one of the built-in aggregates whose partial results are merged by the aggregate
+   *         itself
+   */
+  public static boolean isSelfMergingBuiltIn(AggregateCall call) {
+    return SELF_MERGING_BUILT_INS.contains(call.getAggregation().getName());
+  }
+
+  /**
+   * @return the split of the given call, or null if it must be computed in a single phase
+   */
+  public static AggregateSplit get(AggregateCall call, PlannerSettings settings) {
+    if (call.isDistinct()) {
+      return null;
+    }
+    final String name = call.getAggregation().getName();
+    if (name.equals("COUNT")) {
+      return new AggregateSplit("count", "$sum0");
+    }
+    if (isSelfMergingBuiltIn(call)) {
+      return new AggregateSplit(name.toLowerCase(), name.toLowerCase());
+    }
+    if (settings.functionImplementationRegistry == null) {
+      return null;
+    }
+    final List<DrillFuncHolder> holders = settings.functionImplementationRegistry.getMethods(name.toLowerCase());
+    AggregateSplit split = null;
+    for (DrillFuncHolder holder : holders) {
+      if (!holder.isAggregating() || holder.getMergeName().isEmpty()) {
+        return null;
+      }
+      if (split == null) {
+        split = new AggregateSplit(holder.getPartialName(), holder.getMergeName());
+      } else if (!split.partialName.equals(holder.getPartialName()) || !split.mergeName.equals(holder.getMergeName())) {
+        return null;
+      }
+    }
+    return split;
+  }
+}
@@ -35,13 +35,28 @@ import org.apache.calcite.rex.RexNode;
 
 
 public class FilterPrel extends DrillFilterRelBase implements Prel {
+  private final boolean compact;
+
   protected FilterPrel(RelOptCluster cluster, RelTraitSet traits, RelNode child, RexNode condition) {
+    this(cluster, traits, child, condition, true);
+  }
+
+  private FilterPrel(RelOptCluster cluster, RelTraitSet traits, RelNode child, RexNode condition, boolean compact) {
     super(Prel.DRILL_PHYSICAL, cluster, traits, child, condition);
+    this.compact = compact;
   }
 
   @Override
   public org.apache.calcite.rel.core.Filter copy(RelTraitSet traitSet, RelNode input, RexNode condition) {
-    return new FilterPrel(getCluster(), traitSet, input, condition);
+    return new FilterPrel(getCluster(), traitSet, input, condition, compact);
+  }
+
+  /**
+   * @return a copy of this filter that leaves its output batches to the selection vector remover placed on top of it
+   * instead of compacting them
+   */
+  public FilterPrel withoutCompaction() {
+    return new FilterPrel(getCluster(), getTraitSet(), getInput(), getCondition(), false);
   }
 
   @Override
@@ -51,7 +66,8 @@ public class FilterPrel extends DrillFilterRelBase implements Prel {
 
     PhysicalOperator childPOP = child.getPhysicalOperator(creator);
 
-    Filter p = new Filter(childPOP, getFilterExpression(new DrillParseContext(PrelUtil.getSettings(getCluster()))), 1.0f);
+    Filter p = new Filter(childPOP, getFilterExpression(new DrillParseContext(PrelUtil.getSettings(getCluster()))),
+        1.0f, compact);
     return creator.addMetadata(this, p);
   }
 
@@ -18,6 +18,7 @@
 package org.apache.drill.exec.planner.physical;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.calcite.rel.core.Join;
@@ -42,6 +43,7 @@ import com.google.common.collect.Lists;
 public class HashJoinPrel  extends JoinPrel {
 
   private boolean swapped = false;
+  private List<Double> skewedKeyValues = Collections.emptyList();
 
   public HashJoinPrel(RelOptCluster cluster, RelTraitSet traits, RelNode left, RelNode right, RexNode condition,
                       JoinRelType joinType) throws InvalidRelException {
@@ -58,7 +60,10 @@ public class HashJoinPrel  extends JoinPrel {
   @Override
   public Join copy(RelTraitSet traitSet, RexNode conditionExpr, RelNode left, RelNode right, JoinRelType joinType, boolean semiJoinDone) {
     try {
-      return new HashJoinPrel(this.getCluster(), traitSet, left, right, conditionExpr, joinType, this.swapped);
+      final HashJoinPrel join = new HashJoinPrel(this.getCluster(), traitSet, left, right, conditionExpr, joinType,
+          this.swapped);
+      join.skewedKeyValues = this.skewedKeyValues;
+      return join;
     }catch (InvalidRelException e) {
       throw new AssertionError(e);
     }
@@ -125,4 +130,15 @@ public class HashJoinPrel  extends JoinPrel {
     return this.swapped;
   }
 
+  /**
+   * @param skewedKeyValues hot values of the single left join key, see {@link SkewedDistribution}
+   */
+  public void setSkewedKeyValues(List<Double> skewedKeyValues) {
+    this.skewedKeyValues = skewedKeyValues;
+  }
+
+  public List<Double> getSkewedKeyValues() {
+    return this.skewedKeyValues;
+  }
+
 }
@@ -22,6 +22,7 @@ import java.util.List;
 
 import org.apache.calcite.linq4j.Ord;
 
+import org.apache.drill.common.expression.LogicalExpression;
 import org.apache.drill.exec.physical.base.PhysicalOperator;
 import org.apache.drill.exec.physical.config.HashToRandomExchange;
 import org.apache.drill.exec.planner.cost.DrillCostBase;
@@ -41,11 +42,22 @@ public class HashToRandomExchangePrel extends ExchangePrel {
 
 
   private final List<DistributionField> fields;
+  private final SkewedDistribution skew;
 
   public HashToRandomExchangePrel(RelOptCluster cluster, RelTraitSet traitSet, RelNode input, List<DistributionField> fields) {
+    this(cluster, traitSet, input, fields, null);
+  }
+
+  /**
+   * @param skew hot keys of the single distribution field that are not hash partitioned, or null
+   */
+  public HashToRandomExchangePrel(RelOptCluster cluster, RelTraitSet traitSet, RelNode input, List<DistributionField> fields,
+      SkewedDistribution skew) {
     super(cluster, traitSet, input);
     this.fields = fields;
+    this.skew = skew;
     assert input.getConvention() == Prel.DRILL_PHYSICAL;
+    assert skew == null || fields.size() == 1;
   }
 
   /**
@@ -82,7 +94,7 @@ public class HashToRandomExchangePrel extends ExchangePrel {
 
   @Override
   public RelNode copy(RelTraitSet traitSet, List<RelNode> inputs) {
-    return new HashToRandomExchangePrel(getCluster(), traitSet, sole(inputs), fields);
+    return new HashToRandomExchangePrel(getCluster(), traitSet, sole(inputs), fields, skew);
   }
 
   public PhysicalOperator getPhysicalOperator(PhysicalPlanCreator creator) throws IOException {
@@ -95,7 +107,12 @@ public class HashToRandomExchangePrel extends ExchangePrel {
     }
 
     // TODO - refactor to different exchange name
-    HashToRandomExchange g = new HashToRandomExchange(childPOP, HashPrelUtil.getHashExpression(this.fields, getInput().getRowType()));
+    LogicalExpression skewExpr = null;
+    if (skew != null) {
+      skewExpr = skew.getExpression(getInput().getRowType().getFieldNames().get(fields.get(0).getFieldId()));
+    }
+    HashToRandomExchange g = new HashToRandomExchange(childPOP, HashPrelUtil.getHashExpression(this.fields, getInput().getRowType()),
+        skewExpr, skew != null && skew.isBroadcast());
     return creator.addMetadata(this, g);
   }
 
@@ -103,13 +120,17 @@ public class HashToRandomExchangePrel extends ExchangePrel {
     return this.fields;
   }
 
+  public SkewedDistribution getSkew() {
+    return this.skew;
+  }
+
   @Override
   public RelWriter explainTerms(RelWriter pw) {
     super.explainTerms(pw);
       for (Ord<DistributionField> ord : Ord.zip(fields)) {
         pw.item("dist" + ord.i, ord.e);
       }
-    return pw;
+    return pw.itemIf("skew", skew, skew != null);
   }
 
   @Override
@@ -151,9 +151,11 @@ public abstract class JoinPruleBase extends Prule {
     DrillJoinRelBase newJoin = null;
 
     if (physicalJoinType == PhysicalJoinType.HASH_JOIN) {
-      newJoin = new HashJoinPrel(join.getCluster(), traitsLeft,
+      final HashJoinPrel hashJoin = new HashJoinPrel(join.getCluster(), traitsLeft,
                                  convertedLeft, convertedRight, join.getCondition(),
                                  join.getJoinType());
+      hashJoin.setSkewedKeyValues(SkewedDistribution.findSkewedKeys(join, PrelUtil.getPlannerSettings(call.getPlanner())));
+      newJoin = hashJoin;
 
     } else if (physicalJoinType == PhysicalJoinType.MERGE_JOIN) {
       newJoin = new MergeJoinPrel(join.getCluster(), traitsLeft,
@@ -252,9 +254,15 @@ public abstract class JoinPruleBase extends Prule {
           RexBuilder builder = join.getCluster().getRexBuilder();
           RexLiteral condition = builder.makeLiteral(true); // TRUE condition for the NLJ
 
+          // range comparisons the NLJ answers by binary search over its sorted right side; the filter still applies them
+          List<RexNode> bandConditions = ImmutableList.of();
+          if (join.getJoinType() == JoinRelType.INNER && PrelUtil.getPlannerSettings(call.getPlanner()).isNlJoinBandEnabled()) {
+            bandConditions = JoinUtils.getBandConditions(joinCondition, left.getRowType().getFieldCount(), builder);
+          }
+
           FilterPrel newFilterRel = new FilterPrel(join.getCluster(), convertedLeft.getTraitSet(),
               new NestedLoopJoinPrel(join.getCluster(), convertedLeft.getTraitSet(), convertedLeft, convertedRight,
-                  condition, join.getJoinType()),
+                  condition, join.getJoinType(), bandConditions),
               joinCondition);
           call.transformTo(newFilterRel);
         }
@@ -18,8 +18,10 @@
 package org.apache.drill.exec.planner.physical;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
+import org.apache.drill.common.expression.FieldReference;
 import org.apache.drill.common.logical.data.JoinCondition;
 import org.apache.drill.exec.physical.base.PhysicalOperator;
 import org.apache.drill.exec.physical.config.NestedLoopJoinPOP;
@@ -31,6 +33,9 @@ import org.apache.calcite.rel.core.Join;
 import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptCost;
@@ -42,21 +47,40 @@ import com.google.common.collect.Lists;
 
 public class NestedLoopJoinPrel  extends JoinPrel {
 
+  // comparisons of one left column with right columns that the filter above this join also applies; the join uses
+  // them to only pair each left row with the matching range of the sorted right side
+  private final List<RexNode> bandConditions;
+
   public NestedLoopJoinPrel(RelOptCluster cluster, RelTraitSet traits, RelNode left, RelNode right, RexNode condition,
                       JoinRelType joinType) throws InvalidRelException {
+    this(cluster, traits, left, right, condition, joinType, Collections.<RexNode>emptyList());
+  }
+
+  public NestedLoopJoinPrel(RelOptCluster cluster, RelTraitSet traits, RelNode left, RelNode right, RexNode condition,
+                      JoinRelType joinType, List<RexNode> bandConditions) throws InvalidRelException {
     super(cluster, traits, left, right, condition, joinType);
     RelOptUtil.splitJoinCondition(left, right, condition, leftKeys, rightKeys, filterNulls);
+    this.bandConditions = bandConditions;
   }
 
   @Override
   public Join copy(RelTraitSet traitSet, RexNode conditionExpr, RelNode left, RelNode right, JoinRelType joinType, boolean semiJoinDone) {
     try {
-      return new NestedLoopJoinPrel(this.getCluster(), traitSet, left, right, conditionExpr, joinType);
+      return new NestedLoopJoinPrel(this.getCluster(), traitSet, left, right, conditionExpr, joinType, bandConditions);
     }catch (InvalidRelException e) {
       throw new AssertionError(e);
     }
   }
 
+  public List<RexNode> getBandConditions() {
+    return bandConditions;
+  }
+
+  @Override
+  public RelWriter explainTerms(RelWriter pw) {
+    return super.explainTerms(pw).itemIf("band", bandConditions, !bandConditions.isEmpty());
+  }
+
   @Override
   public double getRows() {
     return this.getLeft().getRows() * this.getRight().getRows();
@@ -96,6 +120,14 @@ public class NestedLoopJoinPrel  extends JoinPrel {
     List<JoinCondition> conditions = Lists.newArrayList();
 
     buildJoinConditions(conditions, leftFields, rightFields, leftKeys, rightKeys);
+    for (RexNode band : bandConditions) {
+      final List<RexNode> operands = ((RexCall) band).getOperands();
+      final int leftIndex = ((RexInputRef) operands.get(0)).getIndex();
+      final int rightIndex = ((RexInputRef) operands.get(1)).getIndex() - leftFields.size();
+      conditions.add(new JoinCondition(band.getKind().toString(),
+          FieldReference.getWithQuotedRef(leftFields.get(leftIndex)),
+          FieldReference.getWithQuotedRef(rightFields.get(rightIndex))));
+    }
 
     NestedLoopJoinPOP nljoin = new NestedLoopJoinPOP(leftPop, rightPop, conditions, jtype);
     return creator.addMetadata(this, nljoin);
@@ -104,7 +104,27 @@ public class PlannerSettings implements Context{
   public static final String PARQUET_ROWGROUP_FILTER_PUSHDOWN_PLANNING_THRESHOLD_KEY = "planner.store.parquet.rowgroup.filter.pushdown.threshold";
   public static final PositiveLongValidator PARQUET_ROWGROUP_FILTER_PUSHDOWN_PLANNING_THRESHOLD = new PositiveLongValidator(PARQUET_ROWGROUP_FILTER_PUSHDOWN_PLANNING_THRESHOLD_KEY,
       Long.MAX_VALUE, 10000);
-
+  public static final String USE_STATISTICS_KEY = "planner.enable_statistics";
+  public static final BooleanValidator USE_STATISTICS = new BooleanValidator(USE_STATISTICS_KEY, true);
+  public static final String PLAN_CACHE_KEY = "planner.plan_cache.enable";
+  public static final BooleanValidator PLAN_CACHE = new BooleanValidator(PLAN_CACHE_KEY, false);
+  public static final String PLAN_CACHE_MAX_ENTRIES_KEY = "planner.plan_cache.max_entries";
+  public static final PositiveLongValidator PLAN_CACHE_MAX_ENTRIES = new PositiveLongValidator(PLAN_CACHE_MAX_ENTRIES_KEY,
+      100000, 1000);
+  public static final String JOIN_ENUMERATION_KEY = "planner.enable_join_enumeration";
+  public static final BooleanValidator JOIN_ENUMERATION = new BooleanValidator(JOIN_ENUMERATION_KEY, false);
+  public static final String JOIN_ENUMERATION_MAX_RELATIONS_KEY = "planner.join.enumeration_max_relations";
+  public static final RangeLongValidator JOIN_ENUMERATION_MAX_RELATIONS = new RangeLongValidator(JOIN_ENUMERATION_MAX_RELATIONS_KEY,
+      2, 16, 10);
+  public static final String JOIN_SKEW_HANDLING_KEY = "planner.join.enable_skew_handling";
+  public static final BooleanValidator JOIN_SKEW_HANDLING = new BooleanValidator(JOIN_SKEW_HANDLING_KEY, false);
+  public static final String JOIN_SKEW_MIN_KEY_FRACTION_KEY = "planner.join.skew_min_key_fraction";
+  public static final RangeDoubleValidator JOIN_SKEW_MIN_KEY_FRACTION = new RangeDoubleValidator(JOIN_SKEW_MIN_KEY_FRACTION_KEY,
+      0, 1, 0.05d);
+  public static final String NLJOIN_BAND_KEY = "planner.join.enable_nljoin_band";
+  public static final BooleanValidator NLJOIN_BAND = new BooleanValidator(NLJOIN_BAND_KEY, true);
+  public static final String MATERIALIZED_VIEW_REWRITE_KEY = "planner.enable_materialized_view_rewrite";
+  public static final BooleanValidator MATERIALIZED_VIEW_REWRITE = new BooleanValidator(MATERIALIZED_VIEW_REWRITE_KEY, true);
 
   public OptionManager options = null;
   public FunctionImplementationRegistry functionImplementationRegistry = null;
@@ -262,6 +282,38 @@ public class PlannerSettings implements Context{
     return options.getOption(PARQUET_ROWGROUP_FILTER_PUSHDOWN_PLANNING_THRESHOLD);
   }
 
+  public boolean useStatistics() {
+    return options.getOption(USE_STATISTICS);
+  }
+
+  public boolean isPlanCacheEnabled() {
+    return options.getOption(PLAN_CACHE);
+  }
+
+  public boolean isJoinEnumerationEnabled() {
+    return options.getOption(JOIN_ENUMERATION);
+  }
+
+  public long getJoinEnumerationMaxRelations() {
+    return options.getOption(JOIN_ENUMERATION_MAX_RELATIONS);
+  }
+
+  public boolean isJoinSkewHandlingEnabled() {
+    return options.getOption(JOIN_SKEW_HANDLING);
+  }
+
+  public double getJoinSkewMinKeyFraction() {
+    return options.getOption(JOIN_SKEW_MIN_KEY_FRACTION);
+  }
+
+  public boolean isNlJoinBandEnabled() {
+    return options.getOption(NLJOIN_BAND);
+  }
+
+  public boolean isMaterializedViewRewriteEnabled() {
+    return options.getOption(MATERIALIZED_VIEW_REWRITE);
+  }
+
   @Override
   public <T> T unwrap(Class<T> clazz) {
     if(clazz == PlannerSettings.class){
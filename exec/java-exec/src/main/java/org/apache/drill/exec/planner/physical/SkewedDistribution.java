@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.physical;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.drill.common.expression.ExpressionPosition;
+import org.apache.drill.common.expression.FieldReference;
+import org.apache.drill.common.expression.FunctionCallFactory;
+import org.apache.drill.common.expression.LogicalExpression;
+import org.apache.drill.common.expression.ValueExpressions;
+import org.apache.drill.exec.planner.cost.TableStatistics;
+import org.apache.drill.exec.planner.cost.TableStatistics.ColumnStatistics;
+import org.apache.drill.exec.planner.logical.DrillJoinRel;
+import org.apache.drill.exec.planner.logical.DrillScanRel;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Describes the hot keys of a hash exchange feeding a join. The rows of a hot key are not sent to the receiver its
+ * hash points to: the probe side spreads them round-robin over all receivers while the build side sends them to
+ * every receiver, so each receiver joins its share of the probe rows against all matching build rows.
+ */
+public class SkewedDistribution {
+
+  /** The most hot keys handled for a join; each of them costs a comparison per exchanged row. */
+  public static final int MAX_SKEWED_KEYS = 16;
+
+  private final List<Double> values;
+  private final boolean broadcast;
+
+  public SkewedDistribution(List<Double> values, boolean broadcast) {
+    this.values = ImmutableList.copyOf(values);
+    this.broadcast = broadcast;
+  }
+
+  public List<Double> getValues() {
+    return values;
+  }
+
+  /**
+   * @return true if the rows of hot keys are sent to every receiver, false if they are spread round-robin
+   */
+  public boolean isBroadcast() {
+    return broadcast;
+  }
+
+  /**
+   * Builds the condition matching the rows of the hot keys in the given field.
+   */
+  public LogicalExpression getExpression(String field) {
+    final LogicalExpression ref = FieldReference.getWithQuotedRef(field);
+    final List<LogicalExpression> conditions = Lists.newArrayList();
+    for (Double value : values) {
+      conditions.add(FunctionCallFactory.createExpression("equal", ExpressionPosition.UNKNOWN, ref,
+          ValueExpressions.getFloat8(value)));
+    }
+    if (conditions.size() == 1) {
+      return conditions.get(0);
+    }
+    return FunctionCallFactory.createBooleanOperator("or", conditions);
+  }
+
+  @Override
+  public String toString() {
+    return (broadcast ? "broadcast" : "spread") + values;
+  }
+
+  /**
+   * Finds the hot keys of the probe side of a join from the histogram of its key column. Only equi-joins on a single
+   * key whose probe side rows may be split are considered, that is inner and left outer joins.
+   *
+   * @return the hot key values, most frequent first; empty if there are none or they are unknown
+   */
+  public static List<Double> findSkewedKeys(DrillJoinRel join, PlannerSettings settings) {
+    if (!settings.isJoinSkewHandlingEnabled() || join.getLeftKeys().size() != 1
+        || (join.getJoinType() != JoinRelType.INNER && join.getJoinType() != JoinRelType.LEFT)) {
+      return Collections.emptyList();
+    }
+    final int[] columns = {join.getLeftKeys().get(0)};
+    final DrillScanRel scan = TableStatistics.traceToScan(join.getLeft(), columns);
+    final TableStatistics statistics = scan == null ? null : TableStatistics.forScan(scan);
+    if (statistics == null) {
+      return Collections.emptyList();
+    }
+    final ColumnStatistics column = statistics.getColumn(scan.getRowType().getFieldNames().get(columns[0]));
+    if (column == null || !column.hasHistogram()) {
+      return Collections.emptyList();
+    }
+    final List<Double> values = column.getFrequentValues(settings.getJoinSkewMinKeyFraction());
+    return values.size() > MAX_SKEWED_KEYS ? values.subList(0, MAX_SKEWED_KEYS) : values;
+  }
+}
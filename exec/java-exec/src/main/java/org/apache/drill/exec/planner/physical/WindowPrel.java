@@ -20,6 +20,7 @@ package org.apache.drill.exec.planner.physical;
 
 import com.google.common.collect.Lists;
 
+import org.apache.drill.common.exceptions.UserException;
 import org.apache.drill.common.expression.ExpressionPosition;
 import org.apache.drill.common.expression.FieldReference;
 import org.apache.drill.common.expression.FunctionCall;
@@ -42,10 +43,15 @@ import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexWindowBound;
+import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.calcite.util.BitSets;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -54,6 +60,8 @@ import java.util.List;
 import static com.google.common.base.Preconditions.checkState;
 
 public class WindowPrel extends DrillWindowRelBase implements Prel {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WindowPrel.class);
+
   public WindowPrel(RelOptCluster cluster,
                     RelTraitSet traits,
                     RelNode child,
@@ -106,13 +114,41 @@ public class WindowPrel extends DrillWindowRelBase implements Prel {
         aggs,
         orderings,
         window.isRows,
-        WindowPOP.newBound(window.lowerBound),
-        WindowPOP.newBound(window.upperBound));
+        WindowPOP.newBound(window.lowerBound, getBoundOffset(window.lowerBound)),
+        WindowPOP.newBound(window.upperBound, getBoundOffset(window.upperBound)));
 
     creator.addMetadata(this, windowPOP);
     return windowPOP;
   }
 
+  /**
+   * @return distance between the current row and an n PRECEDING or n FOLLOWING bound, in rows or in units of the
+   *         order by key. The offset is either a literal or a reference to one of the constants of the window.
+   */
+  private long getBoundOffset(RexWindowBound bound) {
+    if (bound.isUnbounded() || bound.isCurrentRow()) {
+      return 0;
+    }
+
+    RexNode offset = bound.getOffset();
+    if (offset instanceof RexInputRef) {
+      offset = constants.get(((RexInputRef) offset).getIndex() - getInput().getRowType().getFieldCount());
+    }
+    if (offset instanceof RexLiteral
+        && offset.getType().getSqlTypeName() != SqlTypeName.INTERVAL_YEAR_MONTH
+        && ((RexLiteral) offset).getValue() instanceof BigDecimal) {
+      try {
+        // day-time interval literals hold milliseconds, the unit of date and timestamp values
+        return ((BigDecimal) ((RexLiteral) offset).getValue()).longValueExact();
+      } catch (ArithmeticException e) {
+        // fall through to the error below
+      }
+    }
+    throw UserException.unsupportedError()
+        .message("Window frame offset %s is not supported. Offsets must be integers or day-time intervals.", offset)
+        .build(logger);
+  }
+
   protected LogicalExpression toDrill(AggregateCall call, List<String> fn) {
     DrillParseContext context = new DrillParseContext(PrelUtil.getSettings(getCluster()));
 
@@ -21,11 +21,13 @@ import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 
+import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.physical.base.PhysicalOperator;
 import org.apache.drill.exec.planner.common.DrillWriterRelBase;
 import org.apache.drill.exec.planner.logical.CreateTableEntry;
 import org.apache.drill.exec.planner.physical.visitor.PrelVisitor;
 import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
+import org.apache.drill.exec.server.options.OptionManager;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelTraitSet;
@@ -35,6 +37,17 @@ public class WriterPrel extends DrillWriterRelBase implements Prel {
   public static final String PARTITION_COMPARATOR_FIELD = "P_A_R_T_I_T_I_O_N_C_O_M_P_A_R_A_T_O_R";
   public static final String PARTITION_COMPARATOR_FUNC = "newPartitionValue";
 
+  /**
+   * @return true if the writer groups rows by partition itself: its input is then neither sorted on the partition
+   *         columns nor given the partition comparator column
+   */
+  public static boolean isBufferedPartitioning(CreateTableEntry createTableEntry, OptionManager options) {
+    final List<String> partitionColumns = createTableEntry.getPartitionColumns();
+    return partitionColumns != null && !partitionColumns.isEmpty()
+        && options.getOption(ExecConstants.CTAS_PARTITIONING_BUFFERED_WRITE_VALIDATOR)
+        && createTableEntry.supportsBufferedPartitioning();
+  }
+
   public WriterPrel(RelOptCluster cluster, RelTraitSet traits, RelNode child, CreateTableEntry createTableEntry) {
     super(Prel.DRILL_PHYSICAL, cluster, traits, child, createTableEntry);
     setRowType();
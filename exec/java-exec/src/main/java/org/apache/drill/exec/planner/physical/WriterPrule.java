@@ -35,6 +35,7 @@ import org.apache.calcite.plan.RelOptRuleCall;
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.drill.exec.planner.physical.DrillDistributionTrait.DistributionField;
 import org.apache.drill.exec.planner.physical.DrillDistributionTrait.DistributionType;
+import org.apache.drill.exec.server.options.OptionManager;
 
 import java.util.List;
 
@@ -52,11 +53,16 @@ public class WriterPrule extends Prule{
     final RelNode input = call.rel(1);
 
     final List<Integer> keys = writer.getPartitionKeys();
-    final RelCollation collation = getCollation(keys);
-    final boolean hashDistribute = PrelUtil.getPlannerSettings(call.getPlanner()).getOptions().getOption(ExecConstants.CTAS_PARTITIONING_HASH_DISTRIBUTE_VALIDATOR);
-    final RelTraitSet traits = hashDistribute ?
-        input.getTraitSet().plus(Prel.DRILL_PHYSICAL).plus(collation).plus(getDistribution(keys)) :
-        input.getTraitSet().plus(Prel.DRILL_PHYSICAL).plus(collation);
+    final OptionManager options = PrelUtil.getPlannerSettings(call.getPlanner()).getOptions();
+    final boolean hashDistribute = options.getOption(ExecConstants.CTAS_PARTITIONING_HASH_DISTRIBUTE_VALIDATOR);
+    RelTraitSet traits = input.getTraitSet().plus(Prel.DRILL_PHYSICAL);
+    // a writer that buffers rows per partition does not need its input sorted
+    if (!WriterPrel.isBufferedPartitioning(writer.getCreateTableEntry(), options)) {
+      traits = traits.plus(getCollation(keys));
+    }
+    if (hashDistribute) {
+      traits = traits.plus(getDistribution(keys));
+    }
 
     final RelNode convertedInput = convert(input, traits);
 
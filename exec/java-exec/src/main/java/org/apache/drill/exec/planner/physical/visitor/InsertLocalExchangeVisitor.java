@@ -130,7 +130,7 @@ public class InsertLocalExchangeVisitor extends BasePrelVisitor<Prel, Void, Runt
     }
 
     newPrel = new HashToRandomExchangePrel(prel.getCluster(),
-        prel.getTraitSet(), newPrel, ((HashToRandomExchangePrel) prel).getFields());
+        prel.getTraitSet(), newPrel, hashPrel.getFields(), hashPrel.getSkew());
 
     if (isDeMuxEnabled) {
       HashToRandomExchangePrel hashExchangePrel = (HashToRandomExchangePrel) newPrel;
@@ -19,6 +19,7 @@ package org.apache.drill.exec.planner.physical.visitor;
 
 import java.util.List;
 
+import org.apache.drill.exec.planner.physical.FilterPrel;
 import org.apache.drill.exec.planner.physical.Prel;
 import org.apache.drill.exec.planner.physical.SelectionVectorRemoverPrel;
 import org.apache.drill.exec.record.BatchSchema.SelectionVectorMode;
@@ -53,6 +54,10 @@ public class SelectionVectorPrelVisitor extends BasePrelVisitor<Prel, Void, Runt
         return prel;
       }
     }
+    if (prel instanceof FilterPrel) {
+      // the remover copies the selected records anyway, so the filter need not compact them first
+      prel = ((FilterPrel) prel).withoutCompaction();
+    }
     return new SelectionVectorRemoverPrel(prel);
   }
 
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.physical.visitor;
+
+import java.util.List;
+
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.drill.exec.planner.physical.AggPrelBase;
+import org.apache.drill.exec.planner.physical.AggPrelBase.OperatorPhase;
+import org.apache.drill.exec.planner.physical.BroadcastExchangePrel;
+import org.apache.drill.exec.planner.physical.ComplexToJsonPrel;
+import org.apache.drill.exec.planner.physical.ExchangePrel;
+import org.apache.drill.exec.planner.physical.FilterPrel;
+import org.apache.drill.exec.planner.physical.FlattenPrel;
+import org.apache.drill.exec.planner.physical.HashJoinPrel;
+import org.apache.drill.exec.planner.physical.HashToRandomExchangePrel;
+import org.apache.drill.exec.planner.physical.JoinPrel;
+import org.apache.drill.exec.planner.physical.LimitPrel;
+import org.apache.drill.exec.planner.physical.Prel;
+import org.apache.drill.exec.planner.physical.ProjectPrel;
+import org.apache.drill.exec.planner.physical.ScreenPrel;
+import org.apache.drill.exec.planner.physical.SelectionVectorRemoverPrel;
+import org.apache.drill.exec.planner.physical.SkewedDistribution;
+import org.apache.drill.exec.planner.physical.SortPrel;
+import org.apache.drill.exec.planner.physical.TopNPrel;
+import org.apache.drill.exec.planner.physical.WriterPrel;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Visit Prel tree. Find the HashJoinPrel nodes with hot probe side keys, see {@link SkewedDistribution}, whose
+ * inputs are both hash partitioned on the join key. Their probe side exchange spreads the rows of the hot keys over
+ * all receivers while their build side exchange broadcasts them.
+ *
+ * The output of such a join is no longer partitioned on the join key, so a join is only changed when no operator
+ * above it, up to the next exchange, relies on that partitioning. The value passed down tells whether an ancestor
+ * does.
+ *
+ * @see org.apache.drill.exec.planner.physical.HashToRandomExchangePrel
+ */
+public class SkewedJoinVisitor extends BasePrelVisitor<Prel, Boolean, RuntimeException> {
+
+  private static final SkewedJoinVisitor INSTANCE = new SkewedJoinVisitor();
+
+  public static Prel spreadSkewedKeys(Prel prel) {
+    return prel.accept(INSTANCE, true);
+  }
+
+  private SkewedJoinVisitor() {
+  }
+
+  @Override
+  public Prel visitPrel(Prel prel, Boolean partitioned) throws RuntimeException {
+    // Operators working on each row or each fragment on their own do not care how their input is partitioned.
+    final boolean keepsPartitioning = prel instanceof FilterPrel || prel instanceof SelectionVectorRemoverPrel
+        || prel instanceof LimitPrel || prel instanceof SortPrel || prel instanceof TopNPrel
+        || prel instanceof FlattenPrel || prel instanceof ComplexToJsonPrel
+        || (prel instanceof AggPrelBase && ((AggPrelBase) prel).getOperatorPhase() == OperatorPhase.PHASE_1of2);
+    return visitChildren(prel, keepsPartitioning ? partitioned : true);
+  }
+
+  @Override
+  public Prel visitProject(ProjectPrel prel, Boolean partitioned) throws RuntimeException {
+    return visitChildren(prel, partitioned);
+  }
+
+  @Override
+  public Prel visitScreen(ScreenPrel prel, Boolean partitioned) throws RuntimeException {
+    return visitChildren(prel, false);
+  }
+
+  @Override
+  public Prel visitWriter(WriterPrel prel, Boolean partitioned) throws RuntimeException {
+    return visitChildren(prel, true);
+  }
+
+  @Override
+  public Prel visitExchange(ExchangePrel prel, Boolean partitioned) throws RuntimeException {
+    return visitChildren(prel, false);
+  }
+
+  @Override
+  public Prel visitJoin(JoinPrel prel, Boolean partitioned) throws RuntimeException {
+    // With a broadcast build side the probe side may be partitioned in any way.
+    final boolean broadcastRight = prel.getRight() instanceof BroadcastExchangePrel;
+    final List<RelNode> children = Lists.newArrayList();
+    children.add(((Prel) prel.getLeft()).accept(this, broadcastRight ? partitioned : true));
+    children.add(((Prel) prel.getRight()).accept(this, true));
+    final Prel newJoin = (Prel) prel.copy(prel.getTraitSet(), children);
+
+    if (partitioned || !(newJoin instanceof HashJoinPrel)) {
+      return newJoin;
+    }
+    final HashJoinPrel hashJoin = (HashJoinPrel) newJoin;
+    if (hashJoin.isSwapped() || hashJoin.getSkewedKeyValues().isEmpty()
+        || (hashJoin.getJoinType() != JoinRelType.INNER && hashJoin.getJoinType() != JoinRelType.LEFT)) {
+      return newJoin;
+    }
+    final List<Double> values = hashJoin.getSkewedKeyValues();
+    final Prel left = withSkew((Prel) hashJoin.getLeft(), new SkewedDistribution(values, false));
+    final Prel right = withSkew((Prel) hashJoin.getRight(), new SkewedDistribution(values, true));
+    if (left == null || right == null) {
+      return newJoin;
+    }
+    return (Prel) hashJoin.copy(hashJoin.getTraitSet(), Lists.<RelNode>newArrayList(left, right));
+  }
+
+  private Prel visitChildren(Prel prel, Boolean partitioned) {
+    final List<RelNode> children = Lists.newArrayList();
+    for (Prel child : prel) {
+      children.add(child.accept(this, partitioned));
+    }
+    return (Prel) prel.copy(prel.getTraitSet(), children);
+  }
+
+  /**
+   * Looks through projections for the hash exchange partitioning a join input on the join key and sets its hot keys.
+   *
+   * @return the input with the changed exchange, or null if there is none
+   */
+  private static Prel withSkew(Prel prel, SkewedDistribution skew) {
+    if (prel instanceof ProjectPrel) {
+      final Prel input = withSkew((Prel) ((ProjectPrel) prel).getInput(), skew);
+      return input == null ? null : (Prel) prel.copy(prel.getTraitSet(), Lists.<RelNode>newArrayList(input));
+    }
+    if (prel instanceof HashToRandomExchangePrel && ((HashToRandomExchangePrel) prel).getFields().size() == 1) {
+      final HashToRandomExchangePrel exchange = (HashToRandomExchangePrel) prel;
+      return new HashToRandomExchangePrel(exchange.getCluster(), exchange.getTraitSet(), exchange.getInput(),
+          exchange.getFields(), skew);
+    }
+    return null;
+  }
+}
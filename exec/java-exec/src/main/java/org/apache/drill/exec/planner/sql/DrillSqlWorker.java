@@ -18,6 +18,7 @@
 package org.apache.drill.exec.planner.sql;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.calcite.sql.SqlNode;
 import org.apache.calcite.sql.parser.SqlParseException;
@@ -44,6 +45,8 @@ import org.apache.drill.exec.work.foreman.ForemanSetupException;
 import org.apache.drill.exec.work.foreman.SqlUnsupportedException;
 import org.apache.hadoop.security.AccessControlException;
 
+import com.google.common.base.Stopwatch;
+
 public class DrillSqlWorker {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DrillSqlWorker.class);
   private static final ControlsInjector injector = ControlsInjectorFactory.getInjector(DrillSqlWorker.class);
@@ -58,7 +61,30 @@ public class DrillSqlWorker {
 
   public static PhysicalPlan getPlan(QueryContext context, String sql, Pointer<String> textPlan)
       throws ForemanSetupException {
+    return getPlan(context, sql, textPlan, null);
+  }
+
+  /**
+   * @param resultCacheable if not null, set to whether the result of the plan may be served from the result cache:
+   *                        only plain queries without context dependent or non-deterministic functions qualify
+   */
+  public static PhysicalPlan getPlan(QueryContext context, String sql, Pointer<String> textPlan,
+      Pointer<Boolean> resultCacheable) throws ForemanSetupException {
 
+    final boolean usePlanCache = context.getPlannerSettings().isPlanCacheEnabled();
+    if (usePlanCache) {
+      final PhysicalPlan cachedPlan = context.getPlanCache().get(context, sql, textPlan);
+      if (cachedPlan != null) {
+        logger.debug("Using cached plan for query: {}", sql);
+        // the plan cache holds the same kind of plans only
+        if (resultCacheable != null) {
+          resultCacheable.value = true;
+        }
+        return cachedPlan;
+      }
+    }
+
+    final Stopwatch watch = Stopwatch.createStarted();
     final SqlConverter parser = new SqlConverter(
         context.getPlannerSettings(),
         context.getNewDefaultSchema(),
@@ -94,7 +120,18 @@ public class DrillSqlWorker {
     }
 
     try {
-      return getPhysicalPlan(handler, sqlNode, context);
+      final PhysicalPlan plan = getPhysicalPlan(handler, sqlNode, context);
+      if (resultCacheable != null) {
+        resultCacheable.value = handler.getClass() == DefaultSqlHandler.class && !PlanCache.hasContextFunctions(sqlNode);
+      }
+      // Only plain queries are cached, DDL and other commands are always planned again. Plans reading materialized
+      // views are not cached either, their freshness is only checked while planning.
+      if (usePlanCache && handler.getClass() == DefaultSqlHandler.class
+          && !((DefaultSqlHandler) handler).hasSubstitutedMaterializedViews()) {
+        context.getPlanCache().put(context, sql, sqlNode, parser.hasExpandedViews(), plan,
+            textPlan == null ? null : textPlan.value, watch.elapsed(TimeUnit.MILLISECONDS));
+      }
+      return plan;
     } catch(ValidationException e) {
       String errorMessage = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
       throw UserException.validationError(e)
@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.sql;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.drill.exec.physical.PhysicalPlan;
+import org.apache.drill.exec.physical.base.FileGroupScan;
+import org.apache.drill.exec.physical.base.GroupScan;
+import org.apache.drill.exec.physical.base.PhysicalOperator;
+import org.apache.drill.exec.store.sys.SystemTableScan;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Modification times of the inputs of a physical plan: the files read by its scans and the directories from their
+ * parents up to the scans' selection roots, so that files added anywhere below a selection root are noticed too.
+ * Used to decide whether a cached plan or result still reflects the data it was derived from.
+ */
+public class InputVersions {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(InputVersions.class);
+
+  /** Upper bound on the number of files and directories tracked for a single plan. */
+  static final int MAX_TRACKED_PATHS = 1024;
+
+  private final Map<String, Long> versions;
+
+  @JsonCreator
+  private InputVersions(@JsonProperty("versions") Map<String, Long> versions) {
+    this.versions = versions;
+  }
+
+  /**
+   * @return the versions of the inputs of the given plan, or null if it reads anything but file system and system
+   *         tables, more than {@link #MAX_TRACKED_PATHS} files, or files whose status cannot be determined
+   */
+  public static InputVersions of(PhysicalPlan plan, Configuration fsConf) {
+    final Set<Path> paths = new LinkedHashSet<>();
+    for (PhysicalOperator op : plan.getSortedOperators()) {
+      if (!(op instanceof GroupScan) || op instanceof SystemTableScan) {
+        continue;
+      }
+      final GroupScan scan = (GroupScan) op;
+      if (!scan.hasFiles()) {
+        return null;
+      }
+      final String selectionRoot = scan instanceof FileGroupScan ? ((FileGroupScan) scan).getSelectionRoot() : null;
+      final Path root = selectionRoot == null ? null : Path.getPathWithoutSchemeAndAuthority(new Path(selectionRoot));
+      for (String file : scan.getFiles()) {
+        final Path path = new Path(file);
+        paths.add(path);
+        addDirectories(path, root, paths);
+      }
+      if (paths.size() > MAX_TRACKED_PATHS) {
+        return null;
+      }
+    }
+
+    final Map<String, Long> versions = new LinkedHashMap<>();
+    try {
+      for (Path path : paths) {
+        final FileStatus status = path.getFileSystem(fsConf).getFileStatus(path);
+        versions.put(status.getPath().toString(), status.getModificationTime());
+      }
+    } catch (IOException e) {
+      logger.debug("Unable to determine versions of files read by query.", e);
+      return null;
+    }
+    return new InputVersions(versions);
+  }
+
+  /**
+   * Adds the directories from the parent of the given file up to the selection root. Only the parent is added if
+   * the file is not below the root.
+   */
+  private static void addDirectories(Path file, Path root, Set<Path> paths) {
+    final List<Path> directories = new ArrayList<>();
+    for (Path dir = file.getParent(); dir != null; dir = dir.getParent()) {
+      directories.add(dir);
+      if (root != null && Path.getPathWithoutSchemeAndAuthority(dir).equals(root)) {
+        paths.addAll(directories);
+        return;
+      }
+    }
+    if (file.getParent() != null) {
+      paths.add(file.getParent());
+    }
+  }
+
+  /**
+   * @return whether none of the tracked files and directories has been modified or deleted since
+   */
+  public boolean isCurrent(Configuration fsConf) {
+    try {
+      for (Map.Entry<String, Long> version : versions.entrySet()) {
+        final Path path = new Path(version.getKey());
+        if (path.getFileSystem(fsConf).getFileStatus(path).getModificationTime() != version.getValue()) {
+          return false;
+        }
+      }
+      return true;
+    } catch (IOException e) {
+      // also covers deleted files
+      return false;
+    }
+  }
+
+  @JsonProperty
+  public Map<String, Long> getVersions() {
+    return versions;
+  }
+
+  public int size() {
+    return versions.size();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof InputVersions && versions.equals(((InputVersions) obj).versions);
+  }
+
+  @Override
+  public int hashCode() {
+    return versions.hashCode();
+  }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.sql;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Metadata of a materialized view: where its table is stored, the query it was computed from and, if that query is
+ * an aggregation of a single table, the description the planner uses to answer other aggregations of that table from
+ * the view. See {@link MaterializedViewRewriter}.
+ */
+@JsonInclude(Include.NON_NULL)
+public class MaterializedViewDefinition {
+
+  private final String name;
+  private final List<String> schemaPath;
+  private final String sql;
+  private final String baseTable;
+  private final String filter;
+  private final Map<String, String> groupKeys;
+  private final Map<String, String> measures;
+  private final InputVersions inputVersions;
+  private final long createdTime;
+
+  /**
+   * @param name name of the view's table
+   * @param schemaPath path of the workspace the view's table is stored in
+   * @param sql query the view was computed from
+   * @param baseTable qualified name of the aggregated table, null if the query is not a single table aggregation
+   * @param filter canonical form of the condition rows of the base table were filtered by, null if none
+   * @param groupKeys canonical forms of the grouping expressions mapped to the columns of the view holding them
+   * @param measures canonical forms of the aggregate calls mapped to the columns of the view holding them
+   * @param inputVersions versions of the files the view was computed from, null if they could not be determined
+   * @param createdTime creation time of the view in milliseconds since the epoch
+   */
+  @JsonCreator
+  public MaterializedViewDefinition(
+      @JsonProperty("name") String name,
+      @JsonProperty("schemaPath") List<String> schemaPath,
+      @JsonProperty("sql") String sql,
+      @JsonProperty("baseTable") String baseTable,
+      @JsonProperty("filter") String filter,
+      @JsonProperty("groupKeys") Map<String, String> groupKeys,
+      @JsonProperty("measures") Map<String, String> measures,
+      @JsonProperty("inputVersions") InputVersions inputVersions,
+      @JsonProperty("createdTime") long createdTime) {
+    this.name = name;
+    this.schemaPath = schemaPath;
+    this.sql = sql;
+    this.baseTable = baseTable;
+    this.filter = filter;
+    this.groupKeys = groupKeys;
+    this.measures = measures;
+    this.inputVersions = inputVersions;
+    this.createdTime = createdTime;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public List<String> getSchemaPath() {
+    return schemaPath;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  public String getBaseTable() {
+    return baseTable;
+  }
+
+  public String getFilter() {
+    return filter;
+  }
+
+  public Map<String, String> getGroupKeys() {
+    return groupKeys;
+  }
+
+  public Map<String, String> getMeasures() {
+    return measures;
+  }
+
+  public InputVersions getInputVersions() {
+    return inputVersions;
+  }
+
+  public long getCreatedTime() {
+    return createdTime;
+  }
+
+  /**
+   * @return key of the view in the {@link MaterializedViewRegistry}
+   */
+  @JsonIgnore
+  public String getKey() {
+    return MaterializedViewRegistry.getKey(schemaPath, name);
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.sql;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.drill.common.config.LogicalPlanPersistence;
+import org.apache.drill.common.exceptions.DrillRuntimeException;
+import org.apache.drill.exec.exception.StoreException;
+import org.apache.drill.exec.store.sys.PersistentStore;
+import org.apache.drill.exec.store.sys.PersistentStoreConfig;
+import org.apache.drill.exec.store.sys.PersistentStoreProvider;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Metadata of the materialized views of the cluster, kept in the persistent store so that every drillbit can
+ * substitute them. Views are keyed by the full name of their workspace and their name.
+ */
+public class MaterializedViewRegistry {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MaterializedViewRegistry.class);
+
+  private final PersistentStoreProvider provider;
+  private final PersistentStoreConfig<MaterializedViewDefinition> config;
+  private PersistentStore<MaterializedViewDefinition> store;
+
+  public MaterializedViewRegistry(PersistentStoreProvider provider, LogicalPlanPersistence lpPersistence) {
+    this.provider = provider;
+    this.config = PersistentStoreConfig.newJacksonBuilder(lpPersistence.getMapper(), MaterializedViewDefinition.class)
+        .name("materialized_views")
+        .persist()
+        .build();
+  }
+
+  /**
+   * The store is created on first use since the provider is started after the drillbit context is created.
+   */
+  private synchronized PersistentStore<MaterializedViewDefinition> getStore() {
+    if (store == null) {
+      try {
+        store = provider.getOrCreateStore(config);
+      } catch (StoreException e) {
+        throw new DrillRuntimeException("Failure while loading materialized view registry.", e);
+      }
+    }
+    return store;
+  }
+
+  public static String getKey(List<String> schemaPath, String name) {
+    return SchemaUtilites.SCHEMA_PATH_JOINER.join(schemaPath) + "." + name;
+  }
+
+  /**
+   * @return the view with the given name in the given workspace, null if there is none
+   */
+  public MaterializedViewDefinition get(List<String> schemaPath, String name) {
+    return getStore().get(getKey(schemaPath, name));
+  }
+
+  public void put(MaterializedViewDefinition definition) {
+    getStore().put(definition.getKey(), definition);
+    logger.debug("Registered materialized view {} of table {}", definition.getKey(), definition.getBaseTable());
+  }
+
+  public void delete(List<String> schemaPath, String name) {
+    getStore().delete(getKey(schemaPath, name));
+  }
+
+  /**
+   * @return the views aggregating the table with the given qualified name
+   */
+  public List<MaterializedViewDefinition> getByBaseTable(String baseTable) {
+    final List<MaterializedViewDefinition> definitions = Lists.newArrayList();
+    final Iterator<Map.Entry<String, MaterializedViewDefinition>> entries = getStore().getAll();
+    while (entries.hasNext()) {
+      final MaterializedViewDefinition definition = entries.next().getValue();
+      if (definition != null && baseTable.equalsIgnoreCase(definition.getBaseTable())) {
+        definitions.add(definition);
+      }
+    }
+    return definitions;
+  }
+}
@@ -0,0 +1,440 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.sql;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.logical.LogicalAggregate;
+import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.sql.SqlAggFunction;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.fun.SqlSumEmptyIsZeroAggFunction;
+import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.drill.exec.planner.logical.DrillTable;
+import org.apache.drill.exec.planner.logical.DrillTranslatableTable;
+import org.apache.drill.exec.planner.sql.parser.DrillCalciteWrapperUtility;
+import org.apache.drill.exec.store.dfs.FileSystemPlugin;
+import org.apache.hadoop.conf.Configuration;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Replaces aggregations of a table by scans of fresh materialized views of the same table. A view can answer an
+ * aggregation if it filters the table by the same condition, groups it by at least the keys of the aggregation and
+ * holds all of its aggregate calls. If the view groups by more keys, its rows are rolled up: sums and minima and
+ * maxima are aggregated again and counts are summed.
+ *
+ * <p>Aggregations and views are compared by the canonical forms of their filter, grouping expressions and aggregate
+ * calls, written in terms of the column names of the scanned table. Only SUM, MIN, MAX and COUNT without DISTINCT
+ * are considered. A view is fresh if none of the files it was computed from has changed since.
+ */
+public class MaterializedViewRewriter {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MaterializedViewRewriter.class);
+
+  private static final Joiner ARGUMENT_JOINER = Joiner.on(", ");
+  private static final Joiner TABLE_NAME_JOINER = Joiner.on(".");
+
+  private final MaterializedViewRegistry registry;
+  private final SqlConverter converter;
+  private final Map<String, List<MaterializedViewDefinition>> candidates = Maps.newHashMap();
+  private boolean substituted;
+
+  public MaterializedViewRewriter(MaterializedViewRegistry registry, SqlConverter converter) {
+    this.registry = registry;
+    this.converter = converter;
+  }
+
+  /**
+   * @return whether any aggregation has been replaced by a materialized view
+   */
+  public boolean hasSubstituted() {
+    return substituted;
+  }
+
+  /**
+   * @return the given tree with the aggregations that can be answered by materialized views replaced by scans of
+   *         the views
+   */
+  public RelNode rewrite(RelNode rel) {
+    if (rel instanceof Aggregate) {
+      final RelNode replacement = substitute((Aggregate) rel);
+      if (replacement != null) {
+        substituted = true;
+        return replacement;
+      }
+    }
+
+    boolean changed = false;
+    final List<RelNode> inputs = Lists.newArrayList();
+    for (RelNode input : rel.getInputs()) {
+      final RelNode newInput = rewrite(input);
+      changed |= newInput != input;
+      inputs.add(newInput);
+    }
+    return changed ? rel.copy(rel.getTraitSet(), inputs) : rel;
+  }
+
+  private RelNode substitute(Aggregate aggregate) {
+    final AggregateShape shape = AggregateShape.of(aggregate);
+    if (shape == null || shape.calls.contains(null)) {
+      return null;
+    }
+
+    for (MaterializedViewDefinition view : getCandidates(shape.table)) {
+      if (shape.isAnsweredBy(view) && isUsable(view, shape.fsConf)) {
+        logger.debug("Answering aggregation of {} from materialized view {}", shape.table, view.getKey());
+        return replace(aggregate, shape, view);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the views of the given table, the ones grouping by fewer keys, and so having fewer rows, first
+   */
+  private List<MaterializedViewDefinition> getCandidates(String table) {
+    List<MaterializedViewDefinition> views = candidates.get(table);
+    if (views == null) {
+      views = registry.getByBaseTable(table);
+      Collections.sort(views, new Comparator<MaterializedViewDefinition>() {
+        @Override
+        public int compare(MaterializedViewDefinition view1, MaterializedViewDefinition view2) {
+          return Integer.compare(view1.getGroupKeys().size(), view2.getGroupKeys().size());
+        }
+      });
+      candidates.put(table, views);
+    }
+    return views;
+  }
+
+  /**
+   * @return whether the table of the given view exists and none of the files it was computed from has changed
+   */
+  private boolean isUsable(MaterializedViewDefinition view, Configuration fsConf) {
+    if (view.getInputVersions() == null || fsConf == null || !view.getInputVersions().isCurrent(fsConf)) {
+      logger.debug("Materialized view {} is stale", view.getKey());
+      return false;
+    }
+    final SchemaPlus schema = SchemaUtilites.findSchema(converter.getRootSchema(), view.getSchemaPath());
+    return schema != null && schema.getTable(view.getName()) != null;
+  }
+
+  /**
+   * @return a tree with the same row type as the given aggregation, reading its rows from the given view
+   */
+  private RelNode replace(Aggregate aggregate, AggregateShape shape, MaterializedViewDefinition view) {
+    final List<String> columns = Lists.newArrayList();
+    for (String groupKey : shape.groupKeys) {
+      columns.add(quote(view.getGroupKeys().get(groupKey)));
+    }
+    for (String call : shape.calls) {
+      columns.add(quote(view.getMeasures().get(call)));
+    }
+    final String sql = String.format("SELECT %s FROM %s", ARGUMENT_JOINER.join(columns), quote(view.getName()));
+    RelNode input = converter.expandQuery(sql, view.getSchemaPath());
+
+    if (Sets.newHashSet(shape.groupKeys).size() < view.getGroupKeys().size()) {
+      input = rollup(aggregate, input);
+    }
+
+    final RexBuilder rexBuilder = aggregate.getCluster().getRexBuilder();
+    final List<RexNode> exprs = Lists.newArrayList();
+    for (RelDataTypeField field : aggregate.getRowType().getFieldList()) {
+      final RexNode ref = rexBuilder.makeInputRef(input, field.getIndex());
+      exprs.add(ref.getType().equals(field.getType()) ? ref : rexBuilder.makeAbstractCast(field.getType(), ref));
+    }
+    return RelOptUtil.createProject(input, exprs, aggregate.getRowType().getFieldNames(), false);
+  }
+
+  /**
+   * @return an aggregation of the rows of a view, with the grouping keys of the given aggregation followed by its
+   *         aggregate calls as columns, by those grouping keys
+   */
+  private static RelNode rollup(Aggregate aggregate, RelNode input) {
+    final int groupCount = aggregate.getGroupCount();
+    final List<AggregateCall> calls = Lists.newArrayList();
+    for (int i = 0; i < aggregate.getAggCallList().size(); i++) {
+      final AggregateCall call = aggregate.getAggCallList().get(i);
+      final SqlAggFunction function = call.getAggregation().getName().equals("COUNT") ?
+          new SqlSumEmptyIsZeroAggFunction() :
+          DrillCalciteWrapperUtility.extractSqlOperatorFromWrapper(call.getAggregation());
+      calls.add(new AggregateCall(
+          new DrillCalciteSqlAggFunctionWrapper(function, call.getType()),
+          false,
+          ImmutableList.of(groupCount + i),
+          call.getType(),
+          call.getName()));
+    }
+    return LogicalAggregate.create(input, false, ImmutableBitSet.range(groupCount), null, calls);
+  }
+
+  private static String quote(String identifier) {
+    return "`" + identifier + "`";
+  }
+
+  /**
+   * @return the configuration of the file system plugin of the first table the given tree scans, null if that is not
+   *         a file system table
+   */
+  public static Configuration getFsConf(RelNode rel) {
+    if (rel instanceof TableScan) {
+      final RelOptTable relOptTable = ((TableScan) rel).getTable();
+      DrillTable table = relOptTable.unwrap(DrillTable.class);
+      if (table == null) {
+        final DrillTranslatableTable translatable = relOptTable.unwrap(DrillTranslatableTable.class);
+        table = translatable == null ? null : translatable.getDrillTable();
+      }
+      return table != null && table.getPlugin() instanceof FileSystemPlugin ?
+          ((FileSystemPlugin) table.getPlugin()).getFsConf() : null;
+    }
+    for (RelNode input : rel.getInputs()) {
+      final Configuration fsConf = getFsConf(input);
+      if (fsConf != null) {
+        return fsConf;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Describes the query of a new materialized view.
+   *
+   * @param query converted query of the view
+   * @param columns column names of the view's table
+   * @return the definition of the view, only naming its query if that is not an aggregation of a single table
+   */
+  public static MaterializedViewDefinition define(String name, List<String> schemaPath, String sql, RelNode query,
+      List<String> columns, InputVersions inputVersions) {
+    final long createdTime = System.currentTimeMillis();
+    final MaterializedViewDefinition undescribed = new MaterializedViewDefinition(name, schemaPath, sql, null, null,
+        null, null, inputVersions, createdTime);
+
+    // the aggregation may be below a project only selecting and reordering its fields
+    final List<Integer> fields = Lists.newArrayList();
+    RelNode rel = query;
+    if (rel instanceof Project && ((Project) rel).getInput() instanceof Aggregate) {
+      for (RexNode expr : ((Project) rel).getProjects()) {
+        if (!(expr instanceof RexInputRef)) {
+          return undescribed;
+        }
+        fields.add(((RexInputRef) expr).getIndex());
+      }
+      rel = ((Project) rel).getInput();
+    } else if (rel instanceof Aggregate) {
+      for (int i = 0; i < rel.getRowType().getFieldCount(); i++) {
+        fields.add(i);
+      }
+    } else {
+      return undescribed;
+    }
+
+    final Aggregate aggregate = (Aggregate) rel;
+    final AggregateShape shape = AggregateShape.of(aggregate);
+    if (shape == null || fields.size() != columns.size()) {
+      return undescribed;
+    }
+
+    final Map<String, String> groupKeys = Maps.newHashMap();
+    final Map<String, String> measures = Maps.newHashMap();
+    for (int i = 0; i < fields.size(); i++) {
+      final int field = fields.get(i);
+      if (field < aggregate.getGroupCount()) {
+        if (!groupKeys.containsKey(shape.groupKeys.get(field))) {
+          groupKeys.put(shape.groupKeys.get(field), columns.get(i));
+        }
+      } else {
+        final String call = shape.calls.get(field - aggregate.getGroupCount());
+        if (call != null && !measures.containsKey(call)) {
+          measures.put(call, columns.get(i));
+        }
+      }
+    }
+
+    // rows of a view not showing all of its grouping keys can't be told apart
+    if (!groupKeys.keySet().equals(Sets.newHashSet(shape.groupKeys))) {
+      return undescribed;
+    }
+    return new MaterializedViewDefinition(name, schemaPath, sql, shape.table, shape.filter, groupKeys, measures,
+        inputVersions, createdTime);
+  }
+
+  /**
+   * Canonical form of an aggregation of a single, optionally filtered and projected, table.
+   */
+  private static class AggregateShape {
+    private final String table;
+    // of the plugin of the table, null if it is not a file system table
+    private final Configuration fsConf;
+    private final String filter;
+    private final List<String> groupKeys;
+    // null for calls that can't be answered from views
+    private final List<String> calls;
+
+    private AggregateShape(String table, Configuration fsConf, String filter, List<String> groupKeys,
+        List<String> calls) {
+      this.table = table;
+      this.fsConf = fsConf;
+      this.filter = filter;
+      this.groupKeys = groupKeys;
+      this.calls = calls;
+    }
+
+    /**
+     * @return the shape of the given aggregation, null if it does not aggregate a single table
+     */
+    static AggregateShape of(Aggregate aggregate) {
+      if (aggregate.indicator || aggregate.getGroupSets().size() != 1) {
+        return null;
+      }
+
+      RelNode input = aggregate.getInput();
+      List<RexNode> projects = null;
+      if (input instanceof Project) {
+        projects = ((Project) input).getProjects();
+        input = ((Project) input).getInput();
+      }
+      RexNode condition = null;
+      if (input instanceof Filter) {
+        condition = ((Filter) input).getCondition();
+        input = ((Filter) input).getInput();
+      }
+      if (!(input instanceof TableScan)) {
+        return null;
+      }
+
+      final List<String> fieldNames = input.getRowType().getFieldNames();
+      final String filter = condition == null ? null : render(condition, fieldNames);
+      if (condition != null && filter == null) {
+        return null;
+      }
+
+      final List<String> groupKeys = Lists.newArrayList();
+      for (int key : aggregate.getGroupSet()) {
+        final String groupKey = render(key, projects, fieldNames);
+        if (groupKey == null) {
+          return null;
+        }
+        groupKeys.add(groupKey);
+      }
+
+      final List<String> calls = Lists.newArrayList();
+      for (AggregateCall call : aggregate.getAggCallList()) {
+        calls.add(render(call, projects, fieldNames));
+      }
+
+      final String table = TABLE_NAME_JOINER.join(((TableScan) input).getTable().getQualifiedName()).toLowerCase();
+      return new AggregateShape(table, getFsConf(input), filter, groupKeys, calls);
+    }
+
+    /**
+     * @return whether the given view has the rows to answer the aggregation
+     */
+    boolean isAnsweredBy(MaterializedViewDefinition view) {
+      return view.getGroupKeys() != null
+          && Objects.equal(filter, view.getFilter())
+          && view.getGroupKeys().keySet().containsAll(groupKeys)
+          && view.getMeasures().keySet().containsAll(calls);
+    }
+
+    private static String render(AggregateCall call, List<RexNode> projects, List<String> fieldNames) {
+      final SqlAggFunction function = DrillCalciteWrapperUtility.extractSqlOperatorFromWrapper(call.getAggregation());
+      switch (function.getName()) {
+      case "SUM":
+      case "MIN":
+      case "MAX":
+      case "COUNT":
+        break;
+      default:
+        return null;
+      }
+      if (call.isDistinct()) {
+        return null;
+      }
+
+      final List<String> arguments = Lists.newArrayList();
+      for (int arg : call.getArgList()) {
+        final String argument = render(arg, projects, fieldNames);
+        if (argument == null) {
+          return null;
+        }
+        arguments.add(argument);
+      }
+      return function.getName() + "(" + ARGUMENT_JOINER.join(arguments) + ")";
+    }
+
+    private static String render(int field, List<RexNode> projects, List<String> fieldNames) {
+      return projects == null ? render(fieldNames.get(field)) : render(projects.get(field), fieldNames);
+    }
+
+    private static String render(String fieldName) {
+      return quote(fieldName.toLowerCase());
+    }
+
+    /**
+     * @return the canonical form of the given expression, null if it is not made of columns, literals and calls only
+     */
+    private static String render(RexNode node, List<String> fieldNames) {
+      if (node instanceof RexInputRef) {
+        return render(fieldNames.get(((RexInputRef) node).getIndex()));
+      }
+      if (node instanceof RexLiteral) {
+        return node.toString();
+      }
+      if (!(node instanceof RexCall)) {
+        return null;
+      }
+
+      final RexCall call = (RexCall) node;
+      final List<String> operands = Lists.newArrayList();
+      for (RexNode operand : call.getOperands()) {
+        final String rendered = render(operand, fieldNames);
+        if (rendered == null) {
+          return null;
+        }
+        operands.add(rendered);
+      }
+      final StringBuilder builder = new StringBuilder(call.getOperator().getName().toLowerCase());
+      if (call.getKind() == SqlKind.CAST) {
+        builder.append('<').append(call.getType().getFullTypeString()).append('>');
+      }
+      return builder.append('(').append(ARGUMENT_JOINER.join(operands)).append(')').toString();
+    }
+  }
+}
@@ -0,0 +1,300 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.sql;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlOperator;
+import org.apache.calcite.sql.util.SqlBasicVisitor;
+import org.apache.drill.exec.ops.QueryContext;
+import org.apache.drill.exec.physical.PhysicalPlan;
+import org.apache.drill.exec.planner.PhysicalPlanReader;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.apache.drill.exec.server.options.OptionValue;
+import org.apache.drill.exec.util.Pointer;
+import org.apache.hadoop.conf.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Drillbit wide cache of physical plans, used to skip SQL validation and logical and physical planning of queries
+ * which are submitted over and over again, such as dashboard queries of BI tools. Parallelization still happens per
+ * query in the Foreman.
+ * <p>
+ * Plans are cached as JSON and keyed by the normalized SQL text together with everything else planning depends on:
+ * the query user, the default schema, the values of all options, the number of Drillbits and the version of the
+ * function registry. A cached plan additionally remembers the {@link InputVersions} of its scans and is discarded as
+ * soon as one of its input files or directories changes. Plans of queries which expand views, reference context
+ * dependent functions (such as {@code now()} or {@code user}) or scan anything but file system or system tables are
+ * never cached.
+ * </p>
+ * The cache holds at most {@code planner.plan_cache.max_entries} plans and evicts the least recently used ones.
+ */
+public class PlanCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PlanCache.class);
+
+  /** Functions whose values are folded into the plan at planning time but differ between executions. */
+  private static final Set<String> CONTEXT_FUNCTIONS = ImmutableSet.of(
+      "CURRENT_DATE", "CURRENT_TIME", "CURRENT_TIMESTAMP", "LOCALTIME", "LOCALTIMESTAMP", "NOW",
+      "STATEMENT_TIMESTAMP", "TRANSACTION_TIMESTAMP", "TIMEOFDAY", "UNIX_TIMESTAMP",
+      "USER", "SESSION_USER", "SYSTEM_USER", "CURRENT_USER", "CURRENT_SCHEMA");
+
+  private final PhysicalPlanReader reader;
+  private final ObjectWriter writer;
+  private final Configuration fsConf = new Configuration();
+  private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public PlanCache(PhysicalPlanReader reader, ObjectWriter writer) {
+    this.reader = reader;
+    this.writer = writer;
+  }
+
+  /**
+   * Returns the cached plan of the given query, or null if there is none or it is stale.
+   */
+  public PhysicalPlan get(QueryContext context, String sql, Pointer<String> textPlan) {
+    final String key = getKey(context, sql);
+    final Entry entry;
+    synchronized (entries) {
+      entry = entries.get(key);
+    }
+    if (entry == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    if (!entry.versions.isCurrent(fsConf)) {
+      logger.debug("Discarding stale cached plan for query: {}", sql);
+      synchronized (entries) {
+        if (entries.get(key) == entry) {
+          entries.remove(key);
+        }
+      }
+      misses.incrementAndGet();
+      return null;
+    }
+
+    final PhysicalPlan plan;
+    try {
+      plan = reader.readPhysicalPlan(entry.jsonPlan);
+    } catch (IOException e) {
+      logger.warn("Failure while reading cached plan, planning query again.", e);
+      synchronized (entries) {
+        entries.remove(key);
+      }
+      misses.incrementAndGet();
+      return null;
+    }
+    entry.hits.incrementAndGet();
+    entry.lastHit = System.currentTimeMillis();
+    hits.incrementAndGet();
+    if (textPlan != null) {
+      textPlan.value = entry.textPlan;
+    }
+    return plan;
+  }
+
+  /**
+   * Caches the plan of the given query if it is independent of anything but the key and the tracked files.
+   *
+   * @param sqlNode the parsed query
+   * @param expandedViews whether planning expanded any views, whose definitions are not tracked
+   * @param planningMillis time spent planning the query, shown in sys.plan_cache
+   */
+  public void put(QueryContext context, String sql, SqlNode sqlNode, boolean expandedViews, PhysicalPlan plan,
+      String textPlan, long planningMillis) {
+    if (expandedViews || hasContextFunctions(sqlNode)) {
+      return;
+    }
+    final InputVersions versions = InputVersions.of(plan, fsConf);
+    if (versions == null) {
+      return;
+    }
+
+    final String key = getKey(context, sql);
+    final Entry entry = new Entry(sql, context.getQueryUserName(), context.getSession().getDefaultSchemaName(),
+        plan.unparse(writer), textPlan, versions, planningMillis);
+    final long maxEntries = context.getOptions().getOption(PlannerSettings.PLAN_CACHE_MAX_ENTRIES);
+    synchronized (entries) {
+      entries.put(key, entry);
+      final Iterator<String> iterator = entries.keySet().iterator();
+      while (entries.size() > maxEntries && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+      }
+    }
+  }
+
+  public void invalidateAll() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * @return the cached entries, least recently used first
+   */
+  public List<Entry> getEntries() {
+    synchronized (entries) {
+      return new ArrayList<>(entries.values());
+    }
+  }
+
+  private static String getKey(QueryContext context, String sql) {
+    final List<OptionValue> options = new ArrayList<>();
+    for (OptionValue option : context.getOptions().getOptionList()) {
+      options.add(option);
+    }
+    Collections.sort(options);
+
+    final StringBuilder sb = new StringBuilder(normalize(sql))
+        .append('\u0000').append(context.getQueryUserName())
+        .append('\u0000').append(context.getSession().getDefaultSchemaName())
+        .append('\u0000').append(context.getPlannerSettings().numEndPoints())
+        .append('\u0000').append(context.getDrillOperatorTable().getFunctionRegistryVersion());
+    for (OptionValue option : options) {
+      sb.append('\u0000').append(option.name).append('=').append(option.getValue());
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Collapses whitespace runs outside of literals and quoted identifiers into single blanks and strips a trailing
+   * semicolon, so that reformatted copies of a query share a cache entry. Comments are dropped first: once line breaks
+   * are gone, a {@code --} comment would otherwise swallow the text of the lines following it.
+   */
+  static String normalize(String sql) {
+    final StringBuilder sb = new StringBuilder(sql.length());
+    char quote = 0;
+    boolean pendingBlank = false;
+    for (int i = 0; i < sql.length(); i++) {
+      final char c = sql.charAt(i);
+      if (quote != 0) {
+        sb.append(c);
+        if (c == quote) {
+          quote = 0;
+        }
+        continue;
+      }
+      if (Character.isWhitespace(c)) {
+        pendingBlank = true;
+        continue;
+      }
+      if (c == '-' && sql.startsWith("--", i)) {
+        final int end = sql.indexOf('\n', i);
+        i = end < 0 ? sql.length() : end;
+        pendingBlank = true;
+        continue;
+      }
+      if (c == '/' && sql.startsWith("/*", i)) {
+        final int end = sql.indexOf("*/", i + 2);
+        i = end < 0 ? sql.length() : end + 1;
+        pendingBlank = true;
+        continue;
+      }
+      if (pendingBlank && sb.length() > 0) {
+        sb.append(' ');
+      }
+      pendingBlank = false;
+      if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      }
+      sb.append(c);
+    }
+    if (quote == 0 && sb.length() > 0 && sb.charAt(sb.length() - 1) == ';') {
+      sb.setLength(sb.length() - 1);
+      if (sb.length() > 0 && sb.charAt(sb.length() - 1) == ' ') {
+        sb.setLength(sb.length() - 1);
+      }
+    }
+    return sb.toString();
+  }
+
+  static boolean hasContextFunctions(SqlNode sqlNode) {
+    final boolean[] found = {false};
+    sqlNode.accept(new SqlBasicVisitor<Void>() {
+      @Override
+      public Void visit(SqlCall call) {
+        final SqlOperator operator = call.getOperator();
+        if (!operator.isDeterministic() || operator.isDynamicFunction()
+            || CONTEXT_FUNCTIONS.contains(operator.getName().toUpperCase())) {
+          found[0] = true;
+          return null;
+        }
+        return super.visit(call);
+      }
+    });
+    return found[0];
+  }
+
+  public static class Entry {
+    public final String sql;
+    public final String user;
+    public final String defaultSchema;
+    public final long created = System.currentTimeMillis();
+    public final long planningMillis;
+    private final String jsonPlan;
+    private final String textPlan;
+    private final InputVersions versions;
+    private final AtomicLong hits = new AtomicLong();
+    private volatile long lastHit;
+
+    private Entry(String sql, String user, String defaultSchema, String jsonPlan, String textPlan,
+        InputVersions versions, long planningMillis) {
+      this.sql = sql;
+      this.user = user;
+      this.defaultSchema = defaultSchema;
+      this.jsonPlan = jsonPlan;
+      this.textPlan = textPlan;
+      this.versions = versions;
+      this.planningMillis = planningMillis;
+    }
+
+    public long getHits() {
+      return hits.get();
+    }
+
+    public long getLastHit() {
+      return lastHit;
+    }
+
+    public int getTrackedPathCount() {
+      return versions.size();
+    }
+  }
+}
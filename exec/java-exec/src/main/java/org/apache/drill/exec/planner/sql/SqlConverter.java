@@ -99,6 +99,7 @@ public class SqlConverter {
 
   private String sql;
   private VolcanoPlanner planner;
+  private boolean expandedViews;
 
 
   public SqlConverter(PlannerSettings settings, SchemaPlus defaultSchema,
@@ -143,6 +144,13 @@ public class SqlConverter {
   }
 
 
+  /**
+   * @return whether any view has been expanded while converting queries with this converter
+   */
+  public boolean hasExpandedViews() {
+    return expandedViews;
+  }
+
   public SqlNode parse(String sql) {
     try {
       SqlParser parser = SqlParser.create(sql, parserConfig);
@@ -267,6 +275,14 @@ public class SqlConverter {
 
   }
 
+  /**
+   * Converts the given query the way the definitions of views are expanded, resolving its identifiers against the
+   * given schema path. The result shares the planner of this converter, so it can be placed in trees converted by it.
+   */
+  public RelNode expandQuery(String queryString, List<String> schemaPath) {
+    return new Expander().expandView(null, queryString, rootSchema, schemaPath);
+  }
+
   private class Expander implements RelOptTable.ViewExpander {
 
     public Expander() {
@@ -314,6 +330,7 @@ public class SqlConverter {
     }
 
     private RelNode expandView(String queryString, SqlConverter converter) {
+      expandedViews = true;
       final SqlNode parsedNode = converter.parse(queryString);
       final SqlNode validatedNode = converter.validate(parsedNode);
       return converter.toRel(validatedNode);
@@ -0,0 +1,212 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.sql.handlers;
+
+import static org.apache.drill.exec.planner.sql.SchemaUtilites.findSchema;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.schema.SchemaPlus;
+import org.apache.calcite.schema.Table;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.tools.RelConversionException;
+import org.apache.calcite.tools.ValidationException;
+import org.apache.drill.exec.ops.QueryCompletionListener;
+import org.apache.drill.exec.physical.PhysicalPlan;
+import org.apache.drill.exec.physical.base.PhysicalOperator;
+import org.apache.drill.exec.planner.cost.TableStatistics;
+import org.apache.drill.exec.planner.logical.DrillRel;
+import org.apache.drill.exec.planner.logical.DrillScreenRel;
+import org.apache.drill.exec.planner.logical.DrillTable;
+import org.apache.drill.exec.planner.logical.DrillWriterRel;
+import org.apache.drill.exec.planner.logical.FileSystemCreateTableEntry;
+import org.apache.drill.exec.planner.physical.Prel;
+import org.apache.drill.exec.planner.sql.DirectPlan;
+import org.apache.drill.exec.planner.sql.SchemaUtilites;
+import org.apache.drill.exec.planner.sql.parser.SqlAnalyzeTable;
+import org.apache.drill.exec.proto.helper.QueryIdHelper;
+import org.apache.drill.exec.store.dfs.DrillFileSystem;
+import org.apache.drill.exec.store.dfs.FileSystemConfig;
+import org.apache.drill.exec.store.dfs.FileSystemPlugin;
+import org.apache.drill.exec.store.dfs.FormatPlugin;
+import org.apache.drill.exec.store.dfs.FormatSelection;
+import org.apache.drill.exec.work.foreman.ForemanSetupException;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Handles ANALYZE TABLE ... COMPUTE STATISTICS. The statement is rewritten into a distributed aggregate query over
+ * the table whose single result row is written, as JSON, into a new directory that replaces the table's statistics
+ * directory (see {@link TableStatistics}) once the query completes. Without a column list only the row count is
+ * collected.
+ */
+public class AnalyzeTableHandler extends DefaultSqlHandler {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(AnalyzeTableHandler.class);
+
+  private static final String STATISTICS_FORMAT = "json";
+
+  /** Types for which an equi-depth histogram is collected, as reported by typeOf(). */
+  private static final String HISTOGRAM_TYPES =
+      "'TINYINT', 'SMALLINT', 'INT', 'BIGINT', 'UINT1', 'UINT2', 'UINT4', 'UINT8', 'FLOAT4', 'FLOAT8'";
+
+  public AnalyzeTableHandler(SqlHandlerConfig config) {
+    super(config);
+  }
+
+  private PhysicalPlan direct(boolean outcome, String message, Object... values) {
+    return DirectPlan.createDirectPlan(context, outcome, String.format(message, values));
+  }
+
+  private PhysicalPlan notSupported(String tbl) {
+    return direct(false, "Table %s does not support statistics. Support is currently limited to directory-based " +
+        "file system tables.", tbl);
+  }
+
+  @Override
+  public PhysicalPlan getPlan(SqlNode sqlNode) throws ValidationException, RelConversionException, IOException, ForemanSetupException {
+    final SqlAnalyzeTable analyzeTable = unwrap(sqlNode, SqlAnalyzeTable.class);
+
+    final SchemaPlus schema = findSchema(config.getConverter().getDefaultSchema(), analyzeTable.getSchemaPath());
+    if (schema == null) {
+      return direct(false, "Storage plugin or workspace does not exist [%s]",
+          SchemaUtilites.SCHEMA_PATH_JOINER.join(analyzeTable.getSchemaPath()));
+    }
+
+    final String tableName = analyzeTable.getName();
+    final Table table = schema.getTable(tableName);
+    if (table == null) {
+      return direct(false, "Table %s does not exist.", tableName);
+    }
+    if (!(table instanceof DrillTable)) {
+      return notSupported(tableName);
+    }
+    final DrillTable drillTable = (DrillTable) table;
+    if (!(drillTable.getSelection() instanceof FormatSelection) || !(drillTable.getPlugin() instanceof FileSystemPlugin)) {
+      return notSupported(tableName);
+    }
+
+    final FormatSelection formatSelection = (FormatSelection) drillTable.getSelection();
+    final FileSystemPlugin plugin = (FileSystemPlugin) drillTable.getPlugin();
+    final DrillFileSystem fs = new DrillFileSystem(plugin.getFormatPlugin(formatSelection.getFormat()).getFsConf());
+    final Path tableRoot = new Path(formatSelection.getSelection().selectionRoot);
+    if (!fs.getFileStatus(tableRoot).isDirectory()) {
+      return notSupported(tableName);
+    }
+
+    final FormatPlugin statisticsFormat = plugin.getFormatPlugin(STATISTICS_FORMAT);
+    if (statisticsFormat == null) {
+      return direct(false, "Storage plugin of table %s has no %s format to store statistics.", tableName, STATISTICS_FORMAT);
+    }
+
+    // The statistics are written next to those of an earlier run, which they only replace once the query completes.
+    final Path statisticsDirectory = new Path(tableRoot, TableStatistics.STATISTICS_DIRECTORY);
+    final Path writtenDirectory = new Path(tableRoot,
+        TableStatistics.STATISTICS_DIRECTORY + "_" + QueryIdHelper.getQueryId(context.getQueryId()));
+    context.addCompletionListener(new StatisticsPublisher(fs, writtenDirectory, statisticsDirectory));
+
+    final String query = getStatisticsQuery(SchemaUtilites.getSchemaPathAsList(schema), tableName,
+        analyzeTable.getFieldNames());
+    logger.debug("Statistics query for table {}: {}", tableName, query);
+
+    final ConvertedRelNode convertedRelNode = validateAndConvert(config.getConverter().parse(query));
+    final DrillRel drel = convertToDrel(convertedRelNode.getConvertedNode());
+    final DrillRel topProject = addRenamedProject(drel, convertedRelNode.getValidatedRowType());
+
+    final RelTraitSet traits = drel.getCluster().traitSet().plus(DrillRel.DRILL_LOGICAL);
+    final DrillWriterRel writerRel = new DrillWriterRel(drel.getCluster(), traits, topProject,
+        new FileSystemCreateTableEntry((FileSystemConfig) plugin.getConfig(), statisticsFormat,
+            writtenDirectory.toString(), ImmutableList.<String>of()));
+    final DrillRel screenRel = new DrillScreenRel(writerRel.getCluster(), writerRel.getTraitSet(), writerRel);
+
+    final Prel prel = convertToPrel(screenRel);
+    logAndSetTextPlan("Drill Physical", prel, logger);
+    final PhysicalOperator pop = convertToPop(prel);
+    final PhysicalPlan plan = convertToPlan(pop);
+    log("Drill Plan", plan, logger);
+    return plan;
+  }
+
+  /**
+   * Builds the single row aggregate query computing the statistics of the given columns. Nulls are excluded from
+   * the distinct value sketch; histograms are only fed with values of numeric types.
+   */
+  static String getStatisticsQuery(List<String> schemaPath, String tableName, List<String> columns) {
+    final StringBuilder sb = new StringBuilder("SELECT COUNT(*) AS `").append(TableStatistics.ROW_COUNT).append('`');
+    for (String column : columns) {
+      final String ref = quote(column);
+      sb.append(", COUNT(").append(ref).append(") AS ").append(quote(TableStatistics.NON_NULL_PREFIX + column))
+          .append(", statistics_ndv(CASE WHEN ").append(ref).append(" IS NULL THEN NULL ELSE hash64(").append(ref)
+          .append(") END) AS ").append(quote(TableStatistics.NDV_PREFIX + column))
+          .append(", statistics_histogram(CASE WHEN typeOf(").append(ref).append(") IN (").append(HISTOGRAM_TYPES)
+          .append(") THEN CAST(CAST(").append(ref).append(" AS VARCHAR) AS DOUBLE) END) AS ")
+          .append(quote(TableStatistics.HISTOGRAM_PREFIX + column));
+    }
+    sb.append(" FROM ");
+    for (String part : schemaPath) {
+      sb.append(quote(part)).append('.');
+    }
+    return sb.append(quote(tableName)).toString();
+  }
+
+  private static String quote(String identifier) {
+    return '`' + identifier + '`';
+  }
+
+  /**
+   * Moves the statistics written by a completed ANALYZE over those of the table, or deletes them if the query did not
+   * complete.
+   */
+  private static class StatisticsPublisher implements QueryCompletionListener {
+    private final DrillFileSystem fs;
+    private final Path written;
+    private final Path target;
+
+    StatisticsPublisher(DrillFileSystem fs, Path written, Path target) {
+      this.fs = fs;
+      this.written = written;
+      this.target = target;
+    }
+
+    @Override
+    public void completed() throws IOException {
+      if (!fs.exists(written)) {
+        return;
+      }
+      if (fs.exists(target)) {
+        fs.delete(target, true);
+      }
+      if (!fs.rename(written, target)) {
+        throw new IOException(String.format("Failure while moving statistics from %s to %s", written, target));
+      }
+    }
+
+    @Override
+    public void failed() {
+      try {
+        if (fs.exists(written)) {
+          fs.delete(written, true);
+        }
+      } catch (IOException e) {
+        logger.warn("Failure while deleting statistics of a failed ANALYZE in {}", written, e);
+      }
+    }
+  }
+}
@@ -200,6 +200,15 @@ public class CreateTableHandler extends DefaultSqlHandler {
           partitionColumnExprs.add(RexInputRef.of(field.getIndex(), childRowType));
         }
 
+        // The writer groups rows by partition itself and does not look for partition boundaries.
+        if (WriterPrel.isBufferedPartitioning(prel.getCreateTableEntry(), context.getOptions())) {
+          final ProjectPrel projectUnderWriter = new ProjectAllowDupPrel(cluster,
+              cluster.getPlanner().emptyTraitSet().plus(Prel.DRILL_PHYSICAL), child, exprs, queryRowType);
+
+          return (Prel) prel.copy(projectUnderWriter.getTraitSet(),
+              Collections.singletonList( (RelNode) projectUnderWriter));
+        }
+
         // Add partition column comparator to Project's field name list.
         fieldnames.add(WriterPrel.PARTITION_COMPARATOR_FIELD);
 
@@ -87,9 +87,11 @@ import org.apache.drill.exec.planner.physical.visitor.MemoryEstimationVisitor;
 import org.apache.drill.exec.planner.physical.visitor.RelUniqifier;
 import org.apache.drill.exec.planner.physical.visitor.RewriteProjectToFlatten;
 import org.apache.drill.exec.planner.physical.visitor.SelectionVectorPrelVisitor;
+import org.apache.drill.exec.planner.physical.visitor.SkewedJoinVisitor;
 import org.apache.drill.exec.planner.physical.visitor.SplitUpComplexExpressions;
 import org.apache.drill.exec.planner.physical.visitor.StarColumnConverter;
 import org.apache.drill.exec.planner.physical.visitor.SwapHashJoinVisitor;
+import org.apache.drill.exec.planner.sql.MaterializedViewRewriter;
 import org.apache.drill.exec.planner.sql.parser.UnsupportedOperatorsVisitor;
 import org.apache.drill.exec.server.options.OptionManager;
 import org.apache.drill.exec.server.options.OptionValue;
@@ -112,6 +114,7 @@ public class DefaultSqlHandler extends AbstractSqlHandler {
   private final long targetSliceSize;
   protected final SqlHandlerConfig config;
   protected final QueryContext context;
+  private boolean substitutedMaterializedViews;
 
   public DefaultSqlHandler(SqlHandlerConfig config) {
     this(config, null);
@@ -194,10 +197,40 @@ public class DefaultSqlHandler extends AbstractSqlHandler {
 
     RelNode rel = convertToRel(validated);
     rel = preprocessNode(rel);
+    rel = substituteMaterializedViews(rel);
 
     return new ConvertedRelNode(rel, validatedTypedSqlNode.getType());
   }
 
+  /**
+   * Replaces aggregations that can be answered by fresh materialized views with scans of the views.
+   *
+   * @param rel converted and preprocessed query
+   * @return the query reading from materialized views where possible
+   */
+  protected RelNode substituteMaterializedViews(RelNode rel) {
+    if (!context.getPlannerSettings().isMaterializedViewRewriteEnabled()
+        || context.getMaterializedViewRegistry() == null) {
+      return rel;
+    }
+
+    final MaterializedViewRewriter rewriter =
+        new MaterializedViewRewriter(context.getMaterializedViewRegistry(), config.getConverter());
+    final RelNode rewritten = rewriter.rewrite(rel);
+    if (rewriter.hasSubstituted()) {
+      substitutedMaterializedViews = true;
+      log("Materialized view substitution", rewritten, logger, null);
+    }
+    return rewritten;
+  }
+
+  /**
+   * @return whether the plan reads from materialized views instead of the tables they were computed from
+   */
+  public boolean hasSubstitutedMaterializedViews() {
+    return substitutedMaterializedViews;
+  }
+
   /**
    *  Given a relNode tree for SELECT statement, convert to Drill Logical RelNode tree.
    * @param relNode
@@ -486,6 +519,15 @@ public class DefaultSqlHandler extends AbstractSqlHandler {
           .getHashJoinSwapMarginFactor()));
     }
 
+    /*
+     * 1.2) Spread the hot keys of hash partitioned joins over all receivers. The demux exchange has its own senders
+     * that know nothing about hot keys.
+     */
+    if (context.getPlannerSettings().isJoinSkewHandlingEnabled()
+        && !context.getPlannerSettings().getOptions().getOption(PlannerSettings.DEMUX_EXCHANGE.getOptionName()).bool_val) {
+      phyRelNode = SkewedJoinVisitor.spreadSkewedKeys(phyRelNode);
+    }
+
     /* Parquet row group filter pushdown in planning time */
 
     if (context.getPlannerSettings().isParquetRowGroupFilterPushdownPlanningEnabled()) {
@@ -493,14 +535,14 @@ public class DefaultSqlHandler extends AbstractSqlHandler {
     }
 
     /*
-     * 1.2) Break up all expressions with complex outputs into their own project operations
+     * 1.3) Break up all expressions with complex outputs into their own project operations
      */
     phyRelNode = phyRelNode.accept(
         new SplitUpComplexExpressions(config.getConverter().getTypeFactory(), context.getDrillOperatorTable(), context
             .getPlannerSettings().functionImplementationRegistry), null);
 
     /*
-     * 1.3) Projections that contain reference to flatten are rewritten as Flatten operators followed by Project
+     * 1.4) Projections that contain reference to flatten are rewritten as Flatten operators followed by Project
      */
     phyRelNode = phyRelNode.accept(
         new RewriteProjectToFlatten(config.getConverter().getTypeFactory(), context.getDrillOperatorTable()), null);
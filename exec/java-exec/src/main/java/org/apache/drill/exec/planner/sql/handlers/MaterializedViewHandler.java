@@ -0,0 +1,153 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.sql.handlers;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.tools.RelConversionException;
+import org.apache.calcite.tools.ValidationException;
+import org.apache.drill.common.exceptions.UserException;
+import org.apache.drill.exec.ops.QueryCompletionListener;
+import org.apache.drill.exec.physical.PhysicalPlan;
+import org.apache.drill.exec.planner.sql.DirectPlan;
+import org.apache.drill.exec.planner.sql.InputVersions;
+import org.apache.drill.exec.planner.sql.MaterializedViewDefinition;
+import org.apache.drill.exec.planner.sql.MaterializedViewRegistry;
+import org.apache.drill.exec.planner.sql.MaterializedViewRewriter;
+import org.apache.drill.exec.planner.sql.SchemaUtilites;
+import org.apache.drill.exec.planner.sql.parser.SqlCreateMaterializedView;
+import org.apache.drill.exec.planner.sql.parser.SqlDropMaterializedView;
+import org.apache.drill.exec.store.AbstractSchema;
+import org.apache.drill.exec.util.Pointer;
+import org.apache.drill.exec.work.foreman.ForemanSetupException;
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * Handlers of the materialized view DDL commands. A materialized view is a table written by CTAS in a workspace,
+ * plus its definition in the {@link MaterializedViewRegistry} the planner substitutes views from. The definition is
+ * only registered once the query writing the table completes.
+ */
+public final class MaterializedViewHandler {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MaterializedViewHandler.class);
+
+  private MaterializedViewHandler() {
+  }
+
+  /** Handler for Create Materialized View DDL command. */
+  public static class CreateMaterializedView extends CreateTableHandler {
+    private ConvertedRelNode convertedQuery;
+
+    public CreateMaterializedView(SqlHandlerConfig config, Pointer<String> textPlan) {
+      super(config, textPlan);
+    }
+
+    @Override
+    public PhysicalPlan getPlan(SqlNode sqlNode) throws ValidationException, RelConversionException, IOException, ForemanSetupException {
+      final SqlCreateMaterializedView createView = unwrap(sqlNode, SqlCreateMaterializedView.class);
+      final String viewName = createView.getName();
+      if (viewName.contains("/") || viewName.contains(":") || viewName.contains("..")) {
+        throw UserException.validationError()
+            .message("Invalid materialized view name [%s], names can't contain '/', ':' or '..'", viewName)
+            .build(logger);
+      }
+
+      // Store the view's SQL as the query is modified while it is validated.
+      final String viewSql = createView.getQuery().toString();
+      final AbstractSchema drillSchema =
+          SchemaUtilites.resolveToMutableDrillSchema(config.getConverter().getDefaultSchema(),
+              createView.getSchemaPath());
+
+      // writes the table, failing if there is one with the same name already
+      final PhysicalPlan plan = super.getPlan(sqlNode);
+
+      final List<String> fieldNames = createView.getFieldNames();
+      final List<String> columns = fieldNames.isEmpty() ?
+          convertedQuery.getValidatedRowType().getFieldNames() : fieldNames;
+      // The view is fresh as long as the files are as they were when the query writing its table was planned, but
+      // it is only registered once that query has completed.
+      final Configuration fsConf = MaterializedViewRewriter.getFsConf(convertedQuery.getConvertedNode());
+      final MaterializedViewDefinition view = MaterializedViewRewriter.define(viewName, drillSchema.getSchemaPath(),
+          viewSql, convertedQuery.getConvertedNode(), columns, fsConf == null ? null : InputVersions.of(plan, fsConf));
+      final MaterializedViewRegistry registry = context.getMaterializedViewRegistry();
+      context.addCompletionListener(new QueryCompletionListener() {
+        @Override
+        public void completed() {
+          registry.put(view);
+        }
+
+        @Override
+        public void failed() {
+        }
+      });
+      return plan;
+    }
+
+    @Override
+    protected ConvertedRelNode validateAndConvert(SqlNode sqlNode)
+        throws ForemanSetupException, RelConversionException, ValidationException {
+      convertedQuery = super.validateAndConvert(sqlNode);
+      return convertedQuery;
+    }
+
+    @Override
+    protected RelNode substituteMaterializedViews(RelNode rel) {
+      // The view has to be computed from the tables it is substituted for, its freshness is tracked against them.
+      return rel;
+    }
+  }
+
+  /** Handler for Drop Materialized View [If Exists] DDL command. */
+  public static class DropMaterializedView extends DefaultSqlHandler {
+
+    public DropMaterializedView(SqlHandlerConfig config) {
+      super(config);
+    }
+
+    @Override
+    public PhysicalPlan getPlan(SqlNode sqlNode) throws ValidationException, RelConversionException, IOException, ForemanSetupException {
+      final SqlDropMaterializedView dropView = unwrap(sqlNode, SqlDropMaterializedView.class);
+      final String viewName = dropView.getName();
+      final AbstractSchema drillSchema =
+          SchemaUtilites.resolveToMutableDrillSchema(config.getConverter().getDefaultSchema(),
+              dropView.getSchemaPath());
+      final String schemaPath = drillSchema.getFullSchemaName();
+      final MaterializedViewRegistry registry = context.getMaterializedViewRegistry();
+
+      if (registry.get(drillSchema.getSchemaPath(), viewName) == null) {
+        if (dropView.checkViewExistence()) {
+          return DirectPlan.createDirectPlan(context, true,
+              String.format("Materialized view [%s] not found in schema [%s].", viewName, schemaPath));
+        }
+        throw UserException.validationError()
+            .message("Unknown materialized view [%s] in schema [%s].", viewName, schemaPath)
+            .build(logger);
+      }
+
+      if (SqlHandlerUtil.getTableFromSchema(drillSchema, viewName) != null) {
+        drillSchema.dropTable(viewName);
+      }
+      registry.delete(drillSchema.getSchemaPath(), viewName);
+
+      return DirectPlan.createDirectPlan(context, true,
+          String.format("Materialized view [%s] deleted successfully from schema [%s].", viewName, schemaPath));
+    }
+  }
+}
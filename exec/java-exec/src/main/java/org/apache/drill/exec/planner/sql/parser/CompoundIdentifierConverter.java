@@ -172,10 +172,13 @@ public class CompoundIdentifierConverter extends SqlShuttle {
     rules.put(SqlOrderBy.class, R(D, E, D, D));
     rules.put(SqlDropTable.class, R(D, D));
     rules.put(SqlRefreshMetadata.class, R(D));
+    rules.put(SqlAnalyzeTable.class, R(D, D));
     rules.put(SqlSetOption.class, R(D, D, D));
     rules.put(SqlDescribeSchema.class, R(D));
     rules.put(SqlCreateFunction.class, R(D));
     rules.put(SqlDropFunction.class, R(D));
+    rules.put(SqlCreateMaterializedView.class, R(D, D, D, E));
+    rules.put(SqlDropMaterializedView.class, R(D, D));
     REWRITE_RULES = ImmutableMap.copyOf(rules);
   }
 
@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.sql.parser;
+
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlLiteral;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlOperator;
+import org.apache.calcite.sql.SqlSpecialOperator;
+import org.apache.calcite.sql.SqlWriter;
+import org.apache.calcite.sql.parser.SqlParserPos;
+import org.apache.drill.exec.planner.sql.handlers.AbstractSqlHandler;
+import org.apache.drill.exec.planner.sql.handlers.MaterializedViewHandler;
+import org.apache.drill.exec.planner.sql.handlers.SqlHandlerConfig;
+import org.apache.drill.exec.planner.sql.handlers.SqlHandlerUtil;
+import org.apache.drill.exec.util.Pointer;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * CREATE MATERIALIZED VIEW statement. The view is stored as a table, written the same way as by CTAS, so it is
+ * parsed and planned as an unpartitioned {@link SqlCreateTable}.
+ */
+public class SqlCreateMaterializedView extends SqlCreateTable {
+  public static final SqlSpecialOperator OPERATOR = new SqlSpecialOperator("CREATE_MATERIALIZED_VIEW", SqlKind.OTHER) {
+    @Override
+    public SqlCall createCall(SqlLiteral functionQualifier, SqlParserPos pos, SqlNode... operands) {
+      Preconditions.checkArgument(operands.length == 4, "SqlCreateMaterializedView.createCall() has to get 4 operands!");
+      return new SqlCreateMaterializedView(pos, (SqlIdentifier) operands[0], (SqlNodeList) operands[1], operands[3]);
+    }
+  };
+
+  public SqlCreateMaterializedView(SqlParserPos pos, SqlIdentifier viewName, SqlNodeList fieldList, SqlNode query) {
+    super(pos, viewName, fieldList, SqlNodeList.EMPTY, query);
+  }
+
+  @Override
+  public SqlOperator getOperator() {
+    return OPERATOR;
+  }
+
+  @Override
+  public void unparse(SqlWriter writer, int leftPrec, int rightPrec) {
+    final SqlIdentifier viewName = (SqlIdentifier) getOperandList().get(0);
+    final SqlNodeList fieldList = (SqlNodeList) getOperandList().get(1);
+    writer.keyword("CREATE");
+    writer.keyword("MATERIALIZED");
+    writer.keyword("VIEW");
+    viewName.unparse(writer, leftPrec, rightPrec);
+    if (fieldList.size() > 0) {
+      SqlHandlerUtil.unparseSqlNodeList(writer, leftPrec, rightPrec, fieldList);
+    }
+    writer.keyword("AS");
+    getQuery().unparse(writer, leftPrec, rightPrec);
+  }
+
+  @Override
+  public AbstractSqlHandler getSqlHandler(SqlHandlerConfig config, Pointer<String> textPlan) {
+    assert textPlan != null : "Create materialized view statement should have a plan";
+    return new MaterializedViewHandler.CreateMaterializedView(config, textPlan);
+  }
+}
@@ -221,6 +221,14 @@ public class UnsupportedOperatorsVisitor extends SqlShuttle {
         isSupported = true;
       }
 
+      // ROWS frames with an n PRECEDING or n FOLLOWING bound, e.g. ROWS BETWEEN 6 PRECEDING AND CURRENT ROW
+      // RANGE frames with such a bound when the OVER clause contains an ORDER BY clause,
+      // e.g. RANGE BETWEEN INTERVAL '6' DAY PRECEDING AND CURRENT ROW
+      if ((isOffsetBound(lowerBound) || isOffsetBound(upperBound))
+          && (window.isRows() || window.getOrderList().size() != 0)) {
+        isSupported = true;
+      }
+
       if(!isSupported) {
         unsupportedOperatorCollector.setException(SqlUnsupportedException.ExceptionType.FUNCTION,
             "This type of window frame is currently not supported \n" +
@@ -500,6 +508,13 @@ public class UnsupportedOperatorsVisitor extends SqlShuttle {
     }
   }
 
+  private static boolean isOffsetBound(SqlNode bound) {
+    return bound != null
+        && !SqlWindow.isUnboundedPreceding(bound)
+        && !SqlWindow.isUnboundedFollowing(bound)
+        && !SqlWindow.isCurrentRow(bound);
+  }
+
   private boolean containsFlatten(SqlNode sqlNode) throws UnsupportedOperationException {
     return sqlNode instanceof SqlCall
         && ((SqlCall) sqlNode).getOperator().getName().toLowerCase().equals("flatten");
@@ -69,4 +69,14 @@ public class ExpandableHyperContainer extends VectorContainer {
       }
     }
   }
+
+  /**
+   * Undoes the last {@link #addBatch(VectorAccessible)} of a single (non hyper) batch. The vectors are not
+   * cleared, they still belong to the batch that was added.
+   */
+  public void removeLastBatch() {
+    for (VectorWrapper<?> w : wrappers) {
+      ((HyperVectorWrapper<?>) w).removeLastVector();
+    }
+  }
 }
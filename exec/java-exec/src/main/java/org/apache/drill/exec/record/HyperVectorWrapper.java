@@ -138,6 +138,14 @@ public class HyperVectorWrapper<T extends ValueVector> implements VectorWrapper<
     vectors = (T[]) ArrayUtils.add(vectors, vv);
   }
 
+  /**
+   * Drops the most recently added vector without clearing it; the caller keeps ownership of its buffers.
+   */
+  public void removeLastVector() {
+    Preconditions.checkState(vectors.length > 0, "No vector to remove for field %s", getField());
+    vectors = ArrayUtils.remove(vectors, vectors.length - 1);
+  }
+
   /**
    * Transfer vectors to destination HyperVectorWrapper.
    * Both this and destination must be of same type and have same number of vectors.
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.record;
+
+import java.util.List;
+
+import org.apache.drill.exec.vector.ValueVector;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Measures the memory footprint of the vectors of a batch, per column and per row. Operators use this to turn a target
+ * batch size in bytes into a row count, so that output batches have roughly constant memory size regardless of how
+ * wide the rows are.
+ * <p>
+ * Widths are measured from the data actually held in the vectors (see {@link ValueVector#getBufferSize()}), so they
+ * include offset and bits vectors and reflect actual variable-width lengths. Hyper vectors are not measured.
+ */
+public class RecordBatchSizer {
+
+  /**
+   * Largest number of rows an operator is allowed to put in a batch; bounded by the width of an SV2 index.
+   */
+  public static final int MAX_ROW_COUNT = Character.MAX_VALUE;
+
+  /**
+   * Measured size of a single column.
+   */
+  public static class ColumnSize {
+    public final MaterializedField field;
+    public final int dataSize;
+    public final int valueCount;
+
+    public ColumnSize(MaterializedField field, int dataSize, int valueCount) {
+      this.field = field;
+      this.dataSize = dataSize;
+      this.valueCount = valueCount;
+    }
+
+    /**
+     * Average width of a value of this column in bytes, rounded up, or 0 if the column holds no values.
+     */
+    public int getWidth() {
+      return valueCount == 0 ? 0 : (dataSize + valueCount - 1) / valueCount;
+    }
+
+    @Override
+    public String toString() {
+      return field.getPath() + "(size: " + dataSize + ", values: " + valueCount + ", width: " + getWidth() + ")";
+    }
+  }
+
+  private final List<ColumnSize> columns = Lists.newArrayList();
+  private int rowCount;
+  private int batchSize;
+  private int rowWidth;
+
+  public RecordBatchSizer(VectorAccessible va) {
+    for (VectorWrapper<?> w : va) {
+      if (w.isHyper()) {
+        continue;
+      }
+      final ValueVector v = w.getValueVector();
+      final ColumnSize column = new ColumnSize(v.getField(), v.getBufferSize(), v.getAccessor().getValueCount());
+      columns.add(column);
+      batchSize += column.dataSize;
+      rowWidth += column.getWidth();
+      rowCount = Math.max(rowCount, column.valueCount);
+    }
+  }
+
+  public List<ColumnSize> getColumns() {
+    return columns;
+  }
+
+  /**
+   * @return the number of values held in the measured vectors, which may be larger than the record count of the batch
+   *         when it carries a selection vector
+   */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * @return the total bytes held by the measured vectors
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * @return the estimated width of a row in bytes, summed over the average width of each column
+   */
+  public int getRowWidth() {
+    return rowWidth;
+  }
+
+  /**
+   * Compute how many rows of the given width fit in the target batch size.
+   *
+   * @param targetBatchSize target size of a batch in bytes
+   * @param rowWidth estimated width of a row in bytes; a width of zero means "unknown"
+   * @param maxRowCount upper bound on the returned row count
+   * @return a row count between 1 and maxRowCount
+   */
+  public static int rowCountFor(long targetBatchSize, int rowWidth, int maxRowCount) {
+    if (rowWidth <= 0) {
+      return maxRowCount;
+    }
+    return (int) Math.max(1, Math.min(maxRowCount, targetBatchSize / rowWidth));
+  }
+
+  @Override
+  public String toString() {
+    return "RecordBatchSizer[rows: " + rowCount + ", batch size: " + batchSize + ", row width: " + rowWidth
+        + ", columns: " + columns + "]";
+  }
+}
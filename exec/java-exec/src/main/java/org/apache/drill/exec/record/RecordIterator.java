@@ -21,8 +21,10 @@ import java.util.Iterator;
 import java.util.Map;
 
 import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.exec.ops.MetricDef;
 import org.apache.drill.exec.ops.OperatorContext;
 import org.apache.drill.exec.physical.impl.sort.RecordBatchData;
+import org.apache.drill.exec.physical.impl.spill.SpillSet;
 import org.apache.drill.exec.record.RecordBatch.IterOutcome;
 
 import com.google.common.collect.Range;
@@ -56,6 +58,7 @@ public class RecordIterator implements VectorAccessible {
 
   private final VectorContainer container; // Holds VectorContainer of current record batch
   private final TreeRangeMap<Long, RecordBatchData> batches = TreeRangeMap.create();
+  private RecordIteratorSpiller spiller;    // Writes held batches to disk, null to keep them all in memory
 
   public RecordIterator(RecordBatch incoming,
                         AbstractRecordBatch<?> outgoing,
@@ -80,6 +83,21 @@ public class RecordIterator implements VectorAccessible {
     this.enableMarkAndReset = enableMarkAndReset;
   }
 
+  /**
+   * Lets the iterator write the batches it holds since the mark to disk once they take more memory than the
+   * threshold.
+   *
+   * @param spillSet spill directory of the operator, closed along with the iterator
+   * @param threshold bytes of batches to keep in memory
+   * @param spillMetric operator metric counting the batches written to disk
+   */
+  public void enableSpilling(SpillSet spillSet, long threshold, MetricDef spillMetric) {
+    if (!enableMarkAndReset) {
+      throw new UnsupportedOperationException("mark and reset disabled for this RecordIterator");
+    }
+    this.spiller = new RecordIteratorSpiller(spillSet, oContext.getStats(), threshold, spillMetric);
+  }
+
   private void resetIndices() {
     this.innerPosition = -1;
     this.startBatchPosition = -1;
@@ -104,13 +122,37 @@ public class RecordIterator implements VectorAccessible {
       throw new UnsupportedOperationException("mark and reset disabled for this RecordIterator");
     }
     // Release all batches before current batch. [0 to startBatchPosition).
-    final Map<Range<Long>,RecordBatchData> oldBatches = batches.subRangeMap(Range.closedOpen(0l, startBatchPosition)).asMapOfRanges();
+    releaseBatchesBefore(startBatchPosition);
+    markedInnerPosition = innerPosition;
+    markedOuterPosition = outerPosition;
+  }
+
+  private void releaseBatchesBefore(long position) {
+    final Map<Range<Long>,RecordBatchData> oldBatches = batches.subRangeMap(Range.closedOpen(0l, position)).asMapOfRanges();
     for (RecordBatchData rbd : oldBatches.values()) {
+      if (spiller != null) {
+        spiller.remove(rbd);
+      }
       rbd.clear();
     }
-    batches.remove(Range.closedOpen(0l, startBatchPosition));
-    markedInnerPosition = innerPosition;
-    markedOuterPosition = outerPosition;
+    batches.remove(Range.closedOpen(0l, position));
+  }
+
+  // Moves the vectors of the current batch back to the held batch they came from. Only batches held for a mark
+  // are worth spilling, the others are released as soon as the iterator leaves them.
+  private void transferOut(RecordBatchData rbd) {
+    container.transferOut(rbd.getContainer());
+    if (spiller != null && markedOuterPosition >= 0) {
+      spiller.release(rbd);
+    }
+  }
+
+  // Makes a held batch the current one, reading it back from disk if it was spilled.
+  private void transferIn(RecordBatchData rbd) {
+    if (spiller != null) {
+      spiller.load(rbd);
+    }
+    container.transferIn(rbd.getContainer());
   }
 
   public void reset() {
@@ -124,8 +166,8 @@ public class RecordIterator implements VectorAccessible {
       assert rbdOld != null;
       assert rbdNew != null;
       if (rbdNew != rbdOld) {
-        container.transferOut(rbdOld.getContainer());
-        container.transferIn(rbdNew.getContainer());
+        transferOut(rbdOld);
+        transferIn(rbdNew);
       }
       innerPosition = markedInnerPosition;
       outerPosition = markedOuterPosition;
@@ -149,9 +191,11 @@ public class RecordIterator implements VectorAccessible {
     final RecordBatchData rbdOld = batches.get(outerPosition);
     assert rbdNew != null;
     assert rbdOld != null;
-    container.transferOut(rbdOld.getContainer());
-    // Get vectors from new position.
-    container.transferIn(rbdNew.getContainer());
+    if (rbdNew != rbdOld) {
+      transferOut(rbdOld);
+      // Get vectors from new position.
+      transferIn(rbdNew);
+    }
     outerPosition = nextOuterPosition;
     final Range<Long> markedBatchRange = batches.getEntry(outerPosition).getKey();
     startBatchPosition = markedBatchRange.lowerEndpoint();
@@ -216,9 +260,12 @@ public class RecordIterator implements VectorAccessible {
             if (enableMarkAndReset) {
               // Transfer vectors back to old batch.
               if (startBatchPosition != -1 && batches.get(startBatchPosition) != null) {
-                container.transferOut(batches.get(outerPosition).getContainer());
+                transferOut(batches.get(outerPosition));
               }
-              container.transferIn(rbd.getContainer());
+              if (spiller != null) {
+                spiller.add(rbd);
+              }
+              transferIn(rbd);
               batches.put(Range.closedOpen(nextOuterPosition, nextOuterPosition + innerRecordCount), rbd);
             } else {
               container.zeroVectors();
@@ -228,6 +275,10 @@ public class RecordIterator implements VectorAccessible {
             startBatchPosition = nextOuterPosition;
             outerPosition = nextOuterPosition;
             totalRecordCount += innerRecordCount;
+            if (enableMarkAndReset && markedOuterPosition < 0) {
+              // Without a mark there is no way back to earlier batches.
+              releaseBatchesBefore(startBatchPosition);
+            }
           } else {
             // Release schema/empty batches.
             rbd.clear();
@@ -248,12 +299,15 @@ public class RecordIterator implements VectorAccessible {
         assert rbdNew != null;
         assert rbdOld != null;
         assert rbdOld != rbdNew;
-        container.transferOut(rbdOld.getContainer());
-        container.transferIn(rbdNew.getContainer());
+        transferOut(rbdOld);
+        transferIn(rbdNew);
         innerPosition = 0;
         outerPosition = nextOuterPosition;
         startBatchPosition = batches.getEntry(outerPosition).getKey().lowerEndpoint();
         innerRecordCount = (int)(batches.getEntry(outerPosition).getKey().upperEndpoint() - startBatchPosition);
+        if (markedOuterPosition < 0) {
+          releaseBatchesBefore(startBatchPosition);
+        }
       } else {
         outerPosition = nextOuterPosition;
         innerPosition = nextInnerPosition;
@@ -262,6 +316,16 @@ public class RecordIterator implements VectorAccessible {
     return lastOutcome;
   }
 
+  /**
+   * Move forward by delta within the current record batch, without reading or switching batches.
+   */
+  public void forwardInBatch(int delta) {
+    assert delta >= 0;
+    assert innerPosition + delta < innerRecordCount;
+    innerPosition += delta;
+    outerPosition += delta;
+  }
+
   public boolean finished() {
     return lastBatchRead && outerPosition  >= totalRecordCount;
   }
@@ -340,6 +404,9 @@ public class RecordIterator implements VectorAccessible {
       container.clear();
     }
     for (RecordBatchData d : batches.asMapOfRanges().values()) {
+      if (spiller != null) {
+        spiller.remove(d);
+      }
       d.clear();
     }
     batches.clear();
@@ -359,5 +426,8 @@ public class RecordIterator implements VectorAccessible {
   public void close() {
     clear();
     clearInflightBatches();
+    if (spiller != null) {
+      spiller.close();
+    }
   }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.record;
+
+import java.util.Map;
+
+import org.apache.drill.exec.ops.MetricDef;
+import org.apache.drill.exec.ops.OperatorStats;
+import org.apache.drill.exec.physical.impl.sort.RecordBatchData;
+import org.apache.drill.exec.physical.impl.spill.SpillSet;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Keeps the batches a {@link RecordIterator} holds on to for mark and reset within a memory threshold. Once the
+ * batches in memory exceed it, the batches the iterator moves away from are written to disk, and read back when the
+ * iterator returns to them. A batch is written once and its file kept until the iterator releases the batch.
+ */
+class RecordIteratorSpiller {
+  static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RecordIteratorSpiller.class);
+
+  private final SpillSet spillSet;
+  private final OperatorStats stats;
+  private final MetricDef spillMetric;
+  private final long threshold;
+
+  // memory size of every batch the iterator holds
+  private final Map<RecordBatchData, Long> sizes = Maps.newIdentityHashMap();
+  // spill file of the batches written to disk
+  private final Map<RecordBatchData, Path> files = Maps.newIdentityHashMap();
+  // batches whose vectors are only on disk
+  private final Map<RecordBatchData, Path> unloaded = Maps.newIdentityHashMap();
+  private long memory;
+  private int spillCount;
+
+  /**
+   * @param threshold bytes of batches to keep in memory
+   * @param spillMetric operator metric counting the batches written to disk
+   */
+  RecordIteratorSpiller(SpillSet spillSet, OperatorStats stats, long threshold, MetricDef spillMetric) {
+    this.spillSet = spillSet;
+    this.stats = stats;
+    this.spillMetric = spillMetric;
+    this.threshold = threshold;
+  }
+
+  /**
+   * starts tracking a batch the iterator added, while the batch still holds its vectors
+   */
+  void add(RecordBatchData batch) {
+    final long size = SpillSet.getMemorySize(batch.getContainer());
+    sizes.put(batch, size);
+    memory += size;
+  }
+
+  /**
+   * called once the iterator moved away from the batch and transferred its vectors back, spills it if the batches in
+   * memory exceed the threshold
+   */
+  void release(RecordBatchData batch) {
+    if (memory <= threshold || batch.getSv2() != null || batch.getRecordCount() == 0) {
+      return;
+    }
+    Path path = files.get(batch);
+    if (path == null) {
+      path = spill(batch);
+      files.put(batch, path);
+    } else {
+      // already on disk from an earlier spill
+      batch.getContainer().zeroVectors();
+    }
+    unloaded.put(batch, path);
+    memory -= sizes.get(batch);
+  }
+
+  /**
+   * reads the vectors of a spilled batch back before the iterator moves to it
+   */
+  void load(RecordBatchData batch) {
+    final Path path = unloaded.remove(batch);
+    if (path == null) {
+      return;
+    }
+    final VectorContainer loaded = spillSet.read(path);
+    batch.getContainer().transferIn(loaded);
+    loaded.clear();
+    memory += sizes.get(batch);
+  }
+
+  /**
+   * stops tracking a batch the iterator dropped and deletes its spill file
+   */
+  void remove(RecordBatchData batch) {
+    final Long size = sizes.remove(batch);
+    if (size != null && unloaded.remove(batch) == null) {
+      memory -= size;
+    }
+    final Path path = files.remove(batch);
+    if (path != null) {
+      spillSet.delete(path);
+    }
+  }
+
+  private Path spill(RecordBatchData batch) {
+    final Path path = spillSet.getPath("batch_" + spillCount);
+    spillSet.write(batch.getContainer(), batch.getRecordCount(), path);
+    spillCount++;
+    stats.setLongStat(spillMetric, spillCount);
+    return path;
+  }
+
+  void close() {
+    sizes.clear();
+    files.clear();
+    unloaded.clear();
+    memory = 0;
+    spillSet.close();
+  }
+}
@@ -65,6 +65,18 @@ public class SelectionVector4 implements AutoCloseable {
     return data.getInt( (start+index)*4);
   }
 
+  /**
+   * @return the buffer backing this vector; entry {@code i} of the current batch is at position
+   *         {@code getStart() + i} of the buffer
+   */
+  public ByteBuf getBuffer() {
+    return data;
+  }
+
+  public int getStart() {
+    return start;
+  }
+
   /**
    * Caution: This method shares the underlying buffer between this vector and the newly created one.
    * @param batchRecordCount this will be used when creating the new vector
@@ -48,6 +48,7 @@ public class BootStrapContext implements AutoCloseable {
   private final ExecutorService executor;
   private final ExecutorService scanExecutor;
   private final ExecutorService scanDecodeExecutor;
+  private final ExecutorService compressExecutor;
 
   public BootStrapContext(DrillConfig config, ScanResult classpathScan) {
     this.config = config;
@@ -83,6 +84,11 @@ public class BootStrapContext implements AutoCloseable {
     this.scanExecutor = Executors.newFixedThreadPool(scanThreadPoolSize, new NamedThreadFactory("scan-"));
     this.scanDecodeExecutor =
         Executors.newFixedThreadPool(scanDecodeThreadPoolSize, new NamedThreadFactory("scan-decode-"));
+    // Writers hand page encoding and compression to a pool shared by all fragments, so the CPU spent on
+    // compression stays bounded however many writer fragments run on this drillbit.
+    final int numCompressThreads = (int) config.getDouble(ExecConstants.WRITER_COMPRESS_THREADPOOL_SIZE);
+    this.compressExecutor = Executors.newFixedThreadPool(numCompressThreads > 0 ? numCompressThreads : numCores,
+        new NamedThreadFactory("writer-compress-"));
   }
 
   public ExecutorService getExecutor() {
@@ -97,6 +103,10 @@ public class BootStrapContext implements AutoCloseable {
     return scanDecodeExecutor;
   }
 
+  public ExecutorService getCompressExecutor() {
+    return compressExecutor;
+  }
+
   public DrillConfig getConfig() {
     return config;
   }
@@ -33,6 +33,9 @@ import org.apache.drill.exec.expr.fn.registry.RemoteFunctionRegistry;
 import org.apache.drill.exec.memory.BufferAllocator;
 import org.apache.drill.exec.physical.impl.OperatorCreatorRegistry;
 import org.apache.drill.exec.planner.PhysicalPlanReader;
+import org.apache.drill.exec.planner.fragment.ParallelizationFeedback;
+import org.apache.drill.exec.planner.sql.MaterializedViewRegistry;
+import org.apache.drill.exec.planner.sql.PlanCache;
 import org.apache.drill.exec.proto.CoordinationProtos.DrillbitEndpoint;
 import org.apache.drill.exec.rpc.control.Controller;
 import org.apache.drill.exec.rpc.control.WorkEventBus;
@@ -41,6 +44,8 @@ import org.apache.drill.exec.server.options.SystemOptionManager;
 import org.apache.drill.exec.store.SchemaFactory;
 import org.apache.drill.exec.store.StoragePluginRegistry;
 import org.apache.drill.exec.store.sys.PersistentStoreProvider;
+import org.apache.drill.exec.work.foreman.QueryQueue;
+import org.apache.drill.exec.work.foreman.ResultCache;
 
 import com.codahale.metrics.MetricRegistry;
 
@@ -62,7 +67,11 @@ public class DrillbitContext implements AutoCloseable {
   private final CodeCompiler compiler;
   private final ScanResult classpathScan;
   private final LogicalPlanPersistence lpPersistence;
-
+  private final QueryQueue queryQueue;
+  private final PlanCache planCache;
+  private final ResultCache resultCache;
+  private final ParallelizationFeedback parallelizationFeedback;
+  private final MaterializedViewRegistry materializedViews;
 
   public DrillbitContext(
       DrillbitEndpoint endpoint,
@@ -91,6 +100,11 @@ public class DrillbitContext implements AutoCloseable {
     this.systemOptions = new SystemOptionManager(lpPersistence, provider);
     this.functionRegistry = new FunctionImplementationRegistry(context.getConfig(), classpathScan, systemOptions);
     this.compiler = new CodeCompiler(context.getConfig(), systemOptions);
+    this.queryQueue = new QueryQueue(coord);
+    this.planCache = new PlanCache(reader, lpPersistence.getMapper().writer());
+    this.resultCache = new ResultCache(context.getConfig(), endpoint, lpPersistence.getMapper().writer());
+    this.parallelizationFeedback = new ParallelizationFeedback(lpPersistence.getMapper().writer());
+    this.materializedViews = new MaterializedViewRegistry(provider, lpPersistence);
   }
 
   public FunctionImplementationRegistry getFunctionImplementationRegistry() {
@@ -169,6 +183,26 @@ public class DrillbitContext implements AutoCloseable {
     return compiler;
   }
 
+  public QueryQueue getQueryQueue() {
+    return queryQueue;
+  }
+
+  public PlanCache getPlanCache() {
+    return planCache;
+  }
+
+  public ResultCache getResultCache() {
+    return resultCache;
+  }
+
+  public ParallelizationFeedback getParallelizationFeedback() {
+    return parallelizationFeedback;
+  }
+
+  public MaterializedViewRegistry getMaterializedViewRegistry() {
+    return materializedViews;
+  }
+
   public ExecutorService getExecutor() {
     return context.getExecutor();
   }
@@ -178,6 +212,9 @@ public class DrillbitContext implements AutoCloseable {
   public ExecutorService getScanDecodeExecutor() {
     return context.getScanDecodeExecutor();
   }
+  public ExecutorService getCompressExecutor() {
+    return context.getCompressExecutor();
+  }
 
   public LogicalPlanPersistence getLpPersistence() {
     return lpPersistence;
@@ -92,6 +92,15 @@ public class SystemOptionManager extends BaseOptionManager implements AutoClosea
       PlannerSettings.UNIONALL_DISTRIBUTE,
       PlannerSettings.PARQUET_ROWGROUP_FILTER_PUSHDOWN_PLANNING,
       PlannerSettings.PARQUET_ROWGROUP_FILTER_PUSHDOWN_PLANNING_THRESHOLD,
+      PlannerSettings.USE_STATISTICS,
+      PlannerSettings.PLAN_CACHE,
+      PlannerSettings.PLAN_CACHE_MAX_ENTRIES,
+      PlannerSettings.JOIN_ENUMERATION,
+      PlannerSettings.JOIN_ENUMERATION_MAX_RELATIONS,
+      PlannerSettings.JOIN_SKEW_HANDLING,
+      PlannerSettings.JOIN_SKEW_MIN_KEY_FRACTION,
+      PlannerSettings.NLJOIN_BAND,
+      PlannerSettings.MATERIALIZED_VIEW_REWRITE,
       ExecConstants.CAST_TO_NULLABLE_NUMERIC_OPTION,
       ExecConstants.OUTPUT_FORMAT_VALIDATOR,
       ExecConstants.PARQUET_BLOCK_SIZE_VALIDATOR,
@@ -99,6 +108,8 @@ public class SystemOptionManager extends BaseOptionManager implements AutoClosea
       ExecConstants.PARQUET_DICT_PAGE_SIZE_VALIDATOR,
       ExecConstants.PARQUET_WRITER_COMPRESSION_TYPE_VALIDATOR,
       ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING_VALIDATOR,
+      ExecConstants.PARQUET_WRITER_USE_COLUMNAR_VALIDATOR,
+      ExecConstants.PARQUET_WRITER_PIPELINE_MEMORY_VALIDATOR,
       ExecConstants.PARQUET_VECTOR_FILL_THRESHOLD_VALIDATOR,
       ExecConstants.PARQUET_VECTOR_FILL_CHECK_THRESHOLD_VALIDATOR,
       ExecConstants.PARQUET_RECORD_READER_IMPLEMENTATION_VALIDATOR,
@@ -125,12 +136,21 @@ public class SystemOptionManager extends BaseOptionManager implements AutoClosea
       ExecConstants.SLICE_TARGET_OPTION,
       ExecConstants.AFFINITY_FACTOR,
       ExecConstants.MAX_WIDTH_GLOBAL,
+      ExecConstants.PARALLELIZATION_FEEDBACK,
+      ExecConstants.PARALLELIZATION_FEEDBACK_MIN_FRAGMENT_MILLIS,
       ExecConstants.MAX_WIDTH_PER_NODE,
       ExecConstants.ENABLE_QUEUE,
       ExecConstants.LARGE_QUEUE_SIZE,
       ExecConstants.QUEUE_THRESHOLD_SIZE,
       ExecConstants.QUEUE_TIMEOUT,
       ExecConstants.SMALL_QUEUE_SIZE,
+      ExecConstants.ENABLE_MEMORY_QUEUE,
+      ExecConstants.MEMORY_QUEUE_POOL_SIZE,
+      ExecConstants.QUEUE_PRIORITY,
+      ExecConstants.RESULT_CACHE_ENABLE,
+      ExecConstants.RESULT_CACHE_TTL,
+      ExecConstants.RESULT_CACHE_MAX_ENTRY_SIZE,
+      ExecConstants.RESULT_CACHE_SIZE,
       ExecConstants.MIN_HASH_TABLE_SIZE,
       ExecConstants.MAX_HASH_TABLE_SIZE,
       ExecConstants.EARLY_LIMIT0_OPT,
@@ -139,17 +159,29 @@ public class SystemOptionManager extends BaseOptionManager implements AutoClosea
       ExecConstants.NON_BLOCKING_OPERATORS_MEMORY,
       ExecConstants.HASH_JOIN_TABLE_FACTOR,
       ExecConstants.HASH_AGG_TABLE_FACTOR,
+      ExecConstants.HASHAGG_ADAPTIVE_PARTIAL,
+      ExecConstants.HASHAGG_ADAPTIVE_MIN_REDUCTION,
+      ExecConstants.HASHAGG_ADAPTIVE_SAMPLE_ROWS,
       ExecConstants.AVERAGE_FIELD_WIDTH,
+      ExecConstants.OUTPUT_BATCH_SIZE,
+      ExecConstants.FILTER_COMPACTION_THRESHOLD,
       ExecConstants.NEW_VIEW_DEFAULT_PERMS_VALIDATOR,
       ExecConstants.CTAS_PARTITIONING_HASH_DISTRIBUTE_VALIDATOR,
+      ExecConstants.CTAS_PARTITIONING_BUFFERED_WRITE_VALIDATOR,
+      ExecConstants.CTAS_PARTITIONING_BUFFERED_WRITE_MEMORY_VALIDATOR,
       ExecConstants.ADMIN_USERS_VALIDATOR,
       ExecConstants.ADMIN_USER_GROUPS_VALIDATOR,
       ExecConstants.IMPERSONATION_POLICY_VALIDATOR,
       QueryClassLoader.JAVA_COMPILER_VALIDATOR,
       QueryClassLoader.JAVA_COMPILER_JANINO_MAXSIZE,
       QueryClassLoader.JAVA_COMPILER_DEBUG,
+      ExecConstants.TOPN_SCAN_PRUNING,
+      ExecConstants.SORT_KEY_PREFIX,
       ExecConstants.ENABLE_VERBOSE_ERRORS,
       ExecConstants.ENABLE_WINDOW_FUNCTIONS_VALIDATOR,
+      ExecConstants.WINDOW_SPILL_THRESHOLD,
+      ExecConstants.NLJOIN_SPILL_THRESHOLD,
+      ExecConstants.MJOIN_SPILL_THRESHOLD,
       ClassTransformer.SCALAR_REPLACEMENT_VALIDATOR,
       ExecConstants.ENABLE_NEW_TEXT_READER,
       ExecConstants.ENABLE_BULK_LOAD_TABLE_LIST,
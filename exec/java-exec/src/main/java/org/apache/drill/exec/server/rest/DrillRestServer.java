@@ -55,6 +55,7 @@ public class DrillRestServer extends ResourceConfig {
     register(QueryResources.class);
     register(MetricsResources.class);
     register(ThreadsResources.class);
+    register(MemoryResources.class);
     register(LogsResources.class);
     register(FreemarkerMvcFeature.class);
     register(MultiPartFeature.class);
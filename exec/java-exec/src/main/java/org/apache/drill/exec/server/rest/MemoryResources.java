@@ -0,0 +1,152 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.server.rest;
+
+import io.netty.buffer.PooledByteBufAllocatorL.ArenaStats;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.annotation.security.RolesAllowed;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.apache.drill.exec.memory.AllocationSampler;
+import org.apache.drill.exec.memory.AllocationSampler.CallSite;
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.memory.RootAllocator;
+import org.apache.drill.exec.server.rest.auth.DrillUserPrincipal;
+import org.apache.drill.exec.work.WorkManager;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * Exposes the live allocator tree, the pooled arena usage and sampled allocation call sites of this Drillbit.
+ */
+@Path("/memory")
+@RolesAllowed(DrillUserPrincipal.ADMIN_ROLE)
+public class MemoryResources {
+  static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MemoryResources.class);
+
+  @Inject WorkManager work;
+
+  @GET
+  @Path("/allocators.json")
+  @Produces(MediaType.APPLICATION_JSON)
+  public MemoryInfo getAllocatorsJSON() {
+    final BufferAllocator root = work.getContext().getAllocator();
+    final List<AllocatorInfo> allocators = new LinkedList<>();
+    addAllocators(allocators, root, 0);
+
+    List<ArenaStats> arenas = Collections.emptyList();
+    List<CallSite> callSites = Collections.emptyList();
+    int sampleRate = 0;
+    if (root instanceof RootAllocator) {
+      final AllocationSampler sampler = ((RootAllocator) root).getAllocationSampler();
+      arenas = ((RootAllocator) root).getArenaStats();
+      callSites = sampler.getCallSites();
+      sampleRate = sampler.getSampleRate();
+    }
+    return new MemoryInfo(allocators, arenas, sampleRate, callSites);
+  }
+
+  private static void addAllocators(final List<AllocatorInfo> allocators, final BufferAllocator allocator,
+      final int level) {
+    allocators.add(new AllocatorInfo(allocator.getName(), level, allocator.getAllocatedMemory(),
+        allocator.getPeakMemoryAllocation(), allocator.getLimit()));
+    for (final BufferAllocator child : allocator.getChildAllocators()) {
+      addAllocators(allocators, child, level + 1);
+    }
+  }
+
+  @XmlRootElement
+  public static class MemoryInfo {
+    private final List<AllocatorInfo> allocators;
+    private final List<ArenaStats> arenas;
+    private final int sampleRate;
+    private final List<CallSite> callSites;
+
+    @JsonCreator
+    public MemoryInfo(List<AllocatorInfo> allocators, List<ArenaStats> arenas, int sampleRate,
+        List<CallSite> callSites) {
+      this.allocators = allocators;
+      this.arenas = arenas;
+      this.sampleRate = sampleRate;
+      this.callSites = callSites;
+    }
+
+    public List<AllocatorInfo> getAllocators() {
+      return allocators;
+    }
+
+    public List<ArenaStats> getArenas() {
+      return arenas;
+    }
+
+    public int getSampleRate() {
+      return sampleRate;
+    }
+
+    public List<CallSite> getCallSites() {
+      return callSites;
+    }
+  }
+
+  @XmlRootElement
+  public static class AllocatorInfo {
+    private final String name;
+    private final int level;
+    private final long allocated;
+    private final long peak;
+    private final long limit;
+
+    @JsonCreator
+    public AllocatorInfo(String name, int level, long allocated, long peak, long limit) {
+      this.name = name;
+      this.level = level;
+      this.allocated = allocated;
+      this.peak = peak;
+      this.limit = limit;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getLevel() {
+      return level;
+    }
+
+    public long getAllocated() {
+      return allocated;
+    }
+
+    public long getPeak() {
+      return peak;
+    }
+
+    public long getLimit() {
+      return limit;
+    }
+  }
+}
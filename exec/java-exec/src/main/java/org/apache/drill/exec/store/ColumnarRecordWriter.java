@@ -0,0 +1,41 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store;
+
+import java.io.IOException;
+
+import org.apache.drill.exec.record.VectorAccessible;
+
+/**
+ * A {@link RecordWriter} that can consume a whole batch at once, column by column, instead of being driven
+ * record by record through an {@link EventBasedRecordWriter}.
+ */
+public interface ColumnarRecordWriter extends RecordWriter {
+
+  /**
+   * @return true if the schema passed to the last {@link #updateSchema(VectorAccessible)} call can be written
+   *         with {@link #writeBatch(VectorAccessible, int)}
+   */
+  boolean isColumnar();
+
+  /**
+   * Write the first recordCount values of every vector in the given batch.
+   * @return number of records written
+   */
+  int writeBatch(VectorAccessible batch, int recordCount) throws IOException;
+}
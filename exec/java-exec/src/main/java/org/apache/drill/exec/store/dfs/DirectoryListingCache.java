@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.dfs;
+
+import org.apache.hadoop.fs.FileStatus;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+
+/**
+ * Node wide cache of directory listings, shared by all {@link DrillFileSystem} instances which enable it.
+ * <p>
+ * A listing is keyed by the user the file system acts for and the directory path, and is only reused while the
+ * directory still has the modification time it had when it was listed. Callers must pass a freshly fetched status of
+ * the directory: the status found in the cached listing of its parent may itself be outdated, which would hide
+ * changes two or more levels down. Adding, removing or renaming entries updates the modification time
+ * of a directory; modifying a file in place does not, which is why listings also expire after a configurable time.
+ * Directories reporting no modification time, as on object stores, are never cached.
+ */
+class DirectoryListingCache {
+
+  /** Upper bound on the number of file statuses held by the cache. */
+  private static final long MAX_CACHED_STATUSES = 1000000;
+
+  static final DirectoryListingCache INSTANCE = new DirectoryListingCache(MAX_CACHED_STATUSES);
+
+  private final Cache<String, Listing> cache;
+
+  DirectoryListingCache(long maxStatuses) {
+    cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxStatuses)
+        .weigher(new Weigher<String, Listing>() {
+          @Override
+          public int weigh(String key, Listing listing) {
+            return listing.children.length + 1;
+          }
+        })
+        .build();
+  }
+
+  /**
+   * @param directory current status of the directory, not one taken from a cached listing
+   * @return the cached children of the given directory, or null if there are none or they may be outdated
+   */
+  FileStatus[] get(String user, FileStatus directory, long ttlMillis) {
+    if (directory.getModificationTime() <= 0) {
+      return null;
+    }
+    final Listing listing = cache.getIfPresent(getKey(user, directory));
+    if (listing == null
+        || listing.modificationTime != directory.getModificationTime()
+        || System.currentTimeMillis() - listing.created > ttlMillis) {
+      return null;
+    }
+    return listing.children;
+  }
+
+  void put(String user, FileStatus directory, FileStatus[] children) {
+    if (directory.getModificationTime() > 0) {
+      cache.put(getKey(user, directory), new Listing(directory.getModificationTime(), children));
+    }
+  }
+
+  void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private static String getKey(String user, FileStatus directory) {
+    return user + '\u0000' + directory.getPath().toString();
+  }
+
+  private static class Listing {
+    private final long modificationTime;
+    private final long created = System.currentTimeMillis();
+    private final FileStatus[] children;
+
+    private Listing(long modificationTime, FileStatus[] children) {
+      this.modificationTime = modificationTime;
+      this.children = children;
+    }
+  }
+}
@@ -20,13 +20,26 @@ package org.apache.drill.exec.store.dfs;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.drill.exec.ops.OperatorStats;
+import org.apache.drill.exec.rpc.NamedThreadFactory;
 import org.apache.drill.exec.util.AssertionUtil;
 import org.apache.hadoop.classification.InterfaceAudience.LimitedPrivate;
 import org.apache.hadoop.classification.InterfaceAudience.Private;
@@ -58,10 +71,12 @@ import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.hadoop.security.AccessControlException;
 import org.apache.hadoop.security.Credentials;
+import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.security.token.Token;
 import org.apache.hadoop.util.Progressable;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -78,11 +93,35 @@ public class DrillFileSystem extends FileSystem implements OpenFileTracker {
   public static final String HIDDEN_FILE_PREFIX = "_";
   public static final String DOT_FILE_PREFIX = ".";
 
+  /**
+   * File system configuration property with the number of directories listed concurrently by recursive listings.
+   * Can be set in the "config" of a file system storage plugin. 1 lists directories one after the other.
+   */
+  public static final String LISTING_PARALLELISM = "drill.exec.dfs.listing.parallelism";
+  public static final int DEFAULT_LISTING_PARALLELISM = 16;
+  /**
+   * File system configuration property enabling the node wide {@link DirectoryListingCache} for recursive listings.
+   */
+  public static final String LISTING_CACHE_ENABLED = "drill.exec.dfs.listing.cache.enabled";
+  /**
+   * File system configuration property with the seconds after which a cached directory listing is listed again, even
+   * if the directory has not been modified.
+   */
+  public static final String LISTING_CACHE_TTL_SECS = "drill.exec.dfs.listing.cache.ttl_secs";
+  public static final long DEFAULT_LISTING_CACHE_TTL_SECS = 300;
+
+  private static final ExecutorService LISTING_EXECUTOR = Executors.newCachedThreadPool(
+      new NamedThreadFactory("dfs-listing-"));
+
   private final ConcurrentMap<DrillFSDataInputStream, DebugStackTrace> openedFiles = Maps.newConcurrentMap();
 
   private final FileSystem underlyingFs;
   private final OperatorStats operatorStats;
   private final CompressionCodecFactory codecFactory;
+  private final String userName;
+  private final int listingParallelism;
+  private final boolean listingCacheEnabled;
+  private final long listingCacheTtlMillis;
 
   public DrillFileSystem(Configuration fsConf) throws IOException {
     this(fsConf, null);
@@ -92,6 +131,12 @@ public class DrillFileSystem extends FileSystem implements OpenFileTracker {
     this.underlyingFs = FileSystem.get(fsConf);
     this.codecFactory = new CompressionCodecFactory(fsConf);
     this.operatorStats = operatorStats;
+    // the underlying file system acts for the user current at creation time
+    this.userName = UserGroupInformation.getCurrentUser().getUserName();
+    this.listingParallelism = Math.max(1, fsConf.getInt(LISTING_PARALLELISM, DEFAULT_LISTING_PARALLELISM));
+    this.listingCacheEnabled = fsConf.getBoolean(LISTING_CACHE_ENABLED, false);
+    this.listingCacheTtlMillis = TimeUnit.SECONDS.toMillis(
+        fsConf.getLong(LISTING_CACHE_TTL_SECS, DEFAULT_LISTING_CACHE_TTL_SECS));
   }
 
   @Override
@@ -749,27 +794,153 @@ public class DrillFileSystem extends FileSystem implements OpenFileTracker {
 
   public List<FileStatus> list(boolean recursive, Path... paths) throws IOException {
     if (recursive) {
-      List<FileStatus> statuses = Lists.newArrayList();
+      final List<FileStatus> roots = Lists.newArrayList();
       for (Path p : paths) {
-        addRecursiveStatus(underlyingFs.getFileStatus(p), statuses);
+        roots.add(underlyingFs.getFileStatus(p));
       }
-      return statuses;
+      return listRecursive(roots);
 
     } else {
       return Lists.newArrayList(underlyingFs.listStatus(paths));
     }
   }
 
-  private void addRecursiveStatus(FileStatus parent, List<FileStatus> listToFill) throws IOException {
-    if (parent.isDir()) {
-      Path pattern = new Path(parent.getPath(), "*");
-      FileStatus[] sub = underlyingFs.globStatus(pattern, new DrillPathFilter());
-      for(FileStatus s : sub){
-        if (s.isDir()) {
-          addRecursiveStatus(s, listToFill);
-        } else {
-          listToFill.add(s);
+  /**
+   * Returns the statuses of the given paths, fetching up to {@link #LISTING_PARALLELISM} of them concurrently.
+   */
+  public List<FileStatus> getFileStatuses(final List<Path> paths) throws IOException {
+    if (listingParallelism == 1 || paths.size() <= 1) {
+      final List<FileStatus> statuses = Lists.newArrayListWithCapacity(paths.size());
+      for (Path path : paths) {
+        statuses.add(underlyingFs.getFileStatus(path));
+      }
+      return statuses;
+    }
+
+    final List<Callable<List<FileStatus>>> tasks = Lists.newArrayList();
+    final int chunkSize = (paths.size() + listingParallelism - 1) / listingParallelism;
+    for (final List<Path> chunk : Lists.partition(paths, chunkSize)) {
+      tasks.add(new Callable<List<FileStatus>>() {
+        @Override
+        public List<FileStatus> call() throws IOException {
+          final List<FileStatus> statuses = Lists.newArrayListWithCapacity(chunk.size());
+          for (Path path : chunk) {
+            statuses.add(underlyingFs.getFileStatus(path));
+          }
+          return statuses;
         }
+      });
+    }
+
+    final List<FileStatus> statuses = Lists.newArrayListWithCapacity(paths.size());
+    try {
+      for (Future<List<FileStatus>> future : LISTING_EXECUTOR.invokeAll(tasks)) {
+        statuses.addAll(getListingResult(future));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while fetching file statuses.");
+    }
+    return statuses;
+  }
+
+  /**
+   * Lists all files below the given statuses, in depth first order. Up to {@link #LISTING_PARALLELISM} directories
+   * are listed concurrently; listings of directories not modified since they were last listed come from the
+   * {@link DirectoryListingCache} if enabled.
+   */
+  private List<FileStatus> listRecursive(final List<FileStatus> roots) throws IOException {
+    final Map<Path, FileStatus[]> listings = Maps.newHashMap();
+    if (listingParallelism == 1) {
+      final Deque<FileStatus> pending = new ArrayDeque<>(roots);
+      while (!pending.isEmpty()) {
+        final FileStatus status = pending.poll();
+        if (status.isDirectory()) {
+          final FileStatus[] children = listDirectory(status);
+          listings.put(status.getPath(), children);
+          pending.addAll(Arrays.asList(children));
+        }
+      }
+    } else {
+      final CompletionService<FileStatus[]> completionService = new ExecutorCompletionService<>(LISTING_EXECUTOR);
+      final Map<Future<FileStatus[]>, Path> running = Maps.newHashMap();
+      final Deque<FileStatus> pending = new ArrayDeque<>();
+      for (FileStatus root : roots) {
+        if (root.isDirectory()) {
+          pending.add(root);
+        }
+      }
+      try {
+        while (!pending.isEmpty() || !running.isEmpty()) {
+          while (!pending.isEmpty() && running.size() < listingParallelism) {
+            final FileStatus directory = pending.poll();
+            running.put(completionService.submit(new Callable<FileStatus[]>() {
+              @Override
+              public FileStatus[] call() throws IOException {
+                return listDirectory(directory);
+              }
+            }), directory.getPath());
+          }
+          final Future<FileStatus[]> done = completionService.take();
+          final FileStatus[] children = getListingResult(done);
+          listings.put(running.remove(done), children);
+          for (FileStatus child : children) {
+            if (child.isDirectory()) {
+              pending.add(child);
+            }
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while listing directories.");
+      } finally {
+        for (Future<FileStatus[]> future : running.keySet()) {
+          future.cancel(true);
+        }
+      }
+    }
+
+    final List<FileStatus> files = Lists.newArrayList();
+    for (FileStatus root : roots) {
+      addRecursiveStatus(root, listings, files);
+    }
+    return files;
+  }
+
+  private FileStatus[] listDirectory(FileStatus directory) throws IOException {
+    if (listingCacheEnabled) {
+      // the given status may come from a cached listing of the parent, so validate against the current one; it is
+      // fetched before listing so that changes made while listing invalidate the cached entry
+      directory = underlyingFs.getFileStatus(directory.getPath());
+      final FileStatus[] cached = DirectoryListingCache.INSTANCE.get(userName, directory, listingCacheTtlMillis);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    FileStatus[] children = underlyingFs.globStatus(new Path(directory.getPath(), "*"), new DrillPathFilter());
+    if (children == null) {
+      children = new FileStatus[0];
+    }
+    if (listingCacheEnabled) {
+      DirectoryListingCache.INSTANCE.put(userName, directory, children);
+    }
+    return children;
+  }
+
+  private static <T> T getListingResult(Future<T> future) throws IOException, InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  private static void addRecursiveStatus(FileStatus parent, Map<Path, FileStatus[]> listings,
+      List<FileStatus> listToFill) {
+    if (parent.isDirectory()) {
+      for (FileStatus s : listings.get(parent.getPath())) {
+        addRecursiveStatus(s, listings, listToFill);
       }
     } else {
       listToFill.add(parent);
@@ -125,11 +125,11 @@ public class FileSelection {
     Stopwatch timer = Stopwatch.createStarted();
 
     if (statuses == null)  {
-      final List<FileStatus> newStatuses = Lists.newArrayList();
+      final List<Path> paths = Lists.newArrayListWithCapacity(files.size());
       for (final String pathStr:files) {
-        newStatuses.add(fs.getFileStatus(new Path(pathStr)));
+        paths.add(new Path(pathStr));
       }
-      statuses = newStatuses;
+      statuses = fs.getFileStatuses(paths);
     }
     logger.info("FileSelection.getStatuses() took {} ms, numFiles: {}",
         timer.elapsed(TimeUnit.MILLISECONDS), statuses == null ? 0 : statuses.size());
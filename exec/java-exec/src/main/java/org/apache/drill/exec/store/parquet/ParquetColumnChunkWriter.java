@@ -0,0 +1,547 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.parquet;
+
+import io.netty.buffer.DrillBuf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.drill.common.types.TypeProtos.DataMode;
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.ops.OperatorContext;
+import org.apache.drill.exec.record.BatchSchema;
+import org.apache.drill.exec.record.MaterializedField;
+import org.apache.drill.exec.vector.BaseDataValueVector;
+import org.apache.drill.exec.vector.NullableVector;
+import org.apache.drill.exec.vector.ValueVector;
+import org.apache.drill.exec.vector.VarBinaryVector;
+import org.apache.drill.exec.vector.VarCharVector;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.page.PageWriteStore;
+import org.apache.parquet.column.page.PageWriter;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.CodecFactory;
+import org.apache.parquet.hadoop.ColumnChunkPageWriteStoreExposer;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.joda.time.DateTimeConstants;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.ObjectIntHashMap;
+
+/**
+ * Encodes one column chunk of a Parquet row group straight from Drill value vectors.
+ * <p>
+ * Values are appended a batch at a time: fixed width required values are copied in bulk from the vector
+ * buffer into the plain encoded page, everything else is encoded value by value without going through the
+ * record consumer. Every writer owns its page store and compressor so the columns of a batch can be
+ * encoded and compressed concurrently; the chunks are then written to the file in schema order by
+ * {@link #flush(ParquetFileWriter)}.
+ * <p>
+ * Pages use the same encodings as the Parquet library writer for format version 1: plain or plain
+ * dictionary values, RLE definition levels for optional columns, and no repetition levels.
+ */
+public class ParquetColumnChunkWriter implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetColumnChunkWriter.class);
+
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+  private static final int INITIAL_LEVEL_COUNT = 4096;
+
+  /** How values are read from the vector and laid out in the page. */
+  private enum ValueKind {
+    INT32(4), DATE(4), INT64(8), FLOAT(4), DOUBLE(8), BOOLEAN(0), BINARY(0);
+
+    private final int width;
+
+    ValueKind(int width) {
+      this.width = width;
+    }
+  }
+
+  private final ValueKind kind;
+  private final boolean nullable;
+  private final PrimitiveType type;
+  private final BufferAllocator allocator;
+  private final CodecFactory codecFactory;
+  private final PageWriteStore pageStore;
+  private final PageWriter pageWriter;
+  private final int pageSize;
+  private final int dictionaryPageSize;
+
+  // current page
+  private DrillBuf values;
+  private int valuesLength;
+  private int bitCount;
+  private int[] definitionLevels;
+  private int[] dictionaryIds;
+  private int dictionaryIdCount;
+  private int pageValueCount;
+  private Statistics<?> statistics;
+
+  // dictionary of the whole column chunk
+  private boolean dictionaryEncoding;
+  private DrillBuf dictionary;
+  private int dictionaryLength;
+  private int dictionarySize;
+  private LongIntHashMap fixedWidthDictionary;
+  private ObjectIntHashMap<Binary> binaryDictionary;
+
+  // read by the writer thread while batches are encoded in the background
+  private volatile long bufferedSize;
+
+  public ParquetColumnChunkWriter(OperatorContext oContext, Configuration conf, MaterializedField field,
+      PrimitiveType type, CompressionCodecName codec, int pageSize, int dictionaryPageSize,
+      boolean enableDictionary) {
+    this(oContext, conf, field, type, codec, pageSize, dictionaryPageSize, enableDictionary, INITIAL_BUFFER_SIZE);
+  }
+
+  /**
+   * @param initialBufferSize initial size of the open page and dictionary buffers; writers that are kept open
+   *                          in large numbers, one per partition, start small and grow with their data
+   */
+  public ParquetColumnChunkWriter(OperatorContext oContext, Configuration conf, MaterializedField field,
+      PrimitiveType type, CompressionCodecName codec, int pageSize, int dictionaryPageSize,
+      boolean enableDictionary, int initialBufferSize) {
+    this.kind = getValueKind(field);
+    this.nullable = field.getDataMode() == DataMode.OPTIONAL;
+    this.type = type;
+    this.allocator = oContext.getAllocator();
+    this.pageSize = pageSize;
+    this.dictionaryPageSize = dictionaryPageSize;
+
+    // compressors keep state, so each column gets its own to be able to compress pages in parallel
+    this.codecFactory = CodecFactory.createDirectCodecFactory(conf, new ParquetDirectByteBufferAllocator(allocator),
+        pageSize);
+    final MessageType schema = new MessageType("root", type);
+    final ColumnDescriptor descriptor = schema.getColumns().get(0);
+    this.pageStore = ColumnChunkPageWriteStoreExposer.newColumnChunkPageWriteStore(oContext,
+        codecFactory.getCompressor(codec), schema);
+    this.pageWriter = pageStore.getPageWriter(descriptor);
+
+    final int initialLevelCount = Math.min(INITIAL_LEVEL_COUNT, Math.max(16, initialBufferSize / 16));
+    this.values = allocator.buffer(initialBufferSize);
+    this.definitionLevels = nullable ? new int[initialLevelCount] : null;
+    this.statistics = Statistics.getStatsBasedOnType(type.getPrimitiveTypeName());
+
+    this.dictionaryEncoding = enableDictionary && kind != ValueKind.BOOLEAN;
+    if (dictionaryEncoding) {
+      dictionary = allocator.buffer(initialBufferSize);
+      dictionaryIds = new int[initialLevelCount];
+      if (kind == ValueKind.BINARY) {
+        binaryDictionary = new ObjectIntHashMap<>();
+      } else {
+        fixedWidthDictionary = new LongIntHashMap();
+      }
+    }
+  }
+
+  /**
+   * @return true if every field of the schema is a flat scalar this writer can encode
+   */
+  public static boolean isSupported(BatchSchema schema) {
+    for (MaterializedField field : schema) {
+      if (getValueKind(field) == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static ValueKind getValueKind(MaterializedField field) {
+    if (field.getDataMode() == DataMode.REPEATED) {
+      return null;
+    }
+    switch (field.getType().getMinorType()) {
+    case INT:
+    case TIME:
+      return ValueKind.INT32;
+    case DATE:
+      return ValueKind.DATE;
+    case BIGINT:
+    case TIMESTAMP:
+      return ValueKind.INT64;
+    case FLOAT4:
+      return ValueKind.FLOAT;
+    case FLOAT8:
+      return ValueKind.DOUBLE;
+    case BIT:
+      return ValueKind.BOOLEAN;
+    case VARCHAR:
+    case VARBINARY:
+      return ValueKind.BINARY;
+    default:
+      return null;
+    }
+  }
+
+  /**
+   * Encode the first count values of the vector, cutting pages whenever the page size is reached.
+   * Only reads from the vector, so writers of different columns may run concurrently.
+   */
+  public void write(ValueVector vector, int count) throws IOException {
+    write(vector, null, count);
+  }
+
+  /**
+   * Encode the values at the first count positions of rows, in that order. A null rows array selects
+   * the first count values of the vector.
+   */
+  public void write(ValueVector vector, int[] rows, int count) throws IOException {
+    if (count > 0) {
+      writeValues(vector, rows, count);
+      bufferedSize = pageWriter.getMemSize() + valuesLength + dictionaryLength + dictionaryIdCount * 4L;
+    }
+  }
+
+  private void writeValues(ValueVector vector, int[] rows, int count) throws IOException {
+    final ValueVector.Accessor accessor = vector.getAccessor();
+    final ValueVector valuesVector = nullable ? ((NullableVector) vector).getValuesVector() : vector;
+    final DrillBuf data = ((BaseDataValueVector) valuesVector).getBuffer();
+    final DrillBuf offsets = kind == ValueKind.BINARY ? getOffsets(valuesVector) : null;
+
+    if (rows == null && !nullable && !dictionaryEncoding && kind.width > 0 && kind != ValueKind.DATE) {
+      writeRequiredPlain(data, count);
+      return;
+    }
+
+    for (int r = 0; r < count; r++) {
+      final int i = rows == null ? r : rows[r];
+      if (nullable && accessor.isNull(i)) {
+        statistics.incrementNumNulls();
+        endValue(0);
+        continue;
+      }
+      switch (kind) {
+      case INT32:
+        appendInt(data.getInt(i << 2));
+        break;
+      case DATE:
+        // convert from internal Drill date format to Julian Day centered around Unix Epoc
+        appendInt((int) (data.getLong(i << 3) / DateTimeConstants.MILLIS_PER_DAY));
+        break;
+      case INT64:
+        appendLong(data.getLong(i << 3));
+        break;
+      case FLOAT:
+        appendFloat(data.getInt(i << 2));
+        break;
+      case DOUBLE:
+        appendDouble(data.getLong(i << 3));
+        break;
+      case BOOLEAN:
+        appendBoolean((data.getByte(i >> 3) & (1 << (i & 7))) != 0);
+        break;
+      case BINARY:
+        final int start = offsets.getInt(i << 2);
+        appendBinary(data, start, offsets.getInt((i + 1) << 2) - start);
+        break;
+      default:
+        throw new IllegalStateException("Unexpected value kind " + kind);
+      }
+      endValue(1);
+    }
+  }
+
+  private static DrillBuf getOffsets(ValueVector vector) {
+    if (vector instanceof VarCharVector) {
+      return ((VarCharVector) vector).getOffsetVector().getBuffer();
+    }
+    return ((VarBinaryVector) vector).getOffsetVector().getBuffer();
+  }
+
+  /**
+   * Copies required fixed width values into the plain encoded page in bulk, one page sized slice at a time.
+   */
+  private void writeRequiredPlain(DrillBuf data, int count) throws IOException {
+    final int width = kind.width;
+    int index = 0;
+    while (index < count) {
+      final int length = Math.min(count - index, Math.max(1, (pageSize - valuesLength) / width));
+      values = ensureCapacity(values, valuesLength, length * width);
+      values.setBytes(valuesLength, data, index * width, length * width);
+      valuesLength += length * width;
+      updateStatistics(data, index, length);
+      pageValueCount += length;
+      index += length;
+      if (valuesLength >= pageSize) {
+        flushPage();
+      }
+    }
+  }
+
+  private void updateStatistics(DrillBuf data, int start, int length) {
+    final int end = start + length;
+    switch (kind) {
+    case INT32:
+      for (int i = start; i < end; i++) {
+        statistics.updateStats(data.getInt(i << 2));
+      }
+      break;
+    case INT64:
+      for (int i = start; i < end; i++) {
+        statistics.updateStats(data.getLong(i << 3));
+      }
+      break;
+    case FLOAT:
+      for (int i = start; i < end; i++) {
+        statistics.updateStats(data.getFloat(i << 2));
+      }
+      break;
+    case DOUBLE:
+      for (int i = start; i < end; i++) {
+        statistics.updateStats(data.getDouble(i << 3));
+      }
+      break;
+    default:
+      throw new IllegalStateException("Unexpected value kind " + kind);
+    }
+  }
+
+  private void appendInt(int value) throws IOException {
+    appendFixedWidth(value, 4);
+    statistics.updateStats(value);
+  }
+
+  private void appendLong(long value) throws IOException {
+    appendFixedWidth(value, 8);
+    statistics.updateStats(value);
+  }
+
+  private void appendFloat(int bits) throws IOException {
+    appendFixedWidth(bits, 4);
+    statistics.updateStats(Float.intBitsToFloat(bits));
+  }
+
+  private void appendDouble(long bits) throws IOException {
+    appendFixedWidth(bits, 8);
+    statistics.updateStats(Double.longBitsToDouble(bits));
+  }
+
+  private void appendFixedWidth(long bits, int width) throws IOException {
+    if (dictionaryEncoding) {
+      int id = fixedWidthDictionary.getOrDefault(bits, -1);
+      if (id < 0 && dictionaryLength + width > dictionaryPageSize) {
+        fallBackToPlain();
+      } else {
+        if (id < 0) {
+          id = dictionarySize++;
+          fixedWidthDictionary.put(bits, id);
+          dictionary = ensureCapacity(dictionary, dictionaryLength, width);
+          dictionaryLength = setFixedWidth(dictionary, dictionaryLength, bits, width);
+        }
+        appendDictionaryId(id);
+        return;
+      }
+    }
+    values = ensureCapacity(values, valuesLength, width);
+    valuesLength = setFixedWidth(values, valuesLength, bits, width);
+  }
+
+  private static int setFixedWidth(DrillBuf buf, int index, long bits, int width) {
+    if (width == 4) {
+      buf.setInt(index, (int) bits);
+    } else {
+      buf.setLong(index, bits);
+    }
+    return index + width;
+  }
+
+  private void appendBoolean(boolean value) {
+    final int byteIndex = bitCount >> 3;
+    if ((bitCount & 7) == 0) {
+      values = ensureCapacity(values, valuesLength, 1);
+      values.setByte(byteIndex, 0);
+      valuesLength++;
+    }
+    if (value) {
+      values.setByte(byteIndex, values.getByte(byteIndex) | (1 << (bitCount & 7)));
+    }
+    bitCount++;
+    statistics.updateStats(value);
+  }
+
+  private void appendBinary(DrillBuf data, int start, int length) throws IOException {
+    if (dictionaryEncoding) {
+      final byte[] bytes = new byte[length];
+      data.getBytes(start, bytes);
+      final Binary value = Binary.fromByteArray(bytes);
+      int id = binaryDictionary.getOrDefault(value, -1);
+      if (id < 0 && dictionaryLength + 4 + length > dictionaryPageSize) {
+        fallBackToPlain();
+      } else {
+        if (id < 0) {
+          id = dictionarySize++;
+          binaryDictionary.put(value, id);
+          dictionary = ensureCapacity(dictionary, dictionaryLength, 4 + length);
+          dictionary.setInt(dictionaryLength, length);
+          dictionary.setBytes(dictionaryLength + 4, bytes);
+          dictionaryLength += 4 + length;
+        }
+        appendDictionaryId(id);
+        statistics.updateStats(value);
+        return;
+      }
+    }
+    values = ensureCapacity(values, valuesLength, 4 + length);
+    values.setInt(valuesLength, length);
+    values.setBytes(valuesLength + 4, data, start, length);
+    valuesLength += 4 + length;
+    statistics.updateStats(Binary.fromByteBuffer(data.nioBuffer(start, length)));
+  }
+
+  private void appendDictionaryId(int id) {
+    if (dictionaryIdCount == dictionaryIds.length) {
+      dictionaryIds = Arrays.copyOf(dictionaryIds, dictionaryIds.length * 2);
+    }
+    dictionaryIds[dictionaryIdCount++] = id;
+  }
+
+  /**
+   * The dictionary outgrew the dictionary page size: close the current page with the ids collected so far
+   * and encode the rest of the column chunk as plain values. The dictionary page is still written for the
+   * pages that reference it.
+   */
+  private void fallBackToPlain() throws IOException {
+    logger.debug("Dictionary of column {} reached {} bytes, falling back to plain encoding", type.getName(),
+        dictionaryLength);
+    flushPage();
+    dictionaryEncoding = false;
+  }
+
+  /**
+   * Record the definition level of the value just appended and cut the page once it is full.
+   */
+  private void endValue(int definitionLevel) throws IOException {
+    if (nullable) {
+      if (pageValueCount == definitionLevels.length) {
+        definitionLevels = Arrays.copyOf(definitionLevels, definitionLevels.length * 2);
+      }
+      definitionLevels[pageValueCount] = definitionLevel;
+    }
+    pageValueCount++;
+    if (getPageBufferedSize() >= pageSize) {
+      flushPage();
+    }
+  }
+
+  private long getPageBufferedSize() {
+    if (dictionaryEncoding) {
+      return (long) dictionaryIdCount * RleBitPackingHybridEncoder.bitWidth(dictionarySize) / 8;
+    }
+    return valuesLength;
+  }
+
+  private DrillBuf ensureCapacity(DrillBuf buf, int used, int extra) {
+    final int required = used + extra;
+    if (required <= buf.capacity()) {
+      return buf;
+    }
+    final DrillBuf newBuf = allocator.buffer(Math.max(required, buf.capacity() * 2));
+    newBuf.setBytes(0, buf, 0, used);
+    buf.release();
+    return newBuf;
+  }
+
+  private void flushPage() throws IOException {
+    if (pageValueCount == 0) {
+      return;
+    }
+    BytesInput levels = BytesInput.empty();
+    if (nullable) {
+      final ByteArrayOutputStream encodedLevels = new ByteArrayOutputStream();
+      RleBitPackingHybridEncoder.encode(definitionLevels, pageValueCount, 1, encodedLevels);
+      levels = BytesInput.concat(BytesInput.fromInt(encodedLevels.size()), BytesInput.from(encodedLevels));
+    }
+
+    final BytesInput data;
+    final Encoding valuesEncoding;
+    if (dictionaryEncoding) {
+      final ByteArrayOutputStream encodedIds = new ByteArrayOutputStream();
+      final int bitWidth = RleBitPackingHybridEncoder.bitWidth(Math.max(0, dictionarySize - 1));
+      encodedIds.write(bitWidth);
+      RleBitPackingHybridEncoder.encode(dictionaryIds, dictionaryIdCount, bitWidth, encodedIds);
+      data = BytesInput.from(encodedIds);
+      valuesEncoding = Encoding.PLAIN_DICTIONARY;
+    } else {
+      data = BytesInput.from(values.nioBuffer(0, valuesLength), 0, valuesLength);
+      valuesEncoding = Encoding.PLAIN;
+    }
+
+    pageWriter.writePage(BytesInput.concat(levels, data), pageValueCount, statistics,
+        Encoding.BIT_PACKED, nullable ? Encoding.RLE : Encoding.BIT_PACKED, valuesEncoding);
+
+    valuesLength = 0;
+    bitCount = 0;
+    dictionaryIdCount = 0;
+    pageValueCount = 0;
+    statistics = Statistics.getStatsBasedOnType(type.getPrimitiveTypeName());
+  }
+
+  /**
+   * @return bytes held for the current row group as of the last {@link #write(ValueVector, int)}: pages already
+   *         compressed plus the open page and dictionary
+   */
+  public long getBufferedSize() {
+    return bufferedSize;
+  }
+
+  /**
+   * @return bytes of memory held by this writer, including the unused capacity of its buffers
+   */
+  public long getAllocatedSize() {
+    long size = pageWriter.getMemSize() + values.capacity();
+    if (dictionary != null) {
+      size += dictionary.capacity() + dictionaryIds.length * 4L;
+    }
+    if (definitionLevels != null) {
+      size += definitionLevels.length * 4L;
+    }
+    return size;
+  }
+
+  /**
+   * Close the open page and write the column chunk to the current row group of the file.
+   */
+  public void flush(ParquetFileWriter parquetFileWriter) throws IOException {
+    flushPage();
+    if (dictionarySize > 0) {
+      pageWriter.writeDictionaryPage(new DictionaryPage(
+          BytesInput.from(dictionary.nioBuffer(0, dictionaryLength), 0, dictionaryLength),
+          dictionarySize, Encoding.PLAIN_DICTIONARY));
+    }
+    ColumnChunkPageWriteStoreExposer.flushPageStore(pageStore, parquetFileWriter);
+  }
+
+  @Override
+  public void close() {
+    values.release();
+    if (dictionary != null) {
+      dictionary.release();
+    }
+    codecFactory.release();
+  }
+}
@@ -148,6 +148,15 @@ public class ParquetFormatPlugin implements FormatPlugin{
     options.put(ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING,
         context.getOptions().getOption(ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING).bool_val.toString());
 
+    options.put(ExecConstants.PARQUET_WRITER_USE_COLUMNAR,
+        context.getOptions().getOption(ExecConstants.PARQUET_WRITER_USE_COLUMNAR).bool_val.toString());
+
+    options.put(ExecConstants.PARQUET_WRITER_PIPELINE_MEMORY,
+        context.getOptions().getOption(ExecConstants.PARQUET_WRITER_PIPELINE_MEMORY).num_val.toString());
+
+    options.put(ExecConstants.CTAS_PARTITIONING_BUFFERED_WRITE_MEMORY,
+        context.getOptions().getOption(ExecConstants.CTAS_PARTITIONING_BUFFERED_WRITE_MEMORY).num_val.toString());
+
     RecordWriter recordWriter = new ParquetRecordWriter(context, writer);
     recordWriter.init(options);
 
@@ -21,11 +21,15 @@ import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.apache.drill.common.exceptions.DrillRuntimeException;
+import org.apache.drill.common.exceptions.UserException;
 import org.apache.drill.common.expression.SchemaPath;
 import org.apache.drill.common.types.TypeProtos.DataMode;
 import org.apache.drill.common.types.TypeProtos.MinorType;
@@ -33,6 +37,7 @@ import org.apache.drill.common.util.DrillVersionInfo;
 import org.apache.drill.exec.ExecConstants;
 import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.ops.MetricDef;
 import org.apache.drill.exec.ops.OperatorContext;
 import org.apache.drill.exec.planner.physical.WriterPrel;
 import org.apache.drill.exec.record.BatchSchema;
@@ -40,10 +45,12 @@ import org.apache.drill.exec.record.MaterializedField;
 import org.apache.drill.exec.record.TypedFieldId;
 import org.apache.drill.exec.record.VectorAccessible;
 import org.apache.drill.exec.record.VectorWrapper;
+import org.apache.drill.exec.store.ColumnarRecordWriter;
 import org.apache.drill.exec.store.EventBasedRecordWriter;
 import org.apache.drill.exec.store.EventBasedRecordWriter.FieldConverter;
 import org.apache.drill.exec.store.ParquetOutputRecordWriter;
 import org.apache.drill.exec.vector.BitVector;
+import org.apache.drill.exec.vector.ValueVector;
 import org.apache.drill.exec.vector.complex.reader.FieldReader;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
@@ -70,17 +77,17 @@ import org.apache.parquet.schema.Type.Repetition;
 
 import com.google.common.collect.Lists;
 
-public class ParquetRecordWriter extends ParquetOutputRecordWriter {
+public class ParquetRecordWriter extends ParquetOutputRecordWriter implements ColumnarRecordWriter {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetRecordWriter.class);
 
   private static final int MINIMUM_BUFFER_SIZE = 64 * 1024;
   private static final int MINIMUM_RECORD_COUNT_FOR_CHECK = 100;
   private static final int MAXIMUM_RECORD_COUNT_FOR_CHECK = 10000;
+  private static final int PARTITION_INITIAL_BUFFER_SIZE = 4 * 1024;
 
   public static final String DRILL_VERSION_PROPERTY = "drill.version";
   public static final String IS_DATE_CORRECT_PROPERTY = "is.date.correct";
 
-  private ParquetFileWriter parquetFileWriter;
   private MessageType schema;
   private Map<String, String> extraMetaData = new HashMap<>();
   private int blockSize;
@@ -90,6 +97,7 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   private CompressionCodecName codec = CompressionCodecName.SNAPPY;
   private WriterVersion writerVersion = WriterVersion.PARQUET_1_0;
   private CodecFactory codecFactory;
+  private boolean useColumnarWriter = false;
 
   private long recordCount = 0;
   private long recordCountForNextMemCheck = MINIMUM_RECORD_COUNT_FOR_CHECK;
@@ -98,6 +106,10 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   private PageWriteStore pageStore;
 
   private RecordConsumer consumer;
+
+  // set instead of store and consumer when the current schema is written column by column
+  private boolean columnar;
+  private List<ParquetColumnChunkWriter> columnWriters;
   private BatchSchema batchSchema;
 
   private Configuration conf;
@@ -107,6 +119,30 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   private OperatorContext oContext;
   private List<String> partitionColumns;
   private boolean hasPartitions;
+  private ParquetWritePipeline pipeline;
+
+  // set when the input of a partitioned write is not sorted on the partition columns and rows are grouped by
+  // partition here instead, each partition buffering its own column chunks until it is flushed to its own file
+  private boolean bufferedPartitioning;
+  private long partitionMemory;
+  private List<MaterializedField> columnFields;
+  private List<PrimitiveType> columnTypes;
+  private int[] partitionFieldIndexes;
+  private Map<Object, PartitionBuffer> partitionBuffers;
+  private long partitionBudgetFlushes = 0;
+
+  public enum Metric implements MetricDef {
+    NUM_ROW_GROUPS,     // Number of row groups written, one per file
+    TIME_MEMORY_WAIT,   // Time in nanos blocked because batches waiting to be encoded used up the memory budget
+    TIME_ENCODE_WAIT,   // Time in nanos waiting for background page encoding and compression to close a row group
+    TIME_FLUSH_WAIT,    // Time in nanos waiting for the previous row group to be written to disk
+    TIME_FLUSH,         // Time in nanos spent writing row groups to disk in the background
+    NUM_PARTITION_BUDGET_FLUSHES; // Partitions flushed before reaching the block size to stay in the memory budget
+
+    @Override public int metricId() {
+      return ordinal();
+    }
+  }
 
   public ParquetRecordWriter(FragmentContext context, ParquetWriter writer) throws OutOfMemoryException{
     super();
@@ -149,6 +185,10 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     }
 
     enableDictionary = Boolean.parseBoolean(writerOptions.get(ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING));
+    useColumnarWriter = Boolean.parseBoolean(writerOptions.get(ExecConstants.PARQUET_WRITER_USE_COLUMNAR));
+    pipeline = new ParquetWritePipeline(oContext.getCompressExecutor(), oContext.getExecutor(), oContext.getAllocator(),
+        Long.parseLong(writerOptions.get(ExecConstants.PARQUET_WRITER_PIPELINE_MEMORY)));
+    partitionMemory = Long.parseLong(writerOptions.get(ExecConstants.CTAS_PARTITIONING_BUFFERED_WRITE_MEMORY));
   }
 
   private boolean containsComplexVectors(BatchSchema schema) {
@@ -171,6 +211,17 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
         flush();
       }
       this.batchSchema = batch.getSchema();
+      // the planner leaves out the partition comparator when it does not sort the input on the partition columns
+      this.bufferedPartitioning = hasPartitions
+          && batch.getValueVectorId(SchemaPath.getSimplePath(WriterPrel.PARTITION_COMPARATOR_FIELD)) == null;
+      if (bufferedPartitioning && !ParquetColumnChunkWriter.isSupported(batchSchema)) {
+        throw UserException.unsupportedError()
+            .message("Buffered partitioned writes support only flat scalar columns. Set `%s` to false to " +
+                "write this table.", ExecConstants.CTAS_PARTITIONING_BUFFERED_WRITE)
+            .build(logger);
+      }
+      this.columnar = bufferedPartitioning
+          || (useColumnarWriter && !hasPartitions && ParquetColumnChunkWriter.isSupported(batchSchema));
       newSchema();
     }
     TypedFieldId fieldId = batch.getValueVectorId(SchemaPath.getSimplePath(WriterPrel.PARTITION_COMPARATOR_FIELD));
@@ -181,15 +232,53 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   }
 
   private void newSchema() throws IOException {
+    // any partitions of the previous schema have been flushed
+    partitionBuffers = null;
     List<Type> types = Lists.newArrayList();
+    List<MaterializedField> fields = Lists.newArrayList();
     for (MaterializedField field : batchSchema) {
       if (field.getPath().equalsIgnoreCase(WriterPrel.PARTITION_COMPARATOR_FIELD)) {
         continue;
       }
       types.add(getType(field));
+      fields.add(field);
     }
     schema = new MessageType("root", types);
 
+    if (bufferedPartitioning) {
+      columnFields = fields;
+      columnTypes = Lists.newArrayList();
+      for (Type type : types) {
+        columnTypes.add(type.asPrimitiveType());
+      }
+      partitionFieldIndexes = new int[partitionColumns.size()];
+      for (int i = 0; i < partitionFieldIndexes.length; i++) {
+        partitionFieldIndexes[i] = -1;
+        for (int j = 0; j < fields.size(); j++) {
+          if (fields.get(j).getPath().equalsIgnoreCase(partitionColumns.get(i))) {
+            partitionFieldIndexes[i] = j;
+            break;
+          }
+        }
+        if (partitionFieldIndexes[i] == -1) {
+          throw UserException.validationError()
+              .message("Partition column %s is not in the SELECT list of CTAS!", partitionColumns.get(i))
+              .build(logger);
+        }
+      }
+      partitionBuffers = new HashMap<>();
+      return;
+    }
+
+    if (columnar) {
+      columnWriters = Lists.newArrayList();
+      for (int i = 0; i < types.size(); i++) {
+        columnWriters.add(new ParquetColumnChunkWriter(oContext, conf, fields.get(i),
+            types.get(i).asPrimitiveType(), codec, pageSize, dictionaryPageSize, enableDictionary));
+      }
+      return;
+    }
+
     int initialBlockBufferSize = max(MINIMUM_BUFFER_SIZE, blockSize / this.schema.getColumns().size() / 5);
     pageStore = ColumnChunkPageWriteStoreExposer.newColumnChunkPageWriteStore(this.oContext,
         codecFactory.getCompressor(codec),
@@ -246,27 +335,108 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     }
   }
 
+  /**
+   * Close the current row group and hand it to the pipeline, which writes it to its own file in the background.
+   */
   private void flush() throws IOException {
+    if (partitionBuffers != null) {
+      flushPartitions();
+      return;
+    }
+    if (columnWriters != null) {
+      // the column writers may still be encoding pages of earlier batches
+      pipeline.drain();
+    }
     if (recordCount > 0) {
-      parquetFileWriter.startBlock(recordCount);
-      consumer.flush();
-      store.flush();
-      ColumnChunkPageWriteStoreExposer.flushPageStore(pageStore, parquetFileWriter);
+      if (columnWriters == null) {
+        consumer.flush();
+        store.flush();
+      }
+      writeRowGroup(columnWriters, pageStore, recordCount);
       recordCount = 0;
-      parquetFileWriter.endBlock();
-
-      // we are writing one single block per file
-      parquetFileWriter.end(extraMetaData);
-      parquetFileWriter = null;
+    } else {
+      closeColumnWriters(columnWriters);
+      index++;
     }
+    pipeline.updateStats(oContext.getStats());
 
-    store.close();
+    if (columnWriters == null) {
+      store.close();
+    }
     // TODO(jaltekruse) - review this close method should no longer be necessary
 //    ColumnChunkPageWriteStoreExposer.close(pageStore);
 
+    columnWriters = null;
     store = null;
     pageStore = null;
+  }
+
+  /**
+   * Hand a row group to the pipeline, which writes it to the next file of this writer in the background.
+   * Either the column writers or the page store hold the pages of the row group.
+   */
+  private void writeRowGroup(final List<ParquetColumnChunkWriter> fileColumnWriters,
+      final PageWriteStore filePageStore, final long rowCount) throws IOException {
+    final Path path = new Path(location, prefix + "_" + index + ".parquet");
+    final MessageType fileSchema = schema;
     index++;
+    pipeline.writeRowGroup(new Callable<Void>() {
+      @Override
+      public Void call() throws IOException {
+        try {
+          final ParquetFileWriter parquetFileWriter = new ParquetFileWriter(conf, fileSchema, path);
+          parquetFileWriter.start();
+          parquetFileWriter.startBlock(rowCount);
+          if (fileColumnWriters != null) {
+            for (ParquetColumnChunkWriter columnWriter : fileColumnWriters) {
+              columnWriter.flush(parquetFileWriter);
+            }
+          } else {
+            ColumnChunkPageWriteStoreExposer.flushPageStore(filePageStore, parquetFileWriter);
+          }
+          parquetFileWriter.endBlock();
+
+          // we are writing one single block per file
+          parquetFileWriter.end(extraMetaData);
+        } finally {
+          closeColumnWriters(fileColumnWriters);
+        }
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Write every buffered partition to its own file.
+   */
+  private void flushPartitions() throws IOException {
+    for (PartitionBuffer partition : Lists.newArrayList(partitionBuffers.values())) {
+      flushPartition(partition);
+    }
+    pipeline.updateStats(oContext.getStats());
+  }
+
+  private void flushPartition(PartitionBuffer partition) throws IOException {
+    // the buffer stays in the map, to be closed on cleanup, unless its row group has been handed to the pipeline
+    writeRowGroup(partition.columnWriters, null, partition.recordCount);
+    partitionBuffers.remove(partition.key);
+  }
+
+  private void closePartitionBuffers() {
+    if (partitionBuffers != null) {
+      for (PartitionBuffer partition : partitionBuffers.values()) {
+        closeColumnWriters(partition.columnWriters);
+      }
+      partitionBuffers = null;
+    }
+  }
+
+  private static void closeColumnWriters(List<ParquetColumnChunkWriter> columnWriters) {
+    if (columnWriters != null) {
+      for (ParquetColumnChunkWriter columnWriter : columnWriters) {
+        columnWriter.close();
+      }
+    }
   }
 
   private void checkBlockSizeReached() throws IOException {
@@ -360,26 +530,180 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   public void endRecord() throws IOException {
     consumer.endMessage();
 
-    // we wait until there is at least one record before creating the parquet file
-    if (parquetFileWriter == null) {
-      Path path = new Path(location, prefix + "_" + index + ".parquet");
-      parquetFileWriter = new ParquetFileWriter(conf, schema, path);
-      parquetFileWriter.start();
-    }
-
     recordCount++;
 
     checkBlockSizeReached();
   }
 
+  @Override
+  public boolean isColumnar() {
+    return columnar;
+  }
+
+  /**
+   * Hands the columns of the batch to the background pipeline, then checks the block size once for the whole
+   * batch. The pipeline takes over the vectors of the batch.
+   */
+  @Override
+  public int writeBatch(VectorAccessible batch, int count) throws IOException {
+    if (count == 0) {
+      return 0;
+    }
+
+    final List<ValueVector> vectors = Lists.newArrayList();
+    for (VectorWrapper<?> w : batch) {
+      if (!w.getField().getPath().equalsIgnoreCase(WriterPrel.PARTITION_COMPARATOR_FIELD)) {
+        vectors.add(w.getValueVector());
+      }
+    }
+    if (bufferedPartitioning) {
+      bufferPartitions(vectors, count);
+      return count;
+    }
+    pipeline.submitBatch(columnWriters, vectors, count);
+    recordCount += count;
+
+    long bufferedSize = 0;
+    for (ParquetColumnChunkWriter columnWriter : columnWriters) {
+      bufferedSize += columnWriter.getBufferedSize();
+    }
+    if (bufferedSize > blockSize) {
+      logger.debug("Reached block size " + blockSize);
+      flush();
+      newSchema();
+    }
+    return count;
+  }
+
+  /**
+   * Append the rows of the batch to the column chunks of their partitions. A partition goes to its own file once
+   * it reaches the block size, and the largest partitions are flushed early while all of them together hold more
+   * than the partition memory budget.
+   */
+  private void bufferPartitions(List<ValueVector> vectors, int count) throws IOException {
+    final List<PartitionBuffer> batchPartitions = Lists.newArrayList();
+    for (int i = 0; i < count; i++) {
+      final Object key = getPartitionKey(vectors, i);
+      PartitionBuffer partition = partitionBuffers.get(key);
+      if (partition == null) {
+        partition = new PartitionBuffer(key);
+        partitionBuffers.put(key, partition);
+      }
+      if (partition.rowCount == 0) {
+        batchPartitions.add(partition);
+      }
+      partition.addRow(i);
+    }
+
+    for (PartitionBuffer partition : batchPartitions) {
+      for (int i = 0; i < vectors.size(); i++) {
+        partition.columnWriters.get(i).write(vectors.get(i), partition.rows, partition.rowCount);
+      }
+      partition.recordCount += partition.rowCount;
+      partition.rowCount = 0;
+      if (partition.getBufferedSize() > blockSize) {
+        logger.debug("Partition {} reached block size {}", partition.key, blockSize);
+        flushPartition(partition);
+      }
+    }
+
+    long allocatedSize = 0;
+    for (PartitionBuffer partition : partitionBuffers.values()) {
+      allocatedSize += partition.getAllocatedSize();
+    }
+    while (allocatedSize > partitionMemory && !partitionBuffers.isEmpty()) {
+      PartitionBuffer largest = null;
+      for (PartitionBuffer partition : partitionBuffers.values()) {
+        if (largest == null || partition.getAllocatedSize() > largest.getAllocatedSize()) {
+          largest = partition;
+        }
+      }
+      allocatedSize -= largest.getAllocatedSize();
+      flushPartition(largest);
+      partitionBudgetFlushes++;
+    }
+    oContext.getStats().setLongStat(Metric.NUM_PARTITION_BUDGET_FLUSHES, partitionBudgetFlushes);
+  }
+
+  private Object getPartitionKey(List<ValueVector> vectors, int row) {
+    if (partitionFieldIndexes.length == 1) {
+      return getPartitionValue(vectors.get(partitionFieldIndexes[0]), row);
+    }
+    final List<Object> key = Lists.newArrayListWithCapacity(partitionFieldIndexes.length);
+    for (int fieldIndex : partitionFieldIndexes) {
+      key.add(getPartitionValue(vectors.get(fieldIndex), row));
+    }
+    return key;
+  }
+
+  private static Object getPartitionValue(ValueVector vector, int row) {
+    final Object value = vector.getAccessor().getObject(row);
+    // arrays compare by identity
+    return value instanceof byte[] ? ByteBuffer.wrap((byte[]) value) : value;
+  }
+
+  /**
+   * Column chunks of the row group being built for one partition value.
+   */
+  private class PartitionBuffer {
+    private final Object key;
+    private final List<ParquetColumnChunkWriter> columnWriters = Lists.newArrayList();
+    private long recordCount;
+
+    // rows of the current batch that belong to this partition
+    private int[] rows = new int[16];
+    private int rowCount;
+
+    PartitionBuffer(Object key) {
+      this.key = key;
+      for (int i = 0; i < columnFields.size(); i++) {
+        columnWriters.add(new ParquetColumnChunkWriter(oContext, conf, columnFields.get(i), columnTypes.get(i),
+            codec, pageSize, dictionaryPageSize, enableDictionary, PARTITION_INITIAL_BUFFER_SIZE));
+      }
+    }
+
+    void addRow(int row) {
+      if (rowCount == rows.length) {
+        rows = Arrays.copyOf(rows, rows.length * 2);
+      }
+      rows[rowCount++] = row;
+    }
+
+    long getBufferedSize() {
+      long size = 0;
+      for (ParquetColumnChunkWriter columnWriter : columnWriters) {
+        size += columnWriter.getBufferedSize();
+      }
+      return size;
+    }
+
+    long getAllocatedSize() {
+      long size = 0;
+      for (ParquetColumnChunkWriter columnWriter : columnWriters) {
+        size += columnWriter.getAllocatedSize();
+      }
+      return size;
+    }
+  }
+
   @Override
   public void abort() throws IOException {
   }
 
   @Override
   public void cleanup() throws IOException {
-    flush();
-
-    codecFactory.release();
+    try {
+      flush();
+      pipeline.awaitRowGroupWrite();
+    } finally {
+      // also when the flush failed or was interrupted, background tasks may still use the writers and the codecs
+      pipeline.close();
+      // only left over when the last row group could not be handed to the pipeline
+      closeColumnWriters(columnWriters);
+      columnWriters = null;
+      closePartitionBuffers();
+      pipeline.updateStats(oContext.getStats());
+      codecFactory.release();
+    }
   }
 }
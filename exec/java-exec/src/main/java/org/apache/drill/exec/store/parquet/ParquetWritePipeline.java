@@ -0,0 +1,376 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.parquet;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.ops.OperatorStats;
+import org.apache.drill.exec.record.TransferPair;
+import org.apache.drill.exec.vector.ValueVector;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Background pipeline of the parquet writer.
+ * <p>
+ * Incoming batches are taken over by transferring their vectors, and every column of a batch is encoded and
+ * compressed by its {@link ParquetColumnChunkWriter} on the compression pool shared by all writers of the
+ * drillbit. Batches of one column are processed in order, different columns in parallel. The writer thread
+ * only blocks once the batches it holds exceed the memory budget.
+ * <p>
+ * Finished row groups are written to the file system by a background task as well. Writes are double
+ * buffered: the next row group is filled while the previous one is written, and closing a row group waits
+ * only if the previous one is still being written.
+ * <p>
+ * Time spent blocked in each of these places is reported through {@link #updateStats(OperatorStats)}.
+ */
+class ParquetWritePipeline {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetWritePipeline.class);
+
+  private final Executor compressExecutor;
+  private final ExecutorService ioExecutor;
+  private final BufferAllocator allocator;
+  private final long memoryBudget;
+
+  private final List<SerialTaskQueue> columnQueues = Lists.newArrayList();
+  private final Object budgetLock = new Object();
+  private long heldBytes;
+  private volatile Throwable failure;
+  private volatile boolean closed;
+
+  private Future<Void> rowGroupWrite;
+
+  private long memoryWaitNanos;
+  private long encodeWaitNanos;
+  private long flushWaitNanos;
+  private int rowGroupCount;
+  private final AtomicLong flushNanos = new AtomicLong();
+
+  ParquetWritePipeline(Executor compressExecutor, ExecutorService ioExecutor, BufferAllocator allocator,
+      long memoryBudget) {
+    this.compressExecutor = compressExecutor;
+    this.ioExecutor = ioExecutor;
+    this.allocator = allocator;
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * Take over the vectors of a batch and queue one encoding task per column. Blocks while the batches already
+   * held use up the memory budget; a single batch is always accepted.
+   */
+  void submitBatch(List<ParquetColumnChunkWriter> columnWriters, List<ValueVector> vectors, int count)
+      throws IOException {
+    checkFailure();
+    long bytes = 0;
+    for (ValueVector vector : vectors) {
+      bytes += vector.getBufferSize();
+    }
+    acquireBudget(bytes);
+
+    final List<ValueVector> held = Lists.newArrayListWithCapacity(vectors.size());
+    HeldBatch batch = null;
+    int submitted = 0;
+    try {
+      for (ValueVector vector : vectors) {
+        final TransferPair tp = vector.getTransferPair(allocator);
+        tp.transfer();
+        held.add(tp.getTo());
+      }
+      while (columnQueues.size() < columnWriters.size()) {
+        columnQueues.add(new SerialTaskQueue(compressExecutor));
+      }
+      batch = new HeldBatch(held, bytes);
+      for (; submitted < columnWriters.size(); submitted++) {
+        columnQueues.get(submitted).submit(
+            new ColumnTask(columnWriters.get(submitted), held.get(submitted), count, batch));
+      }
+    } finally {
+      if (batch == null) {
+        for (ValueVector vector : held) {
+          vector.clear();
+        }
+        releaseBudget(bytes);
+      } else {
+        // the queued columns release the batch once they are done, count the others as done already
+        for (int i = submitted; i < columnWriters.size(); i++) {
+          batch.columnDone();
+        }
+      }
+    }
+  }
+
+  private void acquireBudget(long bytes) throws IOException {
+    final long start = System.nanoTime();
+    try {
+      synchronized (budgetLock) {
+        while (heldBytes > 0 && heldBytes + bytes > memoryBudget && failure == null) {
+          budgetLock.wait();
+        }
+        heldBytes += bytes;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for parquet writer memory", e);
+    } finally {
+      memoryWaitNanos += System.nanoTime() - start;
+    }
+  }
+
+  private void releaseBudget(long bytes) {
+    synchronized (budgetLock) {
+      heldBytes -= bytes;
+      budgetLock.notifyAll();
+    }
+  }
+
+  /**
+   * Wait until every queued column task has finished, so the column writers can be flushed.
+   */
+  void drain() throws IOException {
+    final long start = System.nanoTime();
+    try {
+      for (SerialTaskQueue queue : columnQueues) {
+        queue.awaitIdle();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for parquet pages to be encoded", e);
+    } finally {
+      encodeWaitNanos += System.nanoTime() - start;
+    }
+    checkFailure();
+  }
+
+  /**
+   * Write a finished row group in the background, once the previous one is on disk.
+   */
+  void writeRowGroup(final Callable<Void> write) throws IOException {
+    awaitRowGroupWrite();
+    rowGroupCount++;
+    rowGroupWrite = ioExecutor.submit(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        final long start = System.nanoTime();
+        try {
+          return write.call();
+        } finally {
+          flushNanos.addAndGet(System.nanoTime() - start);
+        }
+      }
+    });
+  }
+
+  /**
+   * Wait for the row group being written in the background, if any.
+   */
+  void awaitRowGroupWrite() throws IOException {
+    if (rowGroupWrite == null) {
+      return;
+    }
+    final long start = System.nanoTime();
+    try {
+      rowGroupWrite.get();
+    } catch (ExecutionException e) {
+      throw asIOException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while writing parquet row group", e);
+    } finally {
+      rowGroupWrite = null;
+      flushWaitNanos += System.nanoTime() - start;
+    }
+  }
+
+  /**
+   * Wait for every background task, even if interrupted or after a failure, so that none of them still uses the
+   * column writers, the codec factory or the allocator of the writer once it releases them. Column tasks that have
+   * not started yet are skipped. Failures are not reported here, they are thrown by the other calls.
+   */
+  void close() {
+    closed = true;
+    final long start = System.nanoTime();
+    try {
+      for (SerialTaskQueue queue : columnQueues) {
+        queue.awaitIdleUninterruptibly();
+      }
+    } finally {
+      encodeWaitNanos += System.nanoTime() - start;
+    }
+    if (rowGroupWrite == null) {
+      return;
+    }
+    final long writeStart = System.nanoTime();
+    try {
+      Uninterruptibles.getUninterruptibly(rowGroupWrite);
+    } catch (ExecutionException e) {
+      logger.debug("Failure while writing parquet row group", e.getCause());
+    } finally {
+      rowGroupWrite = null;
+      flushWaitNanos += System.nanoTime() - writeStart;
+    }
+  }
+
+  void updateStats(OperatorStats stats) {
+    stats.setLongStat(ParquetRecordWriter.Metric.NUM_ROW_GROUPS, rowGroupCount);
+    stats.setLongStat(ParquetRecordWriter.Metric.TIME_MEMORY_WAIT, memoryWaitNanos);
+    stats.setLongStat(ParquetRecordWriter.Metric.TIME_ENCODE_WAIT, encodeWaitNanos);
+    stats.setLongStat(ParquetRecordWriter.Metric.TIME_FLUSH_WAIT, flushWaitNanos);
+    stats.setLongStat(ParquetRecordWriter.Metric.TIME_FLUSH, flushNanos.get());
+  }
+
+  private void checkFailure() throws IOException {
+    if (failure != null) {
+      throw asIOException(failure);
+    }
+  }
+
+  private static IOException asIOException(Throwable t) {
+    if (t instanceof IOException) {
+      return (IOException) t;
+    }
+    return new IOException("Failure while writing parquet data", t);
+  }
+
+  /**
+   * Vectors of one incoming batch, released once every column has been encoded.
+   */
+  private class HeldBatch {
+    private final List<ValueVector> vectors;
+    private final long bytes;
+    private final AtomicInteger remainingColumns;
+
+    HeldBatch(List<ValueVector> vectors, long bytes) {
+      this.vectors = vectors;
+      this.bytes = bytes;
+      this.remainingColumns = new AtomicInteger(vectors.size());
+    }
+
+    void columnDone() {
+      if (remainingColumns.decrementAndGet() == 0) {
+        for (ValueVector vector : vectors) {
+          vector.clear();
+        }
+        releaseBudget(bytes);
+      }
+    }
+  }
+
+  private class ColumnTask implements Runnable {
+    private final ParquetColumnChunkWriter columnWriter;
+    private final ValueVector vector;
+    private final int count;
+    private final HeldBatch batch;
+
+    ColumnTask(ParquetColumnChunkWriter columnWriter, ValueVector vector, int count, HeldBatch batch) {
+      this.columnWriter = columnWriter;
+      this.vector = vector;
+      this.count = count;
+      this.batch = batch;
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (failure == null && !closed) {
+          columnWriter.write(vector, count);
+        }
+      } catch (Throwable t) {
+        logger.debug("Failure while encoding parquet column chunk", t);
+        if (failure == null) {
+          failure = t;
+        }
+      } finally {
+        batch.columnDone();
+      }
+    }
+  }
+
+  /**
+   * Runs its tasks one after another on a shared executor, without holding a pool thread while idle.
+   */
+  private static class SerialTaskQueue implements Runnable {
+    private final Executor executor;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private boolean running;
+
+    SerialTaskQueue(Executor executor) {
+      this.executor = executor;
+    }
+
+    synchronized void submit(Runnable task) {
+      tasks.add(task);
+      if (!running) {
+        running = true;
+        try {
+          executor.execute(this);
+        } catch (RuntimeException e) {
+          tasks.clear();
+          running = false;
+          throw e;
+        }
+      }
+    }
+
+    synchronized void awaitIdle() throws InterruptedException {
+      while (running) {
+        wait();
+      }
+    }
+
+    synchronized void awaitIdleUninterruptibly() {
+      boolean interrupted = false;
+      while (running) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        final Runnable task;
+        synchronized (this) {
+          task = tasks.poll();
+          if (task == null) {
+            running = false;
+            notifyAll();
+            return;
+          }
+        }
+        task.run();
+      }
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.parquet;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Encodes a run of small non-negative integers (definition levels, dictionary ids) with the Parquet
+ * RLE / bit-packing hybrid encoding. Unlike the Parquet library encoder this works on an already buffered
+ * array of values, which lets the columnar writer pick runs and bit-packed groups with a single pass.
+ */
+final class RleBitPackingHybridEncoder {
+
+  /** Shortest run that is worth encoding as a repeated value rather than bit-packing it. */
+  private static final int MIN_REPEAT_RUN = 8;
+
+  /** Keeps the header of a bit-packed run in a single byte, as the Parquet library does. */
+  private static final int MAX_BIT_PACKED_GROUPS = 63;
+
+  private RleBitPackingHybridEncoder() {
+  }
+
+  /**
+   * @return number of bits needed to store every value in [0, maxValue]; never less than one
+   */
+  static int bitWidth(int maxValue) {
+    return Math.max(1, 32 - Integer.numberOfLeadingZeros(maxValue));
+  }
+
+  /**
+   * Append the encoded form of the first count values to out. Values past count in the last bit-packed
+   * group are padded with zeros; readers stop at the value count of the page.
+   */
+  static void encode(int[] values, int count, int bitWidth, ByteArrayOutputStream out) {
+    int i = 0;
+    while (i < count) {
+      final int run = repeatLength(values, i, count);
+      if (run >= MIN_REPEAT_RUN) {
+        writeRepeatedRun(values[i], run, bitWidth, out);
+        i += run;
+        continue;
+      }
+
+      // bit-pack groups of eight until the next group starts a long enough run
+      final int start = i;
+      int groups = 0;
+      do {
+        i = Math.min(i + 8, count);
+        groups++;
+      } while (i < count && groups < MAX_BIT_PACKED_GROUPS && repeatLength(values, i, count) < MIN_REPEAT_RUN);
+      writeBitPackedRun(values, start, i, groups, bitWidth, out);
+    }
+  }
+
+  private static int repeatLength(int[] values, int start, int count) {
+    final int value = values[start];
+    int end = start + 1;
+    while (end < count && values[end] == value) {
+      end++;
+    }
+    return end - start;
+  }
+
+  private static void writeRepeatedRun(int value, int length, int bitWidth, ByteArrayOutputStream out) {
+    writeUnsignedVarInt(length << 1, out);
+    for (int shift = 0; shift < bitWidth; shift += 8) {
+      out.write((value >>> shift) & 0xFF);
+    }
+  }
+
+  private static void writeBitPackedRun(int[] values, int start, int end, int groups, int bitWidth,
+      ByteArrayOutputStream out) {
+    writeUnsignedVarInt((groups << 1) | 1, out);
+    final long mask = (1L << bitWidth) - 1;
+    long pending = 0;
+    int pendingBits = 0;
+    final int padded = start + groups * 8;
+    for (int i = start; i < padded; i++) {
+      final long value = i < end ? values[i] & mask : 0;
+      pending |= value << pendingBits;
+      pendingBits += bitWidth;
+      while (pendingBits >= 8) {
+        out.write((int) (pending & 0xFF));
+        pending >>>= 8;
+        pendingBits -= 8;
+      }
+    }
+  }
+
+  private static void writeUnsignedVarInt(int value, ByteArrayOutputStream out) {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value & 0x7F);
+  }
+}
@@ -41,6 +41,7 @@ import org.apache.drill.exec.ops.FragmentContext;
 import org.apache.drill.exec.ops.MetricDef;
 import org.apache.drill.exec.ops.OperatorContext;
 import org.apache.drill.exec.physical.impl.OutputMutator;
+import org.apache.drill.exec.physical.impl.TopN.TopNThreshold;
 import org.apache.drill.exec.record.MaterializedField;
 import org.apache.drill.exec.store.AbstractRecordReader;
 import org.apache.drill.exec.store.parquet.ParquetReaderStats;
@@ -52,6 +53,9 @@ import org.apache.drill.exec.vector.complex.RepeatedValueVector;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.statistics.IntStatistics;
+import org.apache.parquet.column.statistics.LongStatistics;
+import org.apache.parquet.column.statistics.Statistics;
 import org.apache.parquet.format.FileMetaData;
 import org.apache.parquet.format.SchemaElement;
 import org.apache.parquet.format.converter.ParquetMetadataConverter;
@@ -64,7 +68,7 @@ import org.apache.parquet.schema.PrimitiveType;
 
 import com.google.common.collect.Lists;
 
-public class ParquetRecordReader extends AbstractRecordReader {
+public class ParquetRecordReader extends AbstractRecordReader implements TopNThreshold.SkippableReader {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetRecordReader.class);
 
   // this value has been inflated to read in multiple value vectors at once, and then break them up into smaller vectors
@@ -138,7 +142,8 @@ public class ParquetRecordReader extends AbstractRecordReader {
     TIME_DICT_PAGES_DECOMPRESSED,  // Time in nanos in decompressing dictionary pages
     TIME_DATA_PAGES_DECOMPRESSED,  // Time in nanos in decompressing data pages
     TIME_DISK_SCAN_WAIT,           // Time in nanos spent in waiting for an async disk read to complete
-    TIME_DISK_SCAN;                // Time in nanos spent in reading data from disk.
+    TIME_DISK_SCAN,                // Time in nanos spent in reading data from disk.
+    NUM_ROW_GROUPS_SKIPPED;        // Number of row groups skipped, without being read, below a TopN threshold
 
     @Override public int metricId() {
       return ordinal();
@@ -226,6 +231,41 @@ public class ParquetRecordReader extends AbstractRecordReader {
     return rowGroupIndex;
   }
 
+  /**
+   * Checks the row group statistics of the threshold column, only plain INT32 and INT64 columns are considered.
+   */
+  @Override
+  public boolean canSkip(TopNThreshold threshold) {
+    for (ColumnChunkMetaData column : footer.getBlocks().get(rowGroupIndex).getColumns()) {
+      final String[] path = column.getPath().toArray();
+      if (path.length != 1 || !path[0].equalsIgnoreCase(threshold.getColumn())) {
+        continue;
+      }
+      if (footer.getFileMetaData().getSchema().getType(path).getOriginalType() != null) {
+        return false;
+      }
+      final Statistics<?> statistics = column.getStatistics();
+      if (statistics == null || !statistics.hasNonNullValue()) {
+        return false;
+      }
+      final boolean hasNulls = statistics.getNumNulls() > 0;
+      if (statistics instanceof IntStatistics) {
+        final IntStatistics intStatistics = (IntStatistics) statistics;
+        return threshold.canSkip(intStatistics.getMin(), intStatistics.getMax(), hasNulls);
+      } else if (statistics instanceof LongStatistics) {
+        final LongStatistics longStatistics = (LongStatistics) statistics;
+        return threshold.canSkip(longStatistics.getMin(), longStatistics.getMax(), hasNulls);
+      }
+      return false;
+    }
+    return false;
+  }
+
+  @Override
+  public MetricDef getSkippedMetric() {
+    return Metric.NUM_ROW_GROUPS_SKIPPED;
+  }
+
   public int getBitWidthAllFixedFields() {
     return bitWidthAllFixedFields;
   }
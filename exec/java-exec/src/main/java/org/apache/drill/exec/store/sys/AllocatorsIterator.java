@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.sys;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.proto.CoordinationProtos.DrillbitEndpoint;
+
+/**
+ * Lists the live allocator tree of a Drillbit, one record per open allocator, walked depth first from the root.
+ */
+public class AllocatorsIterator implements Iterator<Object> {
+
+  private final Iterator<AllocatorInfo> iterator;
+
+  public AllocatorsIterator(final FragmentContext context) {
+    final DrillbitEndpoint endpoint = context.getIdentity();
+    final List<AllocatorInfo> allocators = new ArrayList<>();
+    addAllocators(allocators, endpoint, context.getDrillbitContext().getAllocator(), 0);
+    iterator = allocators.iterator();
+  }
+
+  private static void addAllocators(final List<AllocatorInfo> allocators, final DrillbitEndpoint endpoint,
+      final BufferAllocator allocator, final int level) {
+    final AllocatorInfo info = new AllocatorInfo();
+    info.hostname = endpoint.getAddress();
+    info.user_port = endpoint.getUserPort();
+    info.name = allocator.getName();
+    final BufferAllocator parent = allocator.getParentAllocator();
+    info.parent = parent == null ? null : parent.getName();
+    info.level = level;
+    info.allocated = allocator.getAllocatedMemory();
+    info.peak = allocator.getPeakMemoryAllocation();
+    info.limit = allocator.getLimit();
+    info.over_limit = allocator.isOverLimit();
+
+    final List<BufferAllocator> children = new ArrayList<>(allocator.getChildAllocators());
+    info.child_count = children.size();
+    allocators.add(info);
+
+    for (final BufferAllocator child : children) {
+      addAllocators(allocators, endpoint, child, level + 1);
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    return iterator.hasNext();
+  }
+
+  @Override
+  public Object next() {
+    return iterator.next();
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static class AllocatorInfo {
+    public String hostname;
+    public long user_port;
+    public String name;
+    public String parent;
+    public int level;
+    public int child_count;
+    public long allocated;
+    public long peak;
+    public long limit;
+    public boolean over_limit;
+  }
+}
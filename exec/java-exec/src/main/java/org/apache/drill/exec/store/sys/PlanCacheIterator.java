@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.sys;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.planner.sql.PlanCache;
+import org.apache.drill.exec.proto.CoordinationProtos.DrillbitEndpoint;
+
+/**
+ * Lists the physical plans cached by a Drillbit, least recently used first.
+ */
+public class PlanCacheIterator implements Iterator<Object> {
+
+  private final Iterator<PlanInfo> iterator;
+
+  public PlanCacheIterator(final FragmentContext context) {
+    final DrillbitEndpoint endpoint = context.getIdentity();
+    final List<PlanInfo> plans = new ArrayList<>();
+    for (final PlanCache.Entry entry : context.getDrillbitContext().getPlanCache().getEntries()) {
+      final PlanInfo info = new PlanInfo();
+      info.hostname = endpoint.getAddress();
+      info.user_port = endpoint.getUserPort();
+      info.query = entry.sql;
+      info.user = entry.user;
+      info.default_schema = entry.defaultSchema;
+      info.hits = entry.getHits();
+      info.planning_time_ms = entry.planningMillis;
+      info.tracked_paths = entry.getTrackedPathCount();
+      info.created = new Timestamp(entry.created);
+      info.last_hit = entry.getLastHit() == 0 ? null : new Timestamp(entry.getLastHit());
+      plans.add(info);
+    }
+    iterator = plans.iterator();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return iterator.hasNext();
+  }
+
+  @Override
+  public Object next() {
+    return iterator.next();
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static class PlanInfo {
+    public String hostname;
+    public long user_port;
+    public String query;
+    public String user;
+    public String default_schema;
+    public long hits;
+    public long planning_time_ms;
+    public int tracked_paths;
+    public Timestamp created;
+    public Timestamp last_hit;
+  }
+}
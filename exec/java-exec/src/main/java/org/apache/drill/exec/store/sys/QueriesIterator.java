@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.sys;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.proto.CoordinationProtos.DrillbitEndpoint;
+import org.apache.drill.exec.work.foreman.QueryQueue;
+
+/**
+ * Lists the queries waiting in or admitted through the memory based query queue of a Drillbit.
+ */
+public class QueriesIterator implements Iterator<Object> {
+
+  private final Iterator<QueryInfo> iterator;
+
+  public QueriesIterator(final FragmentContext context) {
+    final DrillbitEndpoint endpoint = context.getIdentity();
+    final List<QueryInfo> queries = new ArrayList<>();
+    for (final QueryQueue.QueryInfo query : context.getDrillbitContext().getQueryQueue().getQueries()) {
+      final QueryInfo info = new QueryInfo();
+      info.hostname = endpoint.getAddress();
+      info.user_port = endpoint.getUserPort();
+      info.query_id = query.queryId;
+      info.user = query.user;
+      info.state = query.state.name();
+      info.priority = query.priority;
+      info.estimated_memory = query.estimatedMemory;
+      info.reserved_memory = query.reservedMemory;
+      info.queue_time_ms = query.queueTimeMillis;
+      queries.add(info);
+    }
+    iterator = queries.iterator();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return iterator.hasNext();
+  }
+
+  @Override
+  public Object next() {
+    return iterator.next();
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static class QueryInfo {
+    public String hostname;
+    public long user_port;
+    public String query_id;
+    public String user;
+    public String state;
+    public int priority;
+    public long estimated_memory;
+    public long reserved_memory;
+    public long queue_time_ms;
+  }
+}
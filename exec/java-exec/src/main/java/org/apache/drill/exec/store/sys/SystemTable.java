@@ -27,7 +27,9 @@ import org.apache.drill.exec.store.sys.OptionIterator.OptionValueWrapper;
  * <p>
  *   OPTION, DRILLBITS and VERSION are local tables available on every Drillbit.
  *   MEMORY and THREADS are distributed tables with one record on every
- *   Drillbit.
+ *   Drillbit. ALLOCATORS, QUERIES and PLAN_CACHE are distributed tables with
+ *   one record per open allocator, per queued or admitted query, respectively
+ *   per cached plan, on every Drillbit.
  * </p>
  */
 public enum SystemTable {
@@ -72,6 +74,27 @@ public enum SystemTable {
   public Iterator<Object> getIterator(final FragmentContext context) {
       return new ThreadsIterator(context);
     }
+  },
+
+  ALLOCATORS("allocators", true, AllocatorsIterator.AllocatorInfo.class) {
+    @Override
+    public Iterator<Object> getIterator(final FragmentContext context) {
+      return new AllocatorsIterator(context);
+    }
+  },
+
+  QUERIES("queries", true, QueriesIterator.QueryInfo.class) {
+    @Override
+    public Iterator<Object> getIterator(final FragmentContext context) {
+      return new QueriesIterator(context);
+    }
+  },
+
+  PLAN_CACHE("plan_cache", true, PlanCacheIterator.PlanInfo.class) {
+    @Override
+    public Iterator<Object> getIterator(final FragmentContext context) {
+      return new PlanCacheIterator(context);
+    }
   };
 
 //  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SystemTable.class);
@@ -17,22 +17,37 @@
  */
 package org.apache.drill.exec.util;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.drill.common.config.DrillConfig;
+import org.apache.drill.common.logical.data.NamedExpression;
 import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.expr.holders.IntHolder;
 import org.apache.drill.exec.memory.RootAllocatorFactory;
 import org.apache.drill.exec.ops.QueryContext;
 import org.apache.drill.exec.physical.PhysicalPlan;
 import org.apache.drill.exec.physical.base.PhysicalOperator;
 import org.apache.drill.exec.physical.config.ExternalSort;
+import org.apache.drill.exec.physical.config.HashAggregate;
+import org.apache.drill.exec.physical.config.HashJoinPOP;
+import org.apache.drill.exec.physical.config.MergeJoinPOP;
+import org.apache.drill.exec.physical.config.NestedLoopJoinPOP;
+import org.apache.drill.exec.physical.config.Project;
+import org.apache.drill.exec.physical.config.StreamingAggregate;
+import org.apache.drill.exec.planner.StarColumnHelper;
 import org.apache.drill.exec.server.options.OptionManager;
 
 public class MemoryAllocationUtilities {
 
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MemoryAllocationUtilities.class);
 
+  /**
+   * Number of fields assumed for star columns and scans, whose fields are not known before they run.
+   */
+  static final int UNKNOWN_FIELD_COUNT = 10;
+
   /**
    * Helper method to setup SortMemoryAllocations
    * since this method can be used in multiple places adding it in this class
@@ -53,10 +68,7 @@ public class MemoryAllocationUtilities {
     if (sortList.size() > 0) {
       final OptionManager optionManager = queryContext.getOptions();
       final long maxWidthPerNode = optionManager.getOption(ExecConstants.MAX_WIDTH_PER_NODE_KEY).num_val;
-      long maxAllocPerNode = Math.min(DrillConfig.getMaxDirectMemory(),
-          queryContext.getConfig().getLong(RootAllocatorFactory.TOP_LEVEL_MAX_ALLOC));
-      maxAllocPerNode = Math.min(maxAllocPerNode,
-          optionManager.getOption(ExecConstants.MAX_QUERY_MEMORY_PER_NODE_KEY).num_val);
+      final long maxAllocPerNode = getMaxQueryMemoryPerNode(queryContext);
       final long maxSortAlloc = maxAllocPerNode / (sortList.size() * maxWidthPerNode);
       logger.debug("Max sort alloc: {}", maxSortAlloc);
 
@@ -66,4 +78,92 @@ public class MemoryAllocationUtilities {
     }
   }
 
+  /**
+   * @return the most memory a single query may use on a node, bounded by the direct memory available to the Drillbit
+   */
+  public static long getMaxQueryMemoryPerNode(final QueryContext queryContext) {
+    final long maxAllocPerNode = Math.min(DrillConfig.getMaxDirectMemory(),
+        queryContext.getConfig().getLong(RootAllocatorFactory.TOP_LEVEL_MAX_ALLOC));
+    return Math.min(maxAllocPerNode,
+        queryContext.getOptions().getOption(ExecConstants.MAX_QUERY_MEMORY_PER_NODE_KEY).num_val);
+  }
+
+  /**
+   * Estimate the memory a query needs on each node from its physical plan. Only the buffering operators are counted:
+   * sorts with the allocation given to them by {@link #setupSortMemoryAllocations}, bounded by their estimated input,
+   * and hash aggregates and hash joins by their estimated hash table size. Rows are sized as
+   * {@code planner.memory.average_field_width} times their estimated number of fields. Everything else is covered by
+   * the allowance for non-blocking operators.
+   * <p>
+   * Sort allocations must have been set up before calling this.
+   *
+   * @return estimated memory per node in bytes, at most {@link #getMaxQueryMemoryPerNode}
+   */
+  public static long estimateQueryMemoryPerNode(final PhysicalPlan plan, final QueryContext queryContext) {
+    final OptionManager optionManager = queryContext.getOptions();
+    final long maxWidthPerNode = optionManager.getOption(ExecConstants.MAX_WIDTH_PER_NODE_KEY).num_val;
+    final long fieldWidth = optionManager.getOption(ExecConstants.AVERAGE_FIELD_WIDTH_KEY).num_val;
+    final double hashAggFactor = optionManager.getOption(ExecConstants.HASH_AGG_TABLE_FACTOR_KEY).float_val;
+    final double hashJoinFactor = optionManager.getOption(ExecConstants.HASH_JOIN_TABLE_FACTOR_KEY).float_val;
+    final int nodes = Math.max(1, queryContext.getActiveEndpoints().size());
+
+    // planner.memory.non_blocking_operators_memory is in MB
+    double estimate = optionManager.getOption(ExecConstants.NON_BLOCKING_OPERATORS_MEMORY_KEY).num_val * 1024 * 1024;
+    for (final PhysicalOperator op : plan.getSortedOperators()) {
+      if (op instanceof ExternalSort) {
+        final PhysicalOperator input = ((ExternalSort) op).getChild();
+        final double sortInput = input.getCost() * fieldWidth * estimateFieldCount(input) / nodes;
+        estimate += Math.min(((ExternalSort) op).getMaxAllocation() * maxWidthPerNode, sortInput);
+      } else if (op instanceof HashAggregate) {
+        // table + hashValues + links, as in DrillAggregateRelBase
+        final double rowWidth = fieldWidth * estimateFieldCount(op) + IntHolder.WIDTH + IntHolder.WIDTH;
+        estimate += op.getCost() * rowWidth * hashAggFactor / nodes;
+      } else if (op instanceof HashJoinPOP) {
+        // the build side keeps all of its fields, not only the join keys
+        final PhysicalOperator build = ((HashJoinPOP) op).getRight();
+        final double rowWidth = fieldWidth * estimateFieldCount(build) + IntHolder.WIDTH + IntHolder.WIDTH;
+        estimate += build.getCost() * rowWidth * hashJoinFactor / nodes;
+      }
+    }
+
+    final long maxAllocPerNode = getMaxQueryMemoryPerNode(queryContext);
+    logger.debug("Estimated query memory per node: {} (max {})", (long) estimate, maxAllocPerNode);
+    return (long) Math.min(estimate, maxAllocPerNode);
+  }
+
+  /**
+   * Estimate the number of fields of the rows an operator produces, from the closest operator at or below it that
+   * lists its output expressions. Star columns, and inputs whose fields are only known at run time, count as
+   * {@link #UNKNOWN_FIELD_COUNT} fields.
+   */
+  static int estimateFieldCount(final PhysicalOperator op) {
+    if (op instanceof Project) {
+      return estimateFieldCount(((Project) op).getExprs());
+    } else if (op instanceof HashAggregate) {
+      return estimateFieldCount(((HashAggregate) op).getGroupByExprs())
+          + estimateFieldCount(((HashAggregate) op).getAggrExprs());
+    } else if (op instanceof StreamingAggregate) {
+      return estimateFieldCount(((StreamingAggregate) op).getKeys())
+          + estimateFieldCount(((StreamingAggregate) op).getExprs());
+    } else if (op instanceof HashJoinPOP) {
+      return estimateFieldCount(((HashJoinPOP) op).getLeft()) + estimateFieldCount(((HashJoinPOP) op).getRight());
+    } else if (op instanceof MergeJoinPOP) {
+      return estimateFieldCount(((MergeJoinPOP) op).getLeft()) + estimateFieldCount(((MergeJoinPOP) op).getRight());
+    } else if (op instanceof NestedLoopJoinPOP) {
+      return estimateFieldCount(((NestedLoopJoinPOP) op).getLeft())
+          + estimateFieldCount(((NestedLoopJoinPOP) op).getRight());
+    }
+    // filters, sorts, exchanges and the like pass the rows of their (first) input on
+    final Iterator<PhysicalOperator> children = op.iterator();
+    return children.hasNext() ? estimateFieldCount(children.next()) : UNKNOWN_FIELD_COUNT;
+  }
+
+  private static int estimateFieldCount(final List<NamedExpression> exprs) {
+    int count = 0;
+    for (final NamedExpression expr : exprs) {
+      count += StarColumnHelper.isStarColumn(expr.getRef().getRootSegment().getPath()) ? UNKNOWN_FIELD_COUNT : 1;
+    }
+    return count;
+  }
+
 }
@@ -23,6 +23,7 @@ import io.netty.channel.ChannelFuture;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
 
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Date;
@@ -47,6 +48,7 @@ import org.apache.drill.exec.exception.OptimizerException;
 import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.metrics.DrillMetrics;
 import org.apache.drill.exec.ops.FragmentContext;
+import org.apache.drill.exec.ops.QueryCompletionListener;
 import org.apache.drill.exec.ops.QueryContext;
 import org.apache.drill.exec.opt.BasicOptimizer;
 import org.apache.drill.exec.physical.PhysicalPlan;
@@ -54,9 +56,11 @@ import org.apache.drill.exec.physical.base.FragmentRoot;
 import org.apache.drill.exec.physical.base.PhysicalOperator;
 import org.apache.drill.exec.planner.fragment.Fragment;
 import org.apache.drill.exec.planner.fragment.MakeFragmentsVisitor;
+import org.apache.drill.exec.planner.fragment.ParallelizationFeedback;
 import org.apache.drill.exec.planner.fragment.SimpleParallelizer;
 import org.apache.drill.exec.planner.sql.DirectPlan;
 import org.apache.drill.exec.planner.sql.DrillSqlWorker;
+import org.apache.drill.exec.planner.sql.InputVersions;
 import org.apache.drill.exec.proto.BitControl.InitializeFragments;
 import org.apache.drill.exec.proto.BitControl.PlanFragment;
 import org.apache.drill.exec.proto.CoordinationProtos.DrillbitEndpoint;
@@ -146,6 +150,8 @@ public class Foreman implements Runnable {
 
 
   private String queryText;
+  private ResultCache.Writer resultCacheWriter; // captures the result for the result cache, if it may be cached
+  private String planFingerprint; // identifies the plan in the parallelization feedback, if it is to be recorded
 
   /**
    * Constructor. Sets up the Foreman, but does not initiate any execution.
@@ -538,6 +544,11 @@ public class Foreman implements Runnable {
    * @throws ForemanSetupException
    */
   private void acquireQuerySemaphore(final PhysicalPlan plan) throws ForemanSetupException {
+    if (queryContext.getOptions().getOption(ExecConstants.ENABLE_MEMORY_QUEUE)) {
+      acquireQueryMemory(plan);
+      return;
+    }
+
     double totalCost = 0;
     for (final PhysicalOperator ops : plan.getSortedOperators()) {
       totalCost += ops.getCost();
@@ -585,6 +596,40 @@ public class Foreman implements Runnable {
     }
   }
 
+  /**
+   * Admit the query through the Drillbit's {@link QueryQueue}, reserving the memory per node estimated from its plan.
+   * Like {@link #acquireQuerySemaphore(double)}, this blocks the calling thread until the query is admitted or the
+   * queue timeout expires.
+   *
+   * @param plan the query plan, with sort memory allocations already set up
+   * @throws ForemanSetupException
+   */
+  private void acquireQueryMemory(final PhysicalPlan plan) throws ForemanSetupException {
+    final OptionManager optionManager = queryContext.getOptions();
+    final long queueTimeout = optionManager.getOption(ExecConstants.QUEUE_TIMEOUT);
+    final int priority = (int) optionManager.getOption(ExecConstants.QUEUE_PRIORITY);
+    // the pool is shared by all Drillbits, so it is sized from the system value rather than from session settings
+    final long poolSize = drillbitContext.getOptionManager().getOption(ExecConstants.MEMORY_QUEUE_POOL_SIZE)
+        * 1024 * 1024;
+    final long memoryPerNode = MemoryAllocationUtilities.estimateQueryMemoryPerNode(plan, queryContext);
+
+    try {
+      lease = drillbitContext.getQueryQueue().admit(queryId, queryContext.getQueryUserName(), priority,
+          memoryPerNode, poolSize, queueTimeout);
+    } catch (final Exception e) {
+      throw new ForemanSetupException("Unable to acquire memory for query.", e);
+    }
+
+    if (lease == null) {
+      throw UserException
+          .resourceError()
+          .message(
+              "Unable to acquire %d MB of query memory within timeout.  Timeout for the memory queue was set at %d seconds.",
+              memoryPerNode / (1024 * 1024), queueTimeout / 1000)
+          .build(logger);
+    }
+  }
+
   Exception getCurrentException() {
     return foremanResult.getException();
   }
@@ -593,6 +638,11 @@ public class Foreman implements Runnable {
     final PhysicalOperator rootOperator = plan.getSortedOperators(false).iterator().next();
     final Fragment rootFragment = rootOperator.accept(MakeFragmentsVisitor.INSTANCE, null);
     final SimpleParallelizer parallelizer = new SimpleParallelizer(queryContext);
+    if (queryContext.getOptions().getOption(ExecConstants.PARALLELIZATION_FEEDBACK)) {
+      final ParallelizationFeedback feedback = drillbitContext.getParallelizationFeedback();
+      planFingerprint = feedback.getFingerprint(plan);
+      parallelizer.setObservations(feedback.get(planFingerprint));
+    }
     final QueryWorkUnit queryWorkUnit = parallelizer.getFragments(
         queryContext.getOptions().getOptionList(), queryContext.getCurrentEndpoint(),
         queryId, queryContext.getActiveEndpoints(), drillbitContext.getPlanReader(), rootFragment,
@@ -796,6 +846,20 @@ public class Foreman implements Runnable {
       drillbitContext.getWorkBus().removeFragmentStatusListener(queryId);
       drillbitContext.getClusterCoordinator().removeDrillbitStatusListener(queryManager.getDrillbitStatusListener());
 
+      // publish or discard what the query has left to its end; a failure to publish fails the query
+      for (final QueryCompletionListener listener : queryContext.getCompletionListeners()) {
+        if (resultState == QueryState.COMPLETED) {
+          suppressingClose(new AutoCloseable() {
+            @Override
+            public void close() throws Exception {
+              listener.completed();
+            }
+          });
+        } else {
+          listener.failed();
+        }
+      }
+
       suppressingClose(queryContext);
 
       /*
@@ -831,6 +895,22 @@ public class Foreman implements Runnable {
       // we store the final result here so we can capture any error/errorId in the profile for later debugging.
       queryManager.writeFinalProfile(uex);
 
+      if (planFingerprint != null && resultState == QueryState.COMPLETED) {
+        try {
+          drillbitContext.getParallelizationFeedback().record(planFingerprint, queryManager.getQueryProfile());
+        } catch (final Exception e) {
+          logger.warn("Failure while recording parallelization feedback", e);
+        }
+      }
+
+      if (resultCacheWriter != null) {
+        if (resultState == QueryState.COMPLETED) {
+          resultCacheWriter.commit();
+        } else {
+          resultCacheWriter.abort();
+        }
+      }
+
       /*
        * If sending the result fails, we don't really have any way to modify the result we tried to send;
        * it is possible it got sent but the result came from a later part of the code path. It is also
@@ -1005,11 +1085,63 @@ public class Foreman implements Runnable {
 
   private void runSQL(final String sql) throws ExecutionSetupException {
     final Pointer<String> textPlan = new Pointer<>();
-    final PhysicalPlan plan = DrillSqlWorker.getPlan(queryContext, sql, textPlan);
+    final Pointer<Boolean> resultCacheable = new Pointer<>(false);
+    final PhysicalPlan plan = DrillSqlWorker.getPlan(queryContext, sql, textPlan, resultCacheable);
     queryManager.setPlanText(textPlan.value);
+    if (queryContext.getOptions().getOption(ExecConstants.RESULT_CACHE_ENABLE) && resultCacheable.value
+        && serveFromResultCache(plan, textPlan.value)) {
+      return;
+    }
     runPhysicalPlan(plan);
   }
 
+  /**
+   * Replays the cached result of the given plan, if there is a current one. Otherwise, and if the result of the plan
+   * may be cached, sets up {@link #resultCacheWriter} to capture the result.
+   *
+   * @return whether the query has been answered from the result cache
+   */
+  private boolean serveFromResultCache(final PhysicalPlan plan, final String textPlan) throws ForemanSetupException {
+    final ResultCache resultCache = drillbitContext.getResultCache();
+    final InputVersions versions = resultCache.getInputVersions(plan);
+    if (versions == null) {
+      return false;
+    }
+
+    final OptionManager options = queryContext.getOptions();
+    final String key = resultCache.getKey(queryContext.getQueryUserName(), plan);
+    final ResultCache.Entry entry = resultCache.get(key, versions,
+        TimeUnit.SECONDS.toMillis(options.getOption(ExecConstants.RESULT_CACHE_TTL)));
+    DataInputStream cachedResult = null;
+    if (entry != null) {
+      try {
+        cachedResult = entry.open();
+      } catch (final IOException e) {
+        logger.debug("Cached result of query {} no longer available.", entry.queryId, e);
+      }
+    }
+    if (cachedResult == null) {
+      resultCacheWriter = resultCache.newWriter(key, queryIdString, versions, initiatingClient,
+          options.getOption(ExecConstants.RESULT_CACHE_MAX_ENTRY_SIZE), options.getOption(ExecConstants.RESULT_CACHE_SIZE));
+      return false;
+    }
+
+    logger.info("Serving query {} from the result cache entry of query {}.", queryIdString, entry.queryId);
+    queryManager.setPlanText(String.format("Result cache hit: %d rows in %d batches cached by query %s at %s%n%n%s",
+        entry.rows, entry.batches, entry.queryId, new Date(entry.created), textPlan));
+    if (state == QueryState.ENQUEUED) {
+      moveToState(QueryState.STARTING, null);
+    }
+    moveToState(QueryState.RUNNING, null);
+    try {
+      entry.replay(cachedResult, queryId, queryContext.getAllocator(), initiatingClient);
+    } catch (final IOException | InterruptedException e) {
+      throw new ForemanSetupException("Failure while sending cached query result.", e);
+    }
+    moveToState(QueryState.COMPLETED, null);
+    return true;
+  }
+
   private PhysicalPlan convert(final LogicalPlan plan) throws OptimizerException {
     if (logger.isDebugEnabled()) {
       logger.debug("Converting logical plan {}.", plan.toJsonStringSafe(queryContext.getLpPersistence()));
@@ -1033,7 +1165,8 @@ public class Foreman implements Runnable {
       throws ExecutionSetupException {
     @SuppressWarnings("resource")
     final FragmentContext rootContext = new FragmentContext(drillbitContext, rootFragment, queryContext,
-        initiatingClient, drillbitContext.getFunctionImplementationRegistry());
+        resultCacheWriter != null ? resultCacheWriter : initiatingClient,
+        drillbitContext.getFunctionImplementationRegistry());
     @SuppressWarnings("resource")
     final IncomingBuffers buffers = new IncomingBuffers(rootFragment, rootContext);
     rootContext.setBuffers(buffers);
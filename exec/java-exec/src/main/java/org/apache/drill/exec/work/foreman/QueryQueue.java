@@ -0,0 +1,291 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.foreman;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.drill.exec.coord.ClusterCoordinator;
+import org.apache.drill.exec.coord.DistributedSemaphore;
+import org.apache.drill.exec.coord.DistributedSemaphore.DistributedLease;
+import org.apache.drill.exec.proto.UserBitShared.QueryId;
+import org.apache.drill.exec.proto.helper.QueryIdHelper;
+
+/**
+ * Admits queries by their estimated memory demand per node.
+ * <p>
+ * Memory is reserved through a distributed semaphore of the cluster coordinator, in units of {@link #MEMORY_UNIT}.
+ * The semaphore holds as many units as fit in the per-node memory pool; since the fragments of a query are spread
+ * over all nodes, a query holding units for its per-node estimate holds that much memory on every node.
+ * <p>
+ * Queries waiting on the same Drillbit line up locally. The line is ordered by priority (higher first), then by the
+ * number of queries the user already has admitted on this Drillbit, then by arrival. The first in line retries the
+ * distributed semaphore with short timed attempts. While it is blocked, later queries may try too and go ahead of it
+ * if their smaller reservation fits; after {@link #MAX_BYPASS} such admissions only the first in line may try again,
+ * so a large query is not starved by a stream of small ones.
+ */
+public class QueryQueue {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(QueryQueue.class);
+
+  /**
+   * Granularity of memory reservations.
+   */
+  public static final long MEMORY_UNIT = 64L * 1024 * 1024;
+  private static final String SEMAPHORE_NAME = "query.memory";
+  /**
+   * Longest single attempt on the distributed semaphore; waiting queries retry until their timeout expires.
+   */
+  private static final long ATTEMPT_MILLIS = 100;
+  /**
+   * How many later queries may be admitted ahead of a blocked first in line.
+   */
+  static final int MAX_BYPASS = 16;
+
+  public enum State {
+    QUEUED, ADMITTED
+  }
+
+  private final ClusterCoordinator coordinator;
+  private final ConcurrentMap<QueryId, Entry> entries = new ConcurrentHashMap<>();
+
+  // guarded by this
+  private final List<Entry> waiting = new LinkedList<>();
+  private final Map<String, Integer> admittedPerUser = new HashMap<>();
+  private long sequence;
+
+  public QueryQueue(final ClusterCoordinator coordinator) {
+    this.coordinator = coordinator;
+  }
+
+  /**
+   * Block until the query can be admitted, or the timeout expires.
+   *
+   * @param queryId the query to admit
+   * @param user the user running the query
+   * @param priority priority of the query; higher is admitted first
+   * @param memoryPerNode estimated memory of the query per node, in bytes
+   * @param poolSize memory per node shared by all admitted queries, in bytes
+   * @param timeoutMillis how long to wait for admission
+   * @return the lease to close when the query completes, or null if the query could not be admitted in time
+   */
+  public DistributedLease admit(final QueryId queryId, final String user, final int priority,
+      final long memoryPerNode, final long poolSize, final long timeoutMillis) throws Exception {
+    final int poolUnits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, poolSize / MEMORY_UNIT));
+    final int units = (int) Math.max(1, Math.min(poolUnits, (memoryPerNode + MEMORY_UNIT - 1) / MEMORY_UNIT));
+    final long deadline = System.currentTimeMillis() + timeoutMillis;
+
+    final Entry entry;
+    synchronized (this) {
+      entry = new Entry(queryId, user, priority, memoryPerNode, units, sequence++);
+      waiting.add(entry);
+    }
+    entries.put(queryId, entry);
+    logger.debug("Query {} queued, requesting {} of {} memory units.", entry.queryId, units, poolUnits);
+
+    boolean admitted = false;
+    try {
+      final DistributedSemaphore semaphore = coordinator.getSemaphore(SEMAPHORE_NAME, poolUnits);
+      DistributedLease lease = null;
+      while (lease == null) {
+        synchronized (this) {
+          while (!mayAttempt(entry)) {
+            final long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+              return null;
+            }
+            wait(Math.min(remaining, ATTEMPT_MILLIS));
+          }
+        }
+
+        final long remaining = Math.max(0, deadline - System.currentTimeMillis());
+        lease = semaphore.acquire(units, Math.min(remaining, ATTEMPT_MILLIS), TimeUnit.MILLISECONDS);
+        if (lease == null && System.currentTimeMillis() >= deadline) {
+          return null;
+        }
+      }
+
+      synchronized (this) {
+        final Entry head = nextInLine();
+        if (head != entry) {
+          head.bypassed++;
+        }
+        final Integer count = admittedPerUser.get(user);
+        admittedPerUser.put(user, count == null ? 1 : count + 1);
+      }
+      entry.admit();
+      admitted = true;
+      logger.debug("Query {} admitted after {} ms.", entry.queryId, entry.admitTime - entry.enqueueTime);
+      return new AdmittedLease(entry, lease);
+    } finally {
+      synchronized (this) {
+        waiting.remove(entry);
+        notifyAll();
+      }
+      if (!admitted) {
+        entries.remove(queryId);
+      }
+    }
+  }
+
+  /**
+   * @return whether the query may try the distributed semaphore now; must be called while holding the monitor
+   */
+  private boolean mayAttempt(final Entry entry) {
+    final Entry head = nextInLine();
+    return head == entry || head.bypassed < MAX_BYPASS;
+  }
+
+  /**
+   * @return the first waiting query in admission order; must be called while holding the monitor
+   */
+  private Entry nextInLine() {
+    Entry next = null;
+    for (final Entry entry : waiting) {
+      if (next == null || compare(entry, next) < 0) {
+        next = entry;
+      }
+    }
+    return next;
+  }
+
+  private int compare(final Entry e1, final Entry e2) {
+    if (e1.priority != e2.priority) {
+      return e1.priority > e2.priority ? -1 : 1;
+    }
+    final int admitted1 = admittedCount(e1.user);
+    final int admitted2 = admittedCount(e2.user);
+    if (admitted1 != admitted2) {
+      return admitted1 < admitted2 ? -1 : 1;
+    }
+    return Long.compare(e1.sequence, e2.sequence);
+  }
+
+  private int admittedCount(final String user) {
+    final Integer count = admittedPerUser.get(user);
+    return count == null ? 0 : count;
+  }
+
+  private synchronized void released(final Entry entry) {
+    final int count = admittedCount(entry.user) - 1;
+    if (count > 0) {
+      admittedPerUser.put(entry.user, count);
+    } else {
+      admittedPerUser.remove(entry.user);
+    }
+    // per user counts take part in the admission order
+    notifyAll();
+  }
+
+  /**
+   * @return a snapshot of the queries currently queued or admitted through this Drillbit
+   */
+  public List<QueryInfo> getQueries() {
+    final List<QueryInfo> queries = new ArrayList<>();
+    for (final Entry entry : entries.values()) {
+      queries.add(entry.toInfo());
+    }
+    return queries;
+  }
+
+  private class AdmittedLease implements DistributedLease {
+    private final Entry entry;
+    private final DistributedLease lease;
+    private boolean closed;
+
+    public AdmittedLease(final Entry entry, final DistributedLease lease) {
+      this.entry = entry;
+      this.lease = lease;
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+      if (closed) {
+        return;
+      }
+      lease.close();
+      closed = true;
+      entries.remove(entry.id);
+      released(entry);
+    }
+  }
+
+  private static class Entry {
+    private final QueryId id;
+    private final String queryId;
+    private final String user;
+    private final int priority;
+    private final long memory;
+    private final int units;
+    private final long sequence;
+    private final long enqueueTime = System.currentTimeMillis();
+    private volatile long admitTime;
+    // number of later queries admitted while this one was first in line; guarded by the queue
+    private int bypassed;
+
+    public Entry(final QueryId id, final String user, final int priority, final long memory, final int units,
+        final long sequence) {
+      this.id = id;
+      this.queryId = QueryIdHelper.getQueryId(id);
+      this.user = user;
+      this.priority = priority;
+      this.memory = memory;
+      this.units = units;
+      this.sequence = sequence;
+    }
+
+    public void admit() {
+      admitTime = System.currentTimeMillis();
+    }
+
+    public QueryInfo toInfo() {
+      final long admitted = admitTime;
+      return new QueryInfo(queryId, user, admitted == 0 ? State.QUEUED : State.ADMITTED, priority, memory,
+          units * MEMORY_UNIT, (admitted == 0 ? System.currentTimeMillis() : admitted) - enqueueTime);
+    }
+  }
+
+  /**
+   * Queue state of a single query.
+   */
+  public static class QueryInfo {
+    public final String queryId;
+    public final String user;
+    public final State state;
+    public final int priority;
+    public final long estimatedMemory;
+    public final long reservedMemory;
+    public final long queueTimeMillis;
+
+    public QueryInfo(final String queryId, final String user, final State state, final int priority,
+        final long estimatedMemory, final long reservedMemory, final long queueTimeMillis) {
+      this.queryId = queryId;
+      this.user = user;
+      this.state = state;
+      this.priority = priority;
+      this.estimatedMemory = estimatedMemory;
+      this.reservedMemory = reservedMemory;
+      this.queueTimeMillis = queueTimeMillis;
+    }
+  }
+}
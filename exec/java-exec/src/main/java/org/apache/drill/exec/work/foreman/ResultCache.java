@@ -0,0 +1,433 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.foreman;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DrillBuf;
+import io.netty.channel.ChannelFuture;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.drill.common.config.DrillConfig;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.physical.PhysicalPlan;
+import org.apache.drill.exec.physical.base.PhysicalOperator;
+import org.apache.drill.exec.physical.base.Writer;
+import org.apache.drill.exec.physical.impl.materialize.QueryWritableBatch;
+import org.apache.drill.exec.planner.sql.InputVersions;
+import org.apache.drill.exec.proto.CoordinationProtos.DrillbitEndpoint;
+import org.apache.drill.exec.proto.GeneralRPCProtos.Ack;
+import org.apache.drill.exec.proto.UserBitShared.QueryData;
+import org.apache.drill.exec.proto.UserBitShared.QueryId;
+import org.apache.drill.exec.proto.UserBitShared.QueryResult;
+import org.apache.drill.exec.rpc.RpcException;
+import org.apache.drill.exec.rpc.RpcOutcomeListener;
+import org.apache.drill.exec.rpc.user.UserServer.UserClientConnection;
+import org.apache.drill.exec.rpc.user.UserSession;
+import org.apache.hadoop.conf.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+
+/**
+ * Drillbit local cache of the results of SQL queries, kept on local disk.
+ * <p>
+ * Results are keyed by the query user and a fingerprint of the physical plan, and are tagged with the
+ * {@link InputVersions} of the plan's scans. A result is only served to the user who ran the query that produced it,
+ * so users never see data they could not read themselves, and only as long as none of the input files or directories
+ * has changed and the result is younger than {@code exec.result_cache.ttl_secs}. Results are captured by tapping
+ * the batches the root fragment sends to the client and become visible once the query completed successfully.
+ * Results larger than {@code exec.result_cache.max_entry_size} are not cached, and the least recently used results
+ * are evicted once all cached results take more than {@code exec.result_cache.size} bytes. Only plain queries are
+ * cached: no DDL or writer plans, and no queries calling context dependent or non-deterministic functions.
+ */
+public class ResultCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ResultCache.class);
+
+  private static final String FILE_SUFFIX = ".result";
+
+  private final File directory;
+  private final ObjectWriter planWriter;
+  private final Configuration fsConf = new Configuration();
+
+  // guarded by entries
+  private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long totalBytes;
+
+  public ResultCache(final DrillConfig config, final DrillbitEndpoint endpoint, final ObjectWriter planWriter) {
+    this.directory = new File(config.getString(ExecConstants.RESULT_CACHE_DIRECTORY),
+        endpoint.getAddress() + "_" + endpoint.getUserPort());
+    this.planWriter = planWriter;
+    // results cached by an earlier run of this Drillbit are unknown to the index
+    deleteFiles();
+  }
+
+  /**
+   * @return the versions of the inputs of the given plan, or null if its result must not be cached
+   */
+  public InputVersions getInputVersions(final PhysicalPlan plan) {
+    // replaying the result of a plan that writes data would skip the write
+    for (final PhysicalOperator op : plan.getSortedOperators()) {
+      if (op instanceof Writer) {
+        return null;
+      }
+    }
+    return InputVersions.of(plan, fsConf);
+  }
+
+  public String getKey(final String user, final PhysicalPlan plan) {
+    final String fingerprint = Hashing.sha256().hashString(plan.unparse(planWriter), Charsets.UTF_8).toString();
+    return user + '\u0000' + fingerprint;
+  }
+
+  /**
+   * @return the cached result for the given key if it was produced from inputs of the given versions and has not
+   *         expired, or null
+   */
+  public Entry get(final String key, final InputVersions versions, final long ttlMillis) {
+    synchronized (entries) {
+      final Entry entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (!entry.versions.equals(versions) || System.currentTimeMillis() - entry.created > ttlMillis) {
+        remove(key);
+        return null;
+      }
+      entry.hits.incrementAndGet();
+      return entry;
+    }
+  }
+
+  /**
+   * Creates a connection which forwards everything to the given client connection and captures the result batches
+   * sent through it. The result is cached when {@link Writer#commit()} is called after the query completed.
+   */
+  public Writer newWriter(final String key, final String queryId, final InputVersions versions,
+      final UserClientConnection client, final long maxEntrySize, final long cacheSize) {
+    return new Writer(key, new File(directory, queryId + FILE_SUFFIX), versions, client, maxEntrySize, cacheSize);
+  }
+
+  public void invalidateAll() {
+    synchronized (entries) {
+      for (final Entry entry : entries.values()) {
+        delete(entry.file);
+      }
+      entries.clear();
+      totalBytes = 0;
+    }
+  }
+
+  public List<Entry> getEntries() {
+    synchronized (entries) {
+      return new ArrayList<>(entries.values());
+    }
+  }
+
+  private void put(final Entry entry, final long cacheSize) {
+    synchronized (entries) {
+      remove(entry.key);
+      entries.put(entry.key, entry);
+      totalBytes += entry.bytes;
+      final Iterator<Entry> iterator = entries.values().iterator();
+      while (totalBytes > cacheSize && iterator.hasNext()) {
+        final Entry evicted = iterator.next();
+        iterator.remove();
+        totalBytes -= evicted.bytes;
+        delete(evicted.file);
+      }
+    }
+  }
+
+  // requires holding the lock on entries
+  private void remove(final String key) {
+    final Entry entry = entries.remove(key);
+    if (entry != null) {
+      totalBytes -= entry.bytes;
+      delete(entry.file);
+    }
+  }
+
+  private void deleteFiles() {
+    final File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (final File file : files) {
+      if (file.getName().endsWith(FILE_SUFFIX)) {
+        delete(file);
+      }
+    }
+  }
+
+  private static void delete(final File file) {
+    if (file.exists() && !file.delete()) {
+      logger.warn("Unable to delete cached query result {}.", file);
+    }
+  }
+
+  /**
+   * A cached query result. Its file holds, for every batch, the length and bytes of the serialized
+   * {@link QueryData} header followed by the length and bytes of the batch body.
+   */
+  public static class Entry {
+    public final String queryId;
+    public final long created = System.currentTimeMillis();
+    public final long bytes;
+    public final long rows;
+    public final int batches;
+    private final String key;
+    private final File file;
+    private final InputVersions versions;
+    private final AtomicLong hits = new AtomicLong();
+
+    private Entry(String key, String queryId, File file, InputVersions versions, long bytes, long rows, int batches) {
+      this.key = key;
+      this.queryId = queryId;
+      this.file = file;
+      this.versions = versions;
+      this.bytes = bytes;
+      this.rows = rows;
+      this.batches = batches;
+    }
+
+    public long getHits() {
+      return hits.get();
+    }
+
+    /**
+     * Opens the result for replay. Opening before anything is sent allows falling back to executing the query if
+     * the result has been evicted in the meantime.
+     */
+    public DataInputStream open() throws IOException {
+      return new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    }
+
+    /**
+     * Sends the batches of the result to the client on behalf of the given query, one at a time.
+     */
+    public void replay(final DataInputStream in, final QueryId queryId, final BufferAllocator allocator,
+        final UserClientConnection client) throws IOException, InterruptedException {
+      try {
+        for (int i = 0; i < batches; i++) {
+          final byte[] headerBytes = new byte[in.readInt()];
+          in.readFully(headerBytes);
+          final QueryData header = QueryData.parseFrom(headerBytes).toBuilder().setQueryId(queryId).build();
+
+          final int length = in.readInt();
+          final DrillBuf body = allocator.buffer(Math.max(length, 1));
+          try {
+            while (body.writerIndex() < length) {
+              if (body.writeBytes(in, length - body.writerIndex()) < 0) {
+                throw new IOException("Unexpected end of cached query result " + file);
+              }
+            }
+          } catch (IOException e) {
+            body.release();
+            throw e;
+          }
+
+          final SendListener listener = new SendListener();
+          client.sendData(listener, new QueryWritableBatch(header, body));
+          listener.await();
+        }
+      } finally {
+        in.close();
+      }
+    }
+  }
+
+  /**
+   * Waits for the client to acknowledge a replayed batch.
+   */
+  private static class SendListener implements RpcOutcomeListener<Ack> {
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private volatile RpcException exception;
+
+    @Override
+    public void failed(final RpcException ex) {
+      exception = ex;
+      latch.countDown();
+    }
+
+    @Override
+    public void success(final Ack value, final ByteBuf buffer) {
+      latch.countDown();
+    }
+
+    @Override
+    public void interrupted(final InterruptedException e) {
+      exception = new RpcException(e);
+      latch.countDown();
+    }
+
+    void await() throws IOException, InterruptedException {
+      latch.await();
+      if (exception != null) {
+        throw new IOException("Failure while sending cached query result to client.", exception);
+      }
+    }
+  }
+
+  /**
+   * Decorator around {@link UserClientConnection} which writes a copy of every result batch to disk before
+   * forwarding it to the client.
+   */
+  public class Writer implements UserClientConnection {
+    private final String key;
+    private final File file;
+    private final InputVersions versions;
+    private final UserClientConnection inner;
+    private final long maxEntrySize;
+    private final long cacheSize;
+
+    // guarded by this
+    private DataOutputStream out;
+    private boolean failed;
+    private long bytes;
+    private long rows;
+    private int batches;
+
+    private Writer(String key, File file, InputVersions versions, UserClientConnection inner, long maxEntrySize,
+        long cacheSize) {
+      this.key = key;
+      this.file = file;
+      this.versions = versions;
+      this.inner = inner;
+      this.maxEntrySize = maxEntrySize;
+      this.cacheSize = cacheSize;
+    }
+
+    @Override
+    public UserSession getSession() {
+      return inner.getSession();
+    }
+
+    @Override
+    public void sendResult(final RpcOutcomeListener<Ack> listener, final QueryResult result) {
+      inner.sendResult(listener, result);
+    }
+
+    @Override
+    public void sendData(final RpcOutcomeListener<Ack> listener, final QueryWritableBatch result) {
+      // the buffers are released once sent, so they have to be written out first
+      capture(result);
+      inner.sendData(listener, result);
+    }
+
+    @Override
+    public ChannelFuture getChannelClosureFuture() {
+      return inner.getChannelClosureFuture();
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+      return inner.getRemoteAddress();
+    }
+
+    private synchronized void capture(final QueryWritableBatch result) {
+      if (failed) {
+        return;
+      }
+      final byte[] header = result.getHeader().toByteArray();
+      final long length = result.getByteCount();
+      if (bytes + header.length + length > maxEntrySize) {
+        logger.debug("Query result exceeds {} bytes, not caching it.", maxEntrySize);
+        abort();
+        return;
+      }
+      try {
+        if (out == null) {
+          if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create result cache directory " + directory);
+          }
+          out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        }
+        out.writeInt(header.length);
+        out.write(header);
+        out.writeInt((int) length);
+        for (final ByteBuf buf : result.getBuffers()) {
+          buf.getBytes(buf.readerIndex(), out, buf.readableBytes());
+        }
+        bytes += 8 + header.length + length;
+        rows += result.getHeader().getRowCount();
+        batches++;
+      } catch (IOException e) {
+        logger.warn("Failure while writing query result to result cache.", e);
+        abort();
+      }
+    }
+
+    /**
+     * Makes the captured result available to later queries. Called once the query completed successfully.
+     */
+    public synchronized void commit() {
+      if (failed) {
+        return;
+      }
+      try {
+        if (out == null) {
+          // no batch was sent, nothing to replay
+          failed = true;
+          return;
+        }
+        out.close();
+        out = null;
+      } catch (IOException e) {
+        logger.warn("Failure while writing query result to result cache.", e);
+        abort();
+        return;
+      }
+      final String queryId = file.getName().substring(0, file.getName().length() - FILE_SUFFIX.length());
+      put(new Entry(key, queryId, file, versions, bytes, rows, batches), cacheSize);
+    }
+
+    /**
+     * Discards the captured result. Called if the query did not complete successfully.
+     */
+    public synchronized void abort() {
+      failed = true;
+      if (out != null) {
+        try {
+          out.close();
+        } catch (IOException e) {
+          logger.debug("Failure while closing result cache file.", e);
+        }
+        out = null;
+      }
+      delete(file);
+    }
+  }
+}
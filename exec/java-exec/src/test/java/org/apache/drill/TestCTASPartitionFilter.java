@@ -74,6 +74,38 @@ public class TestCTASPartitionFilter extends PlanTestBase {
     testExcludeFilter(query, 2, "Filter", 24);
   }
 
+  @Test
+  public void withBufferedPartitioning() throws Exception {
+    test("alter session set `planner.slice_target` = 1");
+    test("alter session set `store.partition.hash_distribute` = true");
+    test("alter session set `store.partition.buffered_write` = true");
+    try {
+      test("use dfs_test.tmp");
+      test(String.format("create table orders_buffered partition by (o_orderpriority) as select * from dfs_test.`%s/multilevel/parquet`", TEST_RES_PATH));
+      String query = "select * from orders_buffered where o_orderpriority = '1-URGENT'";
+      testExcludeFilter(query, 1, "Filter", 24);
+    } finally {
+      test("alter session reset `store.partition.buffered_write`");
+    }
+  }
+
+  @Test
+  public void withBufferedPartitioningOverMemoryBudget() throws Exception {
+    test("alter session set `planner.slice_target` = 1");
+    test("alter session set `store.partition.hash_distribute` = false");
+    test("alter session set `store.partition.buffered_write` = true");
+    test("alter session set `store.partition.buffered_write.memory` = 1");
+    try {
+      test("use dfs_test.tmp");
+      test(String.format("create table orders_buffered_budget partition by (o_orderpriority) as select * from dfs_test.`%s/multilevel/parquet`", TEST_RES_PATH));
+      String query = "select * from orders_buffered_budget where o_orderpriority = '1-URGENT'";
+      assertEquals(24, testSql(query));
+    } finally {
+      test("alter session reset `store.partition.buffered_write`");
+      test("alter session reset `store.partition.buffered_write.memory`");
+    }
+  }
+
   @Test
   public void testDRILL3410() throws Exception {
     test("alter session set `planner.slice_target` = 1");
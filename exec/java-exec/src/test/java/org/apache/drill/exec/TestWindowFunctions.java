@@ -140,31 +140,29 @@ public class TestWindowFunctions extends BaseTestQuery {
     }
   }
 
-  @Test(expected = UnsupportedFunctionException.class) // DRILL-3188
+  @Test // DRILL-3188
   public void testWindowFrame() throws Exception {
-    try {
-      final String query = "select a2, sum(a2) over(partition by a2 order by a2 rows between 1 preceding and 1 following ) \n" +
-          "from cp.`tpch/nation.parquet` t \n" +
-          "order by a2";
+    final String query = "select n_nationkey, sum(n_nationkey) over(order by n_nationkey rows between 1 preceding and 1 following) as s \n" +
+        "from cp.`tpch/nation.parquet` t \n" +
+        "order by n_nationkey";
 
-      test(query);
-    } catch(UserException ex) {
-        throwAsUnsupportedException(ex);
-        throw ex;
-    }
+    testBuilder()
+        .sqlQuery(query)
+        .ordered()
+        .sqlBaselineQuery("select n_nationkey, " +
+            "cast(case when n_nationkey = 0 then 1 when n_nationkey = 24 then 47 else 3 * n_nationkey end as bigint) as s \n" +
+            "from cp.`tpch/nation.parquet` \n" +
+            "order by n_nationkey")
+        .build()
+        .run();
   }
 
-  @Test(expected = UnsupportedFunctionException.class) // DRILL-3326
+  @Test // DRILL-3326
   public void testWindowWithAlias() throws Exception {
-    try {
-      String query = "explain plan for SELECT sum(n_nationkey) OVER (PARTITION BY n_name ORDER BY n_name ROWS BETWEEN CURRENT ROW AND 1 FOLLOWING) as col2 \n" +
-          "from cp.`tpch/nation.parquet`";
+    String query = "explain plan for SELECT sum(n_nationkey) OVER (PARTITION BY n_name ORDER BY n_name ROWS BETWEEN CURRENT ROW AND 1 FOLLOWING) as col2 \n" +
+        "from cp.`tpch/nation.parquet`";
 
-      test(query);
-    } catch(UserException ex) {
-      throwAsUnsupportedException(ex);
-      throw ex;
-    }
+    test(query);
   }
 
   @Test(expected = UnsupportedFunctionException.class) // DRILL-3189
@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.expr.fn.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.drill.exec.planner.cost.TableStatistics.ColumnStatistics;
+import org.junit.Test;
+
+import com.google.common.hash.Hashing;
+
+public class TestStatisticsSketches {
+
+  @Test
+  public void testHyperLogLogEstimate() {
+    final HyperLogLog hll = new HyperLogLog();
+    for (int i = 0; i < 100000; i++) {
+      hll.offer(Hashing.murmur3_128().hashLong(i % 20000).asLong());
+    }
+    final long estimate = hll.estimate();
+    assertTrue("Estimate " + estimate + " too far from 20000", Math.abs(estimate - 20000) < 20000 * 0.05);
+  }
+
+  @Test
+  public void testHyperLogLogMerge() {
+    final HyperLogLog left = new HyperLogLog();
+    final HyperLogLog right = new HyperLogLog();
+    for (int i = 0; i < 10; i++) {
+      left.offer(Hashing.murmur3_128().hashLong(i).asLong());
+      right.offer(Hashing.murmur3_128().hashLong(i + 5).asLong());
+    }
+    left.merge(right);
+    assertEquals(15, left.estimate(), 1);
+  }
+
+  @Test
+  public void testEquiDepthHistogram() {
+    final EquiDepthHistogramBuilder builder = new EquiDepthHistogramBuilder(4, 1000);
+    assertTrue(builder.isEmpty());
+    for (int i = 1; i <= 100; i++) {
+      builder.offer(i);
+    }
+    builder.offer(Double.NaN);
+    final double[] boundaries = builder.getBoundaries();
+    assertEquals(5, boundaries.length);
+    assertEquals(1, boundaries[0], 0);
+    assertEquals(100, boundaries[4], 0);
+    for (int i = 1; i < boundaries.length; i++) {
+      assertTrue(boundaries[i - 1] <= boundaries[i]);
+    }
+  }
+
+  @Test
+  public void testFrequentHistogramValues() {
+    final EquiDepthHistogramBuilder builder = new EquiDepthHistogramBuilder(32, 100000);
+    for (int i = 0; i < 10000; i++) {
+      // a third of the values is 7, about an eighth is 42 and the rest is distinct
+      builder.offer(i % 3 == 0 ? 7 : i % 5 == 1 ? 42 : 1000 + i);
+    }
+    final ColumnStatistics column = new ColumnStatistics(10000, 0, builder.getBoundaries());
+    assertEquals(Arrays.asList(7d, 42d), column.getFrequentValues(0.05));
+    assertEquals(Arrays.asList(7d), column.getFrequentValues(0.2));
+  }
+
+  @Test
+  public void testHistogramResetIsReproducible() {
+    final EquiDepthHistogramBuilder builder = new EquiDepthHistogramBuilder(8, 100);
+    for (int i = 0; i < 10000; i++) {
+      builder.offer(i);
+    }
+    final double[] first = builder.getBoundaries();
+    builder.reset();
+    for (int i = 0; i < 10000; i++) {
+      builder.offer(i);
+    }
+    assertTrue(Arrays.equals(first, builder.getBoundaries()));
+  }
+}
@@ -558,4 +558,93 @@ public class TestAggregateFunctions extends BaseTestQuery {
     }
   }
 
+  @Test
+  public void testTwoPhaseMergedAggregates() throws Exception {
+    // bit_or, bit_and, bool_or and bool_and declare themselves as their merge function
+    final String query = "select l_returnflag, bit_or(l_linenumber) bo, bit_and(l_linenumber) ba, " +
+        "bool_or(l_quantity > 45) bor, bool_and(l_quantity > 1) band " +
+        "from cp.`tpch/lineitem.parquet` group by l_returnflag";
+    try {
+      test("alter session set `planner.slice_target` = 1");
+      PlanTestBase.testPlanMatchingPatterns(query, new String[] {"(?s)HashAgg.*Exchange.*HashAgg"}, new String[] {});
+      testBuilder()
+          .sqlQuery(query)
+          .unOrdered()
+          .sqlBaselineQuery(query)
+          .optionSettingQueriesForBaseline("alter session set `planner.enable_multiphase_agg` = false")
+          .go();
+    } finally {
+      test("alter session reset `planner.slice_target`");
+      test("alter session reset `planner.enable_multiphase_agg`");
+    }
+  }
+
+  @Test
+  public void testAdaptivePartialHashAgg() throws Exception {
+    final String query = "select l_orderkey, count(*) cnt, sum(l_quantity) qty " +
+        "from cp.`tpch/lineitem.parquet` group by l_orderkey";
+    try {
+      testBuilder()
+          .sqlQuery(query)
+          .optionSettingQueriesForTestQuery("alter session set `planner.slice_target` = 1; " +
+              "alter session set `exec.hashagg.adaptive_partial` = true; " +
+              "alter session set `exec.hashagg.adaptive_sample_rows` = 1")
+          .unOrdered()
+          .sqlBaselineQuery(query)
+          .optionSettingQueriesForBaseline("alter session reset `exec.hashagg.adaptive_partial`")
+          .go();
+    } finally {
+      test("alter session reset `planner.slice_target`");
+      test("alter session reset `exec.hashagg.adaptive_partial`");
+      test("alter session reset `exec.hashagg.adaptive_sample_rows`");
+    }
+  }
+
+  @Test
+  public void testApproxCountDistinct() throws Exception {
+    testBuilder()
+        .sqlQuery("select abs(a.approx - e.exact) <= 0.05 * e.exact as close_enough " +
+            "from (select approx_count_distinct(l_orderkey) approx from cp.`tpch/lineitem.parquet`) a, " +
+            "(select count(distinct l_orderkey) exact from cp.`tpch/lineitem.parquet`) e")
+        .unOrdered()
+        .baselineColumns("close_enough")
+        .baselineValues(true)
+        .go();
+  }
+
+  @Test
+  public void testTwoPhaseApproxCountDistinct() throws Exception {
+    // merged sketches keep the largest register of every fragment, so both plans give the same estimates
+    final String query = "select l_returnflag, approx_count_distinct(l_partkey) parts, " +
+        "approx_count_distinct(l_comment) comments from cp.`tpch/lineitem.parquet` group by l_returnflag";
+    try {
+      test("alter session set `planner.slice_target` = 1");
+      testBuilder()
+          .sqlQuery(query)
+          .unOrdered()
+          .sqlBaselineQuery(query)
+          .optionSettingQueriesForBaseline("alter session set `planner.enable_multiphase_agg` = false")
+          .go();
+    } finally {
+      test("alter session reset `planner.slice_target`");
+      test("alter session reset `planner.enable_multiphase_agg`");
+    }
+  }
+
+  @Test
+  public void testApproxPercentile() throws Exception {
+    // l_quantity is uniformly distributed between 1 and 50
+    try {
+      test("alter session set `planner.slice_target` = 1");
+      testBuilder()
+          .sqlQuery("select approx_percentile(l_quantity, 0.0) lo, approx_percentile(l_quantity, 1.0) hi, " +
+              "approx_percentile(l_quantity, 0.5) between 24 and 27 as median_ok from cp.`tpch/lineitem.parquet`")
+          .unOrdered()
+          .baselineColumns("lo", "hi", "median_ok")
+          .baselineValues(1.0d, 50.0d, true)
+          .go();
+    } finally {
+      test("alter session reset `planner.slice_target`");
+    }
+  }
 }
@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.TopN;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.apache.drill.BaseTestQuery;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.proto.QueryIdHelper;
+import org.apache.drill.exec.proto.UserBitShared.CoreOperatorType;
+import org.apache.drill.exec.proto.UserBitShared.MajorFragmentProfile;
+import org.apache.drill.exec.proto.UserBitShared.MetricValue;
+import org.apache.drill.exec.proto.UserBitShared.MinorFragmentProfile;
+import org.apache.drill.exec.proto.UserBitShared.OperatorProfile;
+import org.apache.drill.exec.proto.UserBitShared.QueryId;
+import org.apache.drill.exec.proto.UserBitShared.QueryProfile;
+import org.apache.drill.exec.proto.UserBitShared.QueryType;
+import org.apache.drill.exec.rpc.user.QueryDataBatch;
+import org.apache.drill.exec.store.parquet.columnreaders.ParquetRecordReader;
+import org.apache.drill.exec.work.foreman.QueryManager;
+import org.junit.Test;
+
+public class TestTopNScanPruning extends BaseTestQuery {
+
+  @Test
+  public void testThreshold() {
+    final TopNThreshold ascending = new TopNThreshold("a", false, false);
+    assertFalse(ascending.canSkip(100, 200, false));
+    ascending.set(50);
+    assertTrue(ascending.canSkip(51, 200, false));
+    assertTrue(ascending.canSkip(51, 200, true));
+    // rows equal to the threshold may still win on the next sort key
+    assertFalse(ascending.canSkip(50, 200, false));
+
+    final TopNThreshold descending = new TopNThreshold("a", true, true);
+    descending.set(50);
+    assertTrue(descending.canSkip(0, 49, false));
+    assertFalse(descending.canSkip(0, 50, false));
+    // nulls sort before every value
+    assertFalse(descending.canSkip(0, 49, true));
+  }
+
+  @Test
+  public void testPrunedScan() throws Exception {
+    test("use dfs_test.tmp");
+    test("create table topn_pruning partition by (n_regionkey) as " +
+        "select n_nationkey, n_regionkey, n_name from cp.`tpch/nation.parquet`");
+    try {
+      for (String order : new String[] {"asc", "desc"}) {
+        final String query = String.format("select n_nationkey, n_name from topn_pruning " +
+            "where n_name <> 'CHINA' order by n_nationkey %s limit 3", order);
+        testBuilder()
+            .sqlQuery(query)
+            .ordered()
+            .optionSettingQueriesForTestQuery("alter session set `%s` = true", ExecConstants.TOPN_SCAN_PRUNING_KEY)
+            .optionSettingQueriesForBaseline("alter session set `%s` = false", ExecConstants.TOPN_SCAN_PRUNING_KEY)
+            .sqlBaselineQuery(query)
+            .go();
+      }
+
+      // the partitions are written in region order: once the first two are read, the top 3 keys are 0, 1 and 2 and
+      // the next regions, whose smallest keys are 8 and 6, are skipped; the last partition is always read
+      test("alter session set `%s` = true", ExecConstants.TOPN_SCAN_PRUNING_KEY);
+      final List<QueryDataBatch> results = testRunAndReturn(QueryType.SQL,
+          "select n_nationkey, n_name from topn_pruning order by n_nationkey limit 3");
+      final QueryId queryId = results.get(0).getHeader().getQueryId();
+      for (QueryDataBatch result : results) {
+        result.release();
+      }
+      assertTrue("row groups should have been skipped", getSkippedRowGroups(queryId) > 0);
+    } finally {
+      test("alter session set `%s` = %s", ExecConstants.TOPN_SCAN_PRUNING_KEY,
+          ExecConstants.TOPN_SCAN_PRUNING.getDefault().bool_val);
+      test("drop table topn_pruning");
+    }
+  }
+
+  private static long getSkippedRowGroups(QueryId queryId) throws Exception {
+    final QueryProfile profile = getDrillbitContext().getStoreProvider()
+        .getOrCreateStore(QueryManager.QUERY_PROFILE).get(QueryIdHelper.getQueryId(queryId));
+    long skipped = 0;
+    for (MajorFragmentProfile major : profile.getFragmentProfileList()) {
+      for (MinorFragmentProfile minor : major.getMinorFragmentProfileList()) {
+        for (OperatorProfile operator : minor.getOperatorProfileList()) {
+          if (operator.getOperatorType() != CoreOperatorType.PARQUET_ROW_GROUP_SCAN_VALUE) {
+            continue;
+          }
+          for (MetricValue metric : operator.getMetricList()) {
+            if (metric.getMetricId() == ParquetRecordReader.Metric.NUM_ROW_GROUPS_SKIPPED.metricId()) {
+              skipped += metric.getLongValue();
+            }
+          }
+        }
+      }
+    }
+    return skipped;
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.filter;
+
+import static org.junit.Assert.assertTrue;
+
+import org.apache.drill.PlanTestBase;
+import org.apache.drill.exec.ExecConstants;
+import org.junit.Test;
+
+public class TestFilterCompaction extends PlanTestBase {
+
+  private static final String QUERY = "select l_orderkey, l_partkey, l_quantity, l_shipdate, l_comment " +
+      "from cp.`tpch/lineitem.parquet` where %s";
+
+  private void compareWithSV2Path(String condition) throws Exception {
+    testBuilder()
+        .sqlQuery(QUERY, condition)
+        .optionSettingQueriesForTestQuery("alter session set `%s` = 1.0", ExecConstants.FILTER_COMPACTION_THRESHOLD_KEY)
+        .unOrdered()
+        .sqlBaselineQuery(QUERY, condition)
+        .optionSettingQueriesForBaseline("alter session set `%s` = 0.0", ExecConstants.FILTER_COMPACTION_THRESHOLD_KEY)
+        .go();
+  }
+
+  @Test
+  public void highlySelectiveFilter() throws Exception {
+    compareWithSV2Path("mod(l_orderkey, 97) = 3");
+  }
+
+  @Test
+  public void consecutiveRuns() throws Exception {
+    compareWithSV2Path("l_orderkey between 1000 and 3000");
+  }
+
+  @Test
+  public void nullableColumns() throws Exception {
+    testBuilder()
+        .sqlQuery("select employee_id, full_name, salary, gender from cp.`employee.json` where position_id = 17")
+        .optionSettingQueriesForTestQuery("alter session set `%s` = 1.0", ExecConstants.FILTER_COMPACTION_THRESHOLD_KEY)
+        .unOrdered()
+        .sqlBaselineQuery("select employee_id, full_name, salary, gender from cp.`employee.json` where position_id = 17")
+        .optionSettingQueriesForBaseline("alter session set `%s` = 0.0", ExecConstants.FILTER_COMPACTION_THRESHOLD_KEY)
+        .go();
+  }
+
+  @Test
+  public void noCompactionBelowSelectionVectorRemover() throws Exception {
+    // the operators above only accept batches without a selection vector, so a remover copies the output anyway
+    final String plan = getPlanInString("EXPLAIN PLAN FOR " + String.format(QUERY, "l_orderkey < 10"), JSON_FORMAT);
+    assertTrue(plan, plan.matches("(?s).*\"compact\"\\s*:\\s*false.*"));
+  }
+}
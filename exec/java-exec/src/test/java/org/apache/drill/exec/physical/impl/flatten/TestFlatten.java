@@ -21,6 +21,9 @@ import static org.apache.drill.TestBuilder.listOf;
 import static org.apache.drill.TestBuilder.mapOf;
 import static org.junit.Assert.assertEquals;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
 import java.util.List;
 
 import org.apache.drill.BaseTestQuery;
@@ -190,6 +193,47 @@ public class TestFlatten extends BaseTestQuery {
     builder.go();
   };
 
+  @Test // wide parent records over long lists, the parent columns are repeated with bulk copies
+  public void testFlattenWideParentRecords() throws Exception {
+    final File table = folder.newFolder("wide_parents");
+    final StringBuilder pad = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      pad.append('x');
+    }
+    long count = 0;
+    long idSum = 0;
+    long valueSum = 0;
+    long padLength = 0;
+    long names = 0;
+    try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(table, "data.json")))) {
+      for (int id = 0; id < 200; id++) {
+        final int listSize = id % 7 == 3 ? 0 : 300 + id;
+        writer.write(String.format("{ \"id\" : %d, \"pad\" : \"%s\", ", id, pad.substring(id)));
+        if (id % 5 != 1) {
+          writer.write(String.format("\"name\" : \"name_%d\", ", id));
+          names += listSize;
+        }
+        writer.write("\"nums\" : [");
+        for (int i = 0; i < listSize; i++) {
+          writer.write((i == 0 ? "" : ", ") + i);
+          valueSum += i;
+        }
+        writer.write("] }\n");
+        count += listSize;
+        idSum += (long) id * listSize;
+        padLength += (long) (pad.length() - id) * listSize;
+      }
+    }
+
+    testBuilder()
+        .sqlQuery("select count(*) as cnt, sum(id) as ids, sum(n) as ns, sum(char_length(pad)) as pads, " +
+            "count(name) as names from (select id, name, pad, flatten(nums) as n from dfs.`%s`)", table.getPath())
+        .unOrdered()
+        .baselineColumns("cnt", "ids", "ns", "pads", "names")
+        .baselineValues(count, idSum, valueSum, padLength, names)
+        .go();
+  }
+
   @Test
   public void drill1671() throws Exception{
     int rowCount = testSql("select * from (select count(*) as cnt from (select id, flatten(evnts1), flatten(evnts2), flatten(evnts3), flatten(evnts4), flatten(evnts5), flatten(evnts6), flatten(evnts7), flatten(evnts8), flatten(evnts9), flatten(evnts10), flatten(evnts11) from cp.`/flatten/many-arrays-50.json`)x )y where cnt = 2048");
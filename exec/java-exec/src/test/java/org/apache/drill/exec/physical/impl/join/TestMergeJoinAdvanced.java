@@ -248,4 +248,49 @@ public class TestMergeJoinAdvanced extends BaseTestQuery {
       .baselineValues(6000*800L)
       .go();
   }
+
+  @Test // right run of equal keys larger than the spill threshold, with long stretches of keys that don't match
+  public void testMergeJoinSpillRightRun() throws Exception {
+    final String leftSide = BaseTestQuery.getTempDir("merge-join-spill-left.json");
+    final String rightSide = BaseTestQuery.getTempDir("merge-join-spill-right.json");
+    final BufferedWriter leftWriter = new BufferedWriter(new FileWriter(new File(leftSide)));
+    final BufferedWriter rightWriter = new BufferedWriter(new FileWriter(new File(rightSide)));
+
+    // 100 left rows with key 50, one each for the other keys below 3000
+    for (int i = 0; i < 3000; ++i) {
+      leftWriter.write(String.format("{ \"k\" : %d , \"v\": %d }", i, i));
+    }
+    for (int i = 0; i < 99; ++i) {
+      leftWriter.write(String.format("{ \"k\" : %d , \"v\": %d }", 50, i));
+    }
+    // 10000 right rows with key 50, one each for the keys 2000 to 5999
+    for (int i = 0; i < 10000; ++i) {
+      rightWriter.write(String.format("{ \"k1\" : %d , \"v1\": %d }", 50, i));
+    }
+    for (int i = 2000; i < 6000; ++i) {
+      rightWriter.write(String.format("{ \"k1\" : %d , \"v1\": %d }", i, i));
+    }
+    leftWriter.close();
+    rightWriter.close();
+
+    setSessionOption(ExecConstants.MJOIN_SPILL_THRESHOLD_KEY, "1");
+    try {
+      testBuilder()
+        .sqlQuery("select count(*) c1, sum(R.v1) s1 from dfs_test.`%s` L inner join dfs_test.`%s` R on L.k=R.k1",
+          leftSide, rightSide)
+        .unOrdered()
+        .baselineColumns("c1", "s1")
+        .baselineValues(100L * 10000L + 1000L, 100L * 49995000L + 2499500L)
+        .go();
+      testBuilder()
+        .sqlQuery("select count(*) c1 from dfs_test.`%s` L left join dfs_test.`%s` R on L.k=R.k1", leftSide, rightSide)
+        .unOrdered()
+        .baselineColumns("c1")
+        .baselineValues(100L * 10000L + 1000L + 1999L)
+        .go();
+    } finally {
+      setSessionOption(ExecConstants.MJOIN_SPILL_THRESHOLD_KEY,
+        String.valueOf(ExecConstants.MJOIN_SPILL_THRESHOLD.getDefault().num_val));
+    }
+  }
 }
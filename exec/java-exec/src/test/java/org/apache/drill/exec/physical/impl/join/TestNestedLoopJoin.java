@@ -21,6 +21,8 @@ package org.apache.drill.exec.physical.impl.join;
 import org.apache.drill.PlanTestBase;
 import org.apache.drill.common.exceptions.UserException;
 import org.apache.drill.common.util.TestTools;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
 import org.apache.drill.exec.work.foreman.UnsupportedRelOperatorException;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -253,4 +255,61 @@ public class TestNestedLoopJoin extends PlanTestBase {
     test(ENABLE_HJ);
     test(ENABLE_MJ);
   }
+
+  @Test // band comparisons are pushed into the NLJ below the filter
+  public void testNlJoinBand_planning() throws Exception {
+    test(DISABLE_NLJ_SCALAR);
+    testPlanMatchingPatterns(testNlJoinInequality_2, new String[]{nlpattern, "band=\\[\\["}, new String[]{});
+    test(ENABLE_NLJ_SCALAR);
+  }
+
+  @Test
+  public void testNlJoinBand() throws Exception {
+    String[] queries = {
+        testNlJoinInequality_2,
+        "select a.n_nationkey, b.n_nationkey from cp.`tpch/nation.parquet` a "
+            + " inner join cp.`tpch/nation.parquet` b on a.n_nationkey between b.n_regionkey and b.n_nationkey",
+        "select a.n_nationkey, b.n_nationkey from cp.`tpch/nation.parquet` a "
+            + " inner join cp.`tpch/nation.parquet` b on a.n_regionkey > b.n_regionkey and a.n_nationkey < b.n_nationkey"
+    };
+    test(NLJ);
+    for (String query : queries) {
+      testBuilder()
+          .sqlQuery(query)
+          .unOrdered()
+          .optionSettingQueriesForTestQuery("alter session set `%s` = true", PlannerSettings.NLJOIN_BAND_KEY)
+          .optionSettingQueriesForBaseline("alter session set `%s` = false", PlannerSettings.NLJOIN_BAND_KEY)
+          .sqlBaselineQuery(query)
+          .go();
+    }
+    test(ENABLE_NLJ_SCALAR);
+    test(ENABLE_HJ);
+    test(ENABLE_MJ);
+  }
+
+  @Test // right side larger than the spill threshold, joined in several passes
+  public void testNlJoinSpill() throws Exception {
+    String[] queries = {
+        "select count(*) c from cp.`tpch/nation.parquet` n "
+            + " inner join cp.`tpch/lineitem.parquet` l on l.l_linenumber between n.n_regionkey and n.n_nationkey",
+        "select count(*) c from cp.`tpch/nation.parquet` n "
+            + " inner join cp.`tpch/lineitem.parquet` l on l.l_linenumber + n.n_nationkey = 7"
+    };
+    final long threshold = ExecConstants.NLJOIN_SPILL_THRESHOLD.getDefault().num_val;
+    test(SINGLE_NLJ);
+    for (String query : queries) {
+      testBuilder()
+          .sqlQuery(query)
+          .unOrdered()
+          .optionSettingQueriesForTestQuery("alter session set `%s` = 1", ExecConstants.NLJOIN_SPILL_THRESHOLD_KEY)
+          .optionSettingQueriesForBaseline("alter session set `%s` = %d", ExecConstants.NLJOIN_SPILL_THRESHOLD_KEY, threshold)
+          .sqlBaselineQuery(query)
+          .go();
+    }
+    test("alter session set `%s` = %d", ExecConstants.NLJOIN_SPILL_THRESHOLD_KEY, threshold);
+    test("alter session set `planner.disable_exchanges` = false");
+    test(ENABLE_NLJ_SCALAR);
+    test(ENABLE_HJ);
+    test(ENABLE_MJ);
+  }
 }
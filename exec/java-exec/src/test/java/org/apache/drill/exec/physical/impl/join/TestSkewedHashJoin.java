@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.join;
+
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.drill.PlanTestBase;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestSkewedHashJoin extends PlanTestBase {
+  private static final String PROBE_TABLE = "skewed_join_probe";
+  private static final String BUILD_TABLE = "skewed_join_build";
+
+  @BeforeClass
+  public static void createTables() throws Exception {
+    // key 1 makes up most of the probe side, and only some probe keys have a match
+    test("CREATE TABLE %s.%s AS SELECT CASE WHEN l_linenumber <= 4 THEN 1 ELSE l_orderkey END AS k, " +
+        "l_extendedprice AS v FROM cp.`tpch/lineitem.parquet`", TEMP_SCHEMA, PROBE_TABLE);
+    test("CREATE TABLE %s.%s AS SELECT o_orderkey AS k, o_custkey AS c FROM cp.`tpch/orders.parquet` " +
+        "WHERE o_orderkey < 30000", TEMP_SCHEMA, BUILD_TABLE);
+    test("ANALYZE TABLE %s.%s COMPUTE STATISTICS (k)", TEMP_SCHEMA, PROBE_TABLE);
+  }
+
+  @AfterClass
+  public static void dropTables() {
+    FileUtils.deleteQuietly(new File(getDfsTestTmpSchemaLocation(), PROBE_TABLE));
+    FileUtils.deleteQuietly(new File(getDfsTestTmpSchemaLocation(), BUILD_TABLE));
+  }
+
+  private void testSkewedJoin(String joinType) throws Exception {
+    final String query = String.format("SELECT p.k, p.v, b.c FROM %s.%s p %s JOIN %s.%s b ON p.k = b.k",
+        TEMP_SCHEMA, PROBE_TABLE, joinType, TEMP_SCHEMA, BUILD_TABLE);
+    try {
+      // a hash join partitioned on both sides, with the probe side on the left
+      test("ALTER SESSION SET `%s` = 1", ExecConstants.SLICE_TARGET);
+      test("ALTER SESSION SET `%s` = false", PlannerSettings.BROADCAST.getOptionName());
+      test("ALTER SESSION SET `%s` = false", PlannerSettings.HASH_JOIN_SWAP.getOptionName());
+
+      test("ALTER SESSION SET `%s` = true", PlannerSettings.JOIN_SKEW_HANDLING_KEY);
+      testPlanMatchingPatterns(query, new String[] {"skew=\\[spread\\[1\\.0\\]\\]", "skew=\\[broadcast\\[1\\.0\\]\\]"},
+          new String[] {});
+
+      testBuilder()
+          .sqlQuery(query)
+          .optionSettingQueriesForTestQuery("ALTER SESSION SET `%s` = true", PlannerSettings.JOIN_SKEW_HANDLING_KEY)
+          .unOrdered()
+          .sqlBaselineQuery(query)
+          .optionSettingQueriesForBaseline("ALTER SESSION SET `%s` = false", PlannerSettings.JOIN_SKEW_HANDLING_KEY)
+          .go();
+    } finally {
+      test("ALTER SESSION RESET `%s`", PlannerSettings.JOIN_SKEW_HANDLING_KEY);
+      test("ALTER SESSION RESET `%s`", PlannerSettings.HASH_JOIN_SWAP.getOptionName());
+      test("ALTER SESSION RESET `%s`", PlannerSettings.BROADCAST.getOptionName());
+      test("ALTER SESSION RESET `%s`", ExecConstants.SLICE_TARGET);
+    }
+  }
+
+  @Test
+  public void testInnerJoinWithHotKey() throws Exception {
+    testSkewedJoin("INNER");
+  }
+
+  @Test
+  public void testLeftJoinWithHotKey() throws Exception {
+    testSkewedJoin("LEFT");
+  }
+}
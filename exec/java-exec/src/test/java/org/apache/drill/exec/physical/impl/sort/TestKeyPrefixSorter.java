@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.sort;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.drill.common.config.DrillConfig;
+import org.apache.drill.exec.ExecTest;
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.memory.RootAllocatorFactory;
+import org.apache.hadoop.util.IndexedSortable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestKeyPrefixSorter extends ExecTest {
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void init() {
+    allocator = RootAllocatorFactory.newRoot(DrillConfig.create());
+  }
+
+  @After
+  public void terminate() throws Exception {
+    allocator.close();
+  }
+
+  /**
+   * Values sorted at their positions; the prefix of a value is the value divided by a granularity so that coarse
+   * prefixes leave ties for the comparator.
+   */
+  private int[] sort(final int[] values, int granularity) {
+    final int[] positions = new int[values.length];
+    try (final KeyPrefixSorter sorter = new KeyPrefixSorter(allocator, values.length)) {
+      for (int i = 0; i < values.length; i++) {
+        sorter.set(i, values[i] / granularity, i);
+      }
+      sorter.sort();
+      for (int i = 0; i < values.length; i++) {
+        positions[i] = sorter.getIndex(i);
+        assertEquals(values[positions[i]] / granularity, sorter.getPrefix(i));
+      }
+      sorter.sortTies(new IndexedSortable() {
+        @Override
+        public int compare(int i, int j) {
+          return Integer.compare(values[positions[i]], values[positions[j]]);
+        }
+
+        @Override
+        public void swap(int i, int j) {
+          final int tmp = positions[i];
+          positions[i] = positions[j];
+          positions[j] = tmp;
+        }
+      });
+    }
+    final int[] sorted = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      sorted[i] = values[positions[i]];
+    }
+    return sorted;
+  }
+
+  private void check(int[] values, int granularity) {
+    final int[] expected = values.clone();
+    Arrays.sort(expected);
+    assertArrayEquals(expected, sort(values, granularity));
+  }
+
+  @Test
+  public void testSmall() {
+    check(new int[0], 1);
+    check(new int[] { 3 }, 1);
+    check(new int[] { 2, 1 }, 1);
+    check(new int[] { 5, -1, 5, Integer.MIN_VALUE, 0, Integer.MAX_VALUE, -7 }, 1);
+  }
+
+  @Test
+  public void testRandom() {
+    final Random random = new Random(17);
+    final int[] values = new int[100000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt();
+    }
+    check(values, 1);
+    check(values, 1 << 20);
+  }
+
+  @Test
+  public void testDuplicates() {
+    final Random random = new Random(23);
+    final int[] values = new int[50000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(1000) - 500;
+    }
+    check(values, 1);
+    check(values, 100);
+    check(values, Integer.MAX_VALUE);
+  }
+}
@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.sort;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.drill.exec.ExecTest;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+
+public class TestLoserTree extends ExecTest {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TestLoserTree.class);
+
+  /**
+   * Sorted int streams; the prefix of a head is its value divided by a granularity so that coarse prefixes leave ties
+   * for the comparator.
+   */
+  private static class IntStreams implements LoserTree.Streams {
+    private final int[][] streams;
+    private final int[] positions;
+    private final int granularity;
+    private long compares;
+
+    IntStreams(int[][] streams, int granularity) {
+      this.streams = streams;
+      this.positions = new int[streams.length];
+      this.granularity = granularity;
+    }
+
+    int head(int stream) {
+      return streams[stream][positions[stream]];
+    }
+
+    @Override
+    public long prefix(int stream) {
+      return head(stream) / granularity;
+    }
+
+    @Override
+    public int compare(int leftStream, int rightStream) {
+      compares++;
+      return Integer.compare(head(leftStream), head(rightStream));
+    }
+
+    int[] merge(boolean usePrefixes) {
+      final LoserTree tree = new LoserTree(streams.length, this, usePrefixes);
+      int total = 0;
+      for (int i = 0; i < streams.length; i++) {
+        if (streams[i].length == 0) {
+          tree.setEmpty(i);
+        }
+        total += streams[i].length;
+      }
+      tree.build();
+      final int[] out = new int[total];
+      int count = 0;
+      while (!tree.isEmpty()) {
+        final int stream = tree.winner();
+        out[count++] = head(stream);
+        if (++positions[stream] == streams[stream].length) {
+          tree.exhaust();
+        } else {
+          tree.advance();
+        }
+      }
+      assertEquals(total, count);
+      assertEquals(compares, tree.getComparisons());
+      return out;
+    }
+  }
+
+  private static int[][] randomStreams(Random random, int count, int maxLength, int maxValue) {
+    final int[][] streams = new int[count][];
+    for (int i = 0; i < count; i++) {
+      streams[i] = new int[random.nextInt(maxLength + 1)];
+      for (int j = 0; j < streams[i].length; j++) {
+        streams[i][j] = random.nextInt(maxValue);
+      }
+      Arrays.sort(streams[i]);
+    }
+    return streams;
+  }
+
+  private static int[] expected(int[][] streams) {
+    int total = 0;
+    for (int[] stream : streams) {
+      total += stream.length;
+    }
+    final int[] all = new int[total];
+    int position = 0;
+    for (int[] stream : streams) {
+      System.arraycopy(stream, 0, all, position, stream.length);
+      position += stream.length;
+    }
+    Arrays.sort(all);
+    return all;
+  }
+
+  @Test
+  public void testSmallTrees() {
+    final Random random = new Random(7);
+    for (int size = 0; size <= 9; size++) {
+      final int[][] streams = randomStreams(random, size, 20, 50);
+      assertArrayEquals(expected(streams), new IntStreams(streams, 1).merge(false));
+      assertArrayEquals(expected(streams), new IntStreams(streams, 8).merge(true));
+    }
+  }
+
+  @Test
+  public void testManyStreams() {
+    final Random random = new Random(11);
+    for (int size : new int[] {64, 250, 1000}) {
+      final int[][] streams = randomStreams(random, size, 2000, Integer.MAX_VALUE);
+      final int[] expected = expected(streams);
+
+      Stopwatch watch = Stopwatch.createStarted();
+      final IntStreams withoutPrefixes = new IntStreams(streams, 1);
+      assertArrayEquals(expected, withoutPrefixes.merge(false));
+      final long withoutPrefixesMicros = watch.elapsed(TimeUnit.MICROSECONDS);
+
+      watch = Stopwatch.createStarted();
+      final IntStreams withPrefixes = new IntStreams(streams, 1);
+      assertArrayEquals(expected, withPrefixes.merge(true));
+      final long withPrefixesMicros = watch.elapsed(TimeUnit.MICROSECONDS);
+
+      // exact prefixes only leave the duplicate values to the comparator
+      assertTrue(withPrefixes.compares < withoutPrefixes.compares / 100);
+      logger.info("Merged {} rows of {} streams: {} comparisons in {} us without prefixes, {} in {} us with prefixes",
+          expected.length, size, withoutPrefixes.compares, withoutPrefixesMicros, withPrefixes.compares,
+          withPrefixesMicros);
+    }
+  }
+}
@@ -160,6 +160,42 @@ public class TestWindowFrame extends BaseTestQuery {
       .run();
   }
 
+  @Test
+  public void testAggregateRowsOffset() throws Exception {
+    final String table = "dfs_test.`"+TEST_RES_PATH+"/window/b4.p4`";
+    testBuilder()
+      .sqlQuery(getFile("window/aggregate_rows_offset.sql"), table)
+      .unOrdered()
+      .sqlBaselineQuery(getFile("window/aggregate_rows_offset_baseline.sql"), table)
+      .build()
+      .run();
+  }
+
+  @Test
+  public void testAggregateRangeOffset() throws Exception {
+    final String table = "dfs_test.`"+TEST_RES_PATH+"/window/b4.p4`";
+    testBuilder()
+      .sqlQuery(getFile("window/aggregate_range_offset.sql"), table)
+      .unOrdered()
+      .sqlBaselineQuery(getFile("window/aggregate_range_offset_baseline.sql"), table)
+      .build()
+      .run();
+  }
+
+  @Test
+  public void testSpilledBatches() throws Exception {
+    try {
+      // spill every batch the window operator can spill
+      setSessionOption(ExecConstants.WINDOW_SPILL_THRESHOLD_KEY, "1");
+      runTest("b4.p4", 4);
+      testAggregateRowsOffset();
+      testAggregateRangeOffset();
+    } finally {
+      setSessionOption(ExecConstants.WINDOW_SPILL_THRESHOLD_KEY,
+        String.valueOf(ExecConstants.WINDOW_SPILL_THRESHOLD.getDefault().num_val));
+    }
+  }
+
   /**
    * 2 batches with 2 partitions (position_id column), each batch contains a different partition
    */
@@ -328,6 +328,31 @@ public class TestParquetWriter extends BaseTestQuery {
     }
   }
 
+  @Test
+  public void testTPCHReadWriteRecordWriter() throws Exception {
+    try {
+      test(String.format("alter session set `%s` = false", ExecConstants.PARQUET_WRITER_USE_COLUMNAR));
+      String inputTable = "cp.`tpch/lineitem.parquet`";
+      runTestAndValidate("*", "*", inputTable, "lineitem_parquet_record_writer");
+    } finally {
+      test(String.format("alter session set `%s` = %b", ExecConstants.PARQUET_WRITER_USE_COLUMNAR, ExecConstants.PARQUET_WRITER_USE_COLUMNAR_VALIDATOR.getDefault().bool_val));
+    }
+  }
+
+  @Test
+  public void testTPCHReadWriteDictionaryFallback() throws Exception {
+    try {
+      test(String.format("alter session set `%s` = true", ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING));
+      // small enough for the dictionary of most columns to overflow and continue with plain pages
+      test(String.format("alter session set `%s` = 1024", ExecConstants.PARQUET_DICT_PAGE_SIZE));
+      String inputTable = "cp.`tpch/lineitem.parquet`";
+      runTestAndValidate("*", "*", inputTable, "lineitem_parquet_dict_fallback");
+    } finally {
+      test(String.format("alter session set `%s` = %b", ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING, ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING_VALIDATOR.getDefault().bool_val));
+      test(String.format("alter session set `%s` = %d", ExecConstants.PARQUET_DICT_PAGE_SIZE, ExecConstants.PARQUET_DICT_PAGE_SIZE_VALIDATOR.getDefault().num_val));
+    }
+  }
+
   @Test
   public void testTPCHReadWriteDictGzip() throws Exception {
     try {
@@ -400,6 +425,39 @@ public class TestParquetWriter extends BaseTestQuery {
     }
   }
 
+  @Test
+  public void testRowGroupsWithExhaustedPipelineMemory() throws Exception {
+    try {
+      // every batch waits for the previous one to be encoded, and row groups are closed while others are written
+      test(String.format("ALTER SESSION SET `%s` = 1", ExecConstants.PARQUET_WRITER_PIPELINE_MEMORY));
+      test(String.format("ALTER SESSION SET `%s` = %d", ExecConstants.PARQUET_BLOCK_SIZE, 256*1024));
+      String inputTable = "cp.`tpch/lineitem.parquet`";
+      runTestAndValidate("*", "*", inputTable, "lineitem_parquet_small_pipeline");
+    } finally {
+      test(String.format("ALTER SESSION SET `%s` = %d", ExecConstants.PARQUET_WRITER_PIPELINE_MEMORY,
+          ExecConstants.PARQUET_WRITER_PIPELINE_MEMORY_VALIDATOR.getDefault().num_val));
+      test(String.format("ALTER SESSION SET `%s` = %d", ExecConstants.PARQUET_BLOCK_SIZE, 512*1024*1024));
+    }
+  }
+
+  @Test
+  public void testFailureWhileRowGroupsAreWritten() throws Exception {
+    final String outputTable = "lineitem_parquet_failed_write";
+    try {
+      test(String.format("ALTER SESSION SET `%s` = %d", ExecConstants.PARQUET_BLOCK_SIZE, 256*1024));
+      // the cast fails on later batches, once earlier row groups have been handed to the background writer
+      errorMsgTestHelper(String.format("CREATE TABLE dfs_test.tmp.%s AS SELECT l_orderkey, l_comment, " +
+          "CAST(CASE WHEN l_orderkey < 30000 THEN '1' ELSE 'x' END AS INT) AS flag FROM cp.`tpch/lineitem.parquet`",
+          outputTable), "NumberFormatException");
+      deleteTableIfExists(outputTable);
+
+      // the failed writer has released its memory and threads, the same table can be written again
+      runTestAndValidate("l_orderkey, l_comment", "l_orderkey, l_comment", "cp.`tpch/lineitem.parquet`", outputTable);
+    } finally {
+      test(String.format("ALTER SESSION SET `%s` = %d", ExecConstants.PARQUET_BLOCK_SIZE, 512*1024*1024));
+      deleteTableIfExists(outputTable);
+    }
+  }
 
   @Test
   public void testDate() throws Exception {
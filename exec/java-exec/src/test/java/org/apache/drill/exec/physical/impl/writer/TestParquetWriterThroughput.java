@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.physical.impl.writer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.drill.BaseTestQuery;
+import org.apache.drill.common.util.FileUtils;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.record.RecordBatchLoader;
+import org.apache.drill.exec.rpc.user.QueryDataBatch;
+import org.apache.drill.exec.vector.BigIntVector;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Stopwatch;
+import com.google.common.io.Files;
+
+/**
+ * CTAS throughput of the parquet writer fed by the mock data source, once with the columnar writer and once
+ * with the record at a time writer. Timings are logged; the tests only check that every record was written
+ * and can be read back.
+ */
+public class TestParquetWriterThroughput extends BaseTestQuery {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TestParquetWriterThroughput.class);
+
+  private static final int RECORD_COUNT = 500000;
+
+  private static FileSystem fs;
+
+  @BeforeClass
+  public static void initFs() throws Exception {
+    Configuration conf = new Configuration();
+    conf.set(FileSystem.FS_DEFAULT_NAME_KEY, "local");
+    fs = FileSystem.get(conf);
+  }
+
+  @Test
+  public void columnarWriter() throws Exception {
+    runMockCtas(true, "mock_ctas_columnar");
+  }
+
+  @Test
+  public void recordWriter() throws Exception {
+    runMockCtas(false, "mock_ctas_record");
+  }
+
+  private void runMockCtas(boolean columnar, String tableName) throws Exception {
+    final Path output = new Path(getDfsTestTmpSchemaLocation(), tableName);
+    try {
+      test(String.format("alter session set `%s` = %b", ExecConstants.PARQUET_WRITER_USE_COLUMNAR, columnar));
+      final String plan = Files.toString(FileUtils.getResourceAsFile("/writer/parquet_ctas_mock.json"), Charsets.UTF_8)
+          .replace("${OUTPUT_LOCATION}", output.toUri().getPath());
+
+      final Stopwatch watch = Stopwatch.createStarted();
+      final List<QueryDataBatch> results = testPhysicalWithResults(plan);
+      final long elapsedMillis = Math.max(1, watch.elapsed(TimeUnit.MILLISECONDS));
+
+      final RecordBatchLoader batchLoader = new RecordBatchLoader(getAllocator());
+      long recordsWritten = 0;
+      for (QueryDataBatch batch : results) {
+        batchLoader.load(batch.getHeader().getDef(), batch.getData());
+        if (batchLoader.getRecordCount() > 0) {
+          final BigIntVector recordWrittenV = (BigIntVector) batchLoader.getValueAccessorById(BigIntVector.class, 1)
+              .getValueVector();
+          for (int i = 0; i < batchLoader.getRecordCount(); i++) {
+            recordsWritten += recordWrittenV.getAccessor().get(i);
+          }
+        }
+        batchLoader.clear();
+        batch.release();
+      }
+      assertEquals(RECORD_COUNT, recordsWritten);
+      logger.info("{} parquet writer: {} records in {} ms, {} records/s", columnar ? "Columnar" : "Record",
+          recordsWritten, elapsedMillis, recordsWritten * 1000 / elapsedMillis);
+
+      testBuilder()
+          .sqlQuery("select count(*) cnt from dfs_test.tmp.`%s`", tableName)
+          .unOrdered()
+          .baselineColumns("cnt")
+          .baselineValues((long) RECORD_COUNT)
+          .go();
+    } finally {
+      test(String.format("alter session set `%s` = %b", ExecConstants.PARQUET_WRITER_USE_COLUMNAR,
+          ExecConstants.PARQUET_WRITER_USE_COLUMNAR_VALIDATOR.getDefault().bool_val));
+      if (fs.exists(output)) {
+        fs.delete(output, true);
+      }
+    }
+  }
+}
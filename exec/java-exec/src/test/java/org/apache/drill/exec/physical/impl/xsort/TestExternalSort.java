@@ -19,6 +19,7 @@ package org.apache.drill.exec.physical.impl.xsort;
 
 import org.apache.drill.BaseTestQuery;
 import org.apache.drill.TestBuilder;
+import org.apache.drill.exec.ExecConstants;
 import org.junit.Test;
 
 import java.io.BufferedOutputStream;
@@ -136,4 +137,32 @@ public class TestExternalSort extends BaseTestQuery {
     String newQuery = "select * from dfs_test.tmp.newColumns order by a desc";
     test(newQuery);
   }
+
+  @Test
+  public void testKeyPrefixSort() throws Exception {
+    final int record_count = 20000;
+    String dfs_temp = getDfsTestTmpSchemaLocation();
+    File table_dir = new File(dfs_temp, "keyPrefixSort");
+    table_dir.mkdir();
+    for (int file = 0; file < 2; file++) {
+      BufferedOutputStream os = new BufferedOutputStream(new FileOutputStream(new File(table_dir, file + ".json")));
+      for (int i = file; i < record_count; i += 2) {
+        // strings share their first 8 bytes, every seventh is missing
+        String s = i % 7 == 0 ? "" : String.format(", s : \"prefix__%d\"", (i * 31) % 1000);
+        os.write(String.format("{ id : %d, a : %d%s }%n", i, (i * 17) % 101 - 50, s).getBytes());
+      }
+      os.close();
+    }
+    String[] orders = { "a, id", "a desc, id", "s desc, id", "s nulls first, id", "id desc" };
+    for (String order : orders) {
+      String query = "select id, a, s from dfs_test.tmp.keyPrefixSort order by " + order;
+      testBuilder()
+          .sqlQuery(query)
+          .ordered()
+          .optionSettingQueriesForTestQuery("alter session set `%s` = true", ExecConstants.SORT_KEY_PREFIX_KEY)
+          .optionSettingQueriesForBaseline("alter session set `%s` = false", ExecConstants.SORT_KEY_PREFIX_KEY)
+          .sqlBaselineQuery(query)
+          .go();
+    }
+  }
 }
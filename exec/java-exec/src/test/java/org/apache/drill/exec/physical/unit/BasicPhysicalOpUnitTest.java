@@ -190,6 +190,24 @@ public class BasicPhysicalOpUnitTest extends PhysicalOpUnitTestBase {
         .go();
   }
 
+  @Test
+  public void testFilterCompaction() {
+    // two of twenty records pass, which is within the default compaction threshold
+    Filter filterConf = new Filter(null, parseExpr("a>17"), 1.0f);
+    StringBuilder batch = new StringBuilder("[");
+    for (int i = 0; i < 20; i++) {
+      batch.append(i == 0 ? "" : ",").append("{\"a\": ").append(i).append(", \"b\" : \"s").append(i).append("\"}");
+    }
+    batch.append("]");
+    opTestBuilder()
+        .physicalOperator(filterConf)
+        .inputDataStreamJson(Lists.newArrayList(batch.toString()))
+        .baselineColumns("a", "b")
+        .baselineValues(18l, "s18")
+        .baselineValues(19l, "s19")
+        .go();
+  }
+
   @Test
   public void testExternalSort() {
     ExternalSort sortConf = new ExternalSort(null,
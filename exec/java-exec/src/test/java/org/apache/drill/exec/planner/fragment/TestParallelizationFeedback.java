@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.fragment;
+
+import java.util.Map;
+
+import org.apache.drill.exec.planner.fragment.ParallelizationFeedback.FragmentObservation;
+import org.apache.drill.exec.proto.UserBitShared.MajorFragmentProfile;
+import org.apache.drill.exec.proto.UserBitShared.MinorFragmentProfile;
+import org.apache.drill.exec.proto.UserBitShared.OperatorProfile;
+import org.apache.drill.exec.proto.UserBitShared.QueryProfile;
+import org.apache.drill.exec.proto.UserBitShared.StreamProfile;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestParallelizationFeedback {
+
+  private static OperatorProfile operator(int operatorId, long records, long processMillis) {
+    return OperatorProfile.newBuilder()
+        .setOperatorId(operatorId)
+        .addInputProfile(StreamProfile.newBuilder().setRecords(records))
+        .setProcessNanos(processMillis * 1000000L)
+        .build();
+  }
+
+  private static QueryProfile profile(long scanRecordsPerMinor, int minorFragments) {
+    final MajorFragmentProfile.Builder leaf = MajorFragmentProfile.newBuilder().setMajorFragmentId(1);
+    for (int i = 0; i < minorFragments; i++) {
+      leaf.addMinorFragmentProfile(MinorFragmentProfile.newBuilder()
+          .setMinorFragmentId(i)
+          .addOperatorProfile(operator(0, scanRecordsPerMinor, 10))
+          .addOperatorProfile(operator(1, scanRecordsPerMinor / 10, 5)));
+    }
+    final MajorFragmentProfile.Builder root = MajorFragmentProfile.newBuilder().setMajorFragmentId(0)
+        .addMinorFragmentProfile(MinorFragmentProfile.newBuilder().addOperatorProfile(operator(0, 100, 1)));
+    return QueryProfile.newBuilder().addFragmentProfile(root).addFragmentProfile(leaf).buildPartial();
+  }
+
+  @Test
+  public void observeSumsMinorFragmentsAndTakesBusiestOperator() {
+    final Map<Integer, FragmentObservation> observations = ParallelizationFeedback.observe(profile(50000, 4));
+    assertEquals(2, observations.size());
+    assertEquals(200000, observations.get(1).getRecords(), 0);
+    assertEquals(60, observations.get(1).getProcessMillis(), 0.001);
+    assertEquals(100, observations.get(0).getRecords(), 0);
+  }
+
+  @Test
+  public void costIsCappedByProcessingTime() {
+    final FragmentObservation observation = new FragmentObservation(1000000, 250, 1);
+    // enough time for many fragments, the row count decides
+    assertEquals(1000000, observation.getCost(1000, 1), 0);
+    // only enough time for two fragments of at least 100ms each
+    assertEquals(2 * 1000, observation.getCost(1000, 100), 0);
+    // less than the minimum time still allows one fragment
+    assertEquals(1000, observation.getCost(1000, 1000), 0);
+  }
+
+  @Test
+  public void recordAveragesRuns() {
+    final ParallelizationFeedback feedback = new ParallelizationFeedback(new ObjectMapper().writer());
+    assertTrue(feedback.get("plan").isEmpty());
+
+    feedback.record("plan", profile(1000, 2));
+    feedback.record("plan", profile(3000, 2));
+    final FragmentObservation observation = feedback.get("plan").get(1);
+    assertEquals(2, observation.getRuns());
+    assertEquals(4000, observation.getRecords(), 0);
+
+    feedback.invalidateAll();
+    assertTrue(feedback.get("plan").isEmpty());
+  }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.logical;
+
+import org.apache.drill.PlanTestBase;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.junit.After;
+import org.junit.Test;
+
+public class TestJoinEnumeration extends PlanTestBase {
+
+  private static final String ENABLE = String.format("alter session set `%s` = true", PlannerSettings.JOIN_ENUMERATION_KEY);
+  private static final String DISABLE = String.format("alter session set `%s` = false", PlannerSettings.JOIN_ENUMERATION_KEY);
+
+  @After
+  public void resetOptions() throws Exception {
+    test(DISABLE);
+    test("alter session set `%s` = %d", ExecConstants.SLICE_TARGET, ExecConstants.SLICE_TARGET_DEFAULT);
+  }
+
+  private void compareWithLoptPlan(String query) throws Exception {
+    testBuilder()
+        .sqlQuery(query)
+        .optionSettingQueriesForTestQuery(ENABLE)
+        .unOrdered()
+        .sqlBaselineQuery(query)
+        .optionSettingQueriesForBaseline(DISABLE)
+        .go();
+  }
+
+  @Test
+  public void tpch05() throws Exception {
+    // the join graph has a cycle through the nation keys of customer and supplier
+    compareWithLoptPlan(getFile("queries/tpch/05.sql"));
+  }
+
+  @Test
+  public void tpch08() throws Exception {
+    compareWithLoptPlan(getFile("queries/tpch/08.sql"));
+  }
+
+  @Test
+  public void distributedStarJoin() throws Exception {
+    final String query = "select n.n_name, r.r_name, count(*) as cnt " +
+        "from cp.`tpch/lineitem.parquet` l, cp.`tpch/orders.parquet` o, cp.`tpch/customer.parquet` c, " +
+        "cp.`tpch/nation.parquet` n, cp.`tpch/region.parquet` r " +
+        "where l.l_orderkey = o.o_orderkey and o.o_custkey = c.c_custkey and c.c_nationkey = n.n_nationkey " +
+        "and n.n_regionkey = r.r_regionkey and l.l_quantity > 10 group by n.n_name, r.r_name";
+    testBuilder()
+        .sqlQuery(query)
+        .optionSettingQueriesForTestQuery(ENABLE + "; alter session set `planner.slice_target` = 10")
+        .unOrdered()
+        .sqlBaselineQuery(query)
+        .optionSettingQueriesForBaseline(DISABLE)
+        .go();
+  }
+
+  @Test
+  public void outerJoinIsLeftToLopt() throws Exception {
+    test(ENABLE);
+    testPlanMatchingPatterns("select count(*) from cp.`tpch/nation.parquet` n " +
+        "left join cp.`tpch/region.parquet` r on n.n_regionkey = r.r_regionkey " +
+        "join cp.`tpch/supplier.parquet` s on s.s_nationkey = n.n_nationkey",
+        new String[] { "HashJoin" }, new String[] {});
+  }
+
+}
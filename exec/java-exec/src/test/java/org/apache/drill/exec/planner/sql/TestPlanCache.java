@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.planner.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.apache.drill.BaseTestQuery;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestPlanCache extends BaseTestQuery {
+
+  @BeforeClass
+  public static void enablePlanCache() throws Exception {
+    test("alter system set `%s` = true", PlannerSettings.PLAN_CACHE_KEY);
+  }
+
+  @AfterClass
+  public static void resetPlanCache() throws Exception {
+    test("alter system reset `%s`", PlannerSettings.PLAN_CACHE_KEY);
+  }
+
+  @Test
+  public void testNormalize() {
+    assertEquals("select * from t where a = 'x  y'",
+        PlanCache.normalize("  select *\n  from t\twhere a = 'x  y' ;"));
+    assertEquals("select `a  b` from t", PlanCache.normalize("select `a  b`   from t"));
+    assertEquals("select a from t where b = '--x'",
+        PlanCache.normalize("select a -- first column\nfrom t /* the\ntable */ where b = '--x'"));
+    // the line after a comment must not become part of it
+    assertNotEquals(PlanCache.normalize("select a from t -- comment\nwhere b = 1"),
+        PlanCache.normalize("select a from t -- comment where b = 1"));
+  }
+
+  @Test
+  public void testCachedPlanIsReused() throws Exception {
+    test("create table dfs_test.tmp.plan_cache_reuse as select * from cp.`tpch/region.parquet`");
+    final String query = "select count(*) as cnt from dfs_test.tmp.plan_cache_reuse where r_regionkey > 1";
+
+    for (int i = 0; i < 3; i++) {
+      testBuilder()
+          .sqlQuery(query)
+          .unOrdered()
+          .baselineColumns("cnt")
+          .baselineValues(3L)
+          .go();
+    }
+
+    testBuilder()
+        .sqlQuery("select sum(hits) as hits from sys.plan_cache where query like '%%plan_cache_reuse where%%'")
+        .unOrdered()
+        .baselineColumns("hits")
+        .baselineValues(2L)
+        .go();
+  }
+
+  @Test
+  public void testStalePlanIsDiscarded() throws Exception {
+    test("create table dfs_test.tmp.`plan_cache_stale/a` as select * from cp.`tpch/region.parquet`");
+    final String query = "select count(*) as cnt from dfs_test.tmp.plan_cache_stale";
+
+    testBuilder()
+        .sqlQuery(query)
+        .unOrdered()
+        .baselineColumns("cnt")
+        .baselineValues(5L)
+        .go();
+
+    test("create table dfs_test.tmp.`plan_cache_stale/b` as select * from cp.`tpch/region.parquet`");
+
+    testBuilder()
+        .sqlQuery(query)
+        .unOrdered()
+        .baselineColumns("cnt")
+        .baselineValues(10L)
+        .go();
+  }
+
+  @Test
+  public void testContextFunctionsAreNotCached() throws Exception {
+    test("select now() from (values(1)) where 1 = 1");
+    testBuilder()
+        .sqlQuery("select count(*) as cnt from sys.plan_cache where query like '%%select now()%%'")
+        .unOrdered()
+        .baselineColumns("cnt")
+        .baselineValues(0L)
+        .go();
+  }
+}
@@ -0,0 +1,44 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.record;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TestRecordBatchSizer {
+
+  @Test
+  public void testRowCountForNarrowRows() {
+    // narrow rows are bounded by the largest batch an SV2 can address
+    assertEquals(RecordBatchSizer.MAX_ROW_COUNT,
+        RecordBatchSizer.rowCountFor(16 * 1024 * 1024, 4, RecordBatchSizer.MAX_ROW_COUNT));
+  }
+
+  @Test
+  public void testRowCountForWideRows() {
+    assertEquals(1024, RecordBatchSizer.rowCountFor(1024 * 1024, 1024, RecordBatchSizer.MAX_ROW_COUNT));
+    // a row wider than the target still makes progress
+    assertEquals(1, RecordBatchSizer.rowCountFor(1024, 4096, RecordBatchSizer.MAX_ROW_COUNT));
+  }
+
+  @Test
+  public void testRowCountForUnknownWidth() {
+    assertEquals(4096, RecordBatchSizer.rowCountFor(1024, 0, 4096));
+  }
+}
@@ -50,6 +50,7 @@ import org.apache.drill.exec.record.MaterializedField;
 import org.apache.drill.exec.record.VectorWrapper;
 import org.apache.drill.exec.vector.BaseValueVector;
 import org.apache.drill.exec.vector.BitVector;
+import org.apache.drill.exec.vector.BulkCopyUtil;
 import org.apache.drill.exec.vector.NullableFloat4Vector;
 import org.apache.drill.exec.vector.NullableUInt4Vector;
 import org.apache.drill.exec.vector.NullableVarCharVector;
@@ -810,4 +811,125 @@ the interface to load has changed
     vector.clear();
   }
 
+  @Test
+  public void testFixedRangeCopyAndGather() {
+    final MaterializedField field = MaterializedField.create(EMPTY_SCHEMA_PATH, UInt4Holder.TYPE);
+    try (final UInt4Vector from = new UInt4Vector(field, allocator);
+         final UInt4Vector to = new UInt4Vector(field, allocator)) {
+      from.allocateNew(100);
+      for (int i = 0; i < 100; i++) {
+        from.getMutator().set(i, i * 10);
+      }
+      from.getMutator().setValueCount(100);
+
+      // start small so that the copy has to grow the target
+      to.allocateNew(2);
+      to.copyRangeSafe(10, 0, 20, from);
+      final DrillBuf sv2 = allocator.buffer(8);
+      try {
+        sv2.setChar(0, 50);
+        sv2.setChar(2, 51);
+        sv2.setChar(4, 70);
+        sv2.setChar(6, 99);
+        to.gatherSafe(sv2, 0, 4, 20, from);
+      } finally {
+        sv2.release();
+      }
+      to.getMutator().setValueCount(24);
+
+      final UInt4Vector.Accessor accessor = to.getAccessor();
+      for (int i = 0; i < 20; i++) {
+        assertEquals((10 + i) * 10, accessor.get(i));
+      }
+      assertEquals(500, accessor.get(20));
+      assertEquals(510, accessor.get(21));
+      assertEquals(700, accessor.get(22));
+      assertEquals(990, accessor.get(23));
+    }
+  }
+
+  @Test
+  public void testNullableVarCharRangeCopy() {
+    final MaterializedField field = MaterializedField.create(EMPTY_SCHEMA_PATH, NullableVarCharHolder.TYPE);
+    try (final NullableVarCharVector from = new NullableVarCharVector(field, allocator);
+         final NullableVarCharVector to = new NullableVarCharVector(field, allocator)) {
+      from.allocateNew(1024, 10);
+      final NullableVarCharVector.Mutator mutator = from.getMutator();
+      mutator.set(0, STR1);
+      mutator.set(1, STR2);
+      mutator.set(3, STR3);
+      mutator.setValueCount(4);
+
+      to.allocateNew(16, 1);
+      to.copyFromSafe(3, 0, from);
+      to.copyRangeSafe(0, 1, 4, from);
+      to.getMutator().setValueCount(5);
+
+      final NullableVarCharVector.Accessor accessor = to.getAccessor();
+      assertArrayEquals(STR3, accessor.get(0));
+      assertArrayEquals(STR1, accessor.get(1));
+      assertArrayEquals(STR2, accessor.get(2));
+      assertTrue(accessor.isNull(3));
+      assertArrayEquals(STR3, accessor.get(4));
+    }
+  }
+
+  @Test
+  public void testBitRangeCopy() {
+    final MaterializedField field = MaterializedField.create(EMPTY_SCHEMA_PATH, BitHolder.TYPE);
+    try (final BitVector from = new BitVector(field, allocator);
+         final BitVector to = new BitVector(field, allocator)) {
+      from.allocateNew(64);
+      for (int i = 0; i < 64; i++) {
+        from.getMutator().set(i, i % 3 == 0 ? 1 : 0);
+      }
+      from.getMutator().setValueCount(64);
+
+      to.allocateNew(8);
+      // byte aligned, then unaligned
+      to.copyRangeSafe(8, 0, 20, from);
+      to.copyRangeSafe(3, 20, 30, from);
+      to.getMutator().setValueCount(50);
+
+      final BitVector.Accessor accessor = to.getAccessor();
+      for (int i = 0; i < 20; i++) {
+        assertEquals((8 + i) % 3 == 0 ? 1 : 0, accessor.get(i));
+      }
+      for (int i = 0; i < 30; i++) {
+        assertEquals((3 + i) % 3 == 0 ? 1 : 0, accessor.get(20 + i));
+      }
+    }
+  }
+
+  @Test
+  public void testNullableVarCharRepeat() {
+    final MaterializedField field = MaterializedField.create(EMPTY_SCHEMA_PATH, NullableVarCharHolder.TYPE);
+    try (final NullableVarCharVector from = new NullableVarCharVector(field, allocator);
+         final NullableVarCharVector to = new NullableVarCharVector(field, allocator)) {
+      from.allocateNew(1024, 10);
+      final NullableVarCharVector.Mutator mutator = from.getMutator();
+      mutator.set(0, STR1);
+      mutator.set(2, STR2);
+      mutator.setValueCount(3);
+
+      to.allocateNew(16, 1);
+      BulkCopyUtil.repeat(to, 0, 0, 5, from);
+      BulkCopyUtil.repeat(to, 1, 5, 3, from);
+      BulkCopyUtil.repeat(to, 2, 8, 0, from);
+      BulkCopyUtil.repeat(to, 2, 8, 7, from);
+      to.getMutator().setValueCount(15);
+
+      final NullableVarCharVector.Accessor accessor = to.getAccessor();
+      for (int i = 0; i < 5; i++) {
+        assertArrayEquals(STR1, accessor.get(i));
+      }
+      for (int i = 5; i < 8; i++) {
+        assertTrue(accessor.isNull(i));
+      }
+      for (int i = 8; i < 15; i++) {
+        assertArrayEquals(STR2, accessor.get(i));
+      }
+    }
+  }
+
 }
@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.sql;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FilenameFilter;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.drill.PlanTestBase;
+import org.apache.drill.exec.ExecConstants;
+import org.apache.drill.exec.planner.cost.TableStatistics;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Test;
+
+public class TestAnalyzeTable extends PlanTestBase {
+
+  private static final String TABLE = "analyze_employee";
+  private static final String QUERY = String.format("select employee_id from %s.%s where salary > 1000", TEMP_SCHEMA,
+      TABLE);
+  private static final String ANALYZED_ROW_COUNT = "rowcount = 1155.0";
+
+  /**
+   * @return the logical plan of the query, including the row count estimate of every operator
+   */
+  private static String getLogicalPlan() throws Exception {
+    return getPlanInString("EXPLAIN PLAN INCLUDING ALL ATTRIBUTES WITHOUT IMPLEMENTATION for " + QUERY, OPTIQ_FORMAT);
+  }
+
+  @Test
+  public void analyzeChangesScanEstimates() throws Exception {
+    try {
+      test("alter session set `%s` = 'json'", ExecConstants.OUTPUT_FORMAT_OPTION);
+      test("create table %s.%s as select employee_id, salary from cp.`employee.json`", TEMP_SCHEMA, TABLE);
+
+      // JSON scans only estimate their row count from the file size
+      final String before = getLogicalPlan();
+      assertTrue(before, !before.contains(ANALYZED_ROW_COUNT));
+
+      test("analyze table %s.%s compute statistics (employee_id, salary)", TEMP_SCHEMA, TABLE);
+
+      final TableStatistics statistics = TableStatistics.read(FileSystem.getLocal(new Configuration()),
+          new Path(getDfsTestTmpSchemaLocation(), TABLE));
+      assertNotNull("No statistics written to " + TableStatistics.STATISTICS_DIRECTORY, statistics);
+      assertEquals(1155, statistics.getRowCount(), 0);
+      final TableStatistics.ColumnStatistics employeeId = statistics.getColumn("employee_id");
+      assertNotNull(employeeId);
+      assertEquals(1155, employeeId.getNdv(), 1155 * 0.05);
+      assertEquals(0, employeeId.getNullCount(), 0);
+      assertTrue(statistics.getColumn("salary").hasHistogram());
+
+      final String analyzed = getLogicalPlan();
+      assertTrue(analyzed, analyzed.contains(ANALYZED_ROW_COUNT));
+
+      test("alter session set `%s` = false", PlannerSettings.USE_STATISTICS_KEY);
+      final String disabled = getLogicalPlan();
+      assertTrue(disabled, !disabled.contains(ANALYZED_ROW_COUNT));
+
+      // a second run replaces the statistics of the first one once it completes, leaving no other directory behind
+      test("analyze table %s.%s compute statistics (employee_id)", TEMP_SCHEMA, TABLE);
+      final String[] statisticsDirectories = new File(getDfsTestTmpSchemaLocation(), TABLE).list(new FilenameFilter() {
+        @Override
+        public boolean accept(File dir, String name) {
+          return name.startsWith(TableStatistics.STATISTICS_DIRECTORY);
+        }
+      });
+      assertArrayEquals(new String[] {TableStatistics.STATISTICS_DIRECTORY}, statisticsDirectories);
+      final TableStatistics reanalyzed = TableStatistics.read(FileSystem.getLocal(new Configuration()),
+          new Path(getDfsTestTmpSchemaLocation(), TABLE));
+      assertNotNull(reanalyzed.getColumn("employee_id"));
+      assertNull(reanalyzed.getColumn("salary"));
+    } finally {
+      test("alter session set `%s` = true", PlannerSettings.USE_STATISTICS_KEY);
+      test("alter session set `%s` = '%s'", ExecConstants.OUTPUT_FORMAT_OPTION,
+          ExecConstants.OUTPUT_FORMAT_VALIDATOR.getDefault().string_val);
+      FileUtils.deleteQuietly(new File(getDfsTestTmpSchemaLocation(), TABLE));
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.sql;
+
+import org.apache.drill.PlanTestBase;
+import org.apache.drill.exec.planner.physical.PlannerSettings;
+import org.junit.Test;
+
+public class TestMaterializedViews extends PlanTestBase {
+  private static final String BASE_TABLE = "mv_orders";
+  private static final String VIEW = "mv_orders_by_priority_status";
+
+  private static void createBaseTable() throws Exception {
+    test("CREATE TABLE %s.%s AS SELECT o_orderpriority, o_orderstatus, o_custkey FROM cp.`tpch/orders.parquet`",
+        TEMP_SCHEMA, BASE_TABLE);
+  }
+
+  @Test
+  public void rollupFromMaterializedView() throws Exception {
+    final String query = String.format("SELECT o_orderpriority, SUM(o_custkey) AS total, COUNT(*) AS cnt " +
+        "FROM %s.%s GROUP BY o_orderpriority", TEMP_SCHEMA, BASE_TABLE);
+    try {
+      createBaseTable();
+      test("CREATE MATERIALIZED VIEW %s.%s AS SELECT o_orderpriority, o_orderstatus, SUM(o_custkey) AS total, " +
+          "COUNT(*) AS cnt FROM %s.%s GROUP BY o_orderpriority, o_orderstatus",
+          TEMP_SCHEMA, VIEW, TEMP_SCHEMA, BASE_TABLE);
+
+      testPlanMatchingPatterns(query, new String[] {VIEW}, new String[] {BASE_TABLE + "[^_]"});
+
+      testBuilder()
+          .sqlQuery(query)
+          .optionSettingQueriesForTestQuery("ALTER SESSION SET `%s` = true", PlannerSettings.MATERIALIZED_VIEW_REWRITE_KEY)
+          .unOrdered()
+          .sqlBaselineQuery(query)
+          .optionSettingQueriesForBaseline("ALTER SESSION SET `%s` = false", PlannerSettings.MATERIALIZED_VIEW_REWRITE_KEY)
+          .go();
+
+      // once the base table changes the view is stale and not substituted anymore
+      test("DROP TABLE %s.%s", TEMP_SCHEMA, BASE_TABLE);
+      createBaseTable();
+      testPlanMatchingPatterns(query, new String[] {BASE_TABLE}, new String[] {VIEW});
+    } finally {
+      test("ALTER SESSION RESET `%s`", PlannerSettings.MATERIALIZED_VIEW_REWRITE_KEY);
+      test("DROP MATERIALIZED VIEW IF EXISTS %s.%s", TEMP_SCHEMA, VIEW);
+      test("DROP TABLE IF EXISTS %s.%s", TEMP_SCHEMA, BASE_TABLE);
+    }
+  }
+
+  @Test
+  public void failedCreateIsNotRegistered() throws Exception {
+    final String view = "mv_failed";
+    try {
+      // casting the priorities fails while the table is being written
+      errorMsgTestHelper(String.format("CREATE MATERIALIZED VIEW %s.%s AS SELECT CAST(o_orderpriority AS INT) AS p, " +
+          "COUNT(*) AS cnt FROM cp.`tpch/orders.parquet` GROUP BY o_orderpriority", TEMP_SCHEMA, view),
+          "NumberFormatException");
+      errorMsgTestHelper(String.format("DROP MATERIALIZED VIEW %s.%s", TEMP_SCHEMA, view),
+          "Unknown materialized view [mv_failed]");
+    } finally {
+      test("DROP TABLE IF EXISTS %s.%s", TEMP_SCHEMA, view);
+    }
+  }
+
+  @Test
+  public void dropUnknownMaterializedView() throws Exception {
+    errorMsgTestHelper(String.format("DROP MATERIALIZED VIEW %s.mv_unknown", TEMP_SCHEMA),
+        "Unknown materialized view [mv_unknown]");
+  }
+}
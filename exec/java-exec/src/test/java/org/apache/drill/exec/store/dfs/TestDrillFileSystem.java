@@ -30,7 +30,13 @@ import org.junit.Test;
 import java.io.File;
 import java.io.InputStream;
 import java.io.PrintWriter;
+import java.util.List;
 
+import org.apache.hadoop.fs.FileStatus;
+
+import com.google.common.io.Files;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class TestDrillFileSystem {
@@ -96,6 +102,67 @@ public class TestDrillFileSystem {
     assertTrue("Expected wait time is non-zero, but got zero wait time", operatorProfile.getWaitNanos() > 0);
   }
 
+  private static DrillFileSystem newFileSystem(int listingParallelism, boolean listingCache) throws Exception {
+    Configuration conf = new Configuration();
+    conf.set(FileSystem.FS_DEFAULT_NAME_KEY, "file:///");
+    conf.setInt(DrillFileSystem.LISTING_PARALLELISM, listingParallelism);
+    conf.setBoolean(DrillFileSystem.LISTING_CACHE_ENABLED, listingCache);
+    return new DrillFileSystem(conf);
+  }
+
+  private static void touch(File dir, String name) throws Exception {
+    dir.mkdirs();
+    Files.touch(new File(dir, name));
+  }
+
+  @Test
+  public void testParallelRecursiveListing() throws Exception {
+    File root = Files.createTempDir();
+    touch(new File(root, "a"), "1");
+    touch(new File(root, "a/b"), "2");
+    touch(new File(root, "a/b/c"), "3");
+    touch(new File(root, "a-c"), "4");
+    touch(root, "5");
+    touch(root, "_hidden");
+    touch(new File(root, ".dot"), "6");
+
+    List<FileStatus> sequential = newFileSystem(1, false).list(true, new Path(root.toURI()));
+    List<FileStatus> parallel = newFileSystem(4, false).list(true, new Path(root.toURI()));
+
+    assertEquals(5, sequential.size());
+    assertEquals(sequential, parallel);
+  }
+
+  @Test
+  public void testListingCacheIsValidatedByModificationTime() throws Exception {
+    DirectoryListingCache.INSTANCE.invalidateAll();
+    File root = Files.createTempDir();
+    File dir = new File(root, "dir");
+    touch(dir, "1");
+
+    DrillFileSystem fs = newFileSystem(4, true);
+    assertEquals(1, fs.list(true, new Path(root.toURI())).size());
+
+    // new entries change the modification time of their directory; set it explicitly as the file system
+    // may only keep it at a granularity of seconds
+    long modified = dir.lastModified();
+    touch(dir, "2");
+    dir.setLastModified(modified + 2000);
+    assertEquals(2, fs.list(true, new Path(root.toURI())).size());
+
+    File sub = new File(dir, "sub");
+    touch(sub, "3");
+    dir.setLastModified(modified + 4000);
+    assertEquals(3, fs.list(true, new Path(root.toURI())).size());
+
+    // a change two levels down leaves the cached listings of root and dir valid, and with them the outdated
+    // status of sub they hold
+    long subModified = sub.lastModified();
+    touch(sub, "4");
+    sub.setLastModified(subModified + 2000);
+    assertEquals(4, fs.list(true, new Path(root.toURI())).size());
+  }
+
   @AfterClass
   public static void deleteTempFile() throws Exception {
     new File(tempFilePath).delete();
@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.store.parquet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.drill.common.config.DrillConfig;
+import org.apache.drill.exec.expr.holders.IntHolder;
+import org.apache.drill.exec.memory.BufferAllocator;
+import org.apache.drill.exec.memory.RootAllocatorFactory;
+import org.apache.drill.exec.record.MaterializedField;
+import org.apache.drill.exec.vector.IntVector;
+import org.apache.drill.exec.vector.ValueVector;
+import org.junit.Test;
+
+public class TestParquetWritePipeline {
+
+  @Test
+  public void closeWaitsForRowGroupWritesAfterAFailure() throws Exception {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final ParquetWritePipeline pipeline = new ParquetWritePipeline(executor, executor, null, 1);
+      pipeline.writeRowGroup(new Callable<Void>() {
+        @Override
+        public Void call() throws IOException {
+          throw new IOException("disk full");
+        }
+      });
+      try {
+        pipeline.writeRowGroup(new Callable<Void>() {
+          @Override
+          public Void call() {
+            return null;
+          }
+        });
+        fail("the failed write should have been reported");
+      } catch (IOException e) {
+        assertEquals("disk full", e.getMessage());
+      }
+
+      final CountDownLatch release = new CountDownLatch(1);
+      final AtomicBoolean written = new AtomicBoolean();
+      pipeline.writeRowGroup(new Callable<Void>() {
+        @Override
+        public Void call() throws InterruptedException {
+          release.await();
+          written.set(true);
+          return null;
+        }
+      });
+      new Thread() {
+        @Override
+        public void run() {
+          try {
+            Thread.sleep(100);
+          } catch (InterruptedException e) {
+            // release the write right away
+          }
+          release.countDown();
+        }
+      }.start();
+
+      // a cancelled fragment cleans up with its interrupt flag set
+      Thread.currentThread().interrupt();
+      pipeline.close();
+      assertTrue("the interrupt should be kept", Thread.interrupted());
+      assertTrue("close should wait for the running write", written.get());
+    } finally {
+      executor.shutdownNow();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void failedSubmitReleasesTheBatch() throws Exception {
+    final Executor rejecting = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        throw new RejectedExecutionException("compression pool is shut down");
+      }
+    };
+    final BufferAllocator allocator = RootAllocatorFactory.newRoot(DrillConfig.create());
+    try {
+      // a budget of one byte blocks every batch while another one is held
+      final ParquetWritePipeline pipeline = new ParquetWritePipeline(rejecting, null, allocator, 1);
+      final List<ParquetColumnChunkWriter> columnWriters =
+          Collections.<ParquetColumnChunkWriter>singletonList(null);
+      for (int i = 0; i < 2; i++) {
+        final IntVector vector = new IntVector(MaterializedField.create("a", IntHolder.TYPE), allocator);
+        try {
+          vector.allocateNew(100);
+          vector.getMutator().setValueCount(100);
+          pipeline.submitBatch(columnWriters, Collections.<ValueVector>singletonList(vector), 100);
+          fail("the rejected column task should have been reported");
+        } catch (RejectedExecutionException e) {
+          // expected
+        } finally {
+          vector.clear();
+        }
+      }
+      pipeline.close();
+      assertEquals("the vectors taken over should have been released", 0, allocator.getAllocatedMemory());
+    } finally {
+      allocator.close();
+    }
+  }
+}
@@ -66,4 +66,19 @@ public class TestSystemTable extends BaseTestQuery {
   public void memoryTable() throws Exception {
     test("select * from sys.memory");
   }
+
+  @Test
+  public void allocatorsTable() throws Exception {
+    test("select * from sys.allocators");
+  }
+
+  @Test
+  public void queriesTable() throws Exception {
+    test("select * from sys.queries");
+  }
+
+  @Test
+  public void planCacheTable() throws Exception {
+    test("select * from sys.plan_cache");
+  }
 }
@@ -0,0 +1,56 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.drill.common.expression.FieldReference;
+import org.apache.drill.common.expression.SchemaPath;
+import org.apache.drill.common.logical.data.JoinCondition;
+import org.apache.drill.common.logical.data.NamedExpression;
+import org.apache.drill.exec.physical.config.Filter;
+import org.apache.drill.exec.physical.config.HashJoinPOP;
+import org.apache.drill.exec.physical.config.Project;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class TestMemoryAllocationUtilities {
+
+  private static NamedExpression column(String name) {
+    return new NamedExpression(SchemaPath.getSimplePath(name), new FieldReference(name));
+  }
+
+  @Test
+  public void testEstimateFieldCount() {
+    final Project narrow = new Project(ImmutableList.of(column("a"), column("b")), null);
+    final Project star = new Project(ImmutableList.of(column("c"), column("*")), null);
+    assertEquals(2, MemoryAllocationUtilities.estimateFieldCount(narrow));
+    assertEquals(1 + MemoryAllocationUtilities.UNKNOWN_FIELD_COUNT,
+        MemoryAllocationUtilities.estimateFieldCount(star));
+
+    // operators passing rows on have the fields of their input, joins those of both inputs
+    assertEquals(2, MemoryAllocationUtilities.estimateFieldCount(
+        new Filter(narrow, SchemaPath.getSimplePath("a"), 0.5f)));
+    assertEquals(3 + MemoryAllocationUtilities.UNKNOWN_FIELD_COUNT, MemoryAllocationUtilities.estimateFieldCount(
+        new HashJoinPOP(narrow, star, Collections.<JoinCondition>emptyList(), JoinRelType.INNER)));
+  }
+}
@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.foreman;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.drill.exec.coord.DistributedSemaphore.DistributedLease;
+import org.apache.drill.exec.coord.local.LocalClusterCoordinator;
+import org.apache.drill.exec.proto.UserBitShared.QueryId;
+import org.junit.Test;
+
+public class TestQueryQueue {
+
+  private static final long POOL_SIZE = 4 * QueryQueue.MEMORY_UNIT;
+
+  private static QueryId queryId(final long id) {
+    return QueryId.newBuilder().setPart1(id).setPart2(id).build();
+  }
+
+  @Test
+  public void admitWithinPool() throws Exception {
+    try (final LocalClusterCoordinator coordinator = new LocalClusterCoordinator()) {
+      final QueryQueue queue = new QueryQueue(coordinator);
+      final DistributedLease lease1 = queue.admit(queryId(1), "user", 5, 2 * QueryQueue.MEMORY_UNIT, POOL_SIZE, 1000);
+      final DistributedLease lease2 = queue.admit(queryId(2), "user", 5, 2 * QueryQueue.MEMORY_UNIT, POOL_SIZE, 1000);
+      assertNotNull(lease1);
+      assertNotNull(lease2);
+      assertEquals(2, queue.getQueries().size());
+      assertEquals(QueryQueue.State.ADMITTED, queue.getQueries().get(0).state);
+
+      lease1.close();
+      lease2.close();
+      assertTrue(queue.getQueries().isEmpty());
+    }
+  }
+
+  @Test
+  public void timeoutWhenPoolExhausted() throws Exception {
+    try (final LocalClusterCoordinator coordinator = new LocalClusterCoordinator()) {
+      final QueryQueue queue = new QueryQueue(coordinator);
+      final DistributedLease lease = queue.admit(queryId(1), "user", 5, POOL_SIZE, POOL_SIZE, 1000);
+      assertNotNull(lease);
+
+      // the pool is fully reserved, so even the smallest query has to wait
+      assertNull(queue.admit(queryId(2), "user", 5, 1, POOL_SIZE, 100));
+      assertEquals(1, queue.getQueries().size());
+
+      lease.close();
+      final DistributedLease next = queue.admit(queryId(3), "user", 5, 1, POOL_SIZE, 100);
+      assertNotNull(next);
+      next.close();
+    }
+  }
+
+  @Test
+  public void estimateLargerThanPoolIsCapped() throws Exception {
+    try (final LocalClusterCoordinator coordinator = new LocalClusterCoordinator()) {
+      final QueryQueue queue = new QueryQueue(coordinator);
+      final DistributedLease lease = queue.admit(queryId(1), "user", 5, 10 * POOL_SIZE, POOL_SIZE, 100);
+      assertNotNull(lease);
+      assertEquals(POOL_SIZE, queue.getQueries().get(0).reservedMemory);
+      lease.close();
+    }
+  }
+
+  @Test
+  public void laterQueryGoesAheadOfBlockedHead() throws Exception {
+    try (final LocalClusterCoordinator coordinator = new LocalClusterCoordinator()) {
+      final QueryQueue queue = new QueryQueue(coordinator);
+      final DistributedLease lease = queue.admit(queryId(1), "user", 5, 3 * QueryQueue.MEMORY_UNIT, POOL_SIZE, 1000);
+      assertNotNull(lease);
+
+      // the whole pool is needed, so this query is first in line until the first one completes
+      final AtomicReference<DistributedLease> largeLease = new AtomicReference<>();
+      final Thread large = new Thread() {
+        @Override
+        public void run() {
+          try {
+            largeLease.set(queue.admit(queryId(2), "user", 5, POOL_SIZE, POOL_SIZE, 10000));
+          } catch (final Exception e) {
+            throw new RuntimeException(e);
+          }
+        }
+      };
+      large.start();
+      while (queue.getQueries().size() < 2) {
+        Thread.sleep(10);
+      }
+
+      // a query that fits in the remaining unit is admitted ahead of the blocked one
+      final DistributedLease small = queue.admit(queryId(3), "user", 5, QueryQueue.MEMORY_UNIT, POOL_SIZE, 1000);
+      assertNotNull(small);
+
+      small.close();
+      lease.close();
+      large.join();
+      assertNotNull(largeLease.get());
+      largeLease.get().close();
+      assertTrue(queue.getQueries().isEmpty());
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.work.foreman;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.drill.BaseTestQuery;
+import org.apache.drill.exec.ExecConstants;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestResultCache extends BaseTestQuery {
+
+  @BeforeClass
+  public static void enableResultCache() throws Exception {
+    test("alter system set `%s` = true", ExecConstants.RESULT_CACHE_ENABLE.getOptionName());
+  }
+
+  @AfterClass
+  public static void resetResultCache() throws Exception {
+    test("alter system reset `%s`", ExecConstants.RESULT_CACHE_ENABLE.getOptionName());
+  }
+
+  @Before
+  public void clearResultCache() {
+    getDrillbitContext().getResultCache().invalidateAll();
+  }
+
+  private static long getHits() {
+    long hits = 0;
+    for (ResultCache.Entry entry : getDrillbitContext().getResultCache().getEntries()) {
+      hits += entry.getHits();
+    }
+    return hits;
+  }
+
+  @Test
+  public void testCachedResultIsReplayed() throws Exception {
+    test("create table dfs_test.tmp.result_cache_replay as select * from cp.`tpch/nation.parquet`");
+    final String query = "select n_name from dfs_test.tmp.result_cache_replay where n_regionkey = 1";
+
+    for (int i = 0; i < 2; i++) {
+      testBuilder()
+          .sqlQuery(query)
+          .unOrdered()
+          .sqlBaselineQuery("select n_name from cp.`tpch/nation.parquet` where n_regionkey = 1")
+          .go();
+    }
+    assertEquals(1, getHits());
+  }
+
+  @Test
+  public void testChangedInputIsNotServedFromCache() throws Exception {
+    test("create table dfs_test.tmp.`result_cache_stale/a` as select * from cp.`tpch/region.parquet`");
+    final String query = "select count(*) as cnt from dfs_test.tmp.result_cache_stale";
+
+    testBuilder()
+        .sqlQuery(query)
+        .unOrdered()
+        .baselineColumns("cnt")
+        .baselineValues(5L)
+        .go();
+
+    test("create table dfs_test.tmp.`result_cache_stale/b` as select * from cp.`tpch/region.parquet`");
+
+    testBuilder()
+        .sqlQuery(query)
+        .unOrdered()
+        .baselineColumns("cnt")
+        .baselineValues(10L)
+        .go();
+    assertEquals(0, getHits());
+  }
+
+  @Test
+  public void testOversizedResultIsNotCached() throws Exception {
+    test("create table dfs_test.tmp.result_cache_large as select * from cp.`tpch/nation.parquet`");
+    try {
+      test("alter session set `%s` = 16", ExecConstants.RESULT_CACHE_MAX_ENTRY_SIZE.getOptionName());
+      test("select * from dfs_test.tmp.result_cache_large");
+      assertEquals(0, getDrillbitContext().getResultCache().getEntries().size());
+    } finally {
+      test("alter session reset `%s`", ExecConstants.RESULT_CACHE_MAX_ENTRY_SIZE.getOptionName());
+    }
+  }
+
+  @Test
+  public void testNonDeterministicQueryIsNotCached() throws Exception {
+    test("create table dfs_test.tmp.result_cache_random as select * from cp.`tpch/region.parquet`");
+    test("select r_name, random() as r from dfs_test.tmp.result_cache_random");
+    test("select r_name, now() as t from dfs_test.tmp.result_cache_random");
+    assertEquals(0, getDrillbitContext().getResultCache().getEntries().size());
+  }
+
+  @Test
+  public void testRepeatedCtasIsNotReplayed() throws Exception {
+    test("create table dfs_test.tmp.result_cache_ctas_source as select * from cp.`tpch/region.parquet`");
+    final String ctas = "create table dfs_test.tmp.result_cache_ctas as select * from dfs_test.tmp.result_cache_ctas_source";
+    test(ctas);
+    test("drop table dfs_test.tmp.result_cache_ctas");
+    test(ctas);
+    assertEquals(0, getDrillbitContext().getResultCache().getEntries().size());
+
+    // the second CTAS must have written the table again
+    testBuilder()
+        .sqlQuery("select count(*) as cnt from dfs_test.tmp.result_cache_ctas")
+        .unOrdered()
+        .baselineColumns("cnt")
+        .baselineValues(5L)
+        .go();
+  }
+}
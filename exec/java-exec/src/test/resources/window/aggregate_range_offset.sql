@@ -0,0 +1,6 @@
+SELECT
+	line_no,
+	SUM(salary) OVER(PARTITION BY position_id ORDER BY sub RANGE BETWEEN 2 PRECEDING AND 1 FOLLOWING) AS `sum`,
+	COUNT(*) OVER(PARTITION BY position_id ORDER BY sub RANGE BETWEEN 2 PRECEDING AND 1 FOLLOWING) AS `count`
+FROM
+	%s
\ No newline at end of file
@@ -0,0 +1,11 @@
+SELECT
+	a.line_no,
+	SUM(b.salary) AS `sum`,
+	COUNT(*) AS `count`
+FROM
+	%1$s a,
+	%1$s b
+WHERE
+	a.position_id = b.position_id AND b.sub BETWEEN a.sub - 2 AND a.sub + 1
+GROUP BY
+	a.line_no
\ No newline at end of file
@@ -0,0 +1,8 @@
+SELECT
+	line_no,
+	SUM(salary) OVER(PARTITION BY position_id ORDER BY line_no ROWS BETWEEN 2 PRECEDING AND 1 FOLLOWING) AS `sum`,
+	COUNT(*) OVER(PARTITION BY position_id ORDER BY line_no ROWS BETWEEN 2 PRECEDING AND 1 FOLLOWING) AS `count`,
+	MIN(salary) OVER(PARTITION BY position_id ORDER BY line_no ROWS BETWEEN 2 PRECEDING AND 1 FOLLOWING) AS `min`,
+	MAX(salary) OVER(PARTITION BY position_id ORDER BY line_no ROWS BETWEEN 2 PRECEDING AND 1 FOLLOWING) AS `max`
+FROM
+	%s
\ No newline at end of file
@@ -0,0 +1,13 @@
+SELECT
+	a.line_no,
+	SUM(b.salary) AS `sum`,
+	COUNT(*) AS `count`,
+	MIN(b.salary) AS `min`,
+	MAX(b.salary) AS `max`
+FROM
+	(SELECT line_no, position_id, ROW_NUMBER() OVER(PARTITION BY position_id ORDER BY line_no) AS rn FROM %1$s) a,
+	(SELECT salary, position_id, ROW_NUMBER() OVER(PARTITION BY position_id ORDER BY line_no) AS rn FROM %1$s) b
+WHERE
+	a.position_id = b.position_id AND b.rn BETWEEN a.rn - 2 AND a.rn + 1
+GROUP BY
+	a.line_no
\ No newline at end of file
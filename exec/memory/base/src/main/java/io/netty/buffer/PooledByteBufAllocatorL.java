@@ -21,6 +21,8 @@ import io.netty.util.internal.StringUtil;
 
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.drill.exec.exception.OutOfMemoryException;
@@ -39,6 +41,9 @@ public class PooledByteBufAllocatorL {
 
   private static final int MEMORY_LOGGER_FREQUENCY_SECONDS = 60;
 
+  // names of the chunk lists held by each PoolArena, from least to most used.
+  private static final String[] CHUNK_LISTS = { "qInit", "q000", "q025", "q050", "q075", "q100" };
+
 
   public static final String METRIC_PREFIX = "drill.allocator.";
 
@@ -70,6 +75,38 @@ public class PooledByteBufAllocatorL {
     return allocator.chunkSize;
   }
 
+  /**
+   * Returns a snapshot of the chunk usage of each direct arena. Used for diagnosing fragmentation of pooled memory.
+   */
+  public List<ArenaStats> getArenaStats() {
+    return allocator.getArenaStats();
+  }
+
+  /**
+   * Usage of a single direct arena: the number of chunks it holds and how many bytes of those chunks are unused. A high
+   * free ratio with many chunks means memory is stranded in partially used chunks.
+   */
+  public static class ArenaStats {
+    public final int arena;
+    public final int chunkCount;
+    public final long chunkBytes;
+    public final long freeBytes;
+
+    ArenaStats(int arena, int chunkCount, long chunkBytes, long freeBytes) {
+      this.arena = arena;
+      this.chunkCount = chunkCount;
+      this.chunkBytes = chunkBytes;
+      this.freeBytes = freeBytes;
+    }
+
+    /**
+     * Fraction of the bytes held in chunks that is not in use, or 0 when the arena holds no chunks.
+     */
+    public double getFragmentation() {
+      return chunkBytes == 0 ? 0 : (double) freeBytes / chunkBytes;
+    }
+  }
+
   private class InnerAllocator extends PooledByteBufAllocator {
 
 
@@ -182,6 +219,43 @@ public class PooledByteBufAllocatorL {
       }
     }
 
+    private List<ArenaStats> getArenaStats() {
+      final List<ArenaStats> stats = new ArrayList<>(directArenas.length);
+      for (int i = 0; i < directArenas.length; i++) {
+        final PoolArena<ByteBuffer> arena = directArenas[i];
+        int chunkCount = 0;
+        long freeBytes = 0;
+        try {
+          // arenas mutate their chunk lists while holding their own monitor.
+          synchronized (arena) {
+            for (String listName : CHUNK_LISTS) {
+              Object chunk = readField(readField(arena, PoolArena.class, listName), PoolChunkList.class, "head");
+              while (chunk != null) {
+                chunkCount++;
+                freeBytes += ((Number) readField(chunk, PoolChunk.class, "freeBytes")).longValue();
+                chunk = readField(chunk, PoolChunk.class, "next");
+              }
+            }
+          }
+        } catch (ReflectiveOperationException e) {
+          memoryLogger.debug("Unable to inspect chunk lists of direct arena {}.", i, e);
+          stats.add(new ArenaStats(i, -1, -1, -1));
+          continue;
+        }
+        stats.add(new ArenaStats(i, chunkCount, (long) chunkCount * chunkSize, freeBytes));
+      }
+      return stats;
+    }
+
+    private Object readField(Object target, Class<?> clazz, String name) throws ReflectiveOperationException {
+      if (target == null) {
+        return null;
+      }
+      final Field f = clazz.getDeclaredField(name);
+      f.setAccessible(true);
+      return f.get(target);
+    }
+
     private UnsupportedOperationException fail() {
       return new UnsupportedOperationException(
           "Drill requries that the JVM used supports access sun.misc.Unsafe.  This platform didn't provide that functionality.");
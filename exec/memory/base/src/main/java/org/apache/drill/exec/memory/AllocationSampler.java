@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Low overhead sampler of allocation call sites. Every Nth successful buffer allocation (where N is configured through
+ * the {@value #SAMPLE_RATE_PROPERTY} system property) captures the first stack frame outside of the memory subsystem
+ * and accumulates count and bytes for that frame. Sampling is disabled when the rate is zero, which is the default, in
+ * which case the cost of a sample call is a single branch.
+ */
+public class AllocationSampler {
+  // private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(AllocationSampler.class);
+
+  public static final String SAMPLE_RATE_PROPERTY = "drill.memory.debug.allocation_sample_rate";
+
+  /**
+   * Upper bound on distinct call sites kept. Samples for new sites beyond this bound are folded into
+   * {@link #OTHER_SITES}.
+   */
+  static final int MAX_CALL_SITES = 1024;
+  static final String OTHER_SITES = "<other>";
+
+  private final int sampleRate;
+  private final AtomicLong allocationCount = new AtomicLong();
+  private final ConcurrentMap<String, CallSite> callSites = new ConcurrentHashMap<>();
+
+  public AllocationSampler() {
+    this(Integer.getInteger(SAMPLE_RATE_PROPERTY, 0));
+  }
+
+  public AllocationSampler(final int sampleRate) {
+    this.sampleRate = Math.max(0, sampleRate);
+  }
+
+  public boolean isEnabled() {
+    return sampleRate > 0;
+  }
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  /**
+   * Record an allocation of the given size, capturing its call site if this allocation is selected for sampling.
+   *
+   * @param size
+   *          the size of the allocated buffer in bytes
+   */
+  void sample(final int size) {
+    if (sampleRate == 0 || allocationCount.incrementAndGet() % sampleRate != 0) {
+      return;
+    }
+
+    String site = findCallSite(new Throwable().getStackTrace());
+    CallSite callSite = callSites.get(site);
+    if (callSite == null) {
+      if (callSites.size() >= MAX_CALL_SITES) {
+        site = OTHER_SITES;
+      }
+      final CallSite newSite = new CallSite(site);
+      callSite = callSites.putIfAbsent(site, newSite);
+      if (callSite == null) {
+        callSite = newSite;
+      }
+    }
+    callSite.record(size);
+  }
+
+  private static String findCallSite(final StackTraceElement[] stack) {
+    for (final StackTraceElement element : stack) {
+      final String className = element.getClassName();
+      if (!className.startsWith("org.apache.drill.exec.memory.")
+          && !className.startsWith("io.netty.buffer.")
+          && !className.startsWith("org.apache.drill.exec.ops.BufferManager")) {
+        return element.toString();
+      }
+    }
+    return OTHER_SITES;
+  }
+
+  /**
+   * Returns the sampled call sites, ordered by decreasing sampled bytes.
+   */
+  public List<CallSite> getCallSites() {
+    final List<CallSite> sites = new ArrayList<>(callSites.values());
+    Collections.sort(sites, new Comparator<CallSite>() {
+      @Override
+      public int compare(final CallSite o1, final CallSite o2) {
+        return Long.compare(o2.getBytes(), o1.getBytes());
+      }
+    });
+    return sites;
+  }
+
+  /**
+   * Forget all previously sampled call sites.
+   */
+  public void reset() {
+    callSites.clear();
+  }
+
+  /**
+   * Sampled allocation statistics for a single call site. Counts are in sampled allocations; multiply by the sample
+   * rate to estimate totals.
+   */
+  public static class CallSite {
+    private final String site;
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    CallSite(final String site) {
+      this.site = site;
+    }
+
+    void record(final int size) {
+      samples.incrementAndGet();
+      bytes.addAndGet(size);
+    }
+
+    public String getSite() {
+      return site;
+    }
+
+    public long getSamples() {
+      return samples.get();
+    }
+
+    public long getBytes() {
+      return bytes.get();
+    }
+  }
+}
@@ -21,7 +21,9 @@ import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.DrillBuf;
 import io.netty.buffer.UnsafeDirectLittleEndian;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.IdentityHashMap;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -86,14 +88,15 @@ public abstract class BaseAllocator extends Accountant implements BufferAllocato
 
     this.thisAsByteBufAllocator = new DrillByteBufAllocator(this);
 
+    // child allocators are always tracked so that the live allocator tree can be inspected (sys.allocators)
+    childAllocators = new IdentityHashMap<>();
+
     if (DEBUG) {
-      childAllocators = new IdentityHashMap<>();
       reservations = new IdentityHashMap<>();
       childLedgers = new IdentityHashMap<>();
       historicalLog = new HistoricalLog(DEBUG_LOG_LENGTH, "allocator[%s]", name);
       hist("created by \"%s\", owned = %d", name, this.getAllocatedMemory());
     } else {
-      childAllocators = null;
       reservations = null;
       historicalLog = null;
       childLedgers = null;
@@ -158,21 +161,39 @@ public abstract class BaseAllocator extends Accountant implements BufferAllocato
    */
   private void childClosed(final BaseAllocator childAllocator) {
     assertOpen();
+    Preconditions.checkArgument(childAllocator != null, "child allocator can't be null");
 
-    if (DEBUG) {
-      Preconditions.checkArgument(childAllocator != null, "child allocator can't be null");
+    final Object object;
+    synchronized (childAllocators) {
+      object = childAllocators.remove(childAllocator);
+    }
 
-      synchronized (DEBUG_LOCK) {
-        final Object object = childAllocators.remove(childAllocator);
-        if (object == null) {
-          childAllocator.historicalLog.logHistory(logger);
-          throw new IllegalStateException("Child allocator[" + childAllocator.name
-              + "] not found in parent allocator[" + name + "]'s childAllocators");
-        }
-      }
+    if (DEBUG && object == null) {
+      childAllocator.historicalLog.logHistory(logger);
+      throw new IllegalStateException("Child allocator[" + childAllocator.name
+          + "] not found in parent allocator[" + name + "]'s childAllocators");
+    }
+  }
+
+  /**
+   * Returns a snapshot of the currently open child allocators of this allocator.
+   */
+  private Collection<BaseAllocator> childSnapshot() {
+    synchronized (childAllocators) {
+      return new ArrayList<>(childAllocators.keySet());
     }
   }
 
+  @Override
+  public Collection<BufferAllocator> getChildAllocators() {
+    return new ArrayList<BufferAllocator>(childSnapshot());
+  }
+
+  @Override
+  public BufferAllocator getParentAllocator() {
+    return parentAllocator;
+  }
+
   private static String createErrorMsg(final BufferAllocator allocator, final int rounded, final int requested) {
     if (rounded != requested) {
       return String.format(
@@ -219,6 +240,7 @@ public abstract class BaseAllocator extends Accountant implements BufferAllocato
     boolean success = false;
     try {
       DrillBuf buffer = bufferWithoutReservation(actualRequestSize, manager);
+      root.getAllocationSampler().sample(actualRequestSize);
       success = true;
       return buffer;
     } finally {
@@ -261,9 +283,12 @@ public abstract class BaseAllocator extends Accountant implements BufferAllocato
 
     final ChildAllocator childAllocator = new ChildAllocator(this, name, initReservation, maxAllocation);
 
+    synchronized (childAllocators) {
+      childAllocators.put(childAllocator, childAllocator);
+    }
+
     if (DEBUG) {
       synchronized (DEBUG_LOCK) {
-        childAllocators.put(childAllocator, childAllocator);
         historicalLog.recordEvent("allocator[%s] created new child allocator[%s]", name, childAllocator.name);
       }
     }
@@ -456,8 +481,9 @@ public abstract class BaseAllocator extends Accountant implements BufferAllocato
         verifyAllocator();
 
         // are there outstanding child allocators?
-        if (!childAllocators.isEmpty()) {
-          for (final BaseAllocator childAllocator : childAllocators.keySet()) {
+        final Collection<BaseAllocator> children = childSnapshot();
+        if (!children.isEmpty()) {
+          for (final BaseAllocator childAllocator : children) {
             if (childAllocator.isClosed) {
               logger.warn(String.format(
                   "Closed child allocator[%s] on parent allocator[%s]'s child list.\n%s",
@@ -587,7 +613,7 @@ public abstract class BaseAllocator extends Accountant implements BufferAllocato
       final long allocated = getAllocatedMemory();
 
       // verify my direct descendants
-      final Set<BaseAllocator> childSet = childAllocators.keySet();
+      final Collection<BaseAllocator> childSet = childSnapshot();
       for (final BaseAllocator childAllocator : childSet) {
         childAllocator.verifyAllocator(buffersSeen);
       }
@@ -718,8 +744,9 @@ public abstract class BaseAllocator extends Accountant implements BufferAllocato
         .append('\n');
 
     if (DEBUG) {
-      indent(sb, level + 1).append(String.format("child allocators: %d\n", childAllocators.size()));
-      for (BaseAllocator child : childAllocators.keySet()) {
+      final Collection<BaseAllocator> children = childSnapshot();
+      indent(sb, level + 1).append(String.format("child allocators: %d\n", children.size()));
+      for (BaseAllocator child : children) {
         child.print(sb, level + 2, verbosity);
       }
 
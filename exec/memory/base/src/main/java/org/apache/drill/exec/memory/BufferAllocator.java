@@ -20,6 +20,8 @@ package org.apache.drill.exec.memory;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.DrillBuf;
 
+import java.util.Collection;
+
 import org.apache.drill.exec.exception.OutOfMemoryException;
 import org.apache.drill.exec.ops.BufferManager;
 
@@ -132,6 +134,16 @@ public interface BufferAllocator extends AutoCloseable {
    */
   public String getName();
 
+  /**
+   * Return the allocator this allocator was created from, or null if this is a root allocator.
+   */
+  public BufferAllocator getParentAllocator();
+
+  /**
+   * Return a snapshot of the child allocators of this allocator that are currently open.
+   */
+  public Collection<BufferAllocator> getChildAllocators();
+
   /**
    * Return whether or not this allocator (or one if its parents) is over its limits. In the case that an allocator is
    * over its limit, all consumers of that allocator should aggressively try to addrss the overlimit situation.
@@ -17,6 +17,10 @@
  */
 package org.apache.drill.exec.memory;
 
+import io.netty.buffer.PooledByteBufAllocatorL.ArenaStats;
+
+import java.util.List;
+
 import com.codahale.metrics.Gauge;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.drill.exec.metrics.DrillMetrics;
@@ -27,6 +31,8 @@ import org.apache.drill.exec.metrics.DrillMetrics;
  */
 public class RootAllocator extends BaseAllocator {
 
+  private final AllocationSampler sampler = new AllocationSampler();
+
   public RootAllocator(final long limit) {
     super(null, "ROOT", 0, limit);
     DrillMetrics.register("drill.allocator.root.used", new Gauge<Long>() {
@@ -43,6 +49,20 @@ public class RootAllocator extends BaseAllocator {
     });
   }
 
+  /**
+   * Return the sampler of allocation call sites shared by all allocators descending from this root.
+   */
+  public AllocationSampler getAllocationSampler() {
+    return sampler;
+  }
+
+  /**
+   * Return a snapshot of the usage and fragmentation of the pooled direct memory arenas backing all allocators.
+   */
+  public List<ArenaStats> getArenaStats() {
+    return AllocationManager.INNER_ALLOCATOR.getArenaStats();
+  }
+
   /**
    * Verify the accounting state of the allocation system.
    */
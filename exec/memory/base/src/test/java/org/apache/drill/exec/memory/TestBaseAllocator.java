@@ -75,6 +75,34 @@ public class TestBaseAllocator {
     }
   }
 
+  @Test
+  public void testChildAllocatorTracking() throws Exception {
+    try (final RootAllocator rootAllocator = new RootAllocator(MAX_ALLOCATION)) {
+      final BufferAllocator childAllocator = rootAllocator.newChildAllocator("tracked", 0, MAX_ALLOCATION);
+      assertEquals(1, rootAllocator.getChildAllocators().size());
+      assertTrue(rootAllocator.getChildAllocators().contains(childAllocator));
+      assertEquals(rootAllocator, childAllocator.getParentAllocator());
+
+      childAllocator.close();
+      assertTrue(rootAllocator.getChildAllocators().isEmpty());
+    }
+  }
+
+  @Test
+  public void testAllocationSampler() throws Exception {
+    final AllocationSampler sampler = new AllocationSampler(2);
+    for (int i = 0; i < 4; i++) {
+      sampler.sample(16);
+    }
+    assertEquals(1, sampler.getCallSites().size());
+    assertEquals(2, sampler.getCallSites().get(0).getSamples());
+    assertEquals(32, sampler.getCallSites().get(0).getBytes());
+
+    final AllocationSampler disabled = new AllocationSampler(0);
+    disabled.sample(16);
+    assertTrue(disabled.getCallSites().isEmpty());
+  }
+
   @Test(expected=IllegalStateException.class)
   public void testRootAllocator_closeWithOutstanding() throws Exception {
     try {
@@ -40,7 +40,7 @@ package org.apache.drill.exec.vector;
  *
  * NB: this class is automatically generated from ${.template_name} and ValueVectorTypes.tdd using FreeMarker.
  */
-public final class ${minor.class}Vector extends BaseDataValueVector implements FixedWidthVector{
+public final class ${minor.class}Vector extends BaseDataValueVector implements FixedWidthVector, BulkCopyableVector{
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(${minor.class}Vector.class);
 
   private final FieldReader reader = new ${minor.class}ReaderImpl(${minor.class}Vector.this);
@@ -276,6 +276,24 @@ public final class ${minor.class}Vector extends BaseDataValueVector implements F
     copyFrom(fromIndex, thisIndex, from);
   }
 
+  @Override
+  public void copyRangeSafe(int fromIndex, int thisIndex, int length, ValueVector from){
+    while(thisIndex + length > getValueCapacity()) {
+      reAlloc();
+    }
+    ((${minor.class}Vector) from).data.getBytes(fromIndex * ${type.width}, data, thisIndex * ${type.width}, length * ${type.width});
+  }
+
+  @Override
+  public void gatherSafe(ByteBuf sv2, int start, int count, int thisIndex, ValueVector from){
+    BulkCopyUtil.gather(this, sv2, start, count, thisIndex, from);
+  }
+
+  @Override
+  public void gatherHyperSafe(ByteBuf sv4, int start, int count, int thisIndex, ValueVector[] from){
+    BulkCopyUtil.gatherHyper(this, sv4, start, count, thisIndex, from);
+  }
+
   public void decrementAllocationMonitor() {
     if (allocationMonitor > 0) {
       allocationMonitor = 0;
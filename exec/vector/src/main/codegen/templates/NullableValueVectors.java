@@ -45,7 +45,7 @@ package org.apache.drill.exec.vector;
  * NB: this class is automatically generated from ${.template_name} and ValueVectorTypes.tdd using FreeMarker.
  */
 @SuppressWarnings("unused")
-public final class ${className} extends BaseDataValueVector implements <#if type.major == "VarLen">VariableWidth<#else>FixedWidth</#if>Vector, NullableVector{
+public final class ${className} extends BaseDataValueVector implements <#if type.major == "VarLen">VariableWidth<#else>FixedWidth</#if>Vector, NullableVector, BulkCopyableVector{
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(${className}.class);
 
   private final FieldReader reader = new Nullable${minor.class}ReaderImpl(Nullable${minor.class}Vector.this);
@@ -350,6 +350,29 @@ public final class ${className} extends BaseDataValueVector implements <#if type
     values.copyFromSafe(fromIndex, thisIndex, from.values);
   }
 
+  @Override
+  public void copyRangeSafe(int fromIndex, int thisIndex, int length, ValueVector from){
+    final Nullable${minor.class}Vector source = (Nullable${minor.class}Vector) from;
+    <#if type.major == "VarLen">
+    mutator.fillEmpties(thisIndex);
+    </#if>
+    bits.copyRangeSafe(fromIndex, thisIndex, length, source.bits);
+    values.copyRangeSafe(fromIndex, thisIndex, length, source.values);
+    <#if type.major == "VarLen">
+    mutator.lastSet = thisIndex + length - 1;
+    </#if>
+  }
+
+  @Override
+  public void gatherSafe(ByteBuf sv2, int start, int count, int thisIndex, ValueVector from){
+    BulkCopyUtil.gather(this, sv2, start, count, thisIndex, from);
+  }
+
+  @Override
+  public void gatherHyperSafe(ByteBuf sv4, int start, int count, int thisIndex, ValueVector[] from){
+    BulkCopyUtil.gatherHyper(this, sv4, start, count, thisIndex, from);
+  }
+
   public final class Accessor extends BaseDataValueVector.BaseAccessor <#if type.major = "VarLen">implements VariableWidthVector.VariableWidthAccessor</#if> {
     final UInt1Vector.Accessor bAccessor = bits.getAccessor();
     final ${valuesName}.Accessor vAccessor = values.getAccessor();
@@ -48,7 +48,7 @@ package org.apache.drill.exec.vector;
  *
  * NB: this class is automatically generated from ${.template_name} and ValueVectorTypes.tdd using FreeMarker.
  */
-public final class ${minor.class}Vector extends BaseDataValueVector implements VariableWidthVector{
+public final class ${minor.class}Vector extends BaseDataValueVector implements VariableWidthVector, BulkCopyableVector{
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(${minor.class}Vector.class);
 
   private static final int DEFAULT_RECORD_BYTE_COUNT = 8;
@@ -238,6 +238,39 @@ public final class ${minor.class}Vector extends BaseDataValueVector implements V
     return true;
   }
 
+  @Override
+  public void copyRangeSafe(int fromIndex, int thisIndex, int length, ValueVector from){
+    final ${minor.class}Vector source = (${minor.class}Vector) from;
+    final UInt${type.width}Vector.Accessor fromOffsetVectorAccessor = source.offsetVector.getAccessor();
+    final int start = fromOffsetVectorAccessor.get(fromIndex);
+    final int len = fromOffsetVectorAccessor.get(fromIndex + length) - start;
+    final int outputStart = offsetVector.data.get${(minor.javaType!type.javaType)?cap_first}(thisIndex * ${type.width});
+
+    while(data.capacity() < outputStart + len) {
+      reAlloc();
+    }
+    while(thisIndex + length >= offsetVector.getValueCapacity()) {
+      offsetVector.reAlloc();
+    }
+
+    source.data.getBytes(start, data, outputStart, len);
+    final int delta = outputStart - start;
+    for (int i = 1; i <= length; i++) {
+      offsetVector.data.set${(minor.javaType!type.javaType)?cap_first}((thisIndex + i) * ${type.width},
+          source.offsetVector.data.get${(minor.javaType!type.javaType)?cap_first}((fromIndex + i) * ${type.width}) + delta);
+    }
+  }
+
+  @Override
+  public void gatherSafe(ByteBuf sv2, int start, int count, int thisIndex, ValueVector from){
+    BulkCopyUtil.gather(this, sv2, start, count, thisIndex, from);
+  }
+
+  @Override
+  public void gatherHyperSafe(ByteBuf sv4, int start, int count, int thisIndex, ValueVector[] from){
+    BulkCopyUtil.gatherHyper(this, sv4, start, count, thisIndex, from);
+  }
+
   private class TransferImpl implements TransferPair{
     ${minor.class}Vector to;
 
@@ -18,6 +18,7 @@
 package org.apache.drill.exec.vector;
 
 import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.DrillBuf;
 
 import org.apache.drill.exec.exception.OversizedAllocationException;
@@ -36,7 +37,7 @@ import org.apache.drill.exec.vector.complex.reader.FieldReader;
  * of the vector. The width of each element is 1 bit. The equivalent Java primitive is an int containing the value '0'
  * or '1'.
  */
-public final class BitVector extends BaseDataValueVector implements FixedWidthVector {
+public final class BitVector extends BaseDataValueVector implements FixedWidthVector, BulkCopyableVector {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(BitVector.class);
 
   private final FieldReader reader = new BitReaderImpl(BitVector.this);
@@ -182,6 +183,35 @@ public final class BitVector extends BaseDataValueVector implements FixedWidthVe
     return true;
   }
 
+  /**
+   * Copies whole bytes when both ranges start on a byte boundary, and the remaining bits one at a time.
+   */
+  @Override
+  public void copyRangeSafe(int fromIndex, int thisIndex, int length, ValueVector from) {
+    final BitVector source = (BitVector) from;
+    while (thisIndex + length > getValueCapacity()) {
+      reAlloc();
+    }
+    int copied = 0;
+    if ((fromIndex & 7) == 0 && (thisIndex & 7) == 0) {
+      copied = length & ~7;
+      source.data.getBytes(fromIndex >> 3, data, thisIndex >> 3, copied >> 3);
+    }
+    for (int i = copied; i < length; i++) {
+      copyFrom(fromIndex + i, thisIndex + i, source);
+    }
+  }
+
+  @Override
+  public void gatherSafe(ByteBuf sv2, int start, int count, int thisIndex, ValueVector from) {
+    BulkCopyUtil.gather(this, sv2, start, count, thisIndex, from);
+  }
+
+  @Override
+  public void gatherHyperSafe(ByteBuf sv4, int start, int count, int thisIndex, ValueVector[] from) {
+    BulkCopyUtil.gatherHyper(this, sv4, start, count, thisIndex, from);
+  }
+
   @Override
   public void load(SerializedField metadata, DrillBuf buffer) {
     Preconditions.checkArgument(this.field.getPath().equals(metadata.getNamePart().getName()), "The field %s doesn't match the provided metadata %s.", this.field, metadata);
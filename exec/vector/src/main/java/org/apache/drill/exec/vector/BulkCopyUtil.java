@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.vector;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Shared gather loops for {@link BulkCopyableVector} implementations. Both split the selection into runs of
+ * consecutive source indexes and hand each run to {@link BulkCopyableVector#copyRangeSafe}. {@link #repeat} fills a
+ * run of positions with a single source value.
+ */
+public final class BulkCopyUtil {
+
+  private static final int SV2_ENTRY_SIZE = 2;
+  private static final int SV4_ENTRY_SIZE = 4;
+
+  private BulkCopyUtil() {
+  }
+
+  public static void gather(BulkCopyableVector to, ByteBuf sv2, int start, int count, int thisIndex, ValueVector from) {
+    int i = 0;
+    while (i < count) {
+      final int first = sv2.getChar((start + i) * SV2_ENTRY_SIZE);
+      int length = 1;
+      while (i + length < count && sv2.getChar((start + i + length) * SV2_ENTRY_SIZE) == first + length) {
+        length++;
+      }
+      to.copyRangeSafe(first, thisIndex + i, length, from);
+      i += length;
+    }
+  }
+
+  public static void gatherHyper(BulkCopyableVector to, ByteBuf sv4, int start, int count, int thisIndex,
+                                 ValueVector[] from) {
+    int i = 0;
+    while (i < count) {
+      final int first = sv4.getInt((start + i) * SV4_ENTRY_SIZE);
+      int length = 1;
+      while (i + length < count && ((first + length) & 0xFFFF) != 0
+          && sv4.getInt((start + i + length) * SV4_ENTRY_SIZE) == first + length) {
+        length++;
+      }
+      to.copyRangeSafe(first & 0xFFFF, thisIndex + i, length, from[first >>> 16]);
+      i += length;
+    }
+  }
+
+  /**
+   * Copies value {@code fromIndex} of {@code from} into the {@code count} positions of {@code to} starting at
+   * {@code thisIndex}. After the first value the filled part of {@code to} is copied onto the next positions, so a
+   * run of n values takes log2(n) range copies.
+   */
+  public static void repeat(BulkCopyableVector to, int fromIndex, int thisIndex, int count, ValueVector from) {
+    if (count == 0) {
+      return;
+    }
+    to.copyRangeSafe(fromIndex, thisIndex, 1, from);
+    int filled = 1;
+    while (filled < count) {
+      final int length = Math.min(filled, count - filled);
+      to.copyRangeSafe(thisIndex, thisIndex + filled, length, to);
+      filled += length;
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.drill.exec.vector;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * A vector that can copy whole ranges of values from another vector of the same type using bulk memory moves
+ * instead of one {@code copyFromSafe} call per value. Like {@code copyFromSafe}, all methods grow this vector as
+ * needed, but do not set its value count.
+ */
+public interface BulkCopyableVector extends ValueVector {
+
+  /**
+   * Copies {@code length} values of {@code from}, starting at {@code fromIndex}, into this vector starting at
+   * {@code thisIndex}.
+   */
+  void copyRangeSafe(int fromIndex, int thisIndex, int length, ValueVector from);
+
+  /**
+   * Copies the values of {@code from} selected by entries {@code [start, start + count)} of a two byte selection
+   * vector buffer into this vector starting at {@code thisIndex}. Runs of consecutive selected values are copied as
+   * one range.
+   */
+  void gatherSafe(ByteBuf sv2, int start, int count, int thisIndex, ValueVector from);
+
+  /**
+   * Copies the values selected by entries {@code [start, start + count)} of a four byte selection vector buffer into
+   * this vector starting at {@code thisIndex}. Each entry holds a batch index in its upper and a record index in its
+   * lower 16 bits; {@code from} holds one vector per batch.
+   */
+  void gatherHyperSafe(ByteBuf sv4, int start, int count, int thisIndex, ValueVector[] from);
+}